@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Configuration of asynchronous delivery of events to subscriber, see {@link EventService#subscribeAsync(EventSubscriber, AsyncDispatch)}.
+ * Each asynchronous subscriber has own bounded mailbox, events are delivered in the order they were published. This class defines
+ * capacity of mailbox and what to do when mailbox is full.
+ */
+public final class AsyncDispatch {
+    /** Defines behaviour of {@link EventService#publish(Object)} when mailbox of subscriber is full. */
+    public enum OverflowPolicy {
+        /** Publisher waits until subscriber processes some events. No events are lost. */
+        BLOCK,
+        /** The oldest event in mailbox is dropped to make room for the new one. */
+        DROP_OLDEST,
+        /**
+         * Event replaces an event with the same key that is waiting in mailbox, so subscriber gets only the latest one. If there is no
+         * such event and mailbox is full publisher waits as with {@link #BLOCK}.
+         */
+        COALESCE
+    }
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    /** Mailbox that blocks publisher when it is full. */
+    public static AsyncDispatch block(int capacity) {
+        return new AsyncDispatch(OverflowPolicy.BLOCK, capacity, null);
+    }
+
+    /** Mailbox that drops the oldest event when it is full. */
+    public static AsyncDispatch dropOldest(int capacity) {
+        return new AsyncDispatch(OverflowPolicy.DROP_OLDEST, capacity, null);
+    }
+
+    /**
+     * Mailbox that keeps only the latest event for each key.
+     *
+     * @param keyExtractor
+     *         gets key of event, events with equal keys replace each other
+     */
+    public static AsyncDispatch coalesce(int capacity, Function<Object, ?> keyExtractor) {
+        return new AsyncDispatch(OverflowPolicy.COALESCE, capacity, requireNonNull(keyExtractor, "Key extractor required"));
+    }
+
+    private final OverflowPolicy         overflowPolicy;
+    private final int                    capacity;
+    private final Function<Object, ?>    keyExtractor;
+
+    private AsyncDispatch(OverflowPolicy overflowPolicy, int capacity, Function<Object, ?> keyExtractor) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.capacity = capacity;
+        this.keyExtractor = keyExtractor;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Returns function that gets key of event for {@link OverflowPolicy#COALESCE} policy or {@code null} for other policies. */
+    public Function<Object, ?> getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof AsyncDispatch)) {
+            return false;
+        }
+        final AsyncDispatch other = (AsyncDispatch)obj;
+        return overflowPolicy == other.overflowPolicy
+               && capacity == other.capacity
+               && Objects.equals(keyExtractor, other.keyExtractor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(overflowPolicy, capacity, keyExtractor);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncDispatch{" +
+               "overflowPolicy=" + overflowPolicy +
+               ", capacity=" + capacity +
+               '}';
+    }
+}
@@ -13,13 +13,16 @@ package org.eclipse.che.api.core.notification;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -27,6 +30,8 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Dispatchers events to listeners. Usage example:
@@ -40,6 +45,9 @@ import java.util.concurrent.CopyOnWriteArraySet;
  *     });
  *     bus.publish(new MyEvent());
  * </pre>
+ * By default subscribers are called synchronously in the thread that publishes event. Subscribers that may be slow should be
+ * subscribed with {@link #subscribeAsync(EventSubscriber, AsyncDispatch)}, such subscribers get events in the same order they were
+ * published but in separate thread, see {@link SubscriberMailbox}.
  *
  * @author andrew00x
  */
@@ -53,10 +61,15 @@ public class EventService {
 
     private final LoadingCache<Class<?>, Set<Class<?>>>[]       typeCache;
     private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+    private final ConcurrentMap<EventSubscriber, SubscriberMailbox> mailboxes;
+
+    private ExecutorService asyncExecutor;
+    private boolean         stopped;
 
     @SuppressWarnings("unchecked")
     public EventService() {
         subscribersByEventType = new ConcurrentHashMap<>();
+        mailboxes = new ConcurrentHashMap<>();
         typeCache = new LoadingCache[CACHE_NUM];
         for (int i = 0; i < CACHE_NUM; i++) {
             typeCache[i] = CacheBuilder.newBuilder().concurrencyLevel(SEG_SIZE).build(
@@ -100,6 +113,12 @@ public class EventService {
             final Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
             if (eventSubscribers != null && !eventSubscribers.isEmpty()) {
                 for (EventSubscriber eventSubscriber : eventSubscribers) {
+                    final SubscriberMailbox mailbox = mailboxes.get(eventSubscriber);
+                    if (mailbox != null) {
+                        LOG.debug("Put event {} in mailbox of {}", event, eventSubscriber);
+                        mailbox.offer(event);
+                        continue;
+                    }
                     try {
                         LOG.debug("Publish event {} for {}", event, eventSubscriber);
                         eventSubscriber.onEvent(event);
@@ -134,6 +153,76 @@ public class EventService {
         doSubscribe(subscriber, eventType);
     }
 
+    /**
+     * Subscribe event listener that gets events asynchronously. The event to subscribe to is inferred by checking the generic type
+     * arguments of the given subscriber.
+     *
+     * @param subscriber
+     *         event subscriber
+     * @param dispatch
+     *         configuration of mailbox of subscriber
+     */
+    public void subscribeAsync(EventSubscriber<?> subscriber, AsyncDispatch dispatch) {
+        final Class<?> eventType = getEventType(subscriber);
+        doSubscribeAsync(subscriber, eventType, dispatch);
+    }
+
+    /**
+     * Subscribe to an event asynchronously. The given subscriber will get all instances of the specified event in the order they are
+     * published, but in a separate thread.
+     *
+     * @param subscriber The subscriber to call when an event is published.
+     * @param eventType The event to subscribe to.
+     * @param dispatch configuration of mailbox of subscriber
+     */
+    public <T> void subscribeAsync(EventSubscriber<? extends T> subscriber, Class<T> eventType, AsyncDispatch dispatch) {
+        doSubscribeAsync(subscriber, eventType, dispatch);
+    }
+
+    private void doSubscribeAsync(EventSubscriber<?> subscriber, Class<?> eventType, AsyncDispatch dispatch) {
+        final SubscriberMailbox mailbox = new SubscriberMailbox(subscriber, dispatch, getAsyncExecutor());
+        final SubscriberMailbox existing = mailboxes.putIfAbsent(subscriber, mailbox);
+        if (existing != null && !existing.getDispatch().equals(dispatch)) {
+            throw new IllegalArgumentException(String.format("Subscriber %s is already subscribed with %s", subscriber,
+                                                             existing.getDispatch()));
+        }
+        doSubscribe(subscriber, eventType);
+    }
+
+    private synchronized ExecutorService getAsyncExecutor() {
+        if (stopped) {
+            throw new IllegalStateException("Event service is stopped");
+        }
+        if (asyncExecutor == null) {
+            asyncExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("EventService-%d")
+                                                                                    .setDaemon(true)
+                                                                                    .build());
+        }
+        return asyncExecutor;
+    }
+
+    /** Returns mailbox of asynchronous subscriber or {@code null} if subscriber is not subscribed asynchronously. */
+    public SubscriberMailbox getMailbox(EventSubscriber<?> subscriber) {
+        return mailboxes.get(subscriber);
+    }
+
+    /** Returns mailboxes of all asynchronous subscribers, e.g. to collect metrics. */
+    public Collection<SubscriberMailbox> getMailboxes() {
+        return Collections.unmodifiableCollection(mailboxes.values());
+    }
+
+    /** Discards events that are not delivered to asynchronous subscribers yet and stops threads that deliver events. */
+    @PreDestroy
+    public synchronized void stop() {
+        stopped = true;
+        for (SubscriberMailbox mailbox : mailboxes.values()) {
+            mailbox.close();
+        }
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdownNow();
+        }
+    }
+
     private void doSubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
         Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries == null) {
@@ -163,6 +252,10 @@ public class EventService {
                 }
             }
         }
+        final SubscriberMailbox mailbox = mailboxes.remove(subscriber);
+        if (mailbox != null) {
+            mailbox.close();
+        }
     }
 
     private Class<?> getEventType(EventSubscriber<?> subscriber) {
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Bounded mailbox of asynchronous {@link EventSubscriber}. Events are delivered to subscriber one by one in the order they were
+ * published, at most one thread delivers events of the same mailbox at a time. Mailbox doesn't own a thread, it borrows a thread of
+ * shared executor while it has events and gives the thread back after every {@link #MAX_EVENTS_PER_RUN} events to let other mailboxes
+ * proceed.
+ */
+public class SubscriberMailbox {
+    private static final Logger LOG = LoggerFactory.getLogger(SubscriberMailbox.class);
+
+    static final int MAX_EVENTS_PER_RUN = 100;
+
+    private final EventSubscriber<Object> subscriber;
+    private final AsyncDispatch           dispatch;
+    private final Executor                executor;
+    /* Events keyed by coalescing key or by unique key if events are not coalesced, insertion order is the order of delivery. */
+    private final LinkedHashMap<Object, Object> events;
+    private final ReentrantLock                 lock;
+    private final Condition                     notFull;
+
+    private boolean scheduled;
+    private boolean closed;
+    private Thread  deliveryThread;
+
+    private long deliveredEvents;
+    private long droppedEvents;
+    private long coalescedEvents;
+    private long failedEvents;
+    private long totalHandlerTimeNanos;
+    private long maxHandlerTimeNanos;
+
+    @SuppressWarnings("unchecked")
+    SubscriberMailbox(EventSubscriber<?> subscriber, AsyncDispatch dispatch, Executor executor) {
+        this.subscriber = (EventSubscriber<Object>)subscriber;
+        this.dispatch = dispatch;
+        this.executor = executor;
+        events = new LinkedHashMap<>();
+        lock = new ReentrantLock();
+        notFull = lock.newCondition();
+    }
+
+    /**
+     * Puts event in mailbox and schedules its delivery. Depending on overflow policy may block until there is a room in mailbox. Events
+     * published by subscriber itself from its {@code onEvent} method never block to avoid deadlock.
+     */
+    void offer(Object event) {
+        final Object key = dispatch.getOverflowPolicy() == AsyncDispatch.OverflowPolicy.COALESCE
+                           ? dispatch.getKeyExtractor().apply(event)
+                           : new Object();
+        boolean schedule = false;
+        lock.lock();
+        try {
+            if (key != null && events.remove(key) != null) {
+                coalescedEvents++;
+            } else if (events.size() >= dispatch.getCapacity()) {
+                if (dispatch.getOverflowPolicy() == AsyncDispatch.OverflowPolicy.DROP_OLDEST) {
+                    final Iterator<Object> iterator = events.values().iterator();
+                    iterator.next();
+                    iterator.remove();
+                    droppedEvents++;
+                } else if (Thread.currentThread() != deliveryThread) {
+                    while (!closed && events.size() >= dispatch.getCapacity()) {
+                        notFull.await();
+                    }
+                }
+            }
+            if (closed) {
+                return;
+            }
+            // events with null key are never coalesced
+            events.put(key == null ? new Object() : key, event);
+            if (!scheduled) {
+                scheduled = schedule = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        if (schedule) {
+            schedule();
+        }
+    }
+
+    /** Discards all pending events. Events published after closing are ignored. */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            events.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void schedule() {
+        try {
+            executor.execute(this::deliver);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Unable deliver events to {}, executor is shut down", subscriber);
+            close();
+        }
+    }
+
+    private void deliver() {
+        lock.lock();
+        try {
+            deliveryThread = Thread.currentThread();
+        } finally {
+            lock.unlock();
+        }
+        boolean completed = false;
+        try {
+            for (int i = 0; i < MAX_EVENTS_PER_RUN; i++) {
+                final Object event = poll();
+                if (event == null) {
+                    completed = true;
+                    return;
+                }
+                final long start = System.nanoTime();
+                boolean failed = true;
+                try {
+                    subscriber.onEvent(event);
+                    failed = false;
+                } catch (RuntimeException e) {
+                    LOG.error(e.getMessage(), e);
+                } finally {
+                    recordDelivery(System.nanoTime() - start, failed);
+                }
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                // subscriber has thrown an error, mailbox must not stay scheduled with nobody draining it
+                releaseAfterError();
+            }
+        }
+        // give the thread to other mailboxes, remaining events are delivered in the next run
+        lock.lock();
+        try {
+            deliveryThread = null;
+        } finally {
+            lock.unlock();
+        }
+        schedule();
+    }
+
+    private void recordDelivery(long time, boolean failed) {
+        lock.lock();
+        try {
+            deliveredEvents++;
+            if (failed) {
+                failedEvents++;
+            }
+            totalHandlerTimeNanos += time;
+            maxHandlerTimeNanos = Math.max(maxHandlerTimeNanos, time);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Resets state of delivery interrupted by an error and schedules delivery of remaining events. */
+    private void releaseAfterError() {
+        final boolean pending;
+        lock.lock();
+        try {
+            deliveryThread = null;
+            pending = !closed && !events.isEmpty();
+            scheduled = pending;
+        } finally {
+            lock.unlock();
+        }
+        if (pending) {
+            schedule();
+        }
+    }
+
+    /** Takes the next event or marks mailbox as not scheduled if it is empty. */
+    private Object poll() {
+        lock.lock();
+        try {
+            final Iterator<Object> iterator = events.values().iterator();
+            if (closed || !iterator.hasNext()) {
+                scheduled = false;
+                deliveryThread = null;
+                return null;
+            }
+            final Object event = iterator.next();
+            iterator.remove();
+            notFull.signal();
+            return event;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public EventSubscriber<?> getSubscriber() {
+        return subscriber;
+    }
+
+    public AsyncDispatch getDispatch() {
+        return dispatch;
+    }
+
+    /** Number of events that are waiting for delivery. */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return events.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Total number of events delivered to subscriber, including events that subscriber failed to process. */
+    public long getDeliveredEventsCount() {
+        lock.lock();
+        try {
+            return deliveredEvents;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Total number of events that subscriber failed to process. */
+    public long getFailedEventsCount() {
+        lock.lock();
+        try {
+            return failedEvents;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Total number of events dropped because of {@link AsyncDispatch.OverflowPolicy#DROP_OLDEST} policy. */
+    public long getDroppedEventsCount() {
+        lock.lock();
+        try {
+            return droppedEvents;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Total number of events replaced with newer events because of {@link AsyncDispatch.OverflowPolicy#COALESCE} policy. */
+    public long getCoalescedEventsCount() {
+        lock.lock();
+        try {
+            return coalescedEvents;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Average time in milliseconds that subscriber spends on processing of one event. */
+    public double getAverageHandlerTimeMillis() {
+        lock.lock();
+        try {
+            return deliveredEvents == 0 ? 0 : (double)totalHandlerTimeNanos / deliveredEvents / NANOSECONDS.convert(1, MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Max time in milliseconds that subscriber spent on processing of one event. */
+    public long getMaxHandlerTimeMillis() {
+        lock.lock();
+        try {
+            return NANOSECONDS.toMillis(maxHandlerTimeNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriberMailbox{" +
+               "subscriber=" + subscriber +
+               ", dispatch=" + dispatch +
+               '}';
+    }
+}
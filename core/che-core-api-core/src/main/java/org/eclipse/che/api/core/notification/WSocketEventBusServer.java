@@ -61,12 +61,13 @@ public final class WSocketEventBusServer {
     void start() {
         if (start.compareAndSet(false, true)) {
             if (policy != null) {
-                eventService.subscribe(new EventSubscriber<Object>() {
+                // sending of websocket messages may be slow, don't make publishers wait for it
+                eventService.subscribeAsync(new EventSubscriber<Object>() {
                     @Override
                     public void onEvent(Object event) {
                         propagate(event);
                     }
-                });
+                }, AsyncDispatch.block(AsyncDispatch.DEFAULT_CAPACITY));
             }
         }
     }
@@ -28,6 +28,7 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -37,6 +38,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -79,9 +81,14 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
                         MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
         // Add Cache-Control before start write body.
         httpHeaders.putSingle(HttpHeaders.CACHE_CONTROL, "public, no-cache, no-store, no-transform");
+        // DTOs are written directly to the stream, without building JSON string
         if (t instanceof JsonSerializable) {
-            try (Writer w = new OutputStreamWriter(entityStream, Charset.forName("UTF-8"))) {
-                w.write(((JsonSerializable)t).toJson());
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(entityStream, Charset.forName("UTF-8")))) {
+                DtoFactory.getInstance().toJson(t, w);
+            }
+        } else if (t instanceof Collection && isDtoCollection(genericType)) {
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(entityStream, Charset.forName("UTF-8")))) {
+                DtoFactory.getInstance().toJsonArray((Collection<?>)t, w);
             }
         } else {
             delegate.writeTo(t, type, genericType, annotations, mediaType, httpHeaders, entityStream);
@@ -114,6 +121,14 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
         return (T)delegate.readFrom(type, genericType, annotations, mediaType, httpHeaders, entityStream);
     }
 
+    private static boolean isDtoCollection(Type genericType) {
+        if (genericType instanceof ParameterizedType) {
+            Type elementType = ((ParameterizedType)genericType).getActualTypeArguments()[0];
+            return elementType instanceof Class && ((Class<?>)elementType).isAnnotationPresent(DTO.class);
+        }
+        return false;
+    }
+
     /**
      * Get Set of classes that we never try to serialize or deserialize. Returned Set is mutable and new classes may be added in ignored
      * Set.
@@ -11,12 +11,17 @@
 package org.eclipse.che.api.core.notification;
 
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author andrew00x
@@ -29,6 +34,11 @@ public class EventServiceTest {
         bus = new EventService();
     }
 
+    @AfterMethod
+    public void tearDown() {
+        bus.stop();
+    }
+
     @Test
     public void testSimpleEvent() {
         final List<Object> events = new ArrayList<>();
@@ -157,4 +167,140 @@ public class EventServiceTest {
         bus.publish(new Event());
         Assert.assertEquals(events.size(), 0);
     }
+
+    @Test
+    public void testAsyncSubscriberGetsEventsInOrderInSeparateThread() throws Exception {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch delivered = new CountDownLatch(100);
+        final Thread publisher = Thread.currentThread();
+        final EventSubscriber<String> subscriber = new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                if (Thread.currentThread() != publisher) {
+                    events.add(event);
+                }
+                delivered.countDown();
+            }
+        };
+        bus.subscribeAsync(subscriber, AsyncDispatch.block(10));
+
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add("event" + i);
+            bus.publish("event" + i);
+        }
+
+        Assert.assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(events, expected);
+        // delivery is counted after subscriber returns
+        waitForDelivery(bus.getMailbox(subscriber), 100);
+        Assert.assertEquals(bus.getMailbox(subscriber).getQueueDepth(), 0);
+    }
+
+    @Test
+    public void testAsyncSubscriberDoesNotBlockPublisher() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+        final EventSubscriber<Event> subscriber = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                events.add(event);
+            }
+        };
+        bus.subscribeAsync(subscriber, AsyncDispatch.dropOldest(1));
+
+        for (int i = 0; i < 10; i++) {
+            bus.publish(new Event("event" + i));
+        }
+        release.countDown();
+
+        SubscriberMailbox mailbox = bus.getMailbox(subscriber);
+        Assert.assertTrue(mailbox.getDroppedEventsCount() > 0);
+        waitForDelivery(mailbox, 10 - mailbox.getDroppedEventsCount());
+        Assert.assertEquals(events.get(events.size() - 1).data, "event9");
+    }
+
+    @Test
+    public void testAsyncSubscriberGetsOnlyLatestEventWithTheSameKey() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final EventSubscriber<String> subscriber = new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                events.add(event);
+            }
+        };
+        bus.subscribeAsync(subscriber, AsyncDispatch.coalesce(10, event -> ((String)event).split(":")[0]));
+
+        bus.publish("first:1");
+        // wait until the first event is taken by subscriber
+        while (bus.getMailbox(subscriber).getQueueDepth() > 0) {
+            Thread.sleep(10);
+        }
+        bus.publish("a:1");
+        bus.publish("b:1");
+        bus.publish("a:2");
+        release.countDown();
+
+        waitForDelivery(bus.getMailbox(subscriber), 3);
+        Assert.assertEquals(events, Arrays.asList("first:1", "b:1", "a:2"));
+        Assert.assertEquals(bus.getMailbox(subscriber).getCoalescedEventsCount(), 1);
+    }
+
+    @Test
+    public void testAsyncSubscriberGetsEventsAfterItThrowsError() throws Exception {
+        final CountDownLatch delivered = new CountDownLatch(2);
+        final EventSubscriber<String> subscriber = new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                if ("error".equals(event)) {
+                    throw new Error("subscriber error");
+                }
+                delivered.countDown();
+            }
+        };
+        bus.subscribeAsync(subscriber, AsyncDispatch.block(1));
+
+        bus.publish("error");
+        bus.publish("event1");
+        bus.publish("event2");
+
+        Assert.assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        waitForDelivery(bus.getMailbox(subscriber), 3);
+        Assert.assertEquals(bus.getMailbox(subscriber).getFailedEventsCount(), 1);
+    }
+
+    @Test
+    public void testUnsubscribeAsyncSubscriber() {
+        final EventSubscriber<Event> subscriber = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+            }
+        };
+        bus.subscribeAsync(subscriber, AsyncDispatch.block(AsyncDispatch.DEFAULT_CAPACITY));
+        Assert.assertNotNull(bus.getMailbox(subscriber));
+
+        bus.unsubscribe(subscriber);
+
+        Assert.assertNull(bus.getMailbox(subscriber));
+        Assert.assertTrue(bus.getMailboxes().isEmpty());
+    }
+
+    private void waitForDelivery(SubscriberMailbox mailbox, long expected) throws InterruptedException {
+        final long end = System.currentTimeMillis() + 5000;
+        while (mailbox.getDeliveredEventsCount() < expected && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(mailbox.getDeliveredEventsCount(), expected);
+    }
 }
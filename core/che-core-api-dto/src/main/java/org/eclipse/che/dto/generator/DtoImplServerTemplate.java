@@ -35,7 +35,14 @@ import java.util.Map;
 import java.util.Set;
 
 
-/** Generates the source code for a generated Server DTO impl. */
+/**
+ * Generates the source code for a generated Server DTO impl.
+ *
+ * <p>Copy constructors of the generated impls copy DTOs deeply, properties of type {@code Object} ("any" values)
+ * are copied with {@link org.eclipse.che.dto.server.JsonElements#copyAnyValue(Object)}: JSON elements are copied
+ * deeply, but values which are not JSON elements, e.g. maps or lists set by the {@code with} methods, are not copied,
+ * the copy shares them with the origin.
+ */
 public class DtoImplServerTemplate extends DtoImpl {
     private static final String JSON_ARRAY_IMPL   = JsonArrayImpl.class.getCanonicalName();
     private static final String JSON_MAP_IMPL     = JsonStringMapImpl.class.getCanonicalName();
@@ -70,7 +77,9 @@ public class DtoImplServerTemplate extends DtoImpl {
         // equals, hashCode, serialization and copy constructor
         emitEqualsAndHashCode(methods, builder);
         emitSerializer(methods, builder);
+        emitWriter(methods, builder);
         emitDeserializer(methods, builder);
+        emitReader(methods, builder);
         emitDeserializerShortcut(builder);
         emitCopyConstructor(methods, builder);
         // Delegation DTO methods.
@@ -301,8 +310,13 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("\n");
         builder.append("    @Override\n");
         builder.append("    public String toJson() {\n");
-        // The default toJson() creates its own JSON for internal printing, thus keeping JSONs values is safe
-        builder.append("      return gson.toJson(toJsonElementInt(false));\n");
+        builder.append("      java.io.StringWriter out = new java.io.StringWriter();\n");
+        builder.append("      try {\n");
+        builder.append("        toJson(org.eclipse.che.dto.server.DtoFactory.newJsonWriter(out));\n");
+        builder.append("      } catch (IOException e) {\n");
+        builder.append("        throw new IllegalStateException(e.getMessage(), e);\n");
+        builder.append("      }\n");
+        builder.append("      return out.toString();\n");
         builder.append("    }\n");
         builder.append("\n");
         builder.append("    @Override\n");
@@ -420,8 +434,6 @@ public class DtoImplServerTemplate extends DtoImpl {
             builder.append(i).append("JsonElement ").append(outVar).append(" = ").append(depth == 0 ? " this." + inVar : inVar).append(
                     " == null ? JsonNull.INSTANCE : new JsonPrimitive(").append(depth == 0 ? "this." + inVar : inVar).append(");\n");
         } else if (isAny(rawClass)) {
-            // TODO JsonElement.deepCopy() is package-protected, JSONs are serialized to strings then parsed for copying them
-            // outVar = inVar == null ? JsonNull.INSTNACE : (copyJsons ? new JsonParser().parse(inVar) : inVar);
             builder.append(i).append("JsonElement ").append(outVar).append(" = ").append(depth == 0 ? " this." + inVar : inVar)
                     .append(" == null || !(").append(inVar).append(" instanceof JsonElement) ? JsonNull.INSTANCE : (");
             appendCopyJsonExpression(inVar, builder).append(");\n");
@@ -451,6 +463,143 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
     }
 
+    /** Generates a method that writes fields directly to a JsonWriter, without building a JsonElement. */
+    private void emitWriter(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void toJson(JsonWriter writer) throws IOException {\n");
+        if (isCompactJson()) {
+            builder.append("      writer.beginArray();\n");
+            for (Method getter : getters) {
+                emitWriteFieldForMethodCompact(getter, builder);
+            }
+            builder.append("      writer.endArray();\n");
+        } else {
+            builder.append("      writer.beginObject();\n");
+            for (Method getter : getters) {
+                builder.append("      writer.name(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+                emitWriterImpl(expandType(getter.getGenericReturnType()), 0, builder, getJavaFieldName(getter.getName()), "      ");
+            }
+            builder.append("      writer.endObject();\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    private void emitWriteFieldForMethodCompact(Method getter, StringBuilder builder) {
+        if (getter == null) {
+            builder.append("      writer.nullValue();\n");
+            return;
+        }
+        final List<Type> expandedTypes = expandType(getter.getGenericReturnType());
+        final String fieldName = getJavaFieldName(getter.getName());
+        if (isLastMethod(getter) && isList(getRawClass(expandedTypes.get(0)))) {
+            // the same as serializer, empty list is omitted when it is the last field
+            builder.append("      this.").append(getEnsureName(fieldName)).append("();\n");
+            builder.append("      if (!this.").append(fieldName).append(".isEmpty()) {\n");
+            emitWriterImpl(expandedTypes, 0, builder, fieldName, "        ");
+            builder.append("      }\n");
+            return;
+        }
+        emitWriterImpl(expandedTypes, 0, builder, fieldName, "      ");
+    }
+
+    /**
+     * Produces code to write the value of the type with the given variable name to the JsonWriter, the value is written the same
+     * way as it is serialized by {@link #emitSerializerImpl(List, int, StringBuilder, String, String, String)}.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java type that will be the input for serialization
+     * @param i
+     *         indentation string
+     */
+    private void emitWriterImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final String in = depth == 0 ? "this." + inVar : inVar;
+        final String childInVar = inVar + "_";
+        final String entryVar = "entry" + depth;
+        final Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass)) {
+            final String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            }
+            builder.append(i).append("writer.beginArray();\n");
+            builder.append(i).append("for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(in).append(") {\n");
+            emitWriterImpl(expandedTypes, depth + 1, builder, childInVar, i + "  ");
+            builder.append(i).append("}\n");
+            builder.append(i).append("writer.endArray();\n");
+        } else if (isMap(rawClass)) {
+            final String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            }
+            builder.append(i).append("writer.beginObject();\n");
+            builder.append(i).append("for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                   .append(" : ").append(in).append(".entrySet()) {\n");
+            builder.append(i).append("  writer.name(").append(entryVar).append(".getKey());\n");
+            builder.append(i).append("  ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                   .append(".getValue();\n");
+            emitWriterImpl(expandedTypes, depth + 1, builder, childInVar, i + "  ");
+            builder.append(i).append("}\n");
+            builder.append(i).append("writer.endObject();\n");
+        } else if (rawClass.isEnum()) {
+            builder.append(i).append("writer.value(").append(in).append(" == null ? null : ").append(in).append(".name());\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            emitWriteDto(getImplNameForDto(rawClass), in, builder, i);
+        } else if (rawClass.equals(String.class)) {
+            builder.append(i).append("writer.value(").append(in).append(");\n");
+        } else if (rawClass == boolean.class
+                   || rawClass == int.class
+                   || rawClass == long.class
+                   || rawClass == double.class
+                   || rawClass == short.class
+                   || rawClass == byte.class) {
+            builder.append(i).append("writer.value(").append(in).append(");\n");
+        } else if (rawClass == float.class) {
+            // written as float, not as double it is widened to
+            builder.append(i).append("writer.value((Number)").append(in).append(");\n");
+        } else if (rawClass == Boolean.class) {
+            builder.append(i).append("if (").append(in).append(" == null) {\n");
+            builder.append(i).append("  writer.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  writer.value(").append(in).append(".booleanValue());\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            builder.append(i).append("writer.value((Number)").append(in).append(");\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("if (").append(in).append(" == null || !(").append(in).append(" instanceof JsonElement)) {\n");
+            builder.append(i).append("  writer.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  gson.toJson((JsonElement)").append(in).append(", writer);\n");
+            builder.append(i).append("}\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                emitWriteDto(dtoImplementation.getCanonicalName(), in, builder, i);
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
+    private void emitWriteDto(String implName, String in, StringBuilder builder, String i) {
+        builder.append(i).append("if (").append(in).append(" == null) {\n");
+        builder.append(i).append("  writer.nullValue();\n");
+        builder.append(i).append("} else {\n");
+        builder.append(i).append("  ((").append(implName).append(")").append(in).append(").toJson(writer);\n");
+        builder.append(i).append("}\n");
+    }
+
     /** Generates a static factory method that creates a new instance based on a JsonElement. */
     private void emitDeserializer(List<Method> getters, StringBuilder builder) {
         // The default fromJsonElement(json) works in unsafe mode and clones the JSON's for 'any' properties
@@ -477,6 +626,134 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("    }\n\n");
     }
 
+    /**
+     * Generates a static factory method that creates a new instance reading fields directly from a JsonReader, without building
+     * a JsonElement.
+     */
+    private void emitReader(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName()).append(" fromJsonReader(JsonReader reader) throws IOException {\n");
+        builder.append("      if (reader.peek() == JsonToken.NULL) {\n");
+        builder.append("        reader.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        if (isCompactJson()) {
+            builder.append("      reader.beginArray();\n");
+            builder.append("      for (int index = 0; reader.hasNext(); index++) {\n");
+            builder.append("        switch (index) {\n");
+            for (Method method : getters) {
+                if (method != null) {
+                    final int index = Preconditions.checkNotNull(method.getAnnotation(SerializationIndex.class)).value() - 1;
+                    emitReadFieldForMethod(method, getJsonFieldName(method), String.valueOf(index), builder);
+                }
+            }
+            builder.append("          default:\n");
+            builder.append("            reader.skipValue();\n");
+            builder.append("        }\n");
+            builder.append("      }\n");
+            builder.append("      reader.endArray();\n");
+        } else {
+            builder.append("      reader.beginObject();\n");
+            builder.append("      while (reader.hasNext()) {\n");
+            builder.append("        switch (reader.nextName()) {\n");
+            final Set<String> jsonFieldNames = new HashSet<>();
+            for (Method method : getters) {
+                final String jsonFieldName = getJsonFieldName(method);
+                // the first of the getters with the same JSON name is used
+                if (jsonFieldNames.add(jsonFieldName)) {
+                    emitReadFieldForMethod(method, getFieldNameFromGetterName(method.getName()), quoteStringLiteral(jsonFieldName), builder);
+                }
+            }
+            builder.append("          default:\n");
+            builder.append("            reader.skipValue();\n");
+            builder.append("        }\n");
+            builder.append("      }\n");
+            builder.append("      reader.endObject();\n");
+        }
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    private void emitReadFieldForMethod(Method method, String fieldName, String label, StringBuilder builder) {
+        final String fieldNameOut = fieldName + "Out";
+        builder.append("          case ").append(label).append(": {\n");
+        emitReaderImpl(expandType(method.getGenericReturnType()), 0, builder, fieldNameOut, "            ");
+        builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+        builder.append("            break;\n");
+        builder.append("          }\n");
+    }
+
+    /**
+     * Produces code to read the value of the type from the JsonReader into the variable with the given name, the value is read
+     * the same way as it is deserialized by {@link #emitDeserializerImpl(List, int, StringBuilder, String, String, String)}.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the java type that will be the output for deserialization
+     * @param i
+     *         indentation string
+     */
+    private void emitReaderImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final String childOutVar = outVar + "_";
+        final Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (reader.peek() == JsonToken.NULL) {\n");
+            builder.append(i).append("  reader.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            if (isList(rawClass)) {
+                builder.append(i).append("  reader.beginArray();\n");
+                builder.append(i).append("  while (reader.hasNext()) {\n");
+                emitReaderImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  reader.endArray();\n");
+            } else {
+                final String keyVar = "key" + depth;
+                builder.append(i).append("  reader.beginObject();\n");
+                builder.append(i).append("  while (reader.hasNext()) {\n");
+                builder.append(i).append("    String ").append(keyVar).append(" = reader.nextName();\n");
+                emitReaderImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar).append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  reader.endObject();\n");
+            }
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(".fromJsonReader(reader);\n");
+        } else if (rawClass == boolean.class) {
+            builder.append(i).append("boolean ").append(outVar).append(" = reader.nextBoolean();\n");
+        } else if (rawClass == int.class || rawClass == long.class || rawClass == double.class) {
+            final String primitiveName = rawClass.getSimpleName();
+            builder.append(i).append(primitiveName).append(" ").append(outVar).append(" = reader.next")
+                   .append(Character.toUpperCase(primitiveName.charAt(0))).append(primitiveName.substring(1)).append("();\n");
+        } else if (rawClass == short.class || rawClass == byte.class) {
+            builder.append(i).append(rawClass.getSimpleName()).append(" ").append(outVar).append(" = (").append(rawClass.getSimpleName())
+                   .append(")reader.nextInt();\n");
+        } else if (rawClass == float.class) {
+            builder.append(i).append("float ").append(outVar).append(" = (float)reader.nextDouble();\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("JsonElement ").append(outVar).append(" = new JsonParser().parse(reader);\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                       .append(dtoImplementation.getCanonicalName()).append(".fromJsonReader(reader);\n");
+            } else {
+                // Use gson to handle all other types.
+                final String rawClassName = rawClass.getName().replace('$', '.');
+                builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = gson.fromJson(reader, ")
+                       .append(rawClassName).append(".class);\n");
+            }
+        }
+    }
+
     private void emitDeserializerShortcut(StringBuilder builder) {
         builder.append("    public static ");
         builder.append(getImplClassName());
@@ -586,8 +863,6 @@ public class DtoImplServerTemplate extends DtoImpl {
             builder.append(i).append(primitiveName).append(" ").append(outVar).append(" = ").append(inVar).append(
                     ".getAs").append(primitiveNameCap).append("();\n");
         } else if (isAny(rawClass)) {
-            // TODO JsonElement.deepCopy() is package-protected, JSONs are serialized to strings then parsed for copying them
-            // outVar = copyJsons ? new JsonParser().parse(inVar) : inVar;
             builder.append(i).append("JsonElement ").append(outVar).append(" = ");
             appendCopyJsonExpression(inVar, builder).append(";\n");
         } else {
@@ -611,16 +886,8 @@ public class DtoImplServerTemplate extends DtoImpl {
      * reference.
      */
     private static StringBuilder appendCopyJsonExpression(String inVar, StringBuilder builder) {
-        builder.append(COPY_JSONS_PARAM).append(" ? ");
-        appendNaiveCopyJsonExpression(inVar, builder).append(" : (JsonElement)(").append(inVar).append(")");
-        return builder;
-    }
-    private static StringBuilder appendNaiveCopyJsonExpression(String inValue, StringBuilder builder) {
-        builder.append("((");
-        builder.append(inValue);
-        builder.append(") != null ? new JsonParser().parse((");
-        builder.append(inValue);
-        builder.append(").toString()) : null)");
+        builder.append(COPY_JSONS_PARAM).append(" ? JsonElements.deepCopy((JsonElement)(").append(inVar)
+               .append(")) : (JsonElement)(").append(inVar).append(")");
         return builder;
     }
 
@@ -797,13 +1064,12 @@ public class DtoImplServerTemplate extends DtoImpl {
             builder.append(i).append("}\n");
         } else if (isAny(rawClass)) {
             builder.append(i).append("this.").append(fieldName).append(" = ");
-            appendNaiveCopyJsonExpression(origin + "." + getterName + "()", builder).append(";\n");
-        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            appendCopyValueExpression(rawClass, origin + "." + getterName + "()", builder).append(";\n");
+        } else if (isDto(rawClass)) {
             builder.append(i).append(rawTypeName).append(" ").append(fieldNameIn).append(" = ").append(origin).append(".")
                    .append(getterName).append("();\n");
             builder.append(i).append("this.").append(fieldName).append(" = ");
-            emitCheckNullAndCopyDto(rawClass, fieldNameIn, builder);
-            builder.append(";\n");
+            appendCopyValueExpression(rawClass, fieldNameIn, builder).append(";\n");
         } else {
             builder.append(i).append("this.").append(fieldName).append(" = ")
                    .append(origin).append(".").append(getterName).append("();\n");
@@ -849,19 +1115,32 @@ public class DtoImplServerTemplate extends DtoImpl {
             } else {
                 builder.append(".put(").append(entryVar).append(".getKey(), ");
             }
-            if (getEnclosingTemplate().isDtoInterface(childRawType)) {
-                emitCheckNullAndCopyDto(childRawType, childVarIn, builder);
-            } else {
-                builder.append(childVarIn);
-            }
-            builder.append(");\n");
+            appendCopyValueExpression(childRawType, childVarIn, builder).append(");\n");
         }
         builder.append(i).append("  }\n");
     }
 
-    private void emitCheckNullAndCopyDto(Class<?> dto, String fieldName, StringBuilder builder) {
-        String implName = dto.getSimpleName() + "Impl";
-        builder.append(fieldName).append(" == null ? null : ").append("new ").append(implName).append("(").append(fieldName).append(")");
+    private boolean isDto(Class<?> type) {
+        return getEnclosingTemplate().isDtoInterface(type) || getEnclosingTemplate().getDtoImplementation(type) != null;
+    }
+
+    /**
+     * Append the expression that copies value of field for copy constructor. DTOs are copied with their copy constructors,
+     * JSON values are copied without serializing them to strings, other values are shared with the origin. Values of
+     * other types are immutable, except "any" values which are not JSON elements, these are not copied.
+     */
+    private StringBuilder appendCopyValueExpression(Class<?> type, String var, StringBuilder builder) {
+        if (isAny(type)) {
+            builder.append("JsonElements.copyAnyValue(").append(var).append(")");
+        } else if (isDto(type)) {
+            final String implName = getEnclosingTemplate().isDtoInterface(type)
+                                    ? type.getSimpleName() + "Impl"
+                                    : getEnclosingTemplate().getDtoImplementation(type).getCanonicalName();
+            builder.append(var).append(" == null ? null : ").append("new ").append(implName).append("(").append(var).append(")");
+        } else {
+            builder.append(var);
+        }
+        return builder;
     }
 
     /** Emit a method that ensures a collection is initialized. */
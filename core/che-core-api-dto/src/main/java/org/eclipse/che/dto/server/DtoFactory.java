@@ -17,20 +17,26 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
 import org.eclipse.che.commons.lang.reflect.ParameterizedTypeImpl;
 import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.JsonArray;
 import org.eclipse.che.dto.shared.JsonStringMap;
 
-import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +73,17 @@ public final class DtoFactory {
         return INSTANCE;
     }
 
+    /**
+     * Creates writer for {@link JsonSerializable#toJson(JsonWriter)} which writes JSON the same way as {@link JsonSerializable#toJson()}
+     * does it, e.g. skips fields of objects which values are {@code null}.
+     */
+    public static JsonWriter newJsonWriter(Writer out) {
+        final JsonWriter writer = new JsonWriter(out);
+        writer.setSerializeNulls(false);
+        writer.setLenient(true);
+        return writer;
+    }
+
     /**
      * Creates new instance of class which implements specified DTO interface.
      *
@@ -150,6 +167,58 @@ public final class DtoFactory {
         throw new IllegalArgumentException("JsonSerializable instance required. ");
     }
 
+    /**
+     * Serializes DTO to JSON and writes it to the specified writer, JSON is not kept in memory.
+     *
+     * @param dto
+     *         DTO object
+     * @param writer
+     *         writer to write JSON to
+     * @throws IllegalArgumentException
+     *         if specified object isn't instance of {@link JsonSerializable}
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toJson(T dto, Writer writer) throws IOException {
+        if (!(dto instanceof JsonSerializable)) {
+            throw new IllegalArgumentException("JsonSerializable instance required. ");
+        }
+        final JsonWriter jsonWriter = newJsonWriter(writer);
+        ((JsonSerializable)dto).toJson(jsonWriter);
+        jsonWriter.flush();
+    }
+
+    /**
+     * Serializes DTOs to JSON array and writes it to the specified writer, JSON is not kept in memory.
+     *
+     * @param dtos
+     *         DTO objects, may contain {@code null}s
+     * @param writer
+     *         writer to write JSON to
+     * @throws IllegalArgumentException
+     *         if any of specified objects isn't instance of {@link JsonSerializable}
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toJsonArray(Collection<T> dtos, Writer writer) throws IOException {
+        for (T dto : dtos) {
+            if (dto != null && !(dto instanceof JsonSerializable)) {
+                throw new IllegalArgumentException("JsonSerializable instance required. ");
+            }
+        }
+        final JsonWriter jsonWriter = newJsonWriter(writer);
+        jsonWriter.beginArray();
+        for (T dto : dtos) {
+            if (dto == null) {
+                jsonWriter.nullValue();
+            } else {
+                ((JsonSerializable)dto).toJson(jsonWriter);
+            }
+        }
+        jsonWriter.endArray();
+        jsonWriter.flush();
+    }
+
     /**
      * Creates new instance of class which implements specified DTO interface.
      *
@@ -181,26 +250,21 @@ public final class DtoFactory {
 
     /**
      * Creates new instance of class which implements specified DTO interface, parses specified JSON data and uses parsed data for
-     * initializing fields of DTO object.
+     * initializing fields of DTO object. JSON data is read directly into DTO object without creating intermediate JSON objects.
      *
      * @param json
      *         JSON data
      * @param dtoInterface
      *         DTO interface
+     * @return DTO or {@code null} if JSON data is empty
      * @throws IllegalArgumentException
      *         if can't provide any implementation for specified interface
      * @throws IOException
      *         if an i/o error occurs
      */
     public <T> T createDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        StringBuilder sb = new StringBuilder();
-        BufferedReader br = new BufferedReader(json);
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
-        }
-        return dtoProvider.fromJson(sb.toString());
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        return readJson(json, dtoProvider::fromJson);
     }
 
     /**
@@ -257,21 +321,15 @@ public final class DtoFactory {
      */
     public <T> JsonArray<T> createListDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list;
-        try {
-            list = gson.fromJson(json, listTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+        return readJson(json, reader -> {
+            final List<T> result = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                result.add(dtoProvider.fromJson(reader));
             }
-            throw e;
-        }
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
-        }
-        return new JsonArrayImpl<>(result);
+            reader.endArray();
+            return new JsonArrayImpl<>(result);
+        });
     }
 
     /**
@@ -328,24 +386,18 @@ public final class DtoFactory {
      * @throws IOException
      *         if an i/o error occurs
      */
-    @SuppressWarnings("unchecked")
     public <T> JsonStringMap<T> createMapDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map;
-        try {
-            map = gson.fromJson(json, mapTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+        return readJson(json, reader -> {
+            final Map<String, T> result = new LinkedHashMap<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                result.put(name, dtoProvider.fromJson(reader));
             }
-            throw e;
-        }
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
-        }
-        return new JsonStringMapImpl<>(result);
+            reader.endObject();
+            return new JsonStringMapImpl<>(result);
+        });
     }
 
     /**
@@ -367,6 +419,34 @@ public final class DtoFactory {
 
     //
 
+    /**
+     * Reads the whole JSON document, syntax errors are reported with {@link JsonSyntaxException} the same way as Gson does it.
+     *
+     * @return result of reading or {@code null} if document is empty
+     */
+    private static <T> T readJson(Reader json, JsonReaderFunction<T> function) throws IOException {
+        final JsonReader reader = new JsonReader(json);
+        reader.setLenient(true);
+        try {
+            try {
+                reader.peek();
+            } catch (EOFException e) {
+                return null;
+            }
+            final T result = function.apply(reader);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+            return result;
+        } catch (MalformedJsonException | EOFException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private interface JsonReaderFunction<T> {
+        T apply(JsonReader reader) throws IOException;
+    }
+
     @SuppressWarnings("unchecked")
     private <T> DtoProvider<T> getDtoProvider(Class<T> dtoInterface) {
         DtoProvider<?> dtoProvider = dtoInterface2Providers.get(dtoInterface);
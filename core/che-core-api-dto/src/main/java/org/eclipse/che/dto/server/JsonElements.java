@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+
+/**
+ * Copies values of DTO properties which may contain any JSON, used by generated DTO implementations.
+ */
+public final class JsonElements {
+
+    /**
+     * Creates deep copy of JSON element without serializing it to string. Primitives and nulls are immutable,
+     * so they are shared by the copy and the origin.
+     */
+    public static JsonElement deepCopy(JsonElement element) {
+        if (element == null || element.isJsonNull() || element.isJsonPrimitive()) {
+            return element;
+        }
+        if (element.isJsonArray()) {
+            final JsonArray copy = new JsonArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                copy.add(deepCopy(item));
+            }
+            return copy;
+        }
+        final JsonObject copy = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+            copy.add(entry.getKey(), deepCopy(entry.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * Copies value of DTO property which has type {@code Object}. JSON elements are copied deeply,
+     * other values are returned as is, without copying, so mutable values, e.g. maps or lists,
+     * are shared by the copy and the origin.
+     */
+    public static Object copyAnyValue(Object value) {
+        return value instanceof JsonElement ? deepCopy((JsonElement)value) : value;
+    }
+
+    private JsonElements() {
+    }
+}
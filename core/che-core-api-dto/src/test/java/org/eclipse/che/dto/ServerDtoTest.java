@@ -10,11 +10,13 @@
  *******************************************************************************/
 package org.eclipse.che.dto;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
 
 import org.eclipse.che.dto.definitions.ComplicatedDto;
 import org.eclipse.che.dto.definitions.DTOHierarchy;
@@ -29,13 +31,18 @@ import org.eclipse.che.dto.server.DtoFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -166,6 +173,33 @@ public class ServerDtoTest {
         assertEquals(expJson, json);
     }
 
+    @Test
+    public void shouldDeepCopyAnyWhenCloning() throws Exception {
+        DtoWithAny origin = dtoFactory.createDto(DtoWithAny.class)
+                                      .withStuff(createTestValueForAny())
+                                      .withObjects(createListTestValueForAny());
+
+        DtoWithAny copy = dtoFactory.clone(origin);
+        ((JsonObject)origin.getStuff()).getAsJsonObject("b").addProperty("c", "changed");
+        ((JsonObject)origin.getObjects().get(0)).addProperty("x", 2);
+
+        assertEquals(copy.getStuff(), createTestValueForAny());
+        assertEquals(copy.getObjects(), createListTestValueForAny());
+        assertNotSame(copy.getObjects().get(1), origin.getObjects().get(1));
+    }
+
+    @Test
+    public void shouldShareImmutableValuesWhenCloning() throws Exception {
+        JsonPrimitive primitive = new JsonPrimitive("value");
+        DtoWithAny origin = dtoFactory.createDto(DtoWithAny.class).withStuff(primitive).withObjects(asList("text", primitive));
+
+        DtoWithAny copy = dtoFactory.clone(origin);
+
+        assertSame(copy.getStuff(), primitive);
+        assertSame(copy.getObjects().get(0), "text");
+        assertSame(copy.getObjects().get(1), primitive);
+    }
+
     /** Intentionally call several times to ensure non-reference equality */
     private static JsonElement createTestValueForAny() {
         return new JsonParser().parse("{a:100,b:{c:'blah'}}");
@@ -325,6 +359,59 @@ public class ServerDtoTest {
         assertEquals(complicatedDto.getArrayOfArrayOfEnum().get(0).get(2), ComplicatedDto.SimpleEnum.THREE);
     }
 
+    @Test
+    public void shouldWriteTheSameJsonAsJsonElementOfDto() throws Exception {
+        final SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("name").withId(1);
+        final ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                             .withStrings(asList("a", null))
+                                             .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                             .withMap(singletonMap("key", simpleDto))
+                                             .withSimpleDtos(asList(simpleDto, null));
+        final StringWriter writer = new StringWriter();
+
+        dtoFactory.toJson(dto, writer);
+
+        assertEquals(writer.toString(), new Gson().toJson(dtoFactory.toJsonElement(dto)));
+        assertEquals(dtoFactory.toJson(dto), writer.toString());
+    }
+
+    @Test
+    public void shouldReadDtoFromReaderSkippingUnknownFields() throws Exception {
+        final String json = "{\"unknown\":{\"field\":[1,{}]},\"name\":\"name\",\"id\":1,\"default\":null}";
+
+        final SimpleDto dto = dtoFactory.createDtoFromJson(new StringReader(json), SimpleDto.class);
+
+        checkSimpleDto(dto, "name", 1, null);
+    }
+
+    @Test
+    public void shouldReadDtoWithAnyFromReader() throws Exception {
+        final DtoWithAny origin = dtoFactory.createDto(DtoWithAny.class).withStuff(createTestValueForAny())
+                                            .withObjects(createListTestValueForAny());
+
+        final DtoWithAny dto = dtoFactory.createDtoFromJson(new StringReader(dtoFactory.toJson(origin)), DtoWithAny.class);
+
+        assertEquals(dto.getStuff(), createTestValueForAny());
+        assertEquals(dto.getObjects(), createListTestValueForAny());
+    }
+
+    @Test
+    public void shouldWriteAndReadListOfDtos() throws Exception {
+        final List<SimpleDto> dtos = asList(dtoFactory.createDto(SimpleDto.class).withName("first").withId(1),
+                                            null,
+                                            dtoFactory.createDto(SimpleDto.class).withName("second").withId(2));
+        final StringWriter writer = new StringWriter();
+
+        dtoFactory.toJsonArray(dtos, writer);
+
+        assertEquals(dtoFactory.createListDtoFromJson(new StringReader(writer.toString()), SimpleDto.class), dtos);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void shouldFailToReadMalformedJson() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"name\":\"name\","), SimpleDto.class);
+    }
+
     private void checkSimpleDto(SimpleDto dto, String expectedName, int expectedId, String expectedDefault) {
         assertEquals(dto.getName(), expectedName);
         assertEquals(dto.getId(), expectedId);
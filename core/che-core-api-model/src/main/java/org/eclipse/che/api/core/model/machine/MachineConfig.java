@@ -57,4 +57,9 @@ public interface MachineConfig {
      * Get predefined environment variables of machine.
      */
     Map<String, String> getEnvVariables();
+
+    /**
+     * Get names of machines of the same environment which must be started before this machine.
+     */
+    List<String> getDependsOn();
 }
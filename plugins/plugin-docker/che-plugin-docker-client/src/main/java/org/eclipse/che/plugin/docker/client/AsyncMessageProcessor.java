@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Passes messages to the target processor in threads of the given executor, so producer of messages, e.g. thread of
+ * {@link org.eclipse.che.plugin.docker.client.connection.DockerStreamSelector}, doesn't wait for the target processor.
+ * Messages are passed in the order they are produced and target processor is never called concurrently.
+ */
+class AsyncMessageProcessor<T> implements MessageProcessor<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncMessageProcessor.class);
+
+    /** Max number of messages that are passed by one task, so processors of different streams share threads of executor. */
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final MessageProcessor<T>     target;
+    private final Executor                executor;
+    private final int                     maxPendingMessages;
+    private final Queue<T>                queue;
+    private final AtomicInteger           pendingMessages;
+    private final AtomicBoolean           scheduled;
+    private final CompletableFuture<Void> completion;
+
+    private volatile boolean   ended;
+    private volatile Throwable error;
+
+    /**
+     * @param target
+     *         processor that gets messages
+     * @param executor
+     *         executor that calls target processor
+     * @param maxPendingMessages
+     *         number of not processed messages since which processor is considered saturated
+     */
+    AsyncMessageProcessor(MessageProcessor<T> target, Executor executor, int maxPendingMessages) {
+        this.target = target;
+        this.executor = executor;
+        this.maxPendingMessages = maxPendingMessages;
+        queue = new ConcurrentLinkedQueue<>();
+        pendingMessages = new AtomicInteger();
+        scheduled = new AtomicBoolean();
+        completion = new CompletableFuture<>();
+    }
+
+    @Override
+    public void process(T message) {
+        queue.add(message);
+        pendingMessages.incrementAndGet();
+        schedule();
+    }
+
+    /** Whether producer should stop producing messages until the target processor handles already produced ones. */
+    boolean isSaturated() {
+        return pendingMessages.get() >= maxPendingMessages;
+    }
+
+    /**
+     * Must be called after the last message is produced.
+     *
+     * @param error
+     *         error that stopped producing of messages or {@code null}
+     */
+    void end(Throwable error) {
+        this.error = error;
+        ended = true;
+        schedule();
+    }
+
+    /**
+     * Future that is completed when all messages are processed by the target processor after call of {@link #end(Throwable)},
+     * it is completed exceptionally if error is passed to {@link #end(Throwable)}.
+     */
+    CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::processPending);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                queue.clear();
+                completion.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void processPending() {
+        T message;
+        int processed = 0;
+        while (processed < MAX_BATCH_SIZE && (message = queue.poll()) != null) {
+            pendingMessages.decrementAndGet();
+            processed++;
+            try {
+                target.process(message);
+            } catch (RuntimeException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+        // messages are added before end of stream, so if end is reached and queue is empty then all messages are processed
+        final boolean endReached = ended;
+        scheduled.set(false);
+        if (endReached && queue.isEmpty()) {
+            final Throwable error = this.error;
+            if (error == null) {
+                completion.complete(null);
+            } else {
+                completion.completeExceptionally(error);
+            }
+        } else if (!queue.isEmpty() || ended) {
+            schedule();
+        }
+    }
+}
@@ -49,6 +49,22 @@ public interface CLibrary extends Library {
         }
     }
 
+    // Defined in 'poll.h', see http://man7.org/linux/man-pages/man2/poll.2.html
+    class PollFd extends Structure {
+        public int   fd;
+        public short events;
+        public short revents;
+
+        @Override
+        protected List getFieldOrder() {
+            return Arrays.asList("fd", "events", "revents");
+        }
+    }
+
+    short POLLIN = 0x001; // Defined in 'poll.h'
+
+    int EFD_NONBLOCK = 04000; // Defined in 'sys/eventfd.h'
+
     int socket(int domain, int type, int protocol);
 
     int connect(int fd, SockAddrUn sock_addr, int addr_len);
@@ -69,6 +85,8 @@ public interface CLibrary extends Library {
 
     int eventfd_read(int fd, LongByReference val);
 
+    int poll(PollFd[] fds, int nfds, int timeout);
+
     int open(String path, int mode);
 
     int O_RDONLY = 0x00;
@@ -26,6 +26,8 @@ import org.eclipse.che.plugin.docker.client.connection.CloseConnectionInputStrea
 import org.eclipse.che.plugin.docker.client.connection.DockerConnection;
 import org.eclipse.che.plugin.docker.client.connection.DockerConnectionFactory;
 import org.eclipse.che.plugin.docker.client.connection.DockerResponse;
+import org.eclipse.che.plugin.docker.client.connection.DockerStreamSelector;
+import org.eclipse.che.plugin.docker.client.connection.UnixSocketConnection;
 import org.eclipse.che.plugin.docker.client.exception.ContainerNotFoundException;
 import org.eclipse.che.plugin.docker.client.exception.DockerException;
 import org.eclipse.che.plugin.docker.client.exception.ImageNotFoundException;
@@ -69,6 +71,7 @@ import org.eclipse.che.plugin.docker.client.params.PutResourceParams;
 import org.eclipse.che.plugin.docker.client.params.RemoveContainerParams;
 import org.eclipse.che.plugin.docker.client.params.RemoveImageParams;
 import org.eclipse.che.plugin.docker.client.params.RemoveNetworkParams;
+import org.eclipse.che.plugin.docker.client.params.RenameContainerParams;
 import org.eclipse.che.plugin.docker.client.params.StartContainerParams;
 import org.eclipse.che.plugin.docker.client.params.StartExecParams;
 import org.eclipse.che.plugin.docker.client.params.StopContainerParams;
@@ -99,6 +102,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -128,6 +132,8 @@ public class DockerConnector {
     private static final Gson   GSON = new GsonBuilder().disableHtmlEscaping()
                                                         .setFieldNamingPolicy(FieldNamingPolicy.UPPER_CAMEL_CASE)
                                                         .create();
+    /** Max number of log messages of one stream that wait for processing before reading of stream is paused. */
+    private static final int    MAX_PENDING_LOG_MESSAGES = 1024;
 
     private final URI                        dockerDaemonUri;
     private final DockerRegistryAuthResolver authResolver;
@@ -331,6 +337,25 @@ public class DockerConnector {
         killContainer(KillContainerParams.create(container));
     }
 
+    /**
+     * Renames docker container.
+     *
+     * @throws IOException
+     *          when a problem occurs with docker api calls
+     */
+    public void renameContainer(final RenameContainerParams params) throws IOException {
+        try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
+                                                            .method("POST")
+                                                            .path(apiVersionPathPrefix + "/containers/" + params.getContainer() +
+                                                                  "/rename")
+                                                            .query("name", params.getName())) {
+            final DockerResponse response = connection.request();
+            if (response.getStatus() / 100 != 2) {
+                throw getDockerException(response);
+            }
+        }
+    }
+
     /**
      * Removes docker container.
      *
@@ -428,15 +453,7 @@ public class DockerConnector {
      */
     public void attachContainer(final AttachContainerParams params, MessageProcessor<LogMessage> containerLogsProcessor)
             throws IOException {
-        final Boolean stream = params.isStream();
-
-        try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
-                                                            .method("POST")
-                                                            .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/attach")
-                                                            .query("stdout", 1)
-                                                            .query("stderr", 1)) {
-            addQueryParamIfNotNull(connection, "stream", stream);
-            addQueryParamIfNotNull(connection, "logs", stream);
+        try (DockerConnection connection = openAttachContainerConnection(params)) {
             final DockerResponse response = connection.request();
             if (OK.getStatusCode() != response.getStatus()) {
                 throw getDockerException(response);
@@ -447,6 +464,44 @@ public class DockerConnector {
         }
     }
 
+    /**
+     * Attaches to the container with specified id asynchronously, see {@link #attachContainer(AttachContainerParams, MessageProcessor)}.
+     * Messages are passed to processor in the order they come, processor is never called concurrently.
+     *
+     * @param containerLogsProcessor
+     *         output for container logs
+     * @return future that is completed when stream ends and all messages are processed, cancellation of future closes the stream
+     * @throws IOException
+     *          when a problem occurs with docker api calls
+     */
+    public CompletableFuture<Void> attachContainerAsync(final AttachContainerParams params,
+                                                        MessageProcessor<LogMessage> containerLogsProcessor) throws IOException {
+        final DockerConnection connection = openAttachContainerConnection(params);
+        final DockerResponse response;
+        try {
+            response = connection.request();
+            if (OK.getStatusCode() != response.getStatus()) {
+                throw getDockerException(response);
+            }
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        return streamLogs(connection, response, containerLogsProcessor);
+    }
+
+    private DockerConnection openAttachContainerConnection(AttachContainerParams params) {
+        final Boolean stream = params.isStream();
+        final DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
+                                                             .method("POST")
+                                                             .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/attach")
+                                                             .query("stdout", 1)
+                                                             .query("stderr", 1);
+        addQueryParamIfNotNull(connection, "stream", stream);
+        addQueryParamIfNotNull(connection, "logs", stream);
+        return connection;
+    }
+
     /**
      * Get stdout and stderr logs from container.
      *
@@ -459,32 +514,137 @@ public class DockerConnector {
      */
     public void getContainerLogs(final GetContainerLogsParams params, MessageProcessor<LogMessage> containerLogsProcessor)
             throws IOException {
-        try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
-                                                            .method("GET")
-                                                            .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/logs")
-                                                            .query("stdout", 1)
-                                                            .query("stderr", 1)) {
-            addQueryParamIfNotNull(connection, "details", params.isDetails());
-            addQueryParamIfNotNull(connection, "follow", params.isFollow());
-            addQueryParamIfNotNull(connection, "since", params.getSince());
-            addQueryParamIfNotNull(connection, "timestamps", params.isTimestamps());
-            addQueryParamIfNotNull(connection, "tail", params.getTail());
-
+        try (DockerConnection connection = openContainerLogsConnection(params)) {
             final DockerResponse response = connection.request();
-            final int status = response.getStatus();
-            if (status == 404) {
-                throw new ContainerNotFoundException(readAndCloseQuietly(response.getInputStream()));
-            }
-            if (status != OK.getStatusCode()) {
-                throw getDockerException(response);
-            }
-
+            checkContainerLogsResponse(response);
             try (InputStream responseStream = response.getInputStream()) {
                 new LogMessagePumper(responseStream, containerLogsProcessor).start();
             }
         }
     }
 
+    /**
+     * Gets stdout and stderr logs from container asynchronously, see {@link #getContainerLogs(GetContainerLogsParams, MessageProcessor)}.
+     * Messages are passed to processor in the order they come, processor is never called concurrently.
+     *
+     * @param containerLogsProcessor
+     *         output for container logs
+     * @return future that is completed when stream ends and all messages are processed, cancellation of future closes the stream
+     * @throws ContainerNotFoundException
+     *         when container not found by docker (docker api returns 404)
+     * @throws IOException
+     *         when a problem occurs with docker api calls
+     */
+    public CompletableFuture<Void> getContainerLogsAsync(final GetContainerLogsParams params,
+                                                         MessageProcessor<LogMessage> containerLogsProcessor) throws IOException {
+        final DockerConnection connection = openContainerLogsConnection(params);
+        final DockerResponse response;
+        try {
+            response = connection.request();
+            checkContainerLogsResponse(response);
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        return streamLogs(connection, response, containerLogsProcessor);
+    }
+
+    private DockerConnection openContainerLogsConnection(GetContainerLogsParams params) {
+        final DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
+                                                             .method("GET")
+                                                             .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/logs")
+                                                             .query("stdout", 1)
+                                                             .query("stderr", 1);
+        addQueryParamIfNotNull(connection, "details", params.isDetails());
+        addQueryParamIfNotNull(connection, "follow", params.isFollow());
+        addQueryParamIfNotNull(connection, "since", params.getSince());
+        addQueryParamIfNotNull(connection, "timestamps", params.isTimestamps());
+        addQueryParamIfNotNull(connection, "tail", params.getTail());
+        return connection;
+    }
+
+    private void checkContainerLogsResponse(DockerResponse response) throws IOException {
+        final int status = response.getStatus();
+        if (status == 404) {
+            throw new ContainerNotFoundException(readAndCloseQuietly(response.getInputStream()));
+        }
+        if (status != OK.getStatusCode()) {
+            throw getDockerException(response);
+        }
+    }
+
+    /**
+     * Reads multiplexed stream of container output asynchronously. Streams of unix socket connections are read by
+     * {@link DockerStreamSelector}, so a few threads serve all streams and messages are passed to processor by
+     * {@link AsyncMessageProcessor} in threads of connector executor. Other streams, e.g. streams of TCP connections, are read in
+     * blocking mode by a separate thread of connector executor.
+     */
+    private CompletableFuture<Void> streamLogs(DockerConnection connection,
+                                               DockerResponse response,
+                                               MessageProcessor<LogMessage> processor) throws IOException {
+        final DockerStreamSelector selector = connection instanceof UnixSocketConnection ? connectionFactory.getStreamSelector() : null;
+        if (selector == null) {
+            final CompletableFuture<Void> result = new CompletableFuture<>();
+            try {
+                executor.execute(() -> {
+                    try (DockerConnection ignored = connection;
+                         InputStream responseStream = response.getInputStream()) {
+                        new LogMessagePumper(responseStream, processor).start();
+                        result.complete(null);
+                    } catch (IOException | RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                connection.close();
+                throw e;
+            }
+            result.whenComplete((ignored, error) -> {
+                if (result.isCancelled()) {
+                    // unblocks reading of the stream
+                    connection.close();
+                }
+            });
+            return result;
+        }
+
+        final AsyncMessageProcessor<LogMessage> asyncProcessor = new AsyncMessageProcessor<>(processor,
+                                                                                             executor,
+                                                                                             MAX_PENDING_LOG_MESSAGES);
+        final LogMessageDecoder decoder = new LogMessageDecoder(asyncProcessor);
+        final DockerStreamSelector.SelectableStream stream =
+                ((UnixSocketConnection)connection).streamResponse(selector, new DockerStreamSelector.StreamConsumer() {
+                    @Override
+                    public void consume(byte[] data, int offset, int length) throws IOException {
+                        decoder.decode(data, offset, length);
+                    }
+
+                    @Override
+                    public boolean isSaturated() {
+                        return asyncProcessor.isSaturated();
+                    }
+                });
+        // selector completes stream in its thread, so decoder is never used concurrently
+        stream.getCompletion().whenComplete((ignored, error) -> {
+            decoder.finish();
+            asyncProcessor.end(error);
+        });
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        asyncProcessor.getCompletion().whenComplete((ignored, error) -> {
+            if (error == null) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(error);
+            }
+        });
+        result.whenComplete((ignored, error) -> {
+            if (result.isCancelled()) {
+                stream.close();
+            }
+        });
+        return result;
+    }
+
     /**
      * Sets up an exec instance in a running container.
      *
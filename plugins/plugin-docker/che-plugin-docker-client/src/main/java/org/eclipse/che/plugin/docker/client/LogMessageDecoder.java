@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Splits multiplexed docker stream into {@link LogMessage}s.
+ *
+ * <p>Each frame of stream has 8 bytes header that contains type of stream (stdin, stdout or stderr) and length of payload. Payload
+ * is split into lines by {@code \n}, {@code \r\n} or single {@code \r}, which is kept in the message. Too long lines are split
+ * into several messages.
+ *
+ * <p>Unlike reading of {@code InputStream} decoder gets data in portions of any size, so frames and lines may be split between
+ * portions, e.g. when data is read from socket once it becomes readable.
+ */
+class LogMessageDecoder {
+    private static final Logger LOG = LoggerFactory.getLogger(LogMessageDecoder.class);
+
+    static final int STREAM_HEADER_LENGTH = 8;
+    static final int MAX_LINE_LENGTH      = 1024;
+
+    private final MessageProcessor<LogMessage> target;
+    private final byte[]                       header;
+
+    private int             headerLength;
+    private int             payloadRemaining;
+    private LogMessage.Type type;
+    private byte[]          line;
+    private int             lineLength;
+    /** Set when line ends with {@code \r}, it is included in message unless it is followed by {@code \n}. */
+    private boolean         carriageReturn;
+
+    LogMessageDecoder(MessageProcessor<LogMessage> target) {
+        this.target = target;
+        header = new byte[STREAM_HEADER_LENGTH];
+        line = new byte[128];
+        type = LogMessage.Type.DOCKER;
+    }
+
+    /**
+     * Decodes next portion of stream.
+     *
+     * @throws IOException
+     *         if stream has invalid format
+     */
+    void decode(byte[] data, int offset, int length) throws IOException {
+        final int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            if (payloadRemaining == 0) {
+                final int n = Math.min(STREAM_HEADER_LENGTH - headerLength, end - i);
+                System.arraycopy(data, i, header, headerLength, n);
+                headerLength += n;
+                i += n;
+                if (headerLength == STREAM_HEADER_LENGTH) {
+                    type = getLogMessageType(header);
+                    payloadRemaining = getPayloadLength(header);
+                    headerLength = 0;
+                }
+                continue;
+            }
+            final int payloadEnd = i + Math.min(payloadRemaining, end - i);
+            payloadRemaining -= payloadEnd - i;
+            for (; i < payloadEnd; i++) {
+                final byte b = data[i];
+                if (carriageReturn) {
+                    carriageReturn = false;
+                    if (b == '\n') {
+                        emitLine();
+                        continue;
+                    }
+                    // include <CR> char in log message
+                    append((byte)'\r');
+                    emitLine();
+                }
+                if (b == '\n') {
+                    emitLine();
+                } else if (b == '\r') {
+                    // wait for the next byte, it may be not available yet
+                    carriageReturn = true;
+                } else {
+                    append(b);
+                    if (lineLength >= MAX_LINE_LENGTH) {
+                        emitLine();
+                    }
+                }
+            }
+        }
+    }
+
+    /** Must be called when stream ends, sends incomplete line if any. */
+    void finish() {
+        if (headerLength != 0) {
+            LOG.debug("Invalid stream, can't read header. Header of each frame must contain 8 bytes but got {}", headerLength);
+        }
+        if (carriageReturn) {
+            carriageReturn = false;
+            append((byte)'\r');
+            emitLine();
+        } else if (lineLength > 0) {
+            emitLine();
+        }
+    }
+
+    private void append(byte b) {
+        if (lineLength == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[lineLength++] = b;
+    }
+
+    private void emitLine() {
+        final String content = new String(line, 0, lineLength, UTF_8);
+        lineLength = 0;
+        target.process(new LogMessage(type, content));
+    }
+
+    private int getPayloadLength(byte[] header) {
+        return (header[7] & 0xFF) + ((header[6] & 0xFF) << 8) + ((header[5] & 0xFF) << 16) + ((header[4] & 0xFF) << 24);
+    }
+
+    private LogMessage.Type getLogMessageType(byte[] header) throws IOException {
+        switch (header[0]) {
+            case 0:
+                return LogMessage.Type.STDIN;
+            case 1:
+                return LogMessage.Type.STDOUT;
+            case 2:
+                return LogMessage.Type.STDERR;
+            default:
+                throw new IOException(String.format("Invalid docker stream type %d", header[0]));
+        }
+    }
+}
@@ -15,20 +15,41 @@ import com.google.inject.Inject;
 import org.eclipse.che.plugin.docker.client.DockerCertificates;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
 import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Collections.unmodifiableMap;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 /**
  * Factory for connections to docker API.
  *
  * <p>Detects connection implementation by checking docker daemon URI.
+ * Connections to the same daemon share {@link DockerConnectionPool} that limits number of concurrent requests
+ * and keeps connections alive between requests. Streaming responses of unix socket connections may be read
+ * asynchronously by {@link DockerStreamSelector} that is shared by all daemons.
  *
  * @author Alexander Garagatyi
  */
+@Singleton
 public class DockerConnectionFactory {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerConnectionFactory.class);
+
     public static final String CONNECTION_TIMEOUT_MS_PROPERTY      = "docker.connection.tcp.connection_timeout_ms";
     public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY = "docker.connection.tcp.read_timeout_ms";
+    public static final String MAX_CONNECTIONS_PROPERTY            = "docker.connection.max_connections_per_daemon";
+    public static final String MAX_IDLE_CONNECTIONS_PROPERTY       = "docker.connection.max_idle_connections_per_daemon";
+    public static final String KEEP_ALIVE_TIMEOUT_MS_PROPERTY      = "docker.connection.keep_alive_timeout_ms";
+    public static final String STREAM_SELECTOR_THREADS_PROPERTY    = "docker.connection.stream_selector_threads";
 
     @Inject(optional = true)
     @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
@@ -38,18 +59,85 @@ public class DockerConnectionFactory {
     @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
     private int connectionReadTimeoutMs = 60000;
 
-    private final DockerCertificates dockerCertificates;
+    /** Max number of requests that wait for response of daemon, streaming requests are not limited once headers of response are read. */
+    @Inject(optional = true)
+    @Named(MAX_CONNECTIONS_PROPERTY)
+    private int maxConnections = 256;
+
+    @Inject(optional = true)
+    @Named(MAX_IDLE_CONNECTIONS_PROPERTY)
+    private int maxIdleConnections = 16;
+
+    @Inject(optional = true)
+    @Named(KEEP_ALIVE_TIMEOUT_MS_PROPERTY)
+    private int keepAliveTimeoutMs = 15000;
+
+    @Inject(optional = true)
+    @Named(STREAM_SELECTOR_THREADS_PROPERTY)
+    private int streamSelectorThreads = 2;
+
+    private final DockerCertificates                       dockerCertificates;
+    private final ConcurrentMap<URI, DockerConnectionPool> pools;
+
+    private DockerStreamSelector streamSelector;
+    private boolean              streamSelectorUnavailable;
 
     @Inject
     public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
         this.dockerCertificates = connectorConfiguration.getDockerCertificates();
+        this.pools = new ConcurrentHashMap<>();
     }
 
     public DockerConnection openConnection(URI dockerDaemonUri) {
+        final DockerConnectionPool pool = getConnectionPool(dockerDaemonUri);
         if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-            return new UnixSocketConnection(dockerDaemonUri.getPath());
+            return new UnixSocketConnection(dockerDaemonUri.getPath(), pool);
         } else {
-            return new TcpConnection(dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
+            return new TcpConnection(dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs, pool);
+        }
+    }
+
+    /** Gets pool of connections of docker daemon, e.g. to check its metrics. */
+    public DockerConnectionPool getConnectionPool(URI dockerDaemonUri) {
+        return pools.computeIfAbsent(dockerDaemonUri, uri -> new DockerConnectionPool(uri.toString(),
+                                                                                      maxConnections,
+                                                                                      connectionTimeoutMs,
+                                                                                      maxIdleConnections,
+                                                                                      keepAliveTimeoutMs,
+                                                                                      fd -> getCLibrary().close(fd)));
+    }
+
+    /** Gets pools of connections of all docker daemons that were used. */
+    public Map<URI, DockerConnectionPool> getConnectionPools() {
+        return unmodifiableMap(pools);
+    }
+
+    /**
+     * Gets selector that reads streaming responses of unix socket connections asynchronously, selector is created on the first call.
+     *
+     * @return selector or {@code null} if selector is not supported by system
+     */
+    public synchronized DockerStreamSelector getStreamSelector() {
+        if (streamSelector == null && !streamSelectorUnavailable) {
+            try {
+                streamSelector = new DockerStreamSelector(streamSelectorThreads, connectionReadTimeoutMs);
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Streaming responses will be read in blocking mode. " + e.getLocalizedMessage());
+                streamSelectorUnavailable = true;
+            }
+        }
+        return streamSelector;
+    }
+
+    @PreDestroy
+    public void closeIdleConnections() {
+        pools.values().forEach(DockerConnectionPool::closeIdleSockets);
+        synchronized (this) {
+            if (streamSelector != null) {
+                streamSelector.close();
+                streamSelector = null;
+            }
+            streamSelectorUnavailable = true;
         }
     }
 }
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Connections of one docker daemon.
+ *
+ * <p>Limits number of requests that are sent to daemon and wait for headers of response at the same time, and keeps idle unix socket
+ * connections, so the next request may reuse connection instead of opening new one. Permit of request is released once headers of
+ * response are read, so long-lived streams, e.g. events, logs or output of attached container, do not hold permits while they are open. Connection is returned to the pool only if response was read till the end
+ * and daemon did not ask to close the connection, see {@link UnixSocketConnection#close()}. Idle connections are closed when they stay
+ * unused longer than keep-alive timeout.
+ *
+ * <p>TCP connections are kept alive by {@link java.net.HttpURLConnection} itself, for them pool only limits number of concurrent
+ * requests.
+ */
+public class DockerConnectionPool {
+    private final String      daemon;
+    private final Semaphore   permits;
+    private final long        acquireTimeoutMs;
+    private final int         maxIdleSockets;
+    private final long        keepAliveTimeoutMs;
+    private final IntConsumer socketCloser;
+
+    /** Idle unix sockets, the most recently used socket is first. */
+    private final Deque<IdleSocket> idleSockets;
+
+    private final AtomicInteger activeConnections;
+    private final AtomicLong    requests;
+    private final AtomicLong    openedSockets;
+    private final AtomicLong    reusedSockets;
+    private final AtomicLong    closedSockets;
+    private final AtomicLong    rejectedRequests;
+    private final AtomicLong    waitTimeNanos;
+
+    /**
+     * @param daemon
+     *         URI of docker daemon, used in error messages
+     * @param maxConnections
+     *         max number of requests that are processed at the same time, non-positive value means no limit
+     * @param acquireTimeoutMs
+     *         max time to wait for free connection when limit is reached
+     * @param maxIdleSockets
+     *         max number of idle connections that are kept for reuse, {@code 0} disables reuse of connections
+     * @param keepAliveTimeoutMs
+     *         max time idle connection is kept for reuse
+     * @param socketCloser
+     *         closes file descriptor of unix socket
+     */
+    DockerConnectionPool(String daemon,
+                         int maxConnections,
+                         long acquireTimeoutMs,
+                         int maxIdleSockets,
+                         long keepAliveTimeoutMs,
+                         IntConsumer socketCloser) {
+        this.daemon = daemon;
+        this.permits = maxConnections > 0 ? new Semaphore(maxConnections, true) : null;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.maxIdleSockets = maxIdleSockets;
+        this.keepAliveTimeoutMs = keepAliveTimeoutMs;
+        this.socketCloser = socketCloser;
+        idleSockets = new ArrayDeque<>();
+        activeConnections = new AtomicInteger();
+        requests = new AtomicLong();
+        openedSockets = new AtomicLong();
+        reusedSockets = new AtomicLong();
+        closedSockets = new AtomicLong();
+        rejectedRequests = new AtomicLong();
+        waitTimeNanos = new AtomicLong();
+    }
+
+    /**
+     * Waits until number of active connections of daemon becomes lower than the limit. Each successful call must be followed by call of
+     * {@link #release()}.
+     *
+     * @throws IOException
+     *         if connection is not available during acquire timeout or waiting is interrupted
+     */
+    void acquire() throws IOException {
+        if (permits != null) {
+            final long start = System.nanoTime();
+            final boolean acquired;
+            try {
+                acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for connection to docker daemon " + daemon);
+            } finally {
+                waitTimeNanos.addAndGet(System.nanoTime() - start);
+            }
+            if (!acquired) {
+                rejectedRequests.incrementAndGet();
+                throw new IOException(String.format("Timeout of waiting for connection to docker daemon %s. %d connections are in use",
+                                                    daemon, activeConnections.get()));
+            }
+        }
+        activeConnections.incrementAndGet();
+        requests.incrementAndGet();
+    }
+
+    /** Releases connection acquired by {@link #acquire()}. */
+    void release() {
+        activeConnections.decrementAndGet();
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Gets idle unix socket that is not expired yet.
+     *
+     * @return file descriptor of socket or {@code -1} if there is no idle socket
+     */
+    int pollSocket() {
+        final long now = System.currentTimeMillis();
+        IdleSocket socket;
+        synchronized (idleSockets) {
+            closeExpiredSockets(now);
+            socket = idleSockets.pollFirst();
+        }
+        if (socket == null) {
+            return -1;
+        }
+        reusedSockets.incrementAndGet();
+        return socket.fd;
+    }
+
+    /** Must be called when new unix socket is opened. */
+    void socketOpened() {
+        openedSockets.incrementAndGet();
+    }
+
+    /** Returns socket that may be used for the next request to the pool, socket is closed if pool is full. */
+    void returnSocket(int fd) {
+        if (maxIdleSockets > 0) {
+            final long now = System.currentTimeMillis();
+            synchronized (idleSockets) {
+                closeExpiredSockets(now);
+                if (idleSockets.size() < maxIdleSockets) {
+                    idleSockets.addFirst(new IdleSocket(fd, now));
+                    return;
+                }
+            }
+        }
+        closeSocket(fd);
+    }
+
+    /** Closes socket that may not be reused. */
+    void closeSocket(int fd) {
+        closedSockets.incrementAndGet();
+        socketCloser.accept(fd);
+    }
+
+    /** Closes all idle sockets. */
+    void closeIdleSockets() {
+        synchronized (idleSockets) {
+            for (IdleSocket socket : idleSockets) {
+                closeSocket(socket.fd);
+            }
+            idleSockets.clear();
+        }
+    }
+
+    /** Whether idle connections are kept for reuse. */
+    boolean isKeepAlive() {
+        return maxIdleSockets > 0;
+    }
+
+    private void closeExpiredSockets(long now) {
+        // the least recently used sockets are at the end of deque
+        for (Iterator<IdleSocket> it = idleSockets.descendingIterator(); it.hasNext(); ) {
+            final IdleSocket socket = it.next();
+            if (now - socket.idleSince < keepAliveTimeoutMs) {
+                break;
+            }
+            it.remove();
+            closeSocket(socket.fd);
+        }
+    }
+
+    /** Number of requests that wait for response of daemon at the moment. */
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    /** Number of idle connections that may be reused. */
+    public int getIdleConnections() {
+        synchronized (idleSockets) {
+            return idleSockets.size();
+        }
+    }
+
+    /** Total number of requests to daemon. */
+    public long getRequestsCount() {
+        return requests.get();
+    }
+
+    /** Total number of opened unix sockets. */
+    public long getOpenedConnectionsCount() {
+        return openedSockets.get();
+    }
+
+    /** Total number of requests that reused unix socket of previous request. */
+    public long getReusedConnectionsCount() {
+        return reusedSockets.get();
+    }
+
+    /** Total number of closed unix sockets. */
+    public long getClosedConnectionsCount() {
+        return closedSockets.get();
+    }
+
+    /** Total number of requests that failed because connection was not available during acquire timeout. */
+    public long getRejectedRequestsCount() {
+        return rejectedRequests.get();
+    }
+
+    /** Total time in milliseconds spent by requests on waiting for connection. */
+    public long getWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitTimeNanos.get());
+    }
+
+    private static class IdleSocket {
+        final int  fd;
+        final long idleSince;
+
+        IdleSocket(int fd, long idleSince) {
+            this.fd = fd;
+            this.idleSince = idleSince;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+
+import org.eclipse.che.plugin.docker.client.CLibrary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.EFD_NONBLOCK;
+import static org.eclipse.che.plugin.docker.client.CLibrary.POLLIN;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+/**
+ * Reads bodies of many streaming responses, e.g. container logs or output of attached container, with a few threads.
+ *
+ * <p>Each thread of selector waits with {@code poll} until any of its unix sockets becomes readable and passes data that is read
+ * from socket to {@link StreamConsumer} of the stream, so thread is not blocked by the stream that has no data. Consumers are called
+ * in the selector thread and must not block, slow processing must be moved to another thread. Consumer that can't accept more data
+ * tells it with {@link StreamConsumer#isSaturated()}, selector stops reading of its socket until consumer is ready again, so the
+ * data stays in the socket buffer and docker daemon slows down writing to it. Stream that has no data for longer than read timeout
+ * is finished with {@link SocketTimeoutException} as stream of TCP connection would be.
+ *
+ * <p>Selector is available on linux only, see {@link DockerConnectionFactory#getStreamSelector()}.
+ */
+public class DockerStreamSelector {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerStreamSelector.class);
+
+    private static final int READ_BUFFER_SIZE = 8192;
+    /** How often selector checks whether saturated consumer is ready to accept data again. */
+    private static final int SATURATED_CHECK_PERIOD_MS = 50;
+
+    /** Consumer of body of streaming response. */
+    public interface StreamConsumer {
+        /**
+         * Consumes the next portion of body. Data is valid only until method returns.
+         *
+         * @throws IOException
+         *         if data can't be processed, stream is closed in this case
+         */
+        void consume(byte[] data, int offset, int length) throws IOException;
+
+        /** Whether consumer can't accept data at the moment. */
+        default boolean isSaturated() {
+            return false;
+        }
+    }
+
+    private final CLibrary       cLib;
+    private final SelectorLoop[] loops;
+    private final int            readTimeoutMs;
+    private final Object         lock;
+
+    private volatile boolean closed;
+
+    /**
+     * @param threads
+     *         number of threads of selector
+     * @param readTimeoutMs
+     *         max time of waiting for data of stream, zero or negative value means no timeout
+     * @throws IOException
+     *         if selector can't be created
+     */
+    DockerStreamSelector(int threads, int readTimeoutMs) throws IOException {
+        this.readTimeoutMs = readTimeoutMs;
+        lock = new Object();
+        cLib = getCLibrary();
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("DockerStreamSelector-%d")
+                                                                      .setDaemon(true)
+                                                                      .build();
+        loops = new SelectorLoop[Math.max(1, threads)];
+        for (int i = 0; i < loops.length; i++) {
+            final int wakeupFd = cLib.eventfd(0, EFD_NONBLOCK);
+            if (wakeupFd == -1) {
+                close();
+                throw new IOException("Unable to create stream selector: " + cLib.strerror(Native.getLastError()));
+            }
+            loops[i] = new SelectorLoop(wakeupFd);
+            threadFactory.newThread(loops[i]).start();
+        }
+    }
+
+    /**
+     * Registers socket with streaming response. Since that moment stream is owned by selector and socket is closed with
+     * {@code closer} when the whole body is read, socket is closed by daemon, consumer fails or stream is closed with
+     * {@link SelectableStream#close()}.
+     *
+     * @param fd
+     *         file descriptor of socket
+     * @param prefetched
+     *         raw data that is read from socket but not processed yet
+     * @param decoder
+     *         decoder of body of response
+     * @param closer
+     *         closes socket
+     * @param consumer
+     *         consumer of body of response
+     */
+    SelectableStream register(int fd, byte[] prefetched, ResponseBodyDecoder decoder, Runnable closer, StreamConsumer consumer) {
+        final SelectableStream stream = new SelectableStream(fd, prefetched, decoder, closer, consumer);
+        if (decoder.isCompleted()) {
+            // response has no body
+            stream.finish(null);
+            return stream;
+        }
+        // loops drain registered streams after they see that selector is closed, so stream must not be added after that
+        synchronized (lock) {
+            if (closed) {
+                stream.finish(new IOException("Stream selector is closed"));
+                return stream;
+            }
+            SelectorLoop loop = loops[0];
+            for (SelectorLoop candidate : loops) {
+                if (candidate.streamsCount.get() < loop.streamsCount.get()) {
+                    loop = candidate;
+                }
+            }
+            stream.loop = loop;
+            loop.streamsCount.incrementAndGet();
+            loop.registered.add(stream);
+            loop.wakeup();
+        }
+        return stream;
+    }
+
+    /** Number of streams that are read by selector at the moment. */
+    public int getStreamsCount() {
+        int count = 0;
+        for (SelectorLoop loop : loops) {
+            if (loop != null) {
+                count += loop.streamsCount.get();
+            }
+        }
+        return count;
+    }
+
+    /** Stops threads of selector. All registered streams are closed. */
+    void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        for (SelectorLoop loop : loops) {
+            if (loop != null) {
+                loop.wakeup();
+            }
+        }
+    }
+
+    /** Streaming response that is read by selector. */
+    public class SelectableStream {
+        private final int                     fd;
+        private final ResponseBodyDecoder     decoder;
+        private final Runnable                closer;
+        private final StreamConsumer          consumer;
+        private final CompletableFuture<Void> completion;
+
+        private byte[]           prefetched;
+        private SelectorLoop     loop;
+        private volatile boolean closeRequested;
+        /** Time when stream was read last time, accessed by selector thread only. */
+        private long             lastReadTime;
+
+        private SelectableStream(int fd, byte[] prefetched, ResponseBodyDecoder decoder, Runnable closer, StreamConsumer consumer) {
+            this.fd = fd;
+            this.prefetched = prefetched;
+            this.decoder = decoder;
+            this.closer = closer;
+            this.consumer = consumer;
+            completion = new CompletableFuture<>();
+        }
+
+        /**
+         * Future that is completed in the selector thread after the last data is passed to consumer. Future is completed
+         * exceptionally if reading of stream fails and with {@link CancellationException} if stream is closed with {@link #close()}.
+         */
+        public CompletableFuture<Void> getCompletion() {
+            return completion;
+        }
+
+        /** Stops reading of stream and closes its socket. Consumer is not called after completion of stream. */
+        public void close() {
+            closeRequested = true;
+            if (loop != null) {
+                loop.wakeup();
+            }
+        }
+
+        /** Called by selector thread when socket is readable. Returns {@code false} if stream is finished. */
+        private boolean read(byte[] buffer) {
+            try {
+                if (prefetched != null) {
+                    final byte[] data = prefetched;
+                    prefetched = null;
+                    decoder.decode(data, 0, data.length, consumer);
+                    return checkCompleted();
+                }
+                int n;
+                try {
+                    n = cLib.recv(fd, buffer, buffer.length, 0);
+                } catch (LastErrorException e) {
+                    throw new IOException("error: " + cLib.strerror(e.getErrorCode()));
+                }
+                if (n == -1) {
+                    throw new IOException("error: " + cLib.strerror(Native.getLastError()));
+                }
+                if (n == 0) {
+                    if (!decoder.isEndOfStreamAllowed()) {
+                        throw new IOException("Unexpected end of stream from docker API");
+                    }
+                    finish(null);
+                    return false;
+                }
+                decoder.decode(buffer, 0, n, consumer);
+                return checkCompleted();
+            } catch (IOException | RuntimeException e) {
+                finish(e);
+                return false;
+            }
+        }
+
+        private boolean checkCompleted() {
+            if (decoder.isCompleted()) {
+                finish(null);
+                return false;
+            }
+            return true;
+        }
+
+        private void finish(Throwable error) {
+            try {
+                closer.run();
+            } catch (RuntimeException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+            if (loop != null) {
+                loop.streamsCount.decrementAndGet();
+            }
+            if (error == null) {
+                completion.complete(null);
+            } else {
+                completion.completeExceptionally(error);
+            }
+        }
+    }
+
+    private class SelectorLoop implements Runnable {
+        final Queue<SelectableStream> registered;
+        final AtomicInteger           streamsCount;
+
+        private final int                    wakeupFd;
+        private final byte[]                 wakeupValue;
+        private final List<SelectableStream> streams;
+        private final List<SelectableStream> polled;
+
+        private CLibrary.PollFd[] pollFds;
+
+        SelectorLoop(int wakeupFd) {
+            this.wakeupFd = wakeupFd;
+            // 8 bytes integer that is added to the counter of eventfd, any non-zero value is fine regardless of byte order
+            wakeupValue = new byte[] {1, 0, 0, 0, 0, 0, 0, 0};
+            registered = new ConcurrentLinkedQueue<>();
+            streamsCount = new AtomicInteger();
+            streams = new ArrayList<>();
+            polled = new ArrayList<>();
+        }
+
+        void wakeup() {
+            cLib.write(wakeupFd, wakeupValue, wakeupValue.length);
+        }
+
+        @Override
+        public void run() {
+            final byte[] buffer = new byte[READ_BUFFER_SIZE];
+            try {
+                while (!closed) {
+                    select(buffer);
+                }
+            } catch (RuntimeException e) {
+                LOG.error("Stream selector failed: " + e.getLocalizedMessage(), e);
+            } finally {
+                final IOException error = new IOException("Stream selector is closed");
+                for (SelectableStream stream : streams) {
+                    stream.finish(error);
+                }
+                streams.clear();
+                SelectableStream stream;
+                while ((stream = registered.poll()) != null) {
+                    stream.finish(error);
+                }
+                cLib.close(wakeupFd);
+            }
+        }
+
+        private void select(byte[] buffer) {
+            SelectableStream added;
+            while ((added = registered.poll()) != null) {
+                added.lastReadTime = System.currentTimeMillis();
+                // data that was read together with headers of response doesn't wait for socket to become readable
+                if (added.prefetched == null || added.read(buffer)) {
+                    streams.add(added);
+                }
+            }
+            final long now = System.currentTimeMillis();
+            boolean saturated = false;
+            long pollTimeout = -1;
+            polled.clear();
+            for (Iterator<SelectableStream> it = streams.iterator(); it.hasNext(); ) {
+                final SelectableStream stream = it.next();
+                if (stream.closeRequested) {
+                    it.remove();
+                    stream.finish(new CancellationException("Stream is closed"));
+                } else if (stream.consumer.isSaturated()) {
+                    // stream is not read while consumer is saturated, so waiting for consumer is not counted as read timeout
+                    stream.lastReadTime = now;
+                    saturated = true;
+                } else if (readTimeoutMs > 0 && now - stream.lastReadTime >= readTimeoutMs) {
+                    it.remove();
+                    stream.finish(new SocketTimeoutException("Read timed out"));
+                } else {
+                    polled.add(stream);
+                    if (readTimeoutMs > 0) {
+                        final long remaining = stream.lastReadTime + readTimeoutMs - now;
+                        pollTimeout = pollTimeout == -1 ? remaining : Math.min(pollTimeout, remaining);
+                    }
+                }
+            }
+            if (saturated) {
+                pollTimeout = pollTimeout == -1 ? SATURATED_CHECK_PERIOD_MS : Math.min(pollTimeout, SATURATED_CHECK_PERIOD_MS);
+            }
+            if (pollFds == null || pollFds.length < polled.size() + 1) {
+                pollFds = (CLibrary.PollFd[])new CLibrary.PollFd().toArray(Math.max(16, (polled.size() + 1) * 2));
+            }
+            pollFds[0].fd = wakeupFd;
+            pollFds[0].events = POLLIN;
+            pollFds[0].revents = 0;
+            for (int i = 0; i < polled.size(); i++) {
+                pollFds[i + 1].fd = polled.get(i).fd;
+                pollFds[i + 1].events = POLLIN;
+                pollFds[i + 1].revents = 0;
+            }
+            final int ready = cLib.poll(pollFds, polled.size() + 1, (int)pollTimeout);
+            if (ready <= 0) {
+                // timeout or interrupted by signal, streams that are timed out are finished on the next iteration
+                return;
+            }
+            if (pollFds[0].revents != 0) {
+                // eventfd is non-blocking, so reading never waits
+                cLib.read(wakeupFd, buffer, 8);
+            }
+            for (int i = 0; i < polled.size(); i++) {
+                // POLLHUP and POLLERR are handled by recv which returns end of stream or error
+                if (pollFds[i + 1].revents != 0) {
+                    final SelectableStream stream = polled.get(i);
+                    stream.lastReadTime = System.currentTimeMillis();
+                    if (!stream.read(buffer)) {
+                        streams.remove(stream);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -59,6 +59,28 @@ public class LimitedInputStream extends InputStream {
         return doRead(b, 0, len);
     }
 
+    /** Number of bytes that are not read yet. */
+    synchronized int remaining() {
+        return Math.max(0, limit - pos);
+    }
+
+    /**
+     * Reads and discards all bytes that are not read yet.
+     *
+     * @return {@code true} if stream is read till the limit and {@code false} if underlying stream ended earlier
+     */
+    synchronized boolean skipRemaining() throws IOException {
+        final byte[] buf = new byte[Math.min(8192, Math.max(1, remaining()))];
+        while (pos < limit) {
+            final int n = input.read(buf, 0, Math.min(buf.length, limit - pos));
+            if (n == -1) {
+                return false;
+            }
+            pos += n;
+        }
+        return true;
+    }
+
     private int doRead(byte[] b, int off, int len) throws IOException {
         if (pos >= limit) {
             return -1;
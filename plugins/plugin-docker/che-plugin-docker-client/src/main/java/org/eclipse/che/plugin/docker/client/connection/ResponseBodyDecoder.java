@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.IOException;
+
+/**
+ * Extracts body of HTTP response from raw data that is read from socket in portions of any size. Unlike {@link ChunkedInputStream}
+ * and {@link LimitedInputStream} decoder never blocks, so it may be used by {@link DockerStreamSelector}.
+ */
+class ResponseBodyDecoder {
+    private enum State {
+        CHUNK_SIZE,
+        CHUNK_DATA,
+        CHUNK_DATA_END,
+        TRAILER,
+        DATA,
+        COMPLETED
+    }
+
+    private final boolean       chunked;
+    private final StringBuilder lineBuf;
+
+    private State state;
+    private long  remaining;
+
+    /**
+     * @param chunked
+     *         whether body uses chunked transfer encoding
+     * @param contentLength
+     *         length of not chunked body or {@code -1} if body ends when connection is closed
+     */
+    ResponseBodyDecoder(boolean chunked, long contentLength) {
+        this.chunked = chunked;
+        lineBuf = new StringBuilder();
+        if (chunked) {
+            state = State.CHUNK_SIZE;
+        } else if (contentLength == 0) {
+            state = State.COMPLETED;
+        } else {
+            state = State.DATA;
+            remaining = contentLength;
+        }
+    }
+
+    /**
+     * Decodes next portion of raw data and passes content of body to consumer.
+     *
+     * @throws IOException
+     *         if chunked body has invalid format or consumer fails
+     */
+    void decode(byte[] data, int offset, int length, DockerStreamSelector.StreamConsumer consumer) throws IOException {
+        final int end = offset + length;
+        int i = offset;
+        while (i < end && state != State.COMPLETED) {
+            switch (state) {
+                case DATA:
+                    final int n = remaining < 0 ? end - i : (int)Math.min(remaining, end - i);
+                    consumer.consume(data, i, n);
+                    i += n;
+                    if (remaining > 0 && (remaining -= n) == 0) {
+                        state = State.COMPLETED;
+                    }
+                    break;
+                case CHUNK_DATA:
+                    final int c = (int)Math.min(remaining, end - i);
+                    consumer.consume(data, i, c);
+                    i += c;
+                    if ((remaining -= c) == 0) {
+                        state = State.CHUNK_DATA_END;
+                    }
+                    break;
+                default:
+                    i = readLine(data, i, end);
+            }
+        }
+    }
+
+    /** Whether the whole body is read. Body of unknown length is never completed, it ends when connection is closed. */
+    boolean isCompleted() {
+        return state == State.COMPLETED;
+    }
+
+    /** Whether end of stream is expected at the current position. */
+    boolean isEndOfStreamAllowed() {
+        return state == State.COMPLETED || (!chunked && remaining < 0);
+    }
+
+    private int readLine(byte[] data, int i, int end) throws IOException {
+        for (; i < end; i++) {
+            final char c = (char)(data[i] & 0xFF);
+            if (c == '\n') {
+                onLine(lineBuf.toString());
+                lineBuf.setLength(0);
+                return i + 1;
+            }
+            if (c != '\r') {
+                lineBuf.append(c);
+            }
+        }
+        return i;
+    }
+
+    private void onLine(String line) throws IOException {
+        switch (state) {
+            case CHUNK_SIZE:
+                int endSize = 0;
+                while (endSize < line.length() && Character.digit(line.charAt(endSize), 16) != -1) {
+                    endSize++;
+                }
+                try {
+                    remaining = Long.parseLong(line.substring(0, endSize), 16);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid chunk size");
+                }
+                state = remaining == 0 ? State.TRAILER : State.CHUNK_DATA;
+                break;
+            case CHUNK_DATA_END:
+                if (!line.isEmpty()) {
+                    throw new IOException("CRLF is missing after chunk data");
+                }
+                state = State.CHUNK_SIZE;
+                break;
+            case TRAILER:
+                // trailer headers are ignored, empty line ends body
+                if (line.isEmpty()) {
+                    state = State.COMPLETED;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unexpected state " + state);
+        }
+    }
+}
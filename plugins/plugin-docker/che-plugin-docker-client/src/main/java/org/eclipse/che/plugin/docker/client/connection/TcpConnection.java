@@ -17,6 +17,7 @@ import org.eclipse.che.plugin.docker.client.DockerCertificates;
 
 import javax.net.ssl.HttpsURLConnection;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
@@ -28,14 +29,25 @@ import java.util.List;
  * @author Alexander Garagatyi
  */
 public class TcpConnection extends DockerConnection {
-    private final URI                baseUri;
-    private final DockerCertificates certificates;
-    private final int                connectionTimeout;
-    private final int                readTimeout;
+    private final URI                  baseUri;
+    private final DockerCertificates   certificates;
+    private final int                  connectionTimeout;
+    private final int                  readTimeout;
+    private final DockerConnectionPool pool;
 
     private HttpURLConnection connection;
+    private boolean           acquired;
 
     public TcpConnection(URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs) {
+        this(baseUri, certificates, connectionTimeoutMs, readTimeoutMs, null);
+    }
+
+    /**
+     * @param pool
+     *         pool of connections of daemon, if it is {@code null} or it doesn't keep connections alive then underlying connection is
+     *         closed after each request
+     */
+    TcpConnection(URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs, DockerConnectionPool pool) {
         if ("https".equals(baseUri.getScheme())) {
             if (certificates == null) {
                 throw new IllegalArgumentException("Certificates are required for https connection.");
@@ -47,6 +59,7 @@ public class TcpConnection extends DockerConnection {
         this.certificates = certificates;
         this.connectionTimeout = connectionTimeoutMs;
         this.readTimeout = readTimeoutMs;
+        this.pool = pool;
     }
 
     @Override
@@ -55,6 +68,10 @@ public class TcpConnection extends DockerConnection {
         final String requestUri = path + (Strings.isNullOrEmpty(query) ? "" : "?" + query);
         final URL url = baseUri.resolve(requestUri).toURL();
         final String protocol = url.getProtocol();
+        if (pool != null) {
+            pool.acquire();
+            acquired = true;
+        }
         connection = (HttpURLConnection)url.openConnection();
         connection.setConnectTimeout(connectionTimeout);
         connection.setReadTimeout(readTimeout);
@@ -62,8 +79,10 @@ public class TcpConnection extends DockerConnection {
             ((HttpsURLConnection)connection).setSSLSocketFactory(certificates.getSslContext().getSocketFactory());
         }
         connection.setRequestMethod(method);
-        // needed to fix bug https://github.com/docker/docker/issues/12845
-        connection.setRequestProperty("Connection", "close");
+        if (!isKeepAlive()) {
+            // needed to fix bug https://github.com/docker/docker/issues/12845
+            connection.setRequestProperty("Connection", "close");
+        }
         for (Pair<String, ?> header : headers) {
             connection.setRequestProperty(header.first, String.valueOf(header.second));
         }
@@ -77,14 +96,65 @@ public class TcpConnection extends DockerConnection {
             connection.setDoOutput(true);
             try (OutputStream output = connection.getOutputStream()) {
                 entity.writeTo(output);
+            } catch (IOException e) {
+                connection.disconnect();
+                connection = null;
+                throw e;
             }
         }
-        return new TcpDockerResponse(connection);
+        final TcpDockerResponse response = new TcpDockerResponse(connection);
+        if (acquired) {
+            response.getStatus();
+            releasePermit();
+        }
+        return response;
+    }
+
+    /**
+     * Pool limits number of requests that wait for daemon to respond, so permit of pool is released as soon as headers of response
+     * are read. Otherwise long-lived responses, e.g. streams of events or logs, would hold permits until they are closed.
+     */
+    private void releasePermit() {
+        if (acquired) {
+            acquired = false;
+            pool.release();
+        }
     }
 
+    /**
+     * Closes connection. If connections are kept alive then only streams of response are closed, so {@link HttpURLConnection} may
+     * reuse underlying socket for the next request if response is read till the end.
+     */
     @Override
     public void close() {
-        if (connection != null) {
+        try {
+            if (connection != null) {
+                if (isKeepAlive()) {
+                    closeResponseStreams();
+                } else {
+                    connection.disconnect();
+                }
+                connection = null;
+            }
+        } finally {
+            // permit is still held only if headers of response were not read
+            releasePermit();
+        }
+    }
+
+    private boolean isKeepAlive() {
+        return pool != null && pool.isKeepAlive();
+    }
+
+    private void closeResponseStreams() {
+        try {
+            final InputStream errorStream = connection.getErrorStream();
+            if (errorStream != null) {
+                errorStream.close();
+            } else {
+                connection.getInputStream().close();
+            }
+        } catch (IOException e) {
             connection.disconnect();
         }
     }
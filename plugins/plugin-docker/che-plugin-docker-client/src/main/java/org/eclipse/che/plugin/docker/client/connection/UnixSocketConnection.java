@@ -23,6 +23,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.ConnectException;
+import java.net.SocketTimeoutException;
 import java.util.List;
 
 import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
@@ -35,32 +36,185 @@ import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
  * @author Alexander Garagatyi
  */
 public class UnixSocketConnection extends DockerConnection {
-    private final String dockerSocketPath;
+    /** Max size of not read body of response that is skipped to make possible reuse of connection. */
+    private static final int MAX_BYTES_TO_SKIP = 64 * 1024;
 
-    private int fd = -1;
+    private final String               dockerSocketPath;
+    private final DockerConnectionPool pool;
+
+    private int                      fd = -1;
+    private boolean                  acquired;
+    private UnixSocketDockerResponse response;
 
     public UnixSocketConnection(String dockerSocketPath) {
+        this(dockerSocketPath, null);
+    }
+
+    /**
+     * @param dockerSocketPath
+     *         path to unix socket of docker daemon
+     * @param pool
+     *         pool of connections of daemon, if {@code null} new socket is opened for each request
+     */
+    UnixSocketConnection(String dockerSocketPath, DockerConnectionPool pool) {
         this.dockerSocketPath = dockerSocketPath;
+        this.pool = pool;
     }
 
     @Override
     protected DockerResponse request(String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
             throws IOException {
+        if (pool == null) {
+            fd = connect();
+            return send(method, path, query, headers, entity);
+        }
+        pool.acquire();
+        acquired = true;
+        fd = pool.pollSocket();
+        if (fd != -1) {
+            final UnixSocketDockerResponse response = sendOverPooledSocket(method, path, query, headers, entity);
+            if (response != null) {
+                releasePermit();
+                return response;
+            }
+        }
         fd = connect();
+        pool.socketOpened();
+        final UnixSocketDockerResponse response = send(method, path, query, headers, entity);
+        response.getStatus();
+        releasePermit();
+        return response;
+    }
+
+    /**
+     * Pool limits number of requests that wait for daemon to respond, so permit of pool is released as soon as headers of response
+     * are read. Otherwise long-lived responses, e.g. streams of events, logs or output of attached container, would hold
+     * permits until they are closed and would block other requests to the daemon.
+     */
+    private void releasePermit() {
+        if (acquired) {
+            acquired = false;
+            pool.release();
+        }
+    }
+
+    /**
+     * Sends request over socket taken from the pool. Daemon might close idle connection, so request may be repeated with new connection,
+     * but only when it is known that daemon did not get it: request could not be written or connection was closed before the first
+     * byte of response. Request is never repeated after timeout or if any part of response was read.
+     *
+     * @return response with read status or {@code null} if request should be repeated with new connection
+     */
+    private UnixSocketDockerResponse sendOverPooledSocket(String method,
+                                                          String path,
+                                                          String query,
+                                                          List<Pair<String, ?>> headers,
+                                                          Entity<?> entity) throws IOException {
+        try {
+            writeRequest(method, path, query, headers, entity);
+        } catch (SocketTimeoutException e) {
+            discardPooledSocket();
+            throw e;
+        } catch (IOException e) {
+            discardPooledSocket();
+            if (entity instanceof StreamEntity) {
+                // content of stream is partially consumed, request can't be repeated
+                throw e;
+            }
+            return null;
+        }
+        try {
+            final BufferedInputStream input = new BufferedInputStream(openInputStream(fd));
+            input.mark(1);
+            if (input.read() == -1) {
+                discardPooledSocket();
+                if (entity instanceof StreamEntity) {
+                    throw new IOException("Connection is closed by docker daemon");
+                }
+                return null;
+            }
+            input.reset();
+            final UnixSocketDockerResponse response = this.response = new UnixSocketDockerResponse(input);
+            response.getStatus();
+            return response;
+        } catch (IOException e) {
+            discardPooledSocket();
+            throw e;
+        }
+    }
+
+    private void discardPooledSocket() {
+        pool.closeSocket(fd);
+        fd = -1;
+    }
+
+    private UnixSocketDockerResponse send(String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
+            throws IOException {
+        writeRequest(method, path, query, headers, entity);
+        return response = new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
+    }
+
+    private void writeRequest(String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
+            throws IOException {
         final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
         writeHttpHeaders(output, method, path, query, headers);
         if (entity != null) {
             entity.writeTo(output);
         }
-        return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
     }
 
-
+    /**
+     * Closes connection. If connection is pooled, response is read till the end and daemon keeps connection alive then socket is
+     * returned to the pool to be used by the next request.
+     */
     @Override
     public void close() {
-        if (fd != -1) {
-            getCLibrary().close(fd);
+        try {
+            if (fd != -1) {
+                if (pool == null) {
+                    getCLibrary().close(fd);
+                } else if (pool.isKeepAlive() && response != null && response.isConnectionReusable(MAX_BYTES_TO_SKIP)) {
+                    pool.returnSocket(fd);
+                } else {
+                    pool.closeSocket(fd);
+                }
+                fd = -1;
+            }
+        } finally {
+            // permit is still held only if headers of response were not read
+            releasePermit();
+        }
+    }
+
+    /**
+     * Passes body of response to the selector that reads it asynchronously without blocking a thread. Since that moment socket is
+     * owned by selector and it is closed when stream ends, so socket is never reused for other requests and {@link #close()} of this
+     * connection has no effect. Body of response must not be read before this call.
+     *
+     * @param selector
+     *         selector that reads body of response
+     * @param consumer
+     *         consumer of body of response
+     * @return stream that is read by selector
+     * @throws IOException
+     *         if headers of response can't be read
+     */
+    public DockerStreamSelector.SelectableStream streamResponse(DockerStreamSelector selector,
+                                                                DockerStreamSelector.StreamConsumer consumer) throws IOException {
+        if (response == null) {
+            throw new IllegalStateException("Request is not sent");
         }
+        final ResponseBodyDecoder decoder = response.createBodyDecoder();
+        final byte[] prefetched = response.takeBufferedData();
+        final int streamFd = fd;
+        fd = -1;
+        return selector.register(streamFd, prefetched, decoder, () -> {
+            if (pool == null) {
+                getCLibrary().close(streamFd);
+            } else {
+                pool.closeSocket(streamFd);
+            }
+        }, consumer);
     }
 
     private int connect() throws IOException {
@@ -72,6 +226,7 @@ public class UnixSocketConnection extends DockerConnection {
         final SockAddrUn sockAddr = new SockAddrUn(dockerSocketPath);
         int c = cLib.connect(fd, sockAddr, sockAddr.size());
         if (c == -1) {
+            cLib.close(fd);
             throw new ConnectException(String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
         }
         return fd;
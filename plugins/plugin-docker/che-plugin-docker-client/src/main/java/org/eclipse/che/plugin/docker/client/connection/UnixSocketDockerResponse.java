@@ -13,6 +13,7 @@ package org.eclipse.che.plugin.docker.client.connection;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -143,6 +144,11 @@ public class UnixSocketDockerResponse implements DockerResponse {
             }
         }
         this.headersFields = headerFields.toArray(new String[headerFields.size()]);
+        final int status = getStatus();
+        if (status == 204 || status == 304 || (status >= 100 && status < 200 && status != 101)) {
+            // response has no body even if content length is not specified
+            return data = EMPTY;
+        }
         final int contentLength = getContentLength();
         if (contentLength == 0) {
             return data = EMPTY;
@@ -152,4 +158,64 @@ public class UnixSocketDockerResponse implements DockerResponse {
         }
         return data = "chunked".equals(getHeader("Transfer-Encoding")) ? new ChunkedInputStream(rawData) : rawData;
     }
+
+    /** Creates decoder of body of response that is used instead of {@link #getInputStream()} when body is read asynchronously. */
+    synchronized ResponseBodyDecoder createBodyDecoder() throws IOException {
+        getInputStream();
+        if (data == EMPTY) {
+            return new ResponseBodyDecoder(false, 0);
+        }
+        if (data instanceof LimitedInputStream) {
+            return new ResponseBodyDecoder(false, getContentLength());
+        }
+        return new ResponseBodyDecoder(data instanceof ChunkedInputStream, -1);
+    }
+
+    /**
+     * Takes raw data that is read from socket together with headers of response but not consumed yet.
+     *
+     * @return buffered data or {@code null} if there is no such data
+     */
+    synchronized byte[] takeBufferedData() throws IOException {
+        final int available = rawData.available();
+        if (available <= 0) {
+            return null;
+        }
+        final byte[] buffered = new byte[available];
+        int n = 0;
+        while (n < available) {
+            final int read = rawData.read(buffered, n, available - n);
+            if (read == -1) {
+                break;
+            }
+            n += read;
+        }
+        return n == available ? buffered : Arrays.copyOf(buffered, n);
+    }
+
+    /**
+     * Checks whether connection may be used for the next request. It is possible if daemon supports keep-alive and body of response is
+     * read till the end. Not read body of known length is skipped if it is not bigger than {@code maxBytesToSkip}. Chunked body is never
+     * skipped since end of streaming response, e.g. events or logs, may not come at all.
+     */
+    synchronized boolean isConnectionReusable(int maxBytesToSkip) {
+        if (headersFields == null || !headersFields[0].startsWith("HTTP/1.1")) {
+            return false;
+        }
+        try {
+            if (getStatus() == 101 || "close".equalsIgnoreCase(getHeader("Connection"))) {
+                return false;
+            }
+            if (data == EMPTY) {
+                return true;
+            }
+            if (data instanceof LimitedInputStream) {
+                final LimitedInputStream limited = (LimitedInputStream)data;
+                return limited.remaining() <= maxBytesToSkip && limited.skipRemaining();
+            }
+            return data instanceof ChunkedInputStream && ((ChunkedInputStream)data).isEof();
+        } catch (IOException e) {
+            return false;
+        }
+    }
 }
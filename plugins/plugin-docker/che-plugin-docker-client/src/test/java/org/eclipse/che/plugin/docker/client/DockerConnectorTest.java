@@ -71,6 +71,7 @@ import org.eclipse.che.plugin.docker.client.params.PushParams;
 import org.eclipse.che.plugin.docker.client.params.PutResourceParams;
 import org.eclipse.che.plugin.docker.client.params.RemoveContainerParams;
 import org.eclipse.che.plugin.docker.client.params.RemoveImageParams;
+import org.eclipse.che.plugin.docker.client.params.RenameContainerParams;
 import org.eclipse.che.plugin.docker.client.params.RemoveNetworkParams;
 import org.eclipse.che.plugin.docker.client.params.StartContainerParams;
 import org.eclipse.che.plugin.docker.client.params.StartExecParams;
@@ -104,6 +105,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
@@ -187,7 +189,9 @@ public class DockerConnectorTest {
     private DockerApiVersionPathPrefixProvider dockerApiVersionPathPrefixProvider;
 
     @Captor
-    private ArgumentCaptor<Object> captor;
+    private ArgumentCaptor<Object>     captor;
+    @Captor
+    private ArgumentCaptor<LogMessage> logMessageCaptor;
 
     private InputStream      inputStream;
     private DockerConnector  dockerConnector;
@@ -500,6 +504,31 @@ public class DockerConnectorTest {
         verify(dockerResponse).getStatus();
     }
 
+    @Test
+    public void shouldBeAbleToRenameContainer() throws IOException {
+        RenameContainerParams renameContainerParams = RenameContainerParams.create(CONTAINER, "new_name");
+
+        when(dockerResponse.getStatus()).thenReturn(RESPONSE_NO_CONTENT_CODE);
+
+        dockerConnector.renameContainer(renameContainerParams);
+
+        verify(dockerConnectionFactory).openConnection(any(URI.class));
+        verify(dockerConnection).method(REQUEST_METHOD_POST);
+        verify(dockerConnection).path("/containers/" + renameContainerParams.getContainer() + "/rename");
+        verify(dockerConnection).query("name", "new_name");
+        verify(dockerConnection).request();
+        verify(dockerResponse).getStatus();
+    }
+
+    @Test(expectedExceptions = DockerException.class, expectedExceptionsMessageRegExp = EXCEPTION_ERROR_MESSAGE)
+    public void shouldThrowDockerExceptionWhileRenamingContainerIfResponseCodeIsNotSuccess() throws IOException {
+        when(dockerResponse.getStatus()).thenReturn(RESPONSE_ERROR_CODE);
+
+        dockerConnector.renameContainer(RenameContainerParams.create(CONTAINER, "new_name"));
+
+        verify(dockerResponse).getStatus();
+    }
+
     @Test
     public void shouldBeAbleToRemoveContainer() throws IOException {
         RemoveContainerParams removeContainerParams = RemoveContainerParams.create(CONTAINER);
@@ -669,6 +698,21 @@ public class DockerConnectorTest {
         verify(dockerResponse).getInputStream();
     }
 
+    @Test
+    public void shouldBeAbleToGetContainerLogsAsynchronously() throws Exception {
+        GetContainerLogsParams getContainerLogsParams = GetContainerLogsParams.create(CONTAINER);
+        byte[] stream = {1, 0, 0, 0, 0, 0, 0, 6, 'h', 'e', 'l', 'l', 'o', '\n'};
+        when(dockerResponse.getInputStream()).thenReturn(new ByteArrayInputStream(stream));
+
+        dockerConnector.getContainerLogsAsync(getContainerLogsParams, logMessageProcessor).get(10, TimeUnit.SECONDS);
+
+        verify(dockerConnection).path("/containers/" + getContainerLogsParams.getContainer() + "/logs");
+        verify(logMessageProcessor).process(logMessageCaptor.capture());
+        assertEquals(logMessageCaptor.getValue().getType(), LogMessage.Type.STDOUT);
+        assertEquals(logMessageCaptor.getValue().getContent(), "hello");
+        verify(dockerConnection).close();
+    }
+
     @Test(expectedExceptions = DockerException.class, expectedExceptionsMessageRegExp = EXCEPTION_ERROR_MESSAGE)
     public void shouldThrowDockerExceptionWhileGettingContainerLogsIfResponseCodeIs5xx() throws IOException {
         GetContainerLogsParams getContainerLogsParams = GetContainerLogsParams.create(CONTAINER);
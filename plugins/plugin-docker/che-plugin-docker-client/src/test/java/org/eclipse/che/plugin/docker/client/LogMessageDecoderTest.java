@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+
+public class LogMessageDecoderTest {
+    @Test
+    public void decodesFramesAndLinesSplitBetweenPortions() throws Exception {
+        List<String> messages = new ArrayList<>();
+        LogMessageDecoder decoder = new LogMessageDecoder(message -> messages.add(message.getType() + ":" + message.getContent()));
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        writeFrame(raw, 1, "first line\r");
+        writeFrame(raw, 1, "\nsecond ");
+        writeFrame(raw, 2, "line\rthird line\n");
+        writeFrame(raw, 1, "not terminated");
+        byte[] data = raw.toByteArray();
+
+        for (int i = 0; i < data.length; i += 3) {
+            decoder.decode(data, i, Math.min(3, data.length - i));
+        }
+        decoder.finish();
+
+        assertEquals(messages, asList("STDOUT:first line",
+                                      "STDERR:second line\r",
+                                      "STDERR:third line",
+                                      "STDOUT:not terminated"));
+    }
+
+    @Test
+    public void splitsTooLongLines() throws Exception {
+        List<String> messages = new ArrayList<>();
+        LogMessageDecoder decoder = new LogMessageDecoder(message -> messages.add(message.getContent()));
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < LogMessageDecoder.MAX_LINE_LENGTH + 10; i++) {
+            line.append('a');
+        }
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        writeFrame(raw, 1, line + "\n");
+        byte[] data = raw.toByteArray();
+
+        decoder.decode(data, 0, data.length);
+        decoder.finish();
+
+        assertEquals(messages.size(), 2);
+        assertEquals(messages.get(0).length(), LogMessageDecoder.MAX_LINE_LENGTH);
+        assertEquals(messages.get(1).length(), 10);
+    }
+
+    private void writeFrame(ByteArrayOutputStream out, int type, String payload) {
+        byte[] bytes = payload.getBytes(UTF_8);
+        out.write(type);
+        out.write(0);
+        out.write(0);
+        out.write(0);
+        out.write(bytes.length >> 24);
+        out.write(bytes.length >> 16);
+        out.write(bytes.length >> 8);
+        out.write(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class DockerConnectionPoolTest {
+    private List<Integer>        closedSockets;
+    private DockerConnectionPool pool;
+
+    @BeforeMethod
+    public void setUp() {
+        closedSockets = new ArrayList<>();
+        pool = new DockerConnectionPool("unix:///var/run/docker.sock", 2, 10, 2, 60000, closedSockets::add);
+    }
+
+    @Test
+    public void reusesReturnedSockets() {
+        pool.returnSocket(1);
+        pool.returnSocket(2);
+        pool.returnSocket(3);
+
+        assertEquals(closedSockets, asList(3));
+        assertEquals(pool.getIdleConnections(), 2);
+        assertEquals(pool.pollSocket(), 2);
+        assertEquals(pool.pollSocket(), 1);
+        assertEquals(pool.pollSocket(), -1);
+        assertEquals(pool.getReusedConnectionsCount(), 2);
+    }
+
+    @Test
+    public void closesExpiredSockets() throws Exception {
+        pool = new DockerConnectionPool("unix:///var/run/docker.sock", 2, 10, 2, 0, closedSockets::add);
+        pool.returnSocket(1);
+
+        assertEquals(pool.pollSocket(), -1);
+        assertEquals(closedSockets, asList(1));
+    }
+
+    @Test
+    public void limitsNumberOfConcurrentRequests() throws Exception {
+        pool.acquire();
+        pool.acquire();
+        try {
+            pool.acquire();
+            throw new AssertionError("IOException expected");
+        } catch (IOException expected) {
+        }
+        assertEquals(pool.getActiveConnections(), 2);
+        assertEquals(pool.getRejectedRequestsCount(), 1);
+
+        pool.release();
+        pool.acquire();
+        assertEquals(pool.getRequestsCount(), 3);
+    }
+
+    @Test
+    public void streamingResponsesDoNotHoldPermitsOfPool() throws Exception {
+        final CountDownLatch streamsClosed = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/events", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            final OutputStream body = exchange.getResponseBody();
+            body.write("{}".getBytes(UTF_8));
+            body.flush();
+            try {
+                streamsClosed.await();
+            } catch (InterruptedException ignored) {
+            }
+            exchange.close();
+        });
+        server.createContext("/_ping", exchange -> {
+            final byte[] body = "OK".getBytes(UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        final URI daemonUri = URI.create("http://localhost:" + server.getAddress().getPort());
+        final List<DockerConnection> streams = new ArrayList<>();
+        try {
+            // one stream more than permits of the pool
+            for (int i = 0; i < 3; i++) {
+                final DockerConnection stream = new TcpConnection(daemonUri, null, 1000, 10000, pool).method("GET").path("/events");
+                streams.add(stream);
+                assertEquals(stream.request().getStatus(), 200);
+            }
+
+            try (DockerConnection connection = new TcpConnection(daemonUri, null, 1000, 10000, pool).method("GET").path("/_ping")) {
+                assertEquals(connection.request().getStatus(), 200);
+            }
+            assertEquals(pool.getActiveConnections(), 0);
+            assertEquals(pool.getRejectedRequestsCount(), 0);
+        } finally {
+            streamsClosed.countDown();
+            streams.forEach(DockerConnection::close);
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void connectionIsReusableWhenResponseBodyIsSkipped() throws Exception {
+        UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\nContent-Length: 5\r\n\r\nhello");
+
+        assertEquals(response.getStatus(), 200);
+        assertTrue(response.isConnectionReusable(1024));
+    }
+
+    @Test
+    public void connectionIsReusableWhenChunkedResponseIsReadTillTheEnd() throws Exception {
+        UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n0\r\n\r\n");
+        assertFalse(response.isConnectionReusable(1024));
+
+        byte[] buf = new byte[16];
+        while (response.getInputStream().read(buf) != -1) {
+        }
+
+        assertTrue(response.isConnectionReusable(1024));
+    }
+
+    @Test
+    public void connectionIsReusableAfterResponseWithoutContent() throws Exception {
+        UnixSocketDockerResponse response = response("HTTP/1.1 204 No Content\r\n\r\n");
+
+        assertEquals(response.getInputStream().read(), -1);
+        assertTrue(response.isConnectionReusable(0));
+    }
+
+    @Test
+    public void connectionIsNotReusableWhenDaemonClosesIt() throws Exception {
+        UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\nConnection: close\r\nContent-Length: 0\r\n\r\n");
+        response.getStatus();
+
+        assertFalse(response.isConnectionReusable(1024));
+    }
+
+    @Test
+    public void connectionIsNotReusableWhenNotReadBodyIsTooBig() throws Exception {
+        UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\nContent-Length: 5\r\n\r\nhello");
+        response.getStatus();
+
+        assertFalse(response.isConnectionReusable(4));
+    }
+
+    private UnixSocketDockerResponse response(String raw) {
+        return new UnixSocketDockerResponse(new ByteArrayInputStream(raw.getBytes(UTF_8)));
+    }
+}
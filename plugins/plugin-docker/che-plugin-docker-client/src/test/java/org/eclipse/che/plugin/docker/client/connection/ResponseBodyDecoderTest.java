@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ResponseBodyDecoderTest {
+    @Test
+    public void decodesChunkedBodySplitIntoSinglyBytes() throws Exception {
+        ResponseBodyDecoder decoder = new ResponseBodyDecoder(true, -1);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] raw = "5\r\nhello\r\nb;ext=1\r\n, docker!!!\r\n0\r\nTrailer: value\r\n\r\n".getBytes(UTF_8);
+
+        for (int i = 0; i < raw.length; i++) {
+            assertFalse(decoder.isCompleted());
+            decoder.decode(raw, i, 1, body::write);
+        }
+
+        assertTrue(decoder.isCompleted());
+        assertEquals(new String(body.toByteArray(), UTF_8), "hello, docker!!!");
+    }
+
+    @Test
+    public void stopsDecodingAtTheEndOfBodyOfKnownLength() throws Exception {
+        ResponseBodyDecoder decoder = new ResponseBodyDecoder(false, 5);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] raw = "hello, docker".getBytes(UTF_8);
+
+        decoder.decode(raw, 0, raw.length, body::write);
+
+        assertTrue(decoder.isCompleted());
+        assertEquals(new String(body.toByteArray(), UTF_8), "hello");
+    }
+
+    @Test
+    public void bodyOfUnknownLengthEndsWithEndOfStream() throws Exception {
+        ResponseBodyDecoder decoder = new ResponseBodyDecoder(false, -1);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] raw = "hello".getBytes(UTF_8);
+
+        decoder.decode(raw, 0, raw.length, body::write);
+
+        assertFalse(decoder.isCompleted());
+        assertTrue(decoder.isEndOfStreamAllowed());
+        assertEquals(new String(body.toByteArray(), UTF_8), "hello");
+    }
+
+    @Test
+    public void endOfStreamIsNotAllowedInTheMiddleOfChunkedBody() throws Exception {
+        ResponseBodyDecoder decoder = new ResponseBodyDecoder(true, -1);
+        byte[] raw = "5\r\nhel".getBytes(UTF_8);
+
+        decoder.decode(raw, 0, raw.length, (data, offset, length) -> {});
+
+        assertFalse(decoder.isEndOfStreamAllowed());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void failsOnInvalidChunkSize() throws Exception {
+        ResponseBodyDecoder decoder = new ResponseBodyDecoder(true, -1);
+        byte[] raw = "zz\r\nhello\r\n".getBytes(UTF_8);
+
+        decoder.decode(raw, 0, raw.length, (data, offset, length) -> {});
+    }
+}
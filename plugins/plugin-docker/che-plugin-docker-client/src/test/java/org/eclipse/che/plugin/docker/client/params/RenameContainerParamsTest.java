@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.params;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class RenameContainerParamsTest {
+
+    private static final String CONTAINER = "container";
+    private static final String NAME      = "new_name";
+
+    private RenameContainerParams renameContainerParams;
+
+    @BeforeMethod
+    private void prepare() {
+        renameContainerParams = RenameContainerParams.create(CONTAINER, NAME);
+    }
+
+    @Test
+    public void shouldCreateParamsObjectWithRequiredParameters() {
+        assertEquals(renameContainerParams.getContainer(), CONTAINER);
+        assertEquals(renameContainerParams.getName(), NAME);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionIfContainerRequiredParameterIsNull() {
+        RenameContainerParams.create(null, NAME);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionIfNameRequiredParameterIsNull() {
+        RenameContainerParams.create(CONTAINER, null);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldThrowNullPointerExceptionIfNameRequiredParameterResetWithNull() {
+        renameContainerParams.withName(null);
+    }
+
+}
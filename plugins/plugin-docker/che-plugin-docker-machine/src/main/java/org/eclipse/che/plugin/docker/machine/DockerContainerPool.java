@@ -0,0 +1,381 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.json.ContainerConfig;
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.params.CreateContainerParams;
+import org.eclipse.che.plugin.docker.client.params.RemoveContainerParams;
+import org.eclipse.che.plugin.docker.client.params.RenameContainerParams;
+import org.eclipse.che.plugin.docker.client.params.StartContainerParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps running containers which are not bound to any machine yet, so machine start may claim
+ * a warm container instead of creating and starting a new one.
+ *
+ * <p>Containers are grouped by the canonical JSON form of configuration they are created with, the image of configuration is
+ * identified by the image id, so containers of images built or pulled for different machines from
+ * the same recipe are interchangeable. Configuration becomes known to the pool when the first machine
+ * with such configuration starts, since that moment pool keeps up to
+ * {@code machine.docker.warm_pool.containers_per_config} warm containers of the configuration
+ * and refills them in background after claims.
+ *
+ * <p>Memory limits of all warm containers together must not exceed {@code machine.docker.warm_pool.max_memory_mb},
+ * when new warm container doesn't fit, containers of the least recently claimed configurations are evicted.
+ *
+ * <p>Only configurations without workspace specific parts may be shared, so dev-machines are never pooled,
+ * their containers bind projects folder and contain workspace id and user token in their environment.
+ *
+ * <p>Warm containers which are not known to the pool, e.g. left after restart of the server, are removed by
+ * {@link org.eclipse.che.plugin.docker.machine.cleaner.DockerContainerCleaner}.
+ */
+@Singleton
+public class DockerContainerPool {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerContainerPool.class);
+
+    /** Names of warm containers don't match {@link DockerContainerNameGenerator}, containers cleaner checks them with the pool. */
+    public static final String WARM_CONTAINER_NAME_PREFIX = "che_warm_";
+    /** Max number of remembered configurations, configurations which are not claimed for a long time are forgotten. */
+    static final int           MAX_CONFIGS                = 64;
+
+    private static final Gson GSON = new Gson();
+
+    private final DockerConnector         docker;
+    private final int                     containersPerConfig;
+    private final long                    maxMemory;
+    private final ExecutorService         refillExecutor;
+    /** Pools in the order of access, the least recently claimed pool goes first. Guarded by {@code this}. */
+    private final Map<String, ConfigPool> pools;
+    /** Names of containers which are created, warm or being claimed at the moment. Guarded by {@code this}. */
+    private final Set<String>             ownedNames;
+
+    /** Sum of memory limits of warm and creating containers. Guarded by {@code this}. */
+    private long    warmMemory;
+    private boolean closed;
+
+    @Inject
+    public DockerContainerPool(DockerConnector docker,
+                               @Named("machine.docker.warm_pool.containers_per_config") int containersPerConfig,
+                               @Named("machine.docker.warm_pool.max_memory_mb") long maxMemoryMb) {
+        this.docker = docker;
+        this.containersPerConfig = containersPerConfig;
+        this.maxMemory = maxMemoryMb * 1024 * 1024;
+        this.pools = new LinkedHashMap<>(16, 0.75f, true);
+        this.ownedNames = new HashSet<>();
+        this.refillExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("DockerContainerPool-%d")
+                                                                                          .setDaemon(true)
+                                                                                          .build());
+    }
+
+    /** Returns true if pool keeps warm containers. */
+    public boolean isEnabled() {
+        return containersPerConfig > 0 && maxMemory > 0;
+    }
+
+    /**
+     * Claims warm container created with the same configuration and renames it to the given name.
+     * Pool is refilled with containers of the configuration in background.
+     *
+     * <p>Configuration is not modified, pool keeps its own copy of configuration with image replaced
+     * by the id of the image to create warm containers.
+     *
+     * @param config
+     *         configuration of container of the machine
+     * @param containerName
+     *         name of container of the machine
+     * @return id of running container or empty optional if there is no warm container with such configuration
+     */
+    public Optional<String> claim(ContainerConfig config, String containerName) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        final ContainerConfig poolConfig = GSON.fromJson(GSON.toJsonTree(config), ContainerConfig.class);
+        try {
+            poolConfig.setImage(docker.inspectImage(config.getImage()).getId());
+        } catch (IOException e) {
+            LOG.warn("Can't inspect image '{}' of container '{}'. {}", config.getImage(), containerName, e.getLocalizedMessage());
+            return Optional.empty();
+        }
+        final String key = keyOf(poolConfig);
+        ConfigPool pool;
+        final List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            pool = pools.get(key);
+            if (pool == null) {
+                pool = new ConfigPool(key, poolConfig);
+                pools.put(key, pool);
+                forgetEldestConfigs(evicted);
+            }
+        }
+        removeContainers(evicted);
+        WarmContainer container = null;
+        try {
+            while ((container = takeWarmContainer(pool)) != null) {
+                final ContainerInfo info = docker.inspectContainer(container.id);
+                if (info.getState() != null && info.getState().isRunning()) {
+                    docker.renameContainer(RenameContainerParams.create(container.id, containerName));
+                    LOG.debug("Warm container '{}' is claimed as '{}'", container.id, containerName);
+                    return Optional.of(container.id);
+                }
+                // container stopped while it was waiting for a machine
+                removeContainer(container.id);
+                forgetName(container.name);
+            }
+        } catch (IOException e) {
+            LOG.warn("Can't claim warm container for '{}'. {}", containerName, e.getLocalizedMessage());
+            if (container != null) {
+                removeContainer(container.id);
+            }
+        } finally {
+            if (container != null) {
+                // container is either renamed or removed
+                forgetName(container.name);
+            }
+            scheduleRefill(pool);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Checks whether container with the given name is a warm container of this pool, including containers
+     * which are created or claimed at the moment.
+     *
+     * @param containerName
+     *         name of container, leading slash is ignored
+     */
+    public synchronized boolean isWarmContainer(String containerName) {
+        return ownedNames.contains(containerName.startsWith("/") ? containerName.substring(1) : containerName);
+    }
+
+    /** Removes all the warm containers, containers are not created after that. */
+    @PreDestroy
+    public void shutdown() {
+        refillExecutor.shutdownNow();
+        final List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (ConfigPool pool : pools.values()) {
+                evict(pool, pool.warm.size(), evicted);
+            }
+            pools.clear();
+        }
+        removeContainers(evicted);
+    }
+
+    /** Takes warm container of the pool, name of container stays owned until the container is renamed or removed. */
+    private synchronized WarmContainer takeWarmContainer(ConfigPool pool) {
+        final WarmContainer container = pool.warm.poll();
+        if (container != null) {
+            warmMemory -= pool.memory;
+        }
+        return container;
+    }
+
+    private synchronized void forgetName(String containerName) {
+        ownedNames.remove(containerName);
+    }
+
+    private void scheduleRefill(ConfigPool pool) {
+        try {
+            refillExecutor.execute(() -> refill(pool));
+        } catch (RejectedExecutionException ignored) {
+            // pool is shut down
+        }
+    }
+
+    private void refill(ConfigPool pool) {
+        while (true) {
+            final List<String> evicted = new ArrayList<>();
+            final String containerName = NameGenerator.generate(WARM_CONTAINER_NAME_PREFIX, 16);
+            synchronized (this) {
+                if (closed
+                    || pools.get(pool.key) != pool
+                    || pool.warm.size() + pool.creating >= containersPerConfig
+                    || !reserveMemory(pool, evicted)) {
+                    break;
+                }
+                pool.creating++;
+                // name is owned before container is created, so cleaner doesn't remove container which is being started
+                ownedNames.add(containerName);
+            }
+            removeContainers(evicted);
+            String containerId = null;
+            try {
+                containerId = docker.createContainer(CreateContainerParams.create(pool.config).withContainerName(containerName))
+                                    .getId();
+                docker.startContainer(StartContainerParams.create(containerId));
+            } catch (IOException e) {
+                LOG.warn("Can't create warm container with image '{}'. {}", pool.config.getImage(), e.getLocalizedMessage());
+                if (containerId != null) {
+                    removeContainer(containerId);
+                }
+                synchronized (this) {
+                    pool.creating--;
+                    warmMemory -= pool.memory;
+                    ownedNames.remove(containerName);
+                }
+                // don't retry, pool is refilled with the next claim
+                return;
+            }
+            boolean added = false;
+            synchronized (this) {
+                pool.creating--;
+                if (!closed && pools.get(pool.key) == pool) {
+                    pool.warm.add(new WarmContainer(containerId, containerName));
+                    added = true;
+                } else {
+                    warmMemory -= pool.memory;
+                }
+            }
+            if (!added) {
+                removeContainer(containerId);
+                forgetName(containerName);
+            }
+        }
+    }
+
+    /**
+     * Reserves memory for a new container of the pool evicting containers of the least recently
+     * claimed pools if needed. Returns false if there is not enough memory even after eviction.
+     */
+    private boolean reserveMemory(ConfigPool pool, List<String> evicted) {
+        if (pool.memory > maxMemory) {
+            return false;
+        }
+        for (Iterator<ConfigPool> it = pools.values().iterator(); it.hasNext() && warmMemory + pool.memory > maxMemory; ) {
+            final ConfigPool candidate = it.next();
+            if (candidate != pool) {
+                evict(candidate, candidate.warm.size(), evicted);
+            }
+        }
+        if (warmMemory + pool.memory > maxMemory) {
+            return false;
+        }
+        warmMemory += pool.memory;
+        return true;
+    }
+
+    private void forgetEldestConfigs(List<String> evicted) {
+        for (Iterator<ConfigPool> it = pools.values().iterator(); it.hasNext() && pools.size() > MAX_CONFIGS; ) {
+            final ConfigPool pool = it.next();
+            evict(pool, pool.warm.size(), evicted);
+            it.remove();
+        }
+    }
+
+    private void evict(ConfigPool pool, int count, List<String> evicted) {
+        for (int i = 0; i < count && !pool.warm.isEmpty(); i++) {
+            final WarmContainer container = pool.warm.poll();
+            evicted.add(container.id);
+            ownedNames.remove(container.name);
+            warmMemory -= pool.memory;
+        }
+    }
+
+    private void removeContainers(List<String> containers) {
+        for (String containerId : containers) {
+            removeContainer(containerId);
+        }
+    }
+
+    private void removeContainer(String containerId) {
+        try {
+            docker.removeContainer(RemoveContainerParams.create(containerId).withForce(true).withRemoveVolumes(true));
+        } catch (IOException e) {
+            LOG.warn("Can't remove warm container '{}'. {}", containerId, e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Returns canonical JSON of configuration. Fields of objects are sorted by names, so configurations which differ
+     * only in the order of entries of maps, e.g. exposed ports or labels, have the same key.
+     */
+    static String keyOf(ContainerConfig config) {
+        return canonicalize(GSON.toJsonTree(config)).toString();
+    }
+
+    private static JsonElement canonicalize(JsonElement element) {
+        if (element.isJsonObject()) {
+            final Map<String, JsonElement> sorted = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                sorted.put(entry.getKey(), canonicalize(entry.getValue()));
+            }
+            final JsonObject canonical = new JsonObject();
+            sorted.forEach(canonical::add);
+            return canonical;
+        }
+        if (element.isJsonArray()) {
+            final JsonArray canonical = new JsonArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                canonical.add(canonicalize(item));
+            }
+            return canonical;
+        }
+        return element;
+    }
+
+    /** Warm containers of the same configuration. Guarded by {@link DockerContainerPool}. */
+    private static class ConfigPool {
+        final String               key;
+        final ContainerConfig      config;
+        final long                 memory;
+        final Deque<WarmContainer> warm;
+
+        int creating;
+
+        ConfigPool(String key, ContainerConfig config) {
+            this.key = key;
+            this.config = config;
+            this.memory = config.getHostConfig() == null ? 0 : config.getHostConfig().getMemory();
+            this.warm = new ArrayDeque<>();
+        }
+    }
+
+    private static class WarmContainer {
+        final String id;
+        final String name;
+
+        WarmContainer(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
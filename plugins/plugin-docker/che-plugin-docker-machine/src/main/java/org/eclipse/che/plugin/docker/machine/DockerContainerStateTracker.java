@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ObjectArrays;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.MessageProcessor;
+import org.eclipse.che.plugin.docker.client.exception.DockerException;
+import org.eclipse.che.plugin.docker.client.json.ContainerListEntry;
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.json.ExecInfo;
+import org.eclipse.che.plugin.docker.client.json.Filters;
+import org.eclipse.che.plugin.docker.client.params.GetEventsParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.eclipse.che.plugin.docker.client.DockerApiVersionPathPrefixProvider.MACHINE_DOCKER_API_VERSION;
+
+/**
+ * Keeps state of docker containers and of processes executed in them, so the state is read
+ * from memory instead of requests to docker daemon.
+ *
+ * <p>State is updated from the stream of docker events. This is the only subscription to docker
+ * events in the application, other components receive the events through {@link #addEventsListener}.
+ * Events lost while connection to docker is re-established and state of execs which docker
+ * doesn't send events about (docker sends {@code exec_die} only since API 1.30) are caught up
+ * by the periodic {@link #reconcile() reconciliation}, which lists containers and inspects execs
+ * which are still considered running. When docker API is older than 1.30 the state of execs
+ * may be stale, see {@link #isExecEventsSupported()}.
+ */
+@Singleton
+public class DockerContainerStateTracker {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerContainerStateTracker.class);
+
+    private static final String[] CONTAINER_EVENTS = {"create", "start", "die", "destroy", "oom", "rename"};
+    private static final String   EXEC_DIE_EVENT   = "exec_die";
+
+    private static final int  EXEC_EVENTS_MIN_API_MAJOR = 1;
+    private static final int  EXEC_EVENTS_MIN_API_MINOR = 30;
+    private static final long MIN_RECONNECT_DELAY_MS    = 1000;
+    private static final long MAX_RECONNECT_DELAY_MS    = 60000;
+
+    private final DockerConnector               docker;
+    private final Map<String, ContainerState>   containers;
+    private final Map<String, ExecState>        execs;
+    private final List<MessageProcessor<Event>> listeners;
+    private final ExecutorService               executor;
+    private final String                        apiVersion;
+
+    private volatile long    lastEventTime;
+    private volatile boolean execEventsSupported;
+
+    @Inject
+    public DockerContainerStateTracker(DockerConnector docker, @Named(MACHINE_DOCKER_API_VERSION) String apiVersion) {
+        this.docker = docker;
+        this.apiVersion = apiVersion;
+        this.execEventsSupported = !isNullOrEmpty(apiVersion) && isApiVersionAtLeast(apiVersion,
+                                                                                      EXEC_EVENTS_MIN_API_MAJOR,
+                                                                                      EXEC_EVENTS_MIN_API_MINOR);
+        this.containers = new ConcurrentHashMap<>();
+        this.execs = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("DockerContainerStateTracker-%d")
+                                                                                    .setDaemon(true)
+                                                                                    .build());
+    }
+
+    /**
+     * Adds listener of docker events.
+     *
+     * <p>Listener receives container events {@code create, start, die, destroy, oom, rename} and {@code exec_die}
+     * after they are applied to the state of containers. Listener must not block.
+     */
+    public void addEventsListener(MessageProcessor<Event> listener) {
+        listeners.add(listener);
+    }
+
+    /** Returns all the known containers, including stopped ones. */
+    public Collection<ContainerState> getContainers() {
+        return new ArrayList<>(containers.values());
+    }
+
+    /**
+     * Returns state of container.
+     *
+     * @param containerId
+     *         id of container
+     * @return state of container or null if container is not known yet or doesn't exist
+     */
+    @Nullable
+    public ContainerState getContainer(String containerId) {
+        return containers.get(containerId);
+    }
+
+    /**
+     * Starts tracking of exec which was started in detached mode.
+     *
+     * @param execId
+     *         id of exec
+     * @param containerId
+     *         id of container the exec is executed in
+     */
+    public void trackExec(String execId, String containerId) {
+        execs.put(execId, new ExecState(containerId, true, System.nanoTime()));
+    }
+
+    /** Stops tracking of exec. */
+    public void untrackExec(String execId) {
+        execs.remove(execId);
+    }
+
+    /**
+     * Returns true if exec is tracked and it is running.
+     *
+     * <p>If docker doesn't send {@code exec_die} events, see {@link #isExecEventsSupported()},
+     * exec may have finished since the last reconciliation.
+     */
+    public boolean isExecRunning(String execId) {
+        final ExecState exec = execs.get(execId);
+        return exec != null && exec.running;
+    }
+
+    /**
+     * Returns true if docker sends {@code exec_die} events, so {@link #isExecRunning(String)} reflects
+     * the state of exec without delay. Such events are sent since docker API 1.30, until the version
+     * of docker API is known, false is returned.
+     */
+    public boolean isExecEventsSupported() {
+        return execEventsSupported;
+    }
+
+    /**
+     * Replaces state of containers and running execs with the state reported by docker.
+     *
+     * <p>Changes of the state which were applied from events after reconciliation has started are preserved.
+     */
+    @ScheduleRate(periodParameterName = "machine.docker.state_reconciliation_period_sec",
+                  initialDelayParameterName = "machine.docker.state_reconciliation_period_sec",
+                  unit = TimeUnit.SECONDS)
+    public void reconcile() {
+        final long startedAt = System.nanoTime();
+        try {
+            final Set<String> listed = new HashSet<>();
+            for (ContainerListEntry entry : docker.listContainers()) {
+                listed.add(entry.getId());
+                final ContainerState state = new ContainerState(entry.getId(),
+                                                                entry.getNames() != null && entry.getNames().length > 0
+                                                                ? entry.getNames()[0] : null,
+                                                                entry.getStatus() != null && entry.getStatus().startsWith("Up"),
+                                                                startedAt);
+                containers.merge(entry.getId(), state, (old, listedState) -> old.updatedAt > startedAt ? old : listedState);
+            }
+            for (ContainerState state : containers.values()) {
+                if (!listed.contains(state.getId()) && state.updatedAt < startedAt) {
+                    containers.remove(state.getId(), state);
+                    removeExecs(state.getId());
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to reconcile state of docker containers. " + e.getLocalizedMessage());
+        }
+
+        for (Map.Entry<String, ExecState> entry : execs.entrySet()) {
+            if (entry.getValue().running && entry.getValue().updatedAt < startedAt) {
+                reconcileExec(entry.getKey(), entry.getValue(), startedAt);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void onEvent(Event event) {
+        if (event.getType() != null && !"container".equals(event.getType())) {
+            // docker swarm doesn't filter events by type
+            return;
+        }
+        if (event.getStatus() == null) {
+            // events which are not related to containers have only action
+            return;
+        }
+        final long now = System.nanoTime();
+        final String containerId = event.getId();
+        switch (event.getStatus()) {
+            case "create":
+                containers.merge(containerId,
+                                 new ContainerState(containerId, getContainerName(event), false, now),
+                                 (old, created) -> created.name == null ? old : created);
+                break;
+            case "rename":
+                final String name = getContainerName(event);
+                if (name != null) {
+                    containers.computeIfPresent(containerId, (id, old) -> new ContainerState(id, name, old.running, now));
+                }
+                break;
+            case "start":
+                containers.compute(containerId, (id, old) -> new ContainerState(id, old != null ? old.name : null, true, now));
+                break;
+            case "die":
+                containers.compute(containerId, (id, old) -> new ContainerState(id, old != null ? old.name : null, false, now));
+                for (Map.Entry<String, ExecState> entry : execs.entrySet()) {
+                    if (entry.getValue().containerId.equals(containerId)) {
+                        execs.replace(entry.getKey(), entry.getValue(), new ExecState(containerId, false, now));
+                    }
+                }
+                break;
+            case "destroy":
+                containers.remove(containerId);
+                removeExecs(containerId);
+                break;
+            case EXEC_DIE_EVENT:
+                final String execId = getAttribute(event, "execID");
+                if (execId != null) {
+                    execs.computeIfPresent(execId, (id, old) -> new ExecState(old.containerId, false, now));
+                }
+                break;
+            default:
+                // we don't care about other event types
+        }
+        if (event.getTime() > lastEventTime) {
+            lastEventTime = event.getTime();
+        }
+        for (MessageProcessor<Event> listener : listeners) {
+            try {
+                listener.process(event);
+            } catch (RuntimeException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    @PostConstruct
+    private void start() {
+        lastEventTime = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        executor.execute(() -> {
+            if (isNullOrEmpty(apiVersion)) {
+                detectExecEventsSupport();
+            }
+            reconcile();
+            final String[] trackedEvents = execEventsSupported ? ObjectArrays.concat(CONTAINER_EVENTS, EXEC_DIE_EVENT)
+                                                               : CONTAINER_EVENTS;
+            long reconnectDelay = MIN_RECONNECT_DELAY_MS;
+            while (!Thread.currentThread().isInterrupted()) {
+                final long connectedAt = System.currentTimeMillis();
+                try {
+                    docker.getEvents(GetEventsParams.create()
+                                                    .withSinceSecond(lastEventTime)
+                                                    .withFilters(new Filters().withFilter("event", trackedEvents)),
+                                     this::onEvent);
+                } catch (IOException e) {
+                    // usually connection timeout
+                    LOG.debug(e.getLocalizedMessage(), e);
+                }
+                if (System.currentTimeMillis() - connectedAt > MAX_RECONNECT_DELAY_MS) {
+                    // connection was alive long enough, so docker is available again
+                    reconnectDelay = MIN_RECONNECT_DELAY_MS;
+                }
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MS);
+            }
+        });
+    }
+
+    @PreDestroy
+    private void stop() {
+        executor.shutdownNow();
+    }
+
+    private void reconcileExec(String execId, ExecState exec, long startedAt) {
+        try {
+            final ExecInfo execInfo = docker.getExecInfo(execId);
+            if (!execInfo.isRunning()) {
+                execs.replace(execId, exec, new ExecState(exec.containerId, false, startedAt));
+            }
+        } catch (DockerException e) {
+            if (e.getStatus() == 404) {
+                execs.replace(execId, exec, new ExecState(exec.containerId, false, startedAt));
+            } else {
+                LOG.warn("Unable to inspect exec {}. {}", execId, e.getLocalizedMessage());
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to inspect exec {}. {}", execId, e.getLocalizedMessage());
+        }
+    }
+
+    private void detectExecEventsSupport() {
+        try {
+            execEventsSupported = isApiVersionAtLeast(docker.getVersion().getApiVersion(),
+                                                      EXEC_EVENTS_MIN_API_MAJOR,
+                                                      EXEC_EVENTS_MIN_API_MINOR);
+        } catch (IOException e) {
+            LOG.warn("Unable to get version of docker API, exec events are not tracked. " + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Returns name of container in the format it is listed by docker. Events of docker API older
+     * than 1.22 don't have attributes, so name is inspected then.
+     */
+    private String getContainerName(Event event) {
+        final String name = getAttribute(event, "name");
+        if (name != null) {
+            return name.startsWith("/") ? name : '/' + name;
+        }
+        try {
+            return docker.inspectContainer(event.getId()).getName();
+        } catch (IOException e) {
+            // name is set on the next reconciliation
+            LOG.debug("Unable to inspect container {}. {}", event.getId(), e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    private void removeExecs(String containerId) {
+        execs.values().removeIf(exec -> exec.containerId.equals(containerId));
+    }
+
+    @VisibleForTesting
+    static boolean isApiVersionAtLeast(String version, int major, int minor) {
+        if (version == null) {
+            return false;
+        }
+        final String[] parts = version.trim().split("\\.");
+        try {
+            final int actualMajor = Integer.parseInt(parts[0]);
+            final int actualMinor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return actualMajor > major || (actualMajor == major && actualMinor >= minor);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String getAttribute(Event event, String name) {
+        if (event.getActor() == null || event.getActor().getAttributes() == null) {
+            return null;
+        }
+        return event.getActor().getAttributes().get(name);
+    }
+
+    /** State of docker container. */
+    public static class ContainerState {
+        private final String  id;
+        private final String  name;
+        private final boolean running;
+        private final long    updatedAt;
+
+        ContainerState(String id, String name, boolean running, long updatedAt) {
+            this.id = id;
+            this.name = name;
+            this.running = running;
+            this.updatedAt = updatedAt;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /** Returns name of container as it is listed by docker, e.g. {@code /container_name}, or null if it is not known yet. */
+        @Nullable
+        public String getName() {
+            return name;
+        }
+
+        public boolean isRunning() {
+            return running;
+        }
+    }
+
+    private static class ExecState {
+        final String  containerId;
+        final boolean running;
+        final long    updatedAt;
+
+        ExecState(String containerId, boolean running, long updatedAt) {
+            this.containerId = containerId;
+            this.running = running;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
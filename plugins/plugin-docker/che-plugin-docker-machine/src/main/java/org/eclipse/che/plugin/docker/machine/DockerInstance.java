@@ -47,8 +47,12 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
@@ -99,6 +103,7 @@ public class DockerInstance extends AbstractInstance {
     private final DockerNode                                  node;
     private final DockerInstanceStopDetector                  dockerInstanceStopDetector;
     private final DockerInstanceProcessesCleaner              processesCleaner;
+    private final DockerContainerStateTracker                 stateTracker;
     private final ConcurrentHashMap<Integer, InstanceProcess> machineProcesses;
     private final boolean                                     snapshotUseRegistry;
 
@@ -116,6 +121,7 @@ public class DockerInstance extends AbstractInstance {
                           @Assisted LineConsumer outputConsumer,
                           DockerInstanceStopDetector dockerInstanceStopDetector,
                           DockerInstanceProcessesCleaner processesCleaner,
+                          DockerContainerStateTracker stateTracker,
                           @Named("machine.docker.snapshot_use_registry") boolean snapshotUseRegistry) {
         super(machine);
         this.dockerMachineFactory = dockerMachineFactory;
@@ -128,6 +134,7 @@ public class DockerInstance extends AbstractInstance {
         this.node = node;
         this.dockerInstanceStopDetector = dockerInstanceStopDetector;
         this.processesCleaner = processesCleaner;
+        this.stateTracker = stateTracker;
         this.machineProcesses = new ConcurrentHashMap<>();
         processesCleaner.trackProcesses(this);
         this.snapshotUseRegistry = snapshotUseRegistry;
@@ -164,15 +171,49 @@ public class DockerInstance extends AbstractInstance {
                 return machineProcess;
             } catch (NotFoundException e) {
                 machineProcesses.remove(pid);
+                if (machineProcess instanceof DockerProcess) {
+                    ((DockerProcess)machineProcess).release();
+                }
                 throw e;
             }
         }
         throw new NotFoundException(format("Process with pid %s not found", pid));
     }
 
+    /**
+     * Returns processes which are alive, their state is tracked by {@link DockerContainerStateTracker}.
+     * If docker doesn't send events about finished execs, detached processes are additionally checked
+     * in the container with a single exec. Finished processes are forgotten.
+     */
     @Override
     public List<InstanceProcess> getProcesses() throws MachineException {
-        List<InstanceProcess> processes = new LinkedList<>();
+        final Set<Integer> alivePids = stateTracker.isExecEventsSupported() ? null : getAlivePidsInContainer();
+        final List<InstanceProcess> processes = new LinkedList<>();
+        for (Iterator<Map.Entry<Integer, InstanceProcess>> it = machineProcesses.entrySet().iterator(); it.hasNext(); ) {
+            final Map.Entry<Integer, InstanceProcess> entry = it.next();
+            if (!(entry.getValue() instanceof DockerProcess)) {
+                if (entry.getValue().isAlive()) {
+                    processes.add(entry.getValue());
+                }
+                continue;
+            }
+            final DockerProcess process = (DockerProcess)entry.getValue();
+            if (!process.isStarted()) {
+                // process is created but not started yet
+                continue;
+            }
+            if (process.isTrackedAlive() && (alivePids == null || !process.isDetached() || alivePids.contains(entry.getKey()))) {
+                processes.add(process);
+            } else {
+                it.remove();
+                process.release();
+            }
+        }
+        return processes;
+    }
+
+    private Set<Integer> getAlivePidsInContainer() throws MachineException {
+        final Set<Integer> pids = new HashSet<>();
         try {
             final Exec exec = docker.createExec(CreateExecParams.create(container,
                                                                         new String[] {"/bin/bash",
@@ -180,22 +221,15 @@ public class DockerInstance extends AbstractInstance {
                                                                                       GET_ALIVE_PROCESSES_COMMAND})
                                                                 .withDetach(false));
             docker.startExec(StartExecParams.create(exec.getId()), logMessage -> {
-                final String pidFilePath = logMessage.getContent().trim();
-                final Matcher matcher = PID_FILE_PATH_PATTERN.matcher(pidFilePath);
+                final Matcher matcher = PID_FILE_PATH_PATTERN.matcher(logMessage.getContent().trim());
                 if (matcher.matches()) {
-                    final int virtualPid = Integer.parseInt(matcher.group(1));
-                    final InstanceProcess dockerProcess = machineProcesses.get(virtualPid);
-                    if (dockerProcess != null) {
-                        processes.add(dockerProcess);
-                    } else {
-                        LOG.warn("Machine process {} exists in container but missing in processes map", virtualPid);
-                    }
+                    pids.add(Integer.parseInt(matcher.group(1)));
                 }
             });
-            return processes;
         } catch (IOException e) {
             throw new MachineException(e);
         }
+        return pids;
     }
 
     @Override
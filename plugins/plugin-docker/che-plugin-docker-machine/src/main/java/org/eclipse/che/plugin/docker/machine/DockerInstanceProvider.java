@@ -15,7 +15,6 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
 import com.google.common.collect.ObjectArrays;
 import com.google.common.collect.Sets;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
@@ -47,10 +46,12 @@ import org.eclipse.che.plugin.docker.client.DockerfileParser;
 import org.eclipse.che.plugin.docker.client.ProgressLineFormatterImpl;
 import org.eclipse.che.plugin.docker.client.ProgressMonitor;
 import org.eclipse.che.plugin.docker.client.UserSpecificDockerRegistryCredentialsProvider;
+import org.eclipse.che.plugin.docker.client.dto.AuthConfigs;
 import org.eclipse.che.plugin.docker.client.exception.ContainerNotFoundException;
 import org.eclipse.che.plugin.docker.client.exception.ImageNotFoundException;
 import org.eclipse.che.plugin.docker.client.json.ContainerConfig;
 import org.eclipse.che.plugin.docker.client.json.HostConfig;
+import org.eclipse.che.plugin.docker.client.json.ProgressStatus;
 import org.eclipse.che.plugin.docker.client.params.BuildImageParams;
 import org.eclipse.che.plugin.docker.client.params.CreateContainerParams;
 import org.eclipse.che.plugin.docker.client.params.GetContainerLogsParams;
@@ -81,8 +82,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -121,7 +121,6 @@ public class DockerInstanceProvider implements InstanceProvider {
 
     private final DockerConnector                               docker;
     private final UserSpecificDockerRegistryCredentialsProvider dockerCredentials;
-    private final ExecutorService                               executor;
     private final DockerInstanceStopDetector                    dockerInstanceStopDetector;
     private final DockerContainerNameGenerator                  containerNameGenerator;
     private final RecipeRetriever                               recipeRetriever;
@@ -141,6 +140,9 @@ public class DockerInstanceProvider implements InstanceProvider {
     private final boolean                                       snapshotUseRegistry;
     private final double                                        memorySwapMultiplier;
 
+    private DockerContainerPool containerPool;
+    private RecipeImageCache    recipeImageCache;
+
     @Inject
     public DockerInstanceProvider(DockerConnector docker,
                                   DockerConnectorConfiguration dockerConnectorConfiguration,
@@ -224,10 +226,18 @@ public class DockerInstanceProvider implements InstanceProvider {
         } else {
             this.allMachinesExtraHosts = ObjectArrays.concat(allMachinesExtraHosts.split(","), cheHostAlias);
         }
+    }
+
+    /** Sets pool of warm containers that are claimed by non-dev machines instead of creating new containers. */
+    @Inject(optional = true)
+    void setContainerPool(DockerContainerPool containerPool) {
+        this.containerPool = containerPool;
+    }
 
-        executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("MachineLogsStreamer-%d")
-                                                                           .setDaemon(true)
-                                                                           .build());
+    /** Sets cache of images built from recipes, images are built for each machine if cache is not configured. */
+    @Inject(optional = true)
+    void setRecipeImageCache(RecipeImageCache recipeImageCache) {
+        this.recipeImageCache = recipeImageCache;
     }
 
     /**
@@ -392,6 +402,27 @@ public class DockerInstanceProvider implements InstanceProvider {
         Dockerfile dockerfile = parseRecipe(recipe);
         long memoryLimit = (long)machineConfig.getLimits().getRam() * 1024 * 1024;
 
+        final AuthConfigs credentials = dockerCredentials.getCredentials();
+        // Dockerfile is the whole build context, so image built from the same recipe may be reused,
+        // unless base images should be pulled on each build
+        final String recipeDigest = recipeImageCache == null || doForcePullOnBuild
+                                    ? null
+                                    : RecipeImageCache.digest(recipe.getScript(), credentials);
+        if (recipeDigest != null) {
+            final Optional<String> cachedImage = recipeImageCache.get(recipeDigest);
+            if (cachedImage.isPresent()) {
+                try {
+                    docker.tag(TagParams.create(cachedImage.get(), machineImageName).withForce(true));
+                    final ProgressStatus status = new ProgressStatus();
+                    status.setStatus("Using image " + cachedImage.get() + " built from the same recipe");
+                    progressMonitor.updateProgress(status);
+                    return;
+                } catch (IOException e) {
+                    LOG.warn("Can't use cached image '{}', recipe is built. {}", cachedImage.get(), e.getLocalizedMessage());
+                }
+            }
+        }
+
         File workDir = null;
         try {
             // build docker image
@@ -402,11 +433,14 @@ public class DockerInstanceProvider implements InstanceProvider {
             docker.buildImage(BuildImageParams.create(dockerfileFile)
                                               .withForceRemoveIntermediateContainers(true)
                                               .withRepository(machineImageName)
-                                              .withAuthConfigs(dockerCredentials.getCredentials())
+                                              .withAuthConfigs(credentials)
                                               .withDoForcePull(doForcePullOnBuild)
                                               .withMemoryLimit(memoryLimit)
                                               .withMemorySwapLimit(-1),
                               progressMonitor);
+            if (recipeDigest != null) {
+                recipeImageCache.put(recipeDigest, machineImageName);
+            }
         } catch (IOException e) {
             throw new MachineException(e.getLocalizedMessage(), e);
         } finally {
@@ -501,6 +535,48 @@ public class DockerInstanceProvider implements InstanceProvider {
         }
     }
 
+    /**
+     * Streams logs of container to the machine output asynchronously. Logs are read until container stops, the stream is reopened
+     * if docker daemon doesn't send data for too long and connection is closed by read timeout.
+     *
+     * @param since
+     *         UNIX timestamp of the first log message to stream, {@code 0} means all logs
+     */
+    private void streamContainerLogs(String containerId,
+                                     String containerName,
+                                     Machine machine,
+                                     LineConsumer outputConsumer,
+                                     long since) {
+        try {
+            docker.getContainerLogsAsync(GetContainerLogsParams.create(containerId)
+                                                               .withFollow(true)
+                                                               .withSince(since),
+                                         new LogMessagePrinter(outputConsumer))
+                  .whenComplete((ignored, error) -> {
+                      if (error instanceof SocketTimeoutException) {
+                          // reconnect to container
+                          streamContainerLogs(containerId, containerName, machine, outputConsumer, System.currentTimeMillis() / 1000L);
+                      } else if (error != null
+                                 && !(error instanceof ContainerNotFoundException)
+                                 && !(error instanceof CancellationException)) {
+                          LOG.error("Failed to get logs from machine {} backed by container {} with {} id",
+                                    machine,
+                                    containerName,
+                                    containerId);
+                      }
+                  });
+        } catch (SocketTimeoutException ste) {
+            streamContainerLogs(containerId, containerName, machine, outputConsumer, System.currentTimeMillis() / 1000L);
+        } catch (ContainerNotFoundException e) {
+            // container is already removed, there are no logs to stream
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Failed to get logs from machine {} backed by container {} with {} id",
+                      machine,
+                      containerName,
+                      containerId);
+        }
+    }
+
     private Instance createInstance(final String containerName,
                                     final Machine machine,
                                     final String imageName,
@@ -555,36 +631,24 @@ public class DockerInstanceProvider implements InstanceProvider {
                                                                 .withHostConfig(hostConfig)
                                                                 .withEnv(env.toArray(new String[env.size()]));
 
-            final String containerId = docker.createContainer(CreateContainerParams.create(config)
-                                                                                   .withContainerName(containerName))
-                                                                                   .getId();
-            containerIdOptional = Optional.ofNullable(containerId);
-
-            docker.startContainer(StartContainerParams.create(containerId));
-
-            executor.execute(() -> {
-                long lastProcessedLogDate = 0;
-                boolean isContainerRunning = true;
-                while (isContainerRunning) {
-                    try {
-                        docker.getContainerLogs(GetContainerLogsParams.create(containerId)
-                                                                      .withFollow(true)
-                                                                      .withSince(lastProcessedLogDate),
-                                                new LogMessagePrinter(outputConsumer));
-                        isContainerRunning = false;
-                    } catch (SocketTimeoutException ste) {
-                        lastProcessedLogDate = System.currentTimeMillis() / 1000L;
-                        // reconnect to container
-                    } catch (ContainerNotFoundException e) {
-                        isContainerRunning = false;
-                    } catch (IOException e) {
-                        LOG.error("Failed to get logs from machine {} backed by container {} with {} id",
-                                  machine,
-                                  containerName,
-                                  containerId);
-                    }
-                }
-            });
+            // dev-machine config is workspace specific, so only containers of non-dev machines may be claimed from the pool
+            final Optional<String> warmContainerId = machine.getConfig().isDev() || containerPool == null
+                                                     ? Optional.empty()
+                                                     : containerPool.claim(config, containerName);
+            final String containerId;
+            if (warmContainerId.isPresent()) {
+                containerId = warmContainerId.get();
+                containerIdOptional = warmContainerId;
+            } else {
+                containerId = docker.createContainer(CreateContainerParams.create(config)
+                                                                          .withContainerName(containerName))
+                                    .getId();
+                containerIdOptional = Optional.ofNullable(containerId);
+
+                docker.startContainer(StartContainerParams.create(containerId));
+            }
+
+            streamContainerLogs(containerId, containerName, machine, outputConsumer, 0);
 
             final DockerNode node = dockerMachineFactory.createNode(machine.getWorkspaceId(), containerId);
             if (machine.getConfig().isDev()) {
@@ -12,41 +12,35 @@ package org.eclipse.che.plugin.docker.machine;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.machine.server.event.InstanceStateEvent;
-import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.MessageProcessor;
 import org.eclipse.che.plugin.docker.client.json.Event;
-import org.eclipse.che.plugin.docker.client.json.Filters;
-import org.eclipse.che.plugin.docker.client.params.GetEventsParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Track docker containers events to detect containers stop or failure.
  *
+ * <p>Events are received from {@link DockerContainerStateTracker}.
+ *
  * @author Alexander Garagatyi
  */
 @Singleton
 public class DockerInstanceStopDetector {
     private static final Logger LOG = LoggerFactory.getLogger(DockerInstanceStopDetector.class);
 
-    private final EventService          eventService;
-    private final DockerConnector       dockerConnector;
-    private final ExecutorService       executorService;
-    private final Map<String, String>   instances;
+    private final EventService                eventService;
+    private final DockerContainerStateTracker stateTracker;
+    private final Map<String, String>         instances;
     /*
        Helps differentiate container main process OOM from other processes OOM
        Algorithm:
@@ -59,22 +53,16 @@ public class DockerInstanceStopDetector {
        That's why cache expires in X seconds.
        X was set as 10 empirically.
     */
-    private final Cache<String, String> containersOomTimestamps;
-
-    private long lastProcessedEventDate = 0;
+    private final Cache<String, String>       containersOomTimestamps;
 
     @Inject
-    public DockerInstanceStopDetector(EventService eventService, DockerConnector dockerConnector) {
+    public DockerInstanceStopDetector(EventService eventService, DockerContainerStateTracker stateTracker) {
         this.eventService = eventService;
-        this.dockerConnector = dockerConnector;
+        this.stateTracker = stateTracker;
         this.instances = new ConcurrentHashMap<>();
         this.containersOomTimestamps = CacheBuilder.newBuilder()
                                                    .expireAfterWrite(10, TimeUnit.SECONDS)
                                                    .build();
-        this.executorService = Executors.newSingleThreadExecutor(
-                new ThreadFactoryBuilder().setNameFormat("DockerInstanceStopDetector-%d")
-                                          .setDaemon(true)
-                                          .build());
     }
 
     /**
@@ -101,20 +89,7 @@ public class DockerInstanceStopDetector {
 
     @PostConstruct
     private void detectContainersEvents() {
-        executorService.execute(() -> {
-            //noinspection InfiniteLoopStatement
-            while (true) {
-                try {
-                    dockerConnector.getEvents(GetEventsParams.create()
-                                                             .withSinceSecond(lastProcessedEventDate)
-                                                             .withFilters(new Filters().withFilter("event", "die", "oom")),
-                                              new EventsProcessor());
-                } catch (IOException e) {
-                    // usually connection timeout
-                    LOG.debug(e.getLocalizedMessage(), e);
-                }
-            }
-        });
+        stateTracker.addEventsListener(new EventsProcessor());
     }
 
     private class EventsProcessor implements MessageProcessor<Event> {
@@ -143,7 +118,6 @@ public class DockerInstanceStopDetector {
                     final String instanceId = instances.get(message.getId());
                     if (instanceId != null) {
                         eventService.publish(new InstanceStateEvent(instanceId, instanceStateChangeType));
-                        lastProcessedEventDate = message.getTime();
                     }
                     break;
                 default:
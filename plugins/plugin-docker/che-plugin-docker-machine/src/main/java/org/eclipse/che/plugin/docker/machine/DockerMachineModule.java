@@ -25,6 +25,7 @@ public class DockerMachineModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(org.eclipse.che.plugin.docker.machine.cleaner.DockerContainerCleaner.class);
+        bind(DockerContainerStateTracker.class);
 
         Multibinder<String> devMachineEnvVars = Multibinder.newSetBinder(binder(),
                                                                          String.class,
@@ -43,15 +43,19 @@ import static java.lang.String.format;
  * @author Alexander Garagatyi
  */
 public class DockerProcess extends AbstractMachineProcess implements InstanceProcess {
-    private final DockerConnector     docker;
-    private final String              container;
-    private final String              pidFilePath;
-    private final String              commandLine;
+    private final DockerConnector             docker;
+    private final DockerContainerStateTracker stateTracker;
+    private final String                      container;
+    private final String                      pidFilePath;
+    private final String                      commandLine;
 
     private volatile boolean started;
+    private volatile boolean finished;
+    private volatile String  detachedExecId;
 
     @Inject
     public DockerProcess(DockerConnector docker,
+                         DockerContainerStateTracker stateTracker,
                          @Assisted Command command,
                          @Assisted("container") String container,
                          @Nullable @Assisted("outputChannel") String outputChannel,
@@ -59,17 +63,22 @@ public class DockerProcess extends AbstractMachineProcess implements InstancePro
                          @Assisted int pid) {
         super(command, pid, outputChannel);
         this.docker = docker;
+        this.stateTracker = stateTracker;
         this.container = container;
         this.commandLine = command.getCommandLine();
         this.pidFilePath = pidFilePath;
         this.started = false;
     }
 
+    /**
+     * Checks state of the process.
+     *
+     * <p>Process which reads output is alive until {@link #start(LineConsumer)} returns.
+     * State of detached process is tracked by {@link DockerContainerStateTracker}, if docker
+     * doesn't send events about finished execs the process is also checked in the container.
+     */
     @Override
     public boolean isAlive() {
-        if (!started) {
-            return false;
-        }
         try {
             checkAlive();
             return true;
@@ -103,41 +112,73 @@ public class DockerProcess extends AbstractMachineProcess implements InstancePro
             throw new MachineException(format("Error occurs while initializing command %s in docker container %s: %s",
                                               Arrays.toString(command), container, e.getMessage()), e);
         }
+        if (output == null) {
+            detachedExecId = exec.getId();
+            stateTracker.trackExec(exec.getId(), container);
+        }
         started = true;
         try {
             docker.startExec(StartExecParams.create(exec.getId()), output == null ? null : new LogMessagePrinter(output));
         } catch (IOException e) {
             if (output != null && e instanceof SocketTimeoutException) {
+                // output is not read anymore but process may still run, so it is followed as a detached one
+                detachedExecId = exec.getId();
+                stateTracker.trackExec(exec.getId(), container);
                 throw new MachineException(getErrorMessage());
-            } else {
-                throw new MachineException(format("Error occurs while executing command %s: %s",
-                                                  Arrays.toString(exec.getCommand()), e.getMessage()), e);
             }
+            finished = true;
+            stateTracker.untrackExec(exec.getId());
+            throw new MachineException(format("Error occurs while executing command %s: %s",
+                                              Arrays.toString(exec.getCommand()), e.getMessage()), e);
+        }
+        if (output != null) {
+            // attached exec returns when the process ends
+            finished = true;
         }
     }
 
     @Override
     public void checkAlive() throws MachineException, NotFoundException {
-        // Read pid from file and run 'kill -0 [pid]' command.
-        final String isAliveCmd = format("[ -r %1$s ] && kill -0 $(cat %1$s) || echo 'Unable read PID file'", pidFilePath);
-        final ListLineConsumer output = new ListLineConsumer();
-        final String[] command = {"/bin/bash", "-c", isAliveCmd};
-        Exec exec;
-        try {
-            exec = docker.createExec(CreateExecParams.create(container, command).withDetach(false));
-        } catch (IOException e) {
-            throw new MachineException(format("Error occurs while initializing command %s in docker container %s: %s",
-                                              Arrays.toString(command), container, e.getMessage()), e);
+        if (!isTrackedAlive()) {
+            throw new NotFoundException(format("Process with pid %s not found", getPid()));
         }
-        try {
-            docker.startExec(StartExecParams.create(exec.getId()), new LogMessagePrinter(output));
-        } catch (IOException e) {
-            throw new MachineException(format("Error occurs while executing command %s in docker container %s: %s",
-                                              Arrays.toString(exec.getCommand()), container, e.getMessage()), e);
+        if (isDetached() && !stateTracker.isExecEventsSupported()) {
+            checkProcessInContainer();
         }
-        // 'kill -0 [pid]' is silent if process is running or print "No such process" message otherwise
-        if (!output.getText().isEmpty()) {
-            throw new NotFoundException(format("Process with pid %s not found", getPid()));
+    }
+
+    /**
+     * Checks state of the process known to {@link DockerContainerStateTracker}, no requests are sent to docker.
+     * If docker doesn't send events about finished execs, detached process may have finished since the last
+     * reconciliation of the tracker.
+     */
+    boolean isTrackedAlive() {
+        if (!started || finished) {
+            return false;
+        }
+        final DockerContainerStateTracker.ContainerState containerState = stateTracker.getContainer(container);
+        if (containerState != null && !containerState.isRunning()) {
+            return false;
+        }
+        final String execId = detachedExecId;
+        return execId == null || stateTracker.isExecRunning(execId);
+    }
+
+    boolean isStarted() {
+        return started;
+    }
+
+    /** Returns true if output of the process is not read, so the process is followed by its exec. */
+    boolean isDetached() {
+        return detachedExecId != null;
+    }
+
+    /** Marks detached process as finished and stops tracking of its exec. */
+    void release() {
+        final String execId = detachedExecId;
+        if (execId != null) {
+            finished = true;
+            stateTracker.untrackExec(execId);
         }
     }
 
@@ -163,6 +204,30 @@ public class DockerProcess extends AbstractMachineProcess implements InstancePro
         }
     }
 
+    private void checkProcessInContainer() throws MachineException, NotFoundException {
+        // Read pid from file and run 'kill -0 [pid]' command.
+        final String isAliveCmd = format("[ -r %1$s ] && kill -0 $(cat %1$s) || echo 'Unable read PID file'", pidFilePath);
+        final ListLineConsumer output = new ListLineConsumer();
+        final String[] command = {"/bin/bash", "-c", isAliveCmd};
+        Exec exec;
+        try {
+            exec = docker.createExec(CreateExecParams.create(container, command).withDetach(false));
+        } catch (IOException e) {
+            throw new MachineException(format("Error occurs while initializing command %s in docker container %s: %s",
+                                              Arrays.toString(command), container, e.getMessage()), e);
+        }
+        try {
+            docker.startExec(StartExecParams.create(exec.getId()), new LogMessagePrinter(output));
+        } catch (IOException e) {
+            throw new MachineException(format("Error occurs while executing command %s in docker container %s: %s",
+                                              Arrays.toString(exec.getCommand()), container, e.getMessage()), e);
+        }
+        // 'kill -0 [pid]' is silent if process is running or print "No such process" message otherwise
+        if (!output.getText().isEmpty()) {
+            throw new NotFoundException(format("Process with pid %s not found", getPid()));
+        }
+    }
+
     private String getErrorMessage() {
         final StringBuilder errorMessage = new StringBuilder("Command output read timeout is reached.");
         try {
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.hash.Hashing;
+
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.dto.AuthConfig;
+import org.eclipse.che.plugin.docker.client.dto.AuthConfigs;
+import org.eclipse.che.plugin.docker.client.json.Image;
+import org.eclipse.che.plugin.docker.client.json.ImageInfo;
+import org.eclipse.che.plugin.docker.client.params.RemoveImageParams;
+import org.eclipse.che.plugin.docker.client.params.TagParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reuses images built from the same Dockerfile recipes.
+ *
+ * <p>Image built from the recipe is additionally tagged as {@code eclipse-che/recipe-cache:<digest>}, where digest is
+ * SHA-256 of the normalized recipe and identities of registries credentials. Dockerfile is the only file of the build
+ * context, so the digest identifies the build. The next machine with the same recipe and the same access to registries
+ * is created from the tagged image without the build, so base image of private registry is not reused by other users.
+ *
+ * <p>Cached images which are older than {@code machine.docker.recipe_image_cache.max_age_min} are not reused,
+ * so base images are updated from time to time. When number of cached images exceeds
+ * {@code machine.docker.recipe_image_cache.max_images} or their total size exceeds
+ * {@code machine.docker.recipe_image_cache.max_size_mb}, the least recently used images are removed.
+ * Cache is restored from the tags of the images of docker on start.
+ */
+@Singleton
+public class RecipeImageCache {
+    private static final Logger LOG = LoggerFactory.getLogger(RecipeImageCache.class);
+
+    static final String CACHE_REPOSITORY = "eclipse-che/recipe-cache";
+
+    /** Parser directive, e.g. {@code # escape=`}, such lines are allowed only at the top of Dockerfile. */
+    private static final Pattern PARSER_DIRECTIVE = Pattern.compile("#\\s*[a-zA-Z]+\\s*=.*");
+
+    private final DockerConnector          docker;
+    private final int                      maxImages;
+    private final long                     maxSize;
+    private final long                     maxAgeMs;
+    /** Cached images in the order of access, the least recently used image goes first. Guarded by {@code this}. */
+    private final Map<String, CachedImage> images;
+
+    /** Total size of cached images. Guarded by {@code this}. */
+    private long size;
+
+    @Inject
+    public RecipeImageCache(DockerConnector docker,
+                            @Named("machine.docker.recipe_image_cache.max_images") int maxImages,
+                            @Named("machine.docker.recipe_image_cache.max_size_mb") long maxSizeMb,
+                            @Named("machine.docker.recipe_image_cache.max_age_min") long maxAgeMin) {
+        this.docker = docker;
+        this.maxImages = maxImages;
+        this.maxSize = maxSizeMb * 1024 * 1024;
+        this.maxAgeMs = TimeUnit.MINUTES.toMillis(maxAgeMin);
+        this.images = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /** Returns true if built images are cached. */
+    public boolean isEnabled() {
+        return maxImages > 0;
+    }
+
+    /**
+     * Computes digest of the recipe built without credentials of registries.
+     *
+     * @see #digest(String, AuthConfigs)
+     */
+    public static String digest(String recipe) {
+        return digest(recipe, null);
+    }
+
+    /**
+     * Computes digest of the recipe built with the given credentials of registries. Line endings, trailing
+     * whitespaces, blank lines and comments don't change result of the build, so they don't change the digest.
+     * Parser directives at the top of the recipe are kept as they change parsing of the rest of the recipe.
+     * Registries and user names of credentials are included, passwords are not.
+     *
+     * @param recipe
+     *         Dockerfile
+     * @param credentials
+     *         credentials of registries used for the build, may be null
+     */
+    public static String digest(String recipe, @Nullable AuthConfigs credentials) {
+        final StringBuilder normalized = new StringBuilder(recipe.length());
+        boolean directives = true;
+        for (String line : recipe.split("\r\n|\r|\n")) {
+            final String trimmed = line.trim();
+            if (directives && PARSER_DIRECTIVE.matcher(trimmed).matches()) {
+                normalized.append(trimmed).append('\n');
+                continue;
+            }
+            // any other line, even blank one, ends parser directives
+            directives = false;
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                normalized.append(trimmed).append('\n');
+            }
+        }
+        if (credentials != null && credentials.getConfigs() != null && !credentials.getConfigs().isEmpty()) {
+            // Dockerfile line can't start with NUL, so credentials don't mix with the recipe
+            normalized.append('\0');
+            for (Map.Entry<String, AuthConfig> entry : new TreeMap<>(credentials.getConfigs()).entrySet()) {
+                normalized.append(entry.getKey())
+                          .append('\0')
+                          .append(entry.getValue() == null ? "" : entry.getValue().getUsername())
+                          .append('\n');
+            }
+        }
+        return Hashing.sha256().hashString(normalized, UTF_8).toString();
+    }
+
+    /**
+     * Returns name of the cached image built from the recipe with the given digest.
+     *
+     * @return name of the image or empty optional if there is no fresh image of the recipe
+     */
+    public Optional<String> get(String digest) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        final CachedImage cached;
+        synchronized (this) {
+            cached = images.get(digest);
+        }
+        if (cached == null || System.currentTimeMillis() - cached.created > maxAgeMs) {
+            return Optional.empty();
+        }
+        final String image = cachedImageName(digest);
+        try {
+            // image may be removed by somebody else
+            docker.inspectImage(image);
+        } catch (IOException e) {
+            LOG.debug("Cached image '{}' is not available. {}", image, e.getLocalizedMessage());
+            synchronized (this) {
+                if (images.remove(digest, cached)) {
+                    size -= cached.size;
+                }
+            }
+            return Optional.empty();
+        }
+        return Optional.of(image);
+    }
+
+    /**
+     * Adds image built from the recipe with the given digest to the cache, the least recently
+     * used images are removed if cache exceeds its limits.
+     *
+     * @param digest
+     *         digest of the recipe
+     * @param builtImage
+     *         name of the built image
+     */
+    public void put(String digest, String builtImage) {
+        if (!isEnabled()) {
+            return;
+        }
+        final ImageInfo info;
+        try {
+            docker.tag(TagParams.create(builtImage, CACHE_REPOSITORY).withTag(digest).withForce(true));
+            info = docker.inspectImage(builtImage);
+        } catch (IOException e) {
+            LOG.warn("Can't cache image '{}'. {}", builtImage, e.getLocalizedMessage());
+            return;
+        }
+        final List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            final CachedImage previous = images.put(digest, new CachedImage(System.currentTimeMillis(), info.getSize()));
+            if (previous != null) {
+                size -= previous.size;
+            }
+            size += info.getSize();
+            evict(evicted);
+        }
+        removeImages(evicted);
+    }
+
+    /** Restores cache from the tags of docker images, images are considered used in the order of creation. */
+    @PostConstruct
+    void restore() {
+        if (!isEnabled()) {
+            return;
+        }
+        final List<Image> cachedImages = new ArrayList<>();
+        try {
+            for (Image image : docker.listImages()) {
+                if (image.getRepoTags() != null && getDigest(image) != null) {
+                    cachedImages.add(image);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Can't restore cache of recipe images. {}", e.getLocalizedMessage());
+            return;
+        }
+        cachedImages.sort(Comparator.comparingLong(Image::getCreated));
+        final List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Image image : cachedImages) {
+                images.put(getDigest(image), new CachedImage(TimeUnit.SECONDS.toMillis(image.getCreated()), image.getSize()));
+                size += image.getSize();
+            }
+            evict(evicted);
+        }
+        removeImages(evicted);
+    }
+
+    private void evict(List<String> evicted) {
+        for (Iterator<Map.Entry<String, CachedImage>> it = images.entrySet().iterator();
+             it.hasNext() && (images.size() > maxImages || size > maxSize); ) {
+            final Map.Entry<String, CachedImage> entry = it.next();
+            evicted.add(entry.getKey());
+            size -= entry.getValue().size;
+            it.remove();
+        }
+    }
+
+    private void removeImages(List<String> digests) {
+        for (String digest : digests) {
+            final String image = cachedImageName(digest);
+            try {
+                // removes only tag if image is used by machine
+                docker.removeImage(RemoveImageParams.create(image).withForce(false));
+            } catch (IOException e) {
+                LOG.warn("Can't remove cached image '{}'. {}", image, e.getLocalizedMessage());
+            }
+        }
+    }
+
+    private static String getDigest(Image image) {
+        for (String repoTag : image.getRepoTags()) {
+            if (repoTag.startsWith(CACHE_REPOSITORY + ':')) {
+                return repoTag.substring(CACHE_REPOSITORY.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static String cachedImageName(String digest) {
+        return CACHE_REPOSITORY + ':' + digest;
+    }
+
+    private static class CachedImage {
+        final long created;
+        final long size;
+
+        CachedImage(long created, long size) {
+            this.created = created;
+            this.size = size;
+        }
+    }
+}
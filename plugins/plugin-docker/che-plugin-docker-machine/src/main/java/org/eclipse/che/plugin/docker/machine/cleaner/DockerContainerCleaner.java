@@ -16,8 +16,9 @@ import com.google.inject.Singleton;
 import org.eclipse.che.api.machine.server.MachineRegistry;
 import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
-import org.eclipse.che.plugin.docker.client.json.ContainerListEntry;
 import org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator;
+import org.eclipse.che.plugin.docker.machine.DockerContainerPool;
+import org.eclipse.che.plugin.docker.machine.DockerContainerStateTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,11 +28,16 @@ import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
 import static org.eclipse.che.plugin.docker.client.params.RemoveContainerParams.create;
+import static org.eclipse.che.plugin.docker.machine.DockerContainerPool.WARM_CONTAINER_NAME_PREFIX;
 import static org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator.ContainerNameInfo;
+import static org.eclipse.che.plugin.docker.machine.DockerContainerStateTracker.ContainerState;
 
 /**
  * Job for periodically clean up inactive docker containers
  *
+ * <p>Containers are taken from {@link DockerContainerStateTracker}, so the job doesn't list containers of docker.
+ * Warm containers which are not owned by {@link DockerContainerPool} are removed as well.
+ *
  * @author Alexander Andrienko
  */
 @Singleton
@@ -42,14 +48,24 @@ public class DockerContainerCleaner implements Runnable {
     private final MachineRegistry              machineRegistry;
     private final DockerConnector              dockerConnector;
     private final DockerContainerNameGenerator nameGenerator;
+    private final DockerContainerStateTracker  stateTracker;
+
+    private DockerContainerPool containerPool;
 
     @Inject
     public DockerContainerCleaner(MachineRegistry machineRegistry,
                                   DockerConnector dockerConnector,
-                                  DockerContainerNameGenerator nameGenerator) {
+                                  DockerContainerNameGenerator nameGenerator,
+                                  DockerContainerStateTracker stateTracker) {
         this.machineRegistry = machineRegistry;
         this.dockerConnector = dockerConnector;
         this.nameGenerator = nameGenerator;
+        this.stateTracker = stateTracker;
+    }
+
+    @Inject(optional = true)
+    void setContainerPool(DockerContainerPool containerPool) {
+        this.containerPool = containerPool;
     }
 
     @ScheduleRate(periodParameterName = "machine.docker.unused_containers_cleanup_period_min",
@@ -58,30 +74,39 @@ public class DockerContainerCleaner implements Runnable {
     @Override
     public void run() {
         try {
-            for (ContainerListEntry container : dockerConnector.listContainers()) {
-                Optional<ContainerNameInfo> optional = nameGenerator.parse(container.getNames()[0]);
+            for (ContainerState container : stateTracker.getContainers()) {
+                if (container.getName() == null) {
+                    // name is not known until the next reconciliation of the tracker
+                    continue;
+                }
+                if (container.getName().startsWith("/" + WARM_CONTAINER_NAME_PREFIX)) {
+                    // warm container left after restart of the server or failure of the pool
+                    if (containerPool == null || !containerPool.isWarmContainer(container.getName())) {
+                        cleanUp(container);
+                    }
+                    continue;
+                }
+                Optional<ContainerNameInfo> optional = nameGenerator.parse(container.getName());
                 if (optional.isPresent() && !machineRegistry.isExist(optional.get().getMachineId())) {
                     cleanUp(container);
                 }
             }
-        } catch (IOException e) {
-            LOG.error("Failed to get list docker containers", e);
         } catch (Exception e) {
             LOG.error("Failed to clean up inactive containers", e);
         }
     }
 
-    private void cleanUp(ContainerListEntry container) {
+    private void cleanUp(ContainerState container) {
         String containerId = container.getId();
-        String containerName = container.getNames()[0];
+        String containerName = container.getName();
 
-        killContainer(containerId, containerName, container.getStatus());
+        killContainer(containerId, containerName, container.isRunning());
         removeContainer(containerId, containerName);
     }
 
-    private void killContainer(String containerId, String containerName, String containerStatus) {
+    private void killContainer(String containerId, String containerName, boolean running) {
         try {
-            if (containerStatus.startsWith("Up")) {
+            if (running) {
                 dockerConnector.killContainer(containerId);
                 LOG.warn("Unused container with 'id': '{}' and 'name': '{}' was killed ", containerId, containerName);
             }
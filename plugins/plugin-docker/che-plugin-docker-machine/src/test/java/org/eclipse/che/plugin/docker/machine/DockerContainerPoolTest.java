@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.json.ContainerConfig;
+import org.eclipse.che.plugin.docker.client.json.ContainerCreated;
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.ContainerState;
+import org.eclipse.che.plugin.docker.client.json.HostConfig;
+import org.eclipse.che.plugin.docker.client.json.ImageInfo;
+import org.eclipse.che.plugin.docker.client.params.CreateContainerParams;
+import org.eclipse.che.plugin.docker.client.params.RemoveContainerParams;
+import org.eclipse.che.plugin.docker.client.params.RenameContainerParams;
+import org.eclipse.che.plugin.docker.client.params.StartContainerParams;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.eclipse.che.plugin.docker.machine.DockerContainerPool.WARM_CONTAINER_NAME_PREFIX;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link DockerContainerPool}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class DockerContainerPoolTest {
+    private static final long MEMORY_MB = 512;
+
+    @Mock
+    private DockerConnector docker;
+    @Mock
+    private ImageInfo       imageInfo;
+    @Mock
+    private ContainerInfo   containerInfo;
+    @Mock
+    private ContainerState  containerState;
+
+    private DockerContainerPool pool;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        when(docker.inspectImage(anyString())).thenReturn(imageInfo);
+        when(imageInfo.getId()).thenReturn("imageId");
+        when(docker.createContainer(any(CreateContainerParams.class))).thenReturn(new ContainerCreated("warm1", new String[0]),
+                                                                                  new ContainerCreated("warm2", new String[0]));
+        when(docker.inspectContainer(anyString())).thenReturn(containerInfo);
+        when(containerInfo.getState()).thenReturn(containerState);
+        when(containerState.isRunning()).thenReturn(true);
+        pool = new DockerContainerPool(docker, 1, MEMORY_MB);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldNotClaimContainerOfUnknownConfigurationButCreateWarmContainerForIt() throws Exception {
+        final Optional<String> claimed = pool.claim(createConfig("image"), "container");
+
+        assertFalse(claimed.isPresent());
+        final ArgumentCaptor<CreateContainerParams> captor = ArgumentCaptor.forClass(CreateContainerParams.class);
+        verify(docker, timeout(1000)).createContainer(captor.capture());
+        verify(docker, timeout(1000)).startContainer(StartContainerParams.create("warm1"));
+        assertTrue(captor.getValue().getContainerName().startsWith(WARM_CONTAINER_NAME_PREFIX));
+        assertEquals(captor.getValue().getContainerConfig().getImage(), "imageId");
+    }
+
+    @Test
+    public void shouldClaimWarmContainerOfTheSameConfigurationAndRenameIt() throws Exception {
+        pool.claim(createConfig("image"), "container1");
+        verify(docker, timeout(1000)).startContainer(StartContainerParams.create("warm1"));
+
+        final Optional<String> claimed = pool.claim(createConfig("another-tag-of-the-same-image"), "container2");
+
+        assertEquals(claimed, Optional.of("warm1"));
+        verify(docker).renameContainer(RenameContainerParams.create("warm1", "container2"));
+        // pool is refilled after claim
+        verify(docker, timeout(1000)).startContainer(StartContainerParams.create("warm2"));
+    }
+
+    @Test
+    public void shouldRemoveStoppedWarmContainerInsteadOfClaimingIt() throws Exception {
+        pool.claim(createConfig("image"), "container1");
+        verify(docker, timeout(1000)).startContainer(StartContainerParams.create("warm1"));
+        when(containerState.isRunning()).thenReturn(false);
+
+        final Optional<String> claimed = pool.claim(createConfig("image"), "container2");
+
+        assertFalse(claimed.isPresent());
+        verify(docker).removeContainer(RemoveContainerParams.create("warm1").withForce(true).withRemoveVolumes(true));
+        verify(docker, never()).renameContainer(any(RenameContainerParams.class));
+    }
+
+    @Test
+    public void shouldEvictContainersOfLeastRecentlyClaimedConfigurationWhenMemoryLimitIsReached() throws Exception {
+        pool.claim(createConfig("image").withCmd("first"), "container1");
+        verify(docker, timeout(1000)).startContainer(StartContainerParams.create("warm1"));
+
+        pool.claim(createConfig("image").withCmd("second"), "container2");
+
+        verify(docker, timeout(1000)).removeContainer(RemoveContainerParams.create("warm1").withForce(true).withRemoveVolumes(true));
+        verify(docker, timeout(1000)).startContainer(StartContainerParams.create("warm2"));
+    }
+
+    @Test
+    public void shouldRemoveWarmContainersOnShutdown() throws Exception {
+        pool.claim(createConfig("image"), "container1");
+        verify(docker, timeout(1000)).startContainer(StartContainerParams.create("warm1"));
+
+        pool.shutdown();
+
+        verify(docker).removeContainer(RemoveContainerParams.create("warm1").withForce(true).withRemoveVolumes(true));
+    }
+
+    @Test
+    public void shouldNotUseDockerWhenPoolIsDisabled() throws Exception {
+        pool.shutdown();
+        pool = new DockerContainerPool(docker, 0, MEMORY_MB);
+
+        assertFalse(pool.claim(createConfig("image"), "container").isPresent());
+
+        verifyZeroInteractions(docker);
+    }
+
+    @Test
+    public void shouldNotCreateWarmContainersWhichDoNotFitMemoryLimit() throws Exception {
+        final ContainerConfig bigConfig = createConfig("image").withCmd("big");
+        bigConfig.getHostConfig().setMemory((MEMORY_MB + 1) * 1024 * 1024);
+
+        pool.claim(bigConfig, "container1");
+        pool.claim(createConfig("image"), "container2");
+
+        // refill tasks are executed one by one, so container of the big config would be created first
+        verify(docker, timeout(1000)).startContainer(StartContainerParams.create("warm1"));
+        final ArgumentCaptor<CreateContainerParams> captor = ArgumentCaptor.forClass(CreateContainerParams.class);
+        verify(docker).createContainer(captor.capture());
+        assertEquals(captor.getValue().getContainerConfig().getHostConfig().getMemory(), MEMORY_MB * 1024 * 1024);
+    }
+
+    @Test
+    public void shouldNotModifyConfigurationOfClaimedContainer() throws Exception {
+        final ContainerConfig config = createConfig("image");
+
+        pool.claim(config, "container");
+
+        assertEquals(config.getImage(), "image");
+        final ArgumentCaptor<CreateContainerParams> captor = ArgumentCaptor.forClass(CreateContainerParams.class);
+        verify(docker, timeout(1000)).createContainer(captor.capture());
+        assertEquals(captor.getValue().getContainerConfig().getImage(), "imageId");
+    }
+
+    @Test
+    public void shouldOwnWarmContainersUntilTheyAreClaimed() throws Exception {
+        pool.claim(createConfig("image"), "container1");
+        final ArgumentCaptor<CreateContainerParams> captor = ArgumentCaptor.forClass(CreateContainerParams.class);
+        verify(docker, timeout(1000)).createContainer(captor.capture());
+        verify(docker, timeout(1000)).startContainer(StartContainerParams.create("warm1"));
+        final String warmName = captor.getValue().getContainerName();
+        assertTrue(pool.isWarmContainer("/" + warmName));
+
+        pool.claim(createConfig("image"), "container2");
+
+        assertFalse(pool.isWarmContainer("/" + warmName));
+    }
+
+    @Test
+    public void shouldUseTheSameKeyForConfigurationsWhichDifferOnlyInOrderOfMapEntries() throws Exception {
+        final Map<String, String> labels = new LinkedHashMap<>();
+        labels.put("a", "1");
+        labels.put("b", "2");
+        final Map<String, String> reversed = new LinkedHashMap<>();
+        reversed.put("b", "2");
+        reversed.put("a", "1");
+
+        assertEquals(DockerContainerPool.keyOf(createConfig("image").withLabels(labels)),
+                     DockerContainerPool.keyOf(createConfig("image").withLabels(reversed)));
+    }
+
+    private static ContainerConfig createConfig(String image) {
+        return new ContainerConfig().withImage(image)
+                                    .withHostConfig(new HostConfig().withMemory(MEMORY_MB * 1024 * 1024));
+    }
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.MessageProcessor;
+import org.eclipse.che.plugin.docker.client.exception.DockerException;
+import org.eclipse.che.plugin.docker.client.json.Actor;
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.ContainerListEntry;
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.json.ExecInfo;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link DockerContainerStateTracker}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class DockerContainerStateTrackerTest {
+    private static final String CONTAINER = "container1";
+    private static final String EXEC      = "exec1";
+
+    @Mock
+    private DockerConnector docker;
+
+    private DockerContainerStateTracker tracker;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        tracker = new DockerContainerStateTracker(docker, "1.20");
+        final ContainerListEntry container = container(CONTAINER, "/name1", "Up 2 minutes");
+        when(docker.listContainers()).thenReturn(singletonList(container));
+    }
+
+    @Test
+    public void shouldLoadContainersOnReconciliation() throws Exception {
+        final ContainerListEntry container1 = container(CONTAINER, "/name1", "Up 2 minutes");
+        final ContainerListEntry container2 = container("container2", "/name2", "Exited (0) 1 minute ago");
+        when(docker.listContainers()).thenReturn(asList(container1, container2));
+
+        tracker.reconcile();
+
+        assertEquals(tracker.getContainers().size(), 2);
+        assertEquals(tracker.getContainer(CONTAINER).getName(), "/name1");
+        assertTrue(tracker.getContainer(CONTAINER).isRunning());
+        assertFalse(tracker.getContainer("container2").isRunning());
+    }
+
+    @Test
+    public void shouldUpdateContainerStateFromEvents() throws Exception {
+        tracker.onEvent(event("create", "container2").withActor(new Actor().withAttributes(ImmutableMap.of("name", "name2"))));
+        assertFalse(tracker.getContainer("container2").isRunning());
+        assertEquals(tracker.getContainer("container2").getName(), "/name2");
+
+        tracker.onEvent(event("start", "container2"));
+        assertTrue(tracker.getContainer("container2").isRunning());
+        assertEquals(tracker.getContainer("container2").getName(), "/name2");
+
+        tracker.onEvent(event("die", "container2"));
+        assertFalse(tracker.getContainer("container2").isRunning());
+
+        tracker.onEvent(event("destroy", "container2"));
+        assertNull(tracker.getContainer("container2"));
+    }
+
+    @Test
+    public void shouldInspectNameOfCreatedContainerIfEventHasNoAttributes() throws Exception {
+        final ContainerInfo containerInfo = mock(ContainerInfo.class);
+        when(containerInfo.getName()).thenReturn("/name2");
+        when(docker.inspectContainer("container2")).thenReturn(containerInfo);
+
+        tracker.onEvent(event("create", "container2"));
+
+        assertEquals(tracker.getContainer("container2").getName(), "/name2");
+    }
+
+    @Test
+    public void shouldUpdateNameOfRenamedContainer() throws Exception {
+        tracker.reconcile();
+
+        tracker.onEvent(event("rename", CONTAINER).withActor(new Actor().withAttributes(ImmutableMap.of("name", "name2",
+                                                                                                        "oldName", "/name1"))));
+
+        assertEquals(tracker.getContainer(CONTAINER).getName(), "/name2");
+        assertTrue(tracker.getContainer(CONTAINER).isRunning());
+    }
+
+    @Test
+    public void shouldIgnoreEventsWithoutStatus() throws Exception {
+        tracker.reconcile();
+
+        tracker.onEvent(new Event().withAction("connect").withId("network1"));
+
+        assertEquals(tracker.getContainers().size(), 1);
+    }
+
+    @Test
+    public void shouldSupportExecEventsSinceApi130() throws Exception {
+        assertFalse(tracker.isExecEventsSupported());
+        assertTrue(new DockerContainerStateTracker(docker, "1.30").isExecEventsSupported());
+        assertFalse(new DockerContainerStateTracker(docker, "").isExecEventsSupported());
+        assertTrue(DockerContainerStateTracker.isApiVersionAtLeast("2", 1, 30));
+        assertFalse(DockerContainerStateTracker.isApiVersionAtLeast("1.9", 1, 30));
+    }
+
+    @Test
+    public void shouldRemoveContainerWhichIsNotListedOnReconciliation() throws Exception {
+        tracker.reconcile();
+        when(docker.listContainers()).thenReturn(emptyList());
+
+        tracker.reconcile();
+
+        assertNull(tracker.getContainer(CONTAINER));
+    }
+
+    @Test
+    public void shouldNotOverrideStateAppliedFromEventDuringReconciliation() throws Exception {
+        final ContainerListEntry container = container(CONTAINER, "/name1", "Up 2 minutes");
+        when(docker.listContainers()).thenAnswer(invocation -> {
+            tracker.onEvent(event("die", CONTAINER));
+            return singletonList(container);
+        });
+
+        tracker.reconcile();
+
+        assertFalse(tracker.getContainer(CONTAINER).isRunning());
+    }
+
+    @Test
+    public void shouldMarkExecsOfDiedContainerAsFinished() throws Exception {
+        tracker.trackExec(EXEC, CONTAINER);
+        assertTrue(tracker.isExecRunning(EXEC));
+
+        tracker.onEvent(event("die", CONTAINER));
+
+        assertFalse(tracker.isExecRunning(EXEC));
+    }
+
+    @Test
+    public void shouldMarkExecAsFinishedOnExecDieEvent() throws Exception {
+        tracker.trackExec(EXEC, CONTAINER);
+
+        tracker.onEvent(event("exec_die", CONTAINER).withActor(new Actor().withAttributes(ImmutableMap.of("execID", EXEC))));
+
+        assertFalse(tracker.isExecRunning(EXEC));
+    }
+
+    @Test
+    public void shouldInspectRunningExecsOnReconciliation() throws Exception {
+        final ExecInfo execInfo = mock(ExecInfo.class);
+        when(docker.getExecInfo(EXEC)).thenReturn(execInfo);
+        tracker.trackExec(EXEC, CONTAINER);
+        tracker.trackExec("exec2", CONTAINER);
+        when(docker.getExecInfo("exec2")).thenThrow(new DockerException("no such exec", 404));
+
+        tracker.reconcile();
+
+        assertFalse(tracker.isExecRunning(EXEC));
+        assertFalse(tracker.isExecRunning("exec2"));
+    }
+
+    @Test
+    public void shouldNotInspectFinishedExecs() throws Exception {
+        tracker.trackExec(EXEC, CONTAINER);
+        tracker.onEvent(event("die", CONTAINER));
+
+        tracker.reconcile();
+
+        verify(docker, never()).getExecInfo(EXEC);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldPassEventsToListeners() throws Exception {
+        final MessageProcessor<Event> listener = mock(MessageProcessor.class);
+        doAnswer(invocation -> {
+            // state is updated before listeners are notified
+            assertFalse(tracker.getContainer(CONTAINER).isRunning());
+            return null;
+        }).when(listener).process(any());
+        tracker.addEventsListener(listener);
+        final Event event = event("die", CONTAINER);
+
+        tracker.onEvent(event);
+
+        verify(listener).process(event);
+    }
+
+    private static Event event(String status, String id) {
+        return new Event().withStatus(status).withId(id).withTime(System.currentTimeMillis() / 1000);
+    }
+
+    private static ContainerListEntry container(String id, String name, String status) {
+        final ContainerListEntry entry = mock(ContainerListEntry.class);
+        when(entry.getId()).thenReturn(id);
+        when(entry.getNames()).thenReturn(new String[] {name});
+        when(entry.getStatus()).thenReturn(status);
+        return entry;
+    }
+}
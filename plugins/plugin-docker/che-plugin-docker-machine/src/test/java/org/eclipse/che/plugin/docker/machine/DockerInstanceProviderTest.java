@@ -33,6 +33,7 @@ import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
 import org.eclipse.che.plugin.docker.client.ProgressMonitor;
 import org.eclipse.che.plugin.docker.client.UserSpecificDockerRegistryCredentialsProvider;
+import org.eclipse.che.plugin.docker.client.json.ContainerConfig;
 import org.eclipse.che.plugin.docker.client.json.ContainerCreated;
 import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
 import org.eclipse.che.plugin.docker.client.json.ContainerState;
@@ -63,6 +64,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -75,6 +77,7 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -210,6 +213,45 @@ public class DockerInstanceProviderTest {
         assertEquals((long)buildImageParams.getMemorySwapLimit(), (long)-1);
     }
 
+    @Test
+    public void shouldTagCachedImageInsteadOfBuildingRecipe() throws Exception {
+        final RecipeImageCache imageCache = mock(RecipeImageCache.class);
+        when(imageCache.get(RecipeImageCache.digest("FROM codenvy"))).thenReturn(Optional.of("eclipse-che/recipe-cache:digest"));
+        dockerInstanceProvider.setRecipeImageCache(imageCache);
+        doReturn("container").when(containerNameGenerator).generateContainerName(anyString(), anyString(), anyString(), anyString());
+
+        createInstanceFromRecipe();
+
+        verify(dockerConnector, never()).buildImage(any(BuildImageParams.class), any(ProgressMonitor.class));
+        verify(dockerConnector).tag(TagParams.create("eclipse-che/recipe-cache:digest", "eclipse-che/container").withForce(true));
+    }
+
+    @Test
+    public void shouldCacheBuiltImageWhenThereIsNoCachedImageOfRecipe() throws Exception {
+        final RecipeImageCache imageCache = mock(RecipeImageCache.class);
+        when(imageCache.get(anyString())).thenReturn(Optional.empty());
+        dockerInstanceProvider.setRecipeImageCache(imageCache);
+        doReturn("container").when(containerNameGenerator).generateContainerName(anyString(), anyString(), anyString(), anyString());
+
+        createInstanceFromRecipe();
+
+        verify(dockerConnector).buildImage(any(BuildImageParams.class), any(ProgressMonitor.class));
+        verify(imageCache).put(RecipeImageCache.digest("FROM codenvy"), "eclipse-che/container");
+    }
+
+    @Test
+    public void shouldNotUseCachedImageWhenBaseImageShouldBePulled() throws Exception {
+        final RecipeImageCache imageCache = mock(RecipeImageCache.class);
+        when(imageCache.get(anyString())).thenReturn(Optional.of("eclipse-che/recipe-cache:digest"));
+        dockerInstanceProvider.setRecipeImageCache(imageCache);
+
+        dockerInstanceProvider.buildImage(getMachineConfigBuilder().build(), "eclipse-che/container", true, ProgressMonitor.DEV_NULL);
+
+        verify(dockerConnector).buildImage(any(BuildImageParams.class), any(ProgressMonitor.class));
+        verify(imageCache, never()).get(anyString());
+        verify(imageCache, never()).put(anyString(), anyString());
+    }
+
     @Test
     public void shouldPullDockerImageOnInstanceCreationFromSnapshotFromRegistry() throws Exception {
         String repo = MACHINE_SNAPSHOT_PREFIX + "repo";
@@ -546,6 +588,31 @@ public class DockerInstanceProviderTest {
         verify(dockerNode, never()).bindWorkspace();
     }
 
+    @Test
+    public void shouldUseWarmContainerFromPoolOnNonDevInstanceCreation() throws Exception {
+        final DockerContainerPool containerPool = mock(DockerContainerPool.class);
+        when(containerPool.claim(any(ContainerConfig.class), anyString())).thenReturn(Optional.of(CONTAINER_ID));
+        dockerInstanceProvider.setContainerPool(containerPool);
+
+        createInstanceFromRecipe(false, WORKSPACE_ID);
+
+        verify(containerPool).claim(any(ContainerConfig.class), anyString());
+        verify(dockerConnector, never()).createContainer(any(CreateContainerParams.class));
+        verify(dockerConnector, never()).startContainer(any(StartContainerParams.class));
+        verify(dockerMachineFactory).createInstance(any(Machine.class), eq(CONTAINER_ID), anyString(), eq(dockerNode), any(LineConsumer.class));
+    }
+
+    @Test
+    public void shouldNotUseContainerPoolOnDevInstanceCreation() throws Exception {
+        final DockerContainerPool containerPool = mock(DockerContainerPool.class);
+        dockerInstanceProvider.setContainerPool(containerPool);
+
+        createInstanceFromRecipe(true, WORKSPACE_ID);
+
+        verify(containerPool, never()).claim(any(ContainerConfig.class), anyString());
+        verify(dockerConnector).createContainer(any(CreateContainerParams.class));
+    }
+
     @Test
     public void shouldNotBindWorkspaceOnNonDevInstanceCreationFromSnapshot() throws Exception {
         final boolean isDev = false;
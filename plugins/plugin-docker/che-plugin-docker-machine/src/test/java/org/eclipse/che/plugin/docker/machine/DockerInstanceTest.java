@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.machine;
 
+import org.eclipse.che.api.core.model.machine.Command;
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.machine.MachineConfig;
 import org.eclipse.che.api.core.model.machine.MachineSource;
@@ -20,6 +21,7 @@ import org.eclipse.che.api.machine.server.model.impl.LimitsImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineSourceImpl;
+import org.eclipse.che.api.machine.server.spi.InstanceProcess;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.Exec;
 import org.eclipse.che.plugin.docker.client.LogMessage;
@@ -30,6 +32,7 @@ import org.eclipse.che.plugin.docker.client.params.CreateExecParams;
 import org.eclipse.che.plugin.docker.client.params.PushParams;
 import org.eclipse.che.plugin.docker.client.params.StartExecParams;
 import org.eclipse.che.plugin.docker.machine.node.DockerNode;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -37,11 +40,16 @@ import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.List;
 
 import static java.lang.String.format;
+import static java.util.Collections.singletonList;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -80,7 +88,11 @@ public class DockerInstanceTest {
     @Mock
     private DockerInstanceStopDetector dockerInstanceStopDetectorMock;
     @Mock
-    private LineConsumer               outputConsumer;
+    private LineConsumer                outputConsumer;
+    @Mock
+    private DockerMachineFactory        dockerMachineFactory;
+    @Mock
+    private DockerContainerStateTracker stateTracker;
 
     private DockerInstance dockerInstance;
 
@@ -198,6 +210,50 @@ public class DockerInstanceTest {
         dockerInstance.saveToSnapshot(OWNER);
     }
 
+    @Test
+    public void shouldCheckDetachedProcessesWithSingleExecWhenExecEventsAreNotSupported() throws Exception {
+        final DockerProcess alive = createStartedDetachedProcess(true);
+        final DockerProcess finished = createStartedDetachedProcess(true);
+        when(dockerMachineFactory.createProcess(any(Command.class), anyString(), any(), anyString(), anyInt())).thenReturn(alive, finished);
+        dockerInstance.createProcess(mock(Command.class), null);
+        dockerInstance.createProcess(mock(Command.class), null);
+        final ArgumentCaptor<Integer> pids = ArgumentCaptor.forClass(Integer.class);
+        verify(dockerMachineFactory, times(2)).createProcess(any(Command.class), anyString(), any(), anyString(), pids.capture());
+        when(logMessageMock.getContent()).thenReturn(format("/tmp/docker-exec-%s.pid", pids.getAllValues().get(0)));
+
+        final List<InstanceProcess> processes = dockerInstance.getProcesses();
+
+        assertEquals(processes, singletonList(alive));
+        verify(dockerConnectorMock).createExec(any(CreateExecParams.class));
+        verify(finished).release();
+        verify(alive, never()).release();
+    }
+
+    @Test
+    public void shouldNotSendRequestsToDockerWhenExecEventsAreSupported() throws Exception {
+        when(stateTracker.isExecEventsSupported()).thenReturn(true);
+        final DockerProcess alive = createStartedDetachedProcess(true);
+        final DockerProcess finished = createStartedDetachedProcess(false);
+        when(dockerMachineFactory.createProcess(any(Command.class), anyString(), any(), anyString(), anyInt())).thenReturn(alive, finished);
+        dockerInstance.createProcess(mock(Command.class), null);
+        dockerInstance.createProcess(mock(Command.class), null);
+
+        assertEquals(dockerInstance.getProcesses(), singletonList(alive));
+        // finished process is forgotten
+        assertEquals(dockerInstance.getProcesses(), singletonList(alive));
+
+        verify(dockerConnectorMock, never()).createExec(any(CreateExecParams.class));
+        verify(finished, times(1)).release();
+    }
+
+    private static DockerProcess createStartedDetachedProcess(boolean alive) {
+        final DockerProcess process = mock(DockerProcess.class);
+        when(process.isStarted()).thenReturn(true);
+        when(process.isDetached()).thenReturn(true);
+        when(process.isTrackedAlive()).thenReturn(alive);
+        return process;
+    }
+
     private DockerInstance getDockerInstance() {
         return getDockerInstance(getMachine(), REGISTRY, CONTAINER, IMAGE, false);
     }
@@ -210,7 +266,7 @@ public class DockerInstanceTest {
         return new DockerInstance(dockerConnectorMock,
                                   registry,
                                   USERNAME,
-                                  mock(DockerMachineFactory.class),
+                                  dockerMachineFactory,
                                   machine,
                                   container,
                                   image,
@@ -218,6 +274,7 @@ public class DockerInstanceTest {
                                   outputConsumer,
                                   dockerInstanceStopDetectorMock,
                                   mock(DockerInstanceProcessesCleaner.class),
+                                  stateTracker,
                                   snapshotUseRegistry);
     }
 
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.dto.AuthConfig;
+import org.eclipse.che.plugin.docker.client.dto.AuthConfigs;
+import org.eclipse.che.plugin.docker.client.exception.ImageNotFoundException;
+import org.eclipse.che.plugin.docker.client.json.Image;
+import org.eclipse.che.plugin.docker.client.json.ImageInfo;
+import org.eclipse.che.plugin.docker.client.params.RemoveImageParams;
+import org.eclipse.che.plugin.docker.client.params.TagParams;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static java.util.Arrays.asList;
+import static org.eclipse.che.plugin.docker.machine.RecipeImageCache.CACHE_REPOSITORY;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+
+/**
+ * Tests {@link RecipeImageCache}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class RecipeImageCacheTest {
+    private static final long IMAGE_SIZE = 1024 * 1024;
+
+    @Mock
+    private DockerConnector docker;
+    @Mock
+    private ImageInfo       imageInfo;
+
+    private RecipeImageCache cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        when(docker.inspectImage(anyString())).thenReturn(imageInfo);
+        when(imageInfo.getSize()).thenReturn(IMAGE_SIZE);
+        cache = new RecipeImageCache(docker, 2, 10, 60);
+    }
+
+    @Test
+    public void shouldIgnoreFormattingOfRecipeInDigest() {
+        assertEquals(RecipeImageCache.digest("FROM codenvy/ubuntu_jdk8\nRUN echo test\n"),
+                     RecipeImageCache.digest("# comment\r\n  FROM codenvy/ubuntu_jdk8  \r\n\r\nRUN echo test"));
+        assertNotEquals(RecipeImageCache.digest("FROM codenvy/ubuntu_jdk8\nRUN echo test\n"),
+                        RecipeImageCache.digest("FROM codenvy/ubuntu_jdk8\nRUN echo test2\n"));
+    }
+
+    @Test
+    public void shouldKeepParserDirectivesInDigest() {
+        assertNotEquals(RecipeImageCache.digest("# escape=`\nFROM windowsservercore\nRUN dir c:\\\n"),
+                        RecipeImageCache.digest("FROM windowsservercore\nRUN dir c:\\\n"));
+        // directive after instruction is a comment
+        assertEquals(RecipeImageCache.digest("FROM windowsservercore\n# escape=`\nRUN dir c:\\\n"),
+                     RecipeImageCache.digest("FROM windowsservercore\nRUN dir c:\\\n"));
+    }
+
+    @Test
+    public void shouldIncludeUsersOfRegistriesInDigest() {
+        final AuthConfig user1 = mock(AuthConfig.class);
+        when(user1.getUsername()).thenReturn("user1");
+        final AuthConfig user2 = mock(AuthConfig.class);
+        when(user2.getUsername()).thenReturn("user2");
+        final AuthConfigs credentials1 = mock(AuthConfigs.class);
+        when(credentials1.getConfigs()).thenReturn(Collections.singletonMap("registry.com:5000", user1));
+        final AuthConfigs credentials2 = mock(AuthConfigs.class);
+        when(credentials2.getConfigs()).thenReturn(Collections.singletonMap("registry.com:5000", user2));
+
+        assertNotEquals(RecipeImageCache.digest("FROM registry.com:5000/private", credentials1),
+                        RecipeImageCache.digest("FROM registry.com:5000/private", credentials2));
+        assertNotEquals(RecipeImageCache.digest("FROM registry.com:5000/private", credentials1),
+                        RecipeImageCache.digest("FROM registry.com:5000/private"));
+    }
+
+    @Test
+    public void shouldTagBuiltImageAndReturnItForTheSameRecipe() throws Exception {
+        cache.put("digest", "eclipse-che/machine");
+
+        verify(docker).tag(TagParams.create("eclipse-che/machine", CACHE_REPOSITORY).withTag("digest").withForce(true));
+        assertEquals(cache.get("digest"), Optional.of(CACHE_REPOSITORY + ":digest"));
+        assertFalse(cache.get("another-digest").isPresent());
+    }
+
+    @Test
+    public void shouldNotReturnImageRemovedFromDocker() throws Exception {
+        cache.put("digest", "eclipse-che/machine");
+        when(docker.inspectImage(CACHE_REPOSITORY + ":digest")).thenThrow(new ImageNotFoundException("not found"));
+
+        assertFalse(cache.get("digest").isPresent());
+    }
+
+    @Test
+    public void shouldNotReturnExpiredImage() throws Exception {
+        cache = new RecipeImageCache(docker, 2, 10, 0);
+        cache.put("digest", "eclipse-che/machine");
+        Thread.sleep(5);
+
+        assertFalse(cache.get("digest").isPresent());
+    }
+
+    @Test
+    public void shouldRemoveLeastRecentlyUsedImageWhenNumberOfImagesExceedsLimit() throws Exception {
+        cache.put("digest1", "eclipse-che/machine1");
+        cache.put("digest2", "eclipse-che/machine2");
+        cache.get("digest1");
+
+        cache.put("digest3", "eclipse-che/machine3");
+
+        verify(docker).removeImage(RemoveImageParams.create(CACHE_REPOSITORY + ":digest2").withForce(false));
+        verify(docker, never()).removeImage(RemoveImageParams.create(CACHE_REPOSITORY + ":digest1").withForce(false));
+    }
+
+    @Test
+    public void shouldRemoveLeastRecentlyUsedImageWhenSizeOfImagesExceedsLimit() throws Exception {
+        when(imageInfo.getSize()).thenReturn(6 * IMAGE_SIZE);
+
+        cache.put("digest1", "eclipse-che/machine1");
+        cache.put("digest2", "eclipse-che/machine2");
+
+        verify(docker).removeImage(RemoveImageParams.create(CACHE_REPOSITORY + ":digest1").withForce(false));
+    }
+
+    @Test
+    public void shouldRestoreCacheFromImagesOfDocker() throws Exception {
+        final Image cached = new Image();
+        cached.setRepoTags(new String[] {"eclipse-che/machine:latest", CACHE_REPOSITORY + ":digest"});
+        cached.setCreated(System.currentTimeMillis() / 1000);
+        cached.setSize(IMAGE_SIZE);
+        final Image notCached = new Image();
+        notCached.setRepoTags(new String[] {"codenvy/ubuntu_jdk8:latest"});
+        when(docker.listImages()).thenReturn(asList(cached, notCached));
+
+        cache.restore();
+
+        assertEquals(cache.get("digest"), Optional.of(CACHE_REPOSITORY + ":digest"));
+        verify(docker, never()).removeImage(any(RemoveImageParams.class));
+    }
+
+    @Test
+    public void shouldNotUseDockerWhenCacheIsDisabled() throws Exception {
+        cache = new RecipeImageCache(docker, 0, 10, 60);
+
+        cache.put("digest", "eclipse-che/machine");
+
+        assertFalse(cache.get("digest").isPresent());
+        verify(docker, never()).tag(any(TagParams.class));
+    }
+}
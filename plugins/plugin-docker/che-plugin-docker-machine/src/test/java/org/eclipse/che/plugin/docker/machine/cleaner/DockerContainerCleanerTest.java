@@ -14,9 +14,10 @@ import org.eclipse.che.api.machine.server.MachineRegistry;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
-import org.eclipse.che.plugin.docker.client.json.ContainerListEntry;
 import org.eclipse.che.plugin.docker.client.params.RemoveContainerParams;
 import org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator;
+import org.eclipse.che.plugin.docker.machine.DockerContainerPool;
+import org.eclipse.che.plugin.docker.machine.DockerContainerStateTracker;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
@@ -31,6 +32,7 @@ import java.util.Optional;
 import static java.util.Optional.of;
 import static java.util.Arrays.asList;
 import static org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator.ContainerNameInfo;
+import static org.eclipse.che.plugin.docker.machine.DockerContainerStateTracker.ContainerState;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -60,15 +62,16 @@ public class DockerContainerCleanerTest {
     private static final String containerName3 = "containerName3";
     private static final String containerId3   = "containerId3";
 
-    private static final String EXITED_STATUS  = "exited";
-    private static final String RUNNING_STATUS = "Up 6 hour ago";
-
     @Mock
     private MachineRegistry              machineRegistry;
     @Mock
     private DockerConnector              dockerConnector;
     @Mock
     private DockerContainerNameGenerator nameGenerator;
+    @Mock
+    private DockerContainerStateTracker  stateTracker;
+    @Mock
+    private DockerContainerPool          containerPool;
 
     @Mock
     private MachineImpl machineImpl1;
@@ -76,11 +79,11 @@ public class DockerContainerCleanerTest {
     private MachineImpl machineImpl2;
 
     @Mock
-    private ContainerListEntry container1;
+    private ContainerState container1;
     @Mock
-    private ContainerListEntry container2;
+    private ContainerState container2;
     @Mock
-    private ContainerListEntry container3;
+    private ContainerState container3;
 
     @Mock
     private ContainerNameInfo containerNameInfo1;
@@ -98,18 +101,18 @@ public class DockerContainerCleanerTest {
         when(machineImpl1.getId()).thenReturn(machineId1);
         when(machineImpl1.getWorkspaceId()).thenReturn(workspaceId1);
 
-        when(dockerConnector.listContainers()).thenReturn(asList(container1, container2, container3));
+        when(stateTracker.getContainers()).thenReturn(asList(container1, container2, container3));
 
-        when(container1.getNames()).thenReturn(new String[] {containerName1});
-        when(container1.getStatus()).thenReturn(RUNNING_STATUS);
+        when(container1.getName()).thenReturn(containerName1);
+        when(container1.isRunning()).thenReturn(true);
         when(container1.getId()).thenReturn(containerId1);
 
-        when(container2.getNames()).thenReturn(new String[] {containerName2});
-        when(container2.getStatus()).thenReturn(RUNNING_STATUS);
+        when(container2.getName()).thenReturn(containerName2);
+        when(container2.isRunning()).thenReturn(true);
         when(container2.getId()).thenReturn(containerId2);
 
-        when(container3.getNames()).thenReturn(new String[] {containerName3});
-        when(container3.getStatus()).thenReturn(RUNNING_STATUS);
+        when(container3.getName()).thenReturn(containerName3);
+        when(container3.isRunning()).thenReturn(true);
         when(container3.getId()).thenReturn(containerId3);
 
         when(nameGenerator.parse(containerName1)).thenReturn(of(containerNameInfo1));
@@ -128,7 +131,8 @@ public class DockerContainerCleanerTest {
             throws MachineException, IOException {
         cleaner.run();
 
-        verify(dockerConnector).listContainers();
+        verify(stateTracker).getContainers();
+        verify(dockerConnector, never()).listContainers();
 
         verify(nameGenerator, times(3)).parse(anyString());
         verify(machineRegistry, times(3)).isExist(anyString());
@@ -142,7 +146,7 @@ public class DockerContainerCleanerTest {
 
     @Test
     public void cleanerShouldRemoveButShouldNotKillContainerWithStatusNotRunning() throws IOException, MachineException {
-        when(container2.getStatus()).thenReturn(EXITED_STATUS);
+        when(container2.isRunning()).thenReturn(false);
         cleaner.run();
 
         verify(dockerConnector, never()).killContainer(containerId2);
@@ -160,6 +164,16 @@ public class DockerContainerCleanerTest {
         verify(dockerConnector, never()).removeContainer(Matchers.<RemoveContainerParams>anyObject());
     }
 
+    @Test
+    public void cleanerShouldSkipContainerWhichNameIsNotKnownYet() throws IOException {
+        when(container2.getName()).thenReturn(null);
+
+        cleaner.run();
+
+        verify(nameGenerator, times(2)).parse(anyString());
+        verify(dockerConnector, never()).removeContainer(RemoveContainerParams.create(containerId2).withForce(true).withRemoveVolumes(true));
+    }
+
     @Test
     public void cleanerShouldNotKillAndRemoveContainerIfContainerNameInfoIsEmpty() throws IOException {
         when(nameGenerator.parse(anyString())).thenReturn(Optional.empty());
@@ -170,4 +184,28 @@ public class DockerContainerCleanerTest {
 
         verify(dockerConnector, never()).removeContainer(Matchers.<RemoveContainerParams>anyObject());
     }
+
+    @Test
+    public void cleanerShouldRemoveWarmContainerWhichIsNotOwnedByPool() throws IOException {
+        cleaner.setContainerPool(containerPool);
+        when(container3.getName()).thenReturn("/che_warm_abc");
+        when(containerPool.isWarmContainer("/che_warm_abc")).thenReturn(false);
+
+        cleaner.run();
+
+        verify(dockerConnector).killContainer(containerId3);
+        verify(dockerConnector).removeContainer(RemoveContainerParams.create(containerId3).withForce(true).withRemoveVolumes(true));
+    }
+
+    @Test
+    public void cleanerShouldNotRemoveWarmContainerOwnedByPool() throws IOException {
+        cleaner.setContainerPool(containerPool);
+        when(container3.getName()).thenReturn("/che_warm_abc");
+        when(containerPool.isWarmContainer("/che_warm_abc")).thenReturn(true);
+
+        cleaner.run();
+
+        verify(dockerConnector, never()).killContainer(containerId3);
+        verify(dockerConnector, never()).removeContainer(RemoveContainerParams.create(containerId3).withForce(true).withRemoveVolumes(true));
+    }
 }
@@ -27,6 +27,7 @@ import org.eclipse.che.plugin.docker.client.params.CreateContainerParams;
 import org.eclipse.che.plugin.docker.client.params.RemoveContainerParams;
 import org.eclipse.che.plugin.docker.client.params.StartContainerParams;
 import org.eclipse.che.plugin.docker.client.params.StopContainerParams;
+import org.eclipse.che.plugin.docker.machine.DockerContainerStateTracker;
 import org.eclipse.che.plugin.docker.machine.DockerProcess;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -98,6 +99,7 @@ public class DockerProcessTest {
         }
         Command command = new CommandImpl("tailf", "tail -f /dev/null", "mvn");
         final DockerProcess dockerProcess = new DockerProcess(docker,
+                                                              new DockerContainerStateTracker(docker, ""),
                                                               command,
                                                               container,
                                                               "outputChannel",
@@ -20,4 +20,11 @@ import java.util.List;
 @DTO
 public interface Log {
     List<Revision> getCommits();
+
+    /**
+     * Returns cursor to get the next page of the log with, see {@link LogRequest#getCursor()}.
+     *
+     * @return cursor of the next page or null if there are no more commits or the log is not paged
+     */
+    String getNextCursor();
 }
\ No newline at end of file
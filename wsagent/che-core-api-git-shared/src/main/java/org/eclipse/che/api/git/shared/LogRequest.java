@@ -35,6 +35,32 @@ public interface LogRequest extends GitRequest {
     
     void setRevisionRangeSince(String revisionRangeSince);
     void setRevisionRangeUntil(String revisionRangeUntil);	
+
+    /** @return number of commits to skip before the first returned commit, ignored if {@link #getCursor() cursor} is set */
+    int getSkip();
+
+    void setSkip(int skip);
+
+    LogRequest withSkip(int skip);
+
+    /** @return max number of commits to return, 0 means that the number of commits is not limited */
+    int getMaxCount();
+
+    void setMaxCount(int maxCount);
+
+    LogRequest withMaxCount(int maxCount);
+
+    /**
+     * Cursor to continue the log with, it is returned with the previous page of the log as
+     * {@link Log#getNextCursor()}. Other parameters of the request must be the same as for the previous page.
+     *
+     * @return cursor of the page or null to start the log from the beginning
+     */
+    String getCursor();
+
+    void setCursor(String cursor);
+
+    LogRequest withCursor(String cursor);
     // private List<String> fileFilter;
     // private boolean noRenames = true;
     // private int renameLimit;
@@ -252,6 +252,9 @@ public interface GitConnection extends Closeable {
     /**
      * Get commit logs.
      *
+     * <p>Log may be requested page by page with {@link LogRequest#getMaxCount()}, the next page is requested
+     * with {@link LogRequest#getCursor()} returned with the previous page or with {@link LogRequest#getSkip()}.
+     *
      * @param request
      *         log request
      * @return log page. Logs can be serialized to stream by using method {@link DiffPage#writeTo(java.io.OutputStream)}
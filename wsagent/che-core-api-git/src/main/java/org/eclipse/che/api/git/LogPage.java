@@ -34,7 +34,8 @@ public class LogPage implements Log, InfoPage {
     private static final DateFormat dateFormat;
     
     protected List<Revision> commits;
-    
+    protected String         nextCursor;
+
     static {
         dateFormat = new SimpleDateFormat(DATE_FORMAT, Locale.US);
         TimeZone timeZone = TimeZone.getDefault();
@@ -42,7 +43,18 @@ public class LogPage implements Log, InfoPage {
     }
 
     public LogPage(List<Revision> commits) {
+        this(commits, null);
+    }
+
+    /**
+     * @param commits
+     *         commits of the page
+     * @param nextCursor
+     *         cursor to request the next page with or null if there are no more commits
+     */
+    public LogPage(List<Revision> commits, String nextCursor) {
         this.commits = commits;
+        this.nextCursor = nextCursor;
     }
 
     /** @see InfoPage#writeTo(java.io.OutputStream) */
@@ -81,4 +93,10 @@ public class LogPage implements Log, InfoPage {
     public List<Revision> getCommits() {
         return commits;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getNextCursor() {
+        return nextCursor;
+    }
 }
@@ -33,6 +33,11 @@ public class Constants {
 
     public static final String CODENVY_DIR = ".codenvy";
 
+    // headers of paged search response
+    public static final String SEARCH_TOTAL_HITS_HEADER       = "X-Total-Hits";
+    public static final String SEARCH_NEXT_PAGE_CURSOR_HEADER = "X-Next-Page-Cursor";
+    public static final String SEARCH_INDEX_UP_TO_DATE_HEADER = "X-Index-Up-To-Date";
+
     private Constants() {
     }
 }
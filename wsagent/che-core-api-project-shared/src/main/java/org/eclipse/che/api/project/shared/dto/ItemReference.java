@@ -85,4 +85,11 @@ public interface ItemReference extends Hyperlinks {
     ProjectConfigDto getProjectConfig();
 
     void setProjectConfig(ProjectConfigDto config);
+
+    /** Matches of substring or regular expression in content of file. Provided only in results of search. */
+    List<SearchOccurrenceDto> getOccurrences();
+
+    void setOccurrences(List<SearchOccurrenceDto> occurrences);
+
+    ItemReference withOccurrences(List<SearchOccurrenceDto> occurrences);
 }
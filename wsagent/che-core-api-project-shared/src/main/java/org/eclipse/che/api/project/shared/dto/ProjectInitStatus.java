@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * State of initialization of project, project may be opened in IDE when init handlers of it are completed.
+ */
+@DTO
+public interface ProjectInitStatus {
+
+    @ApiModelProperty(value = "Path of project", position = 1)
+    String getPath();
+
+    ProjectInitStatus withPath(String path);
+
+    @ApiModelProperty(value = "State of initialization", allowableValues = "INITIALIZING,READY,FAILED", position = 2)
+    String getState();
+
+    ProjectInitStatus withState(String state);
+
+    @ApiModelProperty(value = "Message of error if initialization failed", position = 3)
+    String getError();
+
+    ProjectInitStatus withError(String error);
+}
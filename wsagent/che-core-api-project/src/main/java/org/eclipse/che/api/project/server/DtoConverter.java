@@ -20,7 +20,9 @@ import org.eclipse.che.api.project.shared.dto.AttributeDto;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.ProjectImporterDescriptor;
 import org.eclipse.che.api.project.shared.dto.ProjectTypeDto;
+import org.eclipse.che.api.project.shared.dto.SearchOccurrenceDto;
 import org.eclipse.che.api.project.shared.dto.ValueDto;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectProblemDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
@@ -95,6 +97,16 @@ public class DtoConverter {
                                           .withModified(folder.getModified());
     }
 
+    /** Converts list of {@link SearchOccurrence} to list of {@link SearchOccurrenceDto}. */
+    public static List<SearchOccurrenceDto> asDto(List<SearchOccurrence> occurrences) {
+        return occurrences.stream()
+                          .map(occurrence -> newDto(SearchOccurrenceDto.class).withLineNumber(occurrence.getLineNumber())
+                                                                              .withStartOffset(occurrence.getStartOffset())
+                                                                              .withEndOffset(occurrence.getEndOffset())
+                                                                              .withLineContent(occurrence.getLineContent()))
+                          .collect(Collectors.toList());
+    }
+
     /**
      * The method tries to provide as much as possible information about project. If get error then save information about error
      * with 'problems' field in ProjectConfigDto.
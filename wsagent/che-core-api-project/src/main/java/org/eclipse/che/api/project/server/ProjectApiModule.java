@@ -25,6 +25,8 @@ import org.eclipse.che.api.project.server.type.ProjectTypeDef;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.impl.file.DefaultFileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherBackend;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherBackendProvider;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.impl.file.event.GitCheckoutHiEventDetector;
@@ -79,6 +81,7 @@ public class ProjectApiModule extends AbstractModule {
         bind(VirtualFileSystemProvider.class).to(LocalVirtualFileSystemProvider.class);
 
         bind(FileWatcherNotificationHandler.class).to(DefaultFileWatcherNotificationHandler.class);
+        bind(FileWatcherBackend.class).toProvider(FileWatcherBackendProvider.class);
 
         bind(LoEventListener.class);
         bind(LoEventService.class);
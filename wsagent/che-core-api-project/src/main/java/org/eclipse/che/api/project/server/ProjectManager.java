@@ -192,6 +192,32 @@ public final class ProjectManager {
         return project;
     }
 
+    /**
+     * @param projectPath
+     *         project path
+     * @return state of initialization of project
+     * @throws NotFoundException
+     *         if project not found
+     * @see ProjectRegistry#getInitState(String)
+     */
+    public ProjectRegistry.InitState getProjectInitState(String projectPath) throws NotFoundException {
+        final ProjectRegistry.InitState state = projectRegistry.getInitState(projectPath);
+        if (state == null) {
+            throw new NotFoundException(String.format("Project '%s' doesn't exist.", projectPath));
+        }
+
+        return state;
+    }
+
+    /**
+     * @param projectPath
+     *         project path
+     * @return message of error that caused failure of initialization of project or {@code null}
+     */
+    public String getProjectInitError(String projectPath) {
+        return projectRegistry.getInitError(projectPath);
+    }
+
     /**
      * Create project:
      * - take project config
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -32,12 +34,21 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.stream.Collectors;
 
 /**
@@ -49,15 +60,41 @@ import java.util.stream.Collectors;
 public class ProjectRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectRegistry.class);
 
-    private final Map<String, RegisteredProject> projects;
-    private final WorkspaceProjectsSyncer        workspaceHolder;
-    private final VirtualFileSystem              vfs;
-    private final ProjectTypeRegistry            projectTypeRegistry;
-    private final ProjectHandlerRegistry         handlers;
-    private final FolderEntry                    root;
-    private final EventService eventService;
+    /** State of initialization of project that is registered on start of the Workspace Agent. */
+    public enum InitState {
+        /** Init handlers of project are scheduled or running. */
+        INITIALIZING,
+        /** Init handlers of project are completed successfully or project has no init handlers. */
+        READY,
+        /** One of init handlers of project failed. */
+        FAILED
+    }
+
+    static final int DEFAULT_INIT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private final Map<String, RegisteredProject>       projects;
+    private final Map<String, CompletableFuture<Void>> initializations;
+    private final WorkspaceProjectsSyncer              workspaceHolder;
+    private final VirtualFileSystem                    vfs;
+    private final ProjectTypeRegistry                  projectTypeRegistry;
+    private final ProjectHandlerRegistry               handlers;
+    private final FolderEntry                          root;
+    private final EventService                         eventService;
+
+    /** Max number of projects that are registered at the same time. */
+    @com.google.inject.Inject(optional = true)
+    @Named("project.registry.init_threads")
+    private int initThreads = DEFAULT_INIT_THREADS;
+
+    /**
+     * If {@code true} then {@link #initProjects()} does not wait for init handlers of projects and each project may be used as soon as
+     * its own handlers are completed, see {@link #getInitState(String)}.
+     */
+    @com.google.inject.Inject(optional = true)
+    @Named("project.registry.async_init")
+    private boolean asyncInit;
 
-    private boolean initialized;
+    private volatile boolean initialized;
 
     @Inject
     public ProjectRegistry(WorkspaceProjectsSyncer workspaceHolder,
@@ -67,6 +104,7 @@ public class ProjectRegistry {
                            EventService eventService) throws ServerException {
         this.eventService = eventService;
         this.projects = new ConcurrentHashMap<>();
+        this.initializations = new ConcurrentHashMap<>();
         this.workspaceHolder = workspaceHolder;
         this.vfs = vfsProvider.getVirtualFileSystem();
         this.projectTypeRegistry = projectTypeRegistry;
@@ -74,44 +112,175 @@ public class ProjectRegistry {
         this.root = new FolderEntry(vfs.getRoot());
     }
 
+    /**
+     * Registers projects from the workspace configuration and fires init handlers of them. Projects are registered concurrently on a
+     * bounded pool of threads, init handlers are always fired one by one in order of project paths, so handlers of parent project are
+     * completed before handlers of its nested projects and handlers of different project types never run at the same time.
+     */
     @PostConstruct
     public void initProjects() throws ConflictException, NotFoundException, ServerException, ForbiddenException {
-        //final Workspace workspace = workspaceHolder.getWorkspace();
-
-        List<? extends ProjectConfig> projectConfigs = workspaceHolder.getProjects();
-
-        // take all the projects from ws's config
-        for (ProjectConfig projectConfig : projectConfigs) {
-            final String path = projectConfig.getPath();
-            final VirtualFile vf = vfs.getRoot().getChild(Path.of(path));
-            final FolderEntry projectFolder = ((vf == null) ? null : new FolderEntry(vf, this));
-            // need that to make "problematic" project and not break the workspace
-            try {
-                putProject(projectConfig, projectFolder, false, false);
-            } catch (ProjectTypeConstraintException e) {
-                //in case bad config
-                projects.put(path, new RegisteredProject(projectFolder, false, false, projectTypeRegistry, new Problem(12, e.getMessage())));
-            } catch (NotFoundException e) {
-                //in case project type not found
-                projects.put(path, new RegisteredProject(projectFolder, false, false, projectTypeRegistry, new Problem(13, e.getMessage())));
-            } catch (ValueStorageException e) {
-                //in case can't calculate Attributes
-                projects.put(path, new RegisteredProject(projectFolder, false, false, projectTypeRegistry, new Problem(14, e.getMessage())));
-            }
-        }
+        registerProjects(workspaceHolder.getProjects());
 
         initUnconfiguredFolders();
 
         initialized = true;
 
-        for (RegisteredProject project : projects.values()) {
-            // only for projects with sources
-            if(project.getBaseFolder() != null) {
+        // sorted by path so parent project is always initialized before its nested projects
+        final List<RegisteredProject> withSources = new TreeMap<>(projects).values()
+                                                                             .stream()
+                                                                             // only for projects with sources
+                                                                             .filter(project -> project.getBaseFolder() != null)
+                                                                             .collect(Collectors.toList());
+        if (asyncInit) {
+            fireInitHandlersAsync(withSources);
+        } else {
+            for (RegisteredProject project : withSources) {
                 fireInitHandlers(project);
             }
         }
     }
 
+    private void registerProjects(List<? extends ProjectConfig> projectConfigs) throws ConflictException,
+                                                                                       NotFoundException,
+                                                                                       ServerException,
+                                                                                       ForbiddenException {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, initThreads),
+                                                                      new ThreadFactoryBuilder().setNameFormat("ProjectRegistry-Init-%d")
+                                                                                                .setDaemon(true)
+                                                                                                .build());
+        try {
+            // take all the projects from ws's config
+            final List<Future<Void>> registrations = new ArrayList<>(projectConfigs.size());
+            for (ProjectConfig projectConfig : projectConfigs) {
+                registrations.add(executor.submit(() -> {
+                    registerProject(projectConfig);
+                    return null;
+                }));
+            }
+            for (Future<Void> registration : registrations) {
+                try {
+                    registration.get();
+                } catch (ExecutionException e) {
+                    rethrow(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Initialization of projects is interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void registerProject(ProjectConfig projectConfig) throws ServerException, ConflictException {
+        final String path = projectConfig.getPath();
+        final VirtualFile vf = vfs.getRoot().getChild(Path.of(path));
+        final FolderEntry projectFolder = ((vf == null) ? null : new FolderEntry(vf, this));
+        // need that to make "problematic" project and not break the workspace
+        try {
+            putProject(projectConfig, projectFolder, false, false);
+        } catch (ProjectTypeConstraintException e) {
+            //in case bad config
+            projects.put(path, new RegisteredProject(projectFolder, false, false, projectTypeRegistry, new Problem(12, e.getMessage())));
+        } catch (NotFoundException e) {
+            //in case project type not found
+            projects.put(path, new RegisteredProject(projectFolder, false, false, projectTypeRegistry, new Problem(13, e.getMessage())));
+        } catch (ValueStorageException e) {
+            //in case can't calculate Attributes
+            projects.put(path, new RegisteredProject(projectFolder, false, false, projectTypeRegistry, new Problem(14, e.getMessage())));
+        }
+    }
+
+    /**
+     * Fires init handlers of the given projects one by one in the background thread. Nested projects are initialized even if
+     * initialization of their parent project failed, state of each project is available via {@link #getInitState(String)}.
+     */
+    private void fireInitHandlersAsync(List<RegisteredProject> projects) {
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("ProjectRegistry-Handlers")
+                                                                      .setDaemon(true)
+                                                                      .build();
+        final ExecutorService executor = Executors.newSingleThreadExecutor(threadFactory);
+        for (RegisteredProject project : projects) {
+            final CompletableFuture<Void> initialization = CompletableFuture.runAsync(() -> fireInitHandlersUnchecked(project), executor);
+            initialization.whenComplete((result, error) -> {
+                if (error != null) {
+                    final Throwable cause = error.getCause() == null ? error : error.getCause();
+                    LOG.error("Initialization of project {} failed: {}", project.getPath(), cause.getMessage());
+                }
+            });
+            initializations.put(project.getPath(), initialization);
+        }
+        // already scheduled handlers are still fired
+        executor.shutdown();
+    }
+
+    private void fireInitHandlersUnchecked(RegisteredProject project) {
+        try {
+            fireInitHandlers(project);
+        } catch (ForbiddenException | ConflictException | NotFoundException | ServerException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static void rethrow(Throwable error) throws ConflictException, NotFoundException, ServerException, ForbiddenException {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof ConflictException) {
+            throw (ConflictException)error;
+        } else if (error instanceof NotFoundException) {
+            throw (NotFoundException)error;
+        } else if (error instanceof ServerException) {
+            throw (ServerException)error;
+        } else if (error instanceof ForbiddenException) {
+            throw (ForbiddenException)error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException)error;
+        } else if (error instanceof Error) {
+            throw (Error)error;
+        }
+        throw new ServerException(error.getMessage(), error);
+    }
+
+    /**
+     * Gets state of initialization of project. Only projects registered on start of the Workspace Agent are initialized in background,
+     * projects created or imported later are initialized before they become available, so they are always {@link InitState#READY}.
+     *
+     * @param projectPath
+     *         project path
+     * @return state of initialization or {@code null} if project not found
+     */
+    public InitState getInitState(String projectPath) {
+        final String path = absolutizePath(projectPath);
+        final CompletableFuture<Void> initialization = initializations.get(path);
+        if (initialization == null) {
+            return projects.containsKey(path) ? InitState.READY : null;
+        }
+        if (!initialization.isDone()) {
+            return InitState.INITIALIZING;
+        }
+        return initialization.isCompletedExceptionally() ? InitState.FAILED : InitState.READY;
+    }
+
+    /**
+     * Gets message of error that caused failure of initialization of project.
+     *
+     * @param projectPath
+     *         project path
+     * @return error message or {@code null} if project is not in {@link InitState#FAILED} state
+     */
+    public String getInitError(String projectPath) {
+        final CompletableFuture<Void> initialization = initializations.get(absolutizePath(projectPath));
+        if (initialization == null || !initialization.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            initialization.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause() == null ? e.getMessage() : e.getCause().getMessage();
+        }
+    }
 
     /**
      * @return all the registered projects
@@ -226,6 +395,7 @@ public class ProjectRegistry {
         Optional.ofNullable(projects.remove(path)).ifPresent(removed::add);
         getProjects(path).forEach(p -> Optional.ofNullable(projects.remove(p))
                                                .ifPresent(removed::add));
+        removed.forEach(registeredProject -> initializations.remove(registeredProject.getPath()));
 
         removed.forEach(registeredProject -> eventService.publish(new ProjectDeletedEvent(registeredProject.getPath())));
     }
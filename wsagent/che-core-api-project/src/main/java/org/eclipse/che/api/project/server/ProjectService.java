@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.gson.stream.JsonWriter;
+
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -31,11 +33,13 @@ import org.eclipse.che.api.core.rest.Service;
 import org.eclipse.che.api.core.rest.annotations.Description;
 import org.eclipse.che.api.core.rest.annotations.GenerateLink;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
 import org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent;
 import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
 import org.eclipse.che.api.project.shared.dto.CopyOptions;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
+import org.eclipse.che.api.project.shared.dto.ProjectInitStatus;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.vfs.VirtualFile;
@@ -48,6 +52,7 @@ import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.ws.rs.ExtMediaType;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonSerializable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,12 +69,16 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -83,6 +92,7 @@ import java.util.stream.Collectors;
 import static javax.ws.rs.HttpMethod.DELETE;
 import static javax.ws.rs.HttpMethod.GET;
 import static javax.ws.rs.HttpMethod.PUT;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static org.eclipse.che.api.core.util.LinksHelper.createLink;
 import static org.eclipse.che.api.project.server.DtoConverter.asDto;
@@ -94,6 +104,9 @@ import static org.eclipse.che.api.project.shared.Constants.LINK_REL_GET_PROJECTS
 import static org.eclipse.che.api.project.shared.Constants.LINK_REL_TREE;
 import static org.eclipse.che.api.project.shared.Constants.LINK_REL_UPDATE_CONTENT;
 import static org.eclipse.che.api.project.shared.Constants.LINK_REL_UPDATE_PROJECT;
+import static org.eclipse.che.api.project.shared.Constants.SEARCH_INDEX_UP_TO_DATE_HEADER;
+import static org.eclipse.che.api.project.shared.Constants.SEARCH_NEXT_PAGE_CURSOR_HEADER;
+import static org.eclipse.che.api.project.shared.Constants.SEARCH_TOTAL_HITS_HEADER;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 
 /**
@@ -158,6 +171,25 @@ public class ProjectService extends Service {
         return injectProjectLinks(asDto(projectManager.getProject(path)));
     }
 
+    @GET
+    @Path("/init-status/{path:.*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Gets state of initialization of project",
+                  notes = "Projects of workspace are initialized in background on start of the agent, project may be opened " +
+                          "as soon as its state is READY",
+                  response = ProjectInitStatus.class)
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 404, message = "Project with specified path doesn't exist in workspace"),
+                   @ApiResponse(code = 500, message = "Server error")})
+    public ProjectInitStatus getProjectInitStatus(@ApiParam(value = "Path to requested project", required = true)
+                                                  @PathParam("path") String path) throws NotFoundException {
+        final ProjectRegistry.InitState state = projectManager.getProjectInitState(path);
+        return DtoFactory.newDto(ProjectInitStatus.class)
+                         .withPath(ProjectRegistry.absolutizePath(path))
+                         .withState(state.name())
+                         .withError(projectManager.getProjectInitError(path));
+    }
+
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
@@ -782,6 +814,53 @@ public class ProjectService extends Service {
                                         .withChildren(getTree(folder, depth, includeFiles));
     }
 
+    @GET
+    @Path("/tree-stream/{parent:.*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Get project tree as stream of items",
+                  notes = "Response is JSON object with field 'items' that contains items of tree in depth-first order and optional " +
+                          "field 'continuationToken' if number of items reached the limit. Value of 'continuationToken' should be " +
+                          "passed as 'continuation' query parameter for retrieving the next items")
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 409, message = "Conflict error"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public StreamingOutput getTreeStream(@ApiParam(value = "Path to resource. Can be project or its folders", required = true)
+                                         @PathParam("parent") String path,
+                                         @ApiParam(value = "Tree depth. This parameter can be dropped. If not specified ?depth=1 is used " +
+                                                           "by default")
+                                         @DefaultValue("1") @QueryParam("depth") int depth,
+                                         @ApiParam(value = "include children files (in addition to children folders). This parameter " +
+                                                           "can be dropped. If not specified ?includeFiles=false is used by default")
+                                         @DefaultValue("false") @QueryParam("includeFiles") boolean includeFiles,
+                                         @ApiParam(value = "Max number of items in response")
+                                         @DefaultValue("1000") @QueryParam("maxNodes") int maxNodes,
+                                         @ApiParam(value = "Token returned with previous items")
+                                         @QueryParam("continuation") String continuation) throws NotFoundException,
+                                                                                                 ForbiddenException,
+                                                                                                 ServerException,
+                                                                                                 ConflictException {
+        if (maxNodes <= 0) {
+            throw new ConflictException(String.format("Invalid 'maxNodes' parameter: %d.", maxNodes));
+        }
+        final FolderEntry folder = projectManager.asFolder(path);
+        final ProjectTreeWriter treeWriter = new ProjectTreeWriter(folder, depth, includeFiles, maxNodes, continuation, entry -> {
+            if (entry.isFolder()) {
+                return injectFolderLinks(asDto((FolderEntry)entry));
+            }
+            return injectFileLinks(asDto((FileEntry)entry));
+        });
+
+        return output -> {
+            try {
+                treeWriter.write(new OutputStreamWriter(output, UTF_8));
+            } catch (ServerException e) {
+                throw new IOException(e.getLocalizedMessage(), e);
+            }
+        };
+    }
+
     @GET
     @Path("/item/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -812,7 +891,11 @@ public class ProjectService extends Service {
     @Path("/search/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
     @ApiOperation(value = "Search for resources",
-                  notes = "Search for resources applying a number of search filters as query parameters",
+                  notes = "Search for resources applying a number of search filters as query parameters. Total number of hits is returned " +
+                          "in header '" + SEARCH_TOTAL_HITS_HEADER + "', if there are more results header '" +
+                          SEARCH_NEXT_PAGE_CURSOR_HEADER + "' contains value that should be passed as 'cursor' query parameter for " +
+                          "retrieving next page. Header '" + SEARCH_INDEX_UP_TO_DATE_HEADER + "' is 'false' if the latest changes " +
+                          "of files might be not reflected in results",
                   response = ItemReference.class,
                   responseContainer = "List")
     @ApiResponses({@ApiResponse(code = 200, message = "OK"),
@@ -820,52 +903,163 @@ public class ProjectService extends Service {
                    @ApiResponse(code = 404, message = "Not found"),
                    @ApiResponse(code = 409, message = "Conflict error"),
                    @ApiResponse(code = 500, message = "Internal Server Error")})
-    public List<ItemReference> search(@ApiParam(value = "Path to resource, i.e. where to search?", required = true)
-                                      @PathParam("path") String path,
-                                      @ApiParam(value = "Resource name")
-                                      @QueryParam("name") String name,
-                                      @ApiParam(value = "Search keywords")
-                                      @QueryParam("text") String text,
-                                      @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
-                                      @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
-                                      @ApiParam(value = "Skip count")
-                                      @QueryParam("skipCount") int skipCount) throws NotFoundException,
-                                                                                     ForbiddenException,
-                                                                                     ConflictException,
-                                                                                     ServerException {
+    public Response search(@ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                           @PathParam("path") String path,
+                           @ApiParam(value = "Resource name")
+                           @QueryParam("name") String name,
+                           @ApiParam(value = "Search keywords")
+                           @QueryParam("text") String text,
+                           @ApiParam(value = "Substring that must be present in file content")
+                           @QueryParam("substring") String substring,
+                           @ApiParam(value = "Regular expression that must match file content")
+                           @QueryParam("regex") String regex,
+                           @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
+                           @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
+                           @ApiParam(value = "Skip count")
+                           @QueryParam("skipCount") int skipCount,
+                           @ApiParam(value = "Cursor of next page returned with previous page")
+                           @QueryParam("cursor") String cursor) throws NotFoundException,
+                                                                       ForbiddenException,
+                                                                       ConflictException,
+                                                                       ServerException {
         final Searcher searcher;
         try {
             searcher = projectManager.getSearcher();
         } catch (NotFoundException e) {
             LOG.warn(e.getLocalizedMessage());
-            return Collections.emptyList();
+            return Response.ok(new GenericEntity<List<ItemReference>>(Collections.emptyList()) {}).build();
         }
 
-        if (skipCount < 0) {
-            throw new ConflictException(String.format("Invalid 'skipCount' parameter: %d.", skipCount));
+        final QueryExpression expr = createQueryExpression(path, name, text, substring, regex, maxItems, skipCount, cursor);
+        final SearchResult result = searcher.search(expr);
+        final List<ItemReference> items = new ArrayList<>(result.getResults().size());
+        final FolderEntry root = projectManager.getProjectsRoot();
+        for (SearchResultEntry searchResultEntry : result.getResults()) {
+            final ItemReference item = asItemReference(root, searchResultEntry);
+            if (item != null) {
+                items.add(item);
+            }
         }
 
-        final QueryExpression expr = new QueryExpression()
-                .setPath(path.startsWith("/") ? path : ('/' + path))
-                .setName(name)
-                .setText(text)
-                .setMaxItems(maxItems)
-                .setSkipCount(skipCount);
+        final Response.ResponseBuilder response = Response.ok(new GenericEntity<List<ItemReference>>(items) {})
+                                                          .header(SEARCH_TOTAL_HITS_HEADER, result.getTotalHits())
+                                                          .header(SEARCH_INDEX_UP_TO_DATE_HEADER, result.isIndexUpToDate());
+        if (result.getNextPageQueryExpression().isPresent()) {
+            response.header(SEARCH_NEXT_PAGE_CURSOR_HEADER, result.getNextPageQueryExpression().get().getCursor());
+        }
+        return response.build();
+    }
 
-        final SearchResult result = searcher.search(expr);
-        final List<SearchResultEntry> searchResultEntries = result.getResults();
-        final List<ItemReference> items = new ArrayList<>(searchResultEntries.size());
+    @GET
+    @Path("/search-stream/{path:.*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Search for resources and stream results as soon as they are found",
+                  notes = "Response is JSON object with field 'items' that contains found resources, fields 'totalHits', " +
+                          "'indexUpToDate' and optional 'nextPageCursor' follow the items. Value of 'nextPageCursor' should be passed " +
+                          "as 'cursor' query parameter for retrieving next page. If search fails after items are started to be sent, " +
+                          "response contains field 'error' with the error description instead of 'totalHits'")
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 409, message = "Conflict error"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public StreamingOutput searchStream(@ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                                        @PathParam("path") String path,
+                                        @ApiParam(value = "Resource name")
+                                        @QueryParam("name") String name,
+                                        @ApiParam(value = "Search keywords")
+                                        @QueryParam("text") String text,
+                                        @ApiParam(value = "Substring that must be present in file content")
+                                        @QueryParam("substring") String substring,
+                                        @ApiParam(value = "Regular expression that must match file content")
+                                        @QueryParam("regex") String regex,
+                                        @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
+                                        @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
+                                        @ApiParam(value = "Skip count")
+                                        @QueryParam("skipCount") int skipCount,
+                                        @ApiParam(value = "Cursor of next page returned with previous page")
+                                        @QueryParam("cursor") String cursor) throws NotFoundException,
+                                                                                    ServerException,
+                                                                                    ConflictException {
+        final Searcher searcher = projectManager.getSearcher();
+        final QueryExpression expr = createQueryExpression(path, name, text, substring, regex, maxItems, skipCount, cursor);
         final FolderEntry root = projectManager.getProjectsRoot();
 
-        for (SearchResultEntry searchResultEntry : searchResultEntries) {
-            final VirtualFileEntry child = root.getChild(searchResultEntry.getFilePath());
-
-            if (child != null && child.isFile()) {
-                items.add(injectFileLinks(asDto((FileEntry)child)));
+        return output -> {
+            final JsonWriter writer = DtoFactory.newJsonWriter(new OutputStreamWriter(output, UTF_8));
+            writer.beginObject().name("items").beginArray();
+            SearchResult result = null;
+            String error = null;
+            try {
+                result = searcher.search(expr, searchResultEntry -> {
+                    try {
+                        final ItemReference item = asItemReference(root, searchResultEntry);
+                        if (item != null) {
+                            ((JsonSerializable)item).toJson(writer);
+                            writer.flush();
+                        }
+                    } catch (ServerException e) {
+                        LOG.warn(e.getLocalizedMessage());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // response can't be written any more
+                throw e.getCause();
+            } catch (ServerException | ConflictException | RuntimeException e) {
+                // status of response is already sent, so error is reported in the body and JSON is kept well-formed
+                LOG.error(e.getLocalizedMessage(), e);
+                error = e.getLocalizedMessage() == null ? e.getClass().getName() : e.getLocalizedMessage();
             }
+            writer.endArray();
+            if (result == null) {
+                writer.name("error");
+                ((JsonSerializable)newDto(ServiceError.class).withMessage(error)).toJson(writer);
+            } else {
+                writer.name("totalHits").value(result.getTotalHits());
+                writer.name("indexUpToDate").value(result.isIndexUpToDate());
+                if (result.getNextPageQueryExpression().isPresent()) {
+                    writer.name("nextPageCursor").value(result.getNextPageQueryExpression().get().getCursor());
+                }
+            }
+            writer.endObject();
+            writer.flush();
+        };
+    }
+
+    private static QueryExpression createQueryExpression(String path,
+                                                         String name,
+                                                         String text,
+                                                         String substring,
+                                                         String regex,
+                                                         int maxItems,
+                                                         int skipCount,
+                                                         String cursor) throws ConflictException {
+        if (skipCount < 0) {
+            throw new ConflictException(String.format("Invalid 'skipCount' parameter: %d.", skipCount));
         }
+        return new QueryExpression().setPath(path.startsWith("/") ? path : ('/' + path))
+                                    .setName(name)
+                                    .setText(text)
+                                    .setSubstring(substring)
+                                    .setRegex(regex)
+                                    .setMaxItems(maxItems)
+                                    .setSkipCount(skipCount)
+                                    .setCursor(cursor);
+    }
 
-        return items;
+    /** Converts search result to item with occurrences, returns {@code null} if file doesn't exist any more. */
+    private ItemReference asItemReference(FolderEntry root, SearchResultEntry searchResultEntry) throws ServerException {
+        final VirtualFileEntry child = root.getChild(searchResultEntry.getFilePath());
+        if (child == null || !child.isFile()) {
+            return null;
+        }
+        final ItemReference item = injectFileLinks(asDto((FileEntry)child));
+        if (!searchResultEntry.getOccurrences().isEmpty()) {
+            item.setOccurrences(asDto(searchResultEntry.getOccurrences()));
+        }
+        return item;
     }
 
     private void logProjectCreatedEvent(@NotNull String projectName, @NotNull String projectType) {
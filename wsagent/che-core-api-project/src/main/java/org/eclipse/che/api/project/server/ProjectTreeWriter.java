@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.gson.stream.JsonWriter;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.shared.dto.ItemReference;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonSerializable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes items of folder tree as JSON stream in depth-first order:
+ * <pre>
+ *     {"items":[{...},{...}],"continuationToken":"..."}
+ * </pre>
+ * Each item is written as soon as it is read, full tree is never kept in memory. While items of one folder are written, children of its
+ * sub-folders are read in parallel in the {@link ForkJoinPool}. When number of written items reaches the limit, writing stops and token
+ * for reading of the next items is added after the list of items. Token refers to the last written item, so the next portion may be read
+ * even if the tree was changed meanwhile.
+ */
+class ProjectTreeWriter {
+    /** Reads directories in parallel. Threads of pool are daemons and live only while there is something to read. */
+    private static final ForkJoinPool LISTING_POOL = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    private static final int  FLUSH_BATCH_SIZE = 100;
+    private static final char FOLDER_MARKER    = 'd';
+    private static final char FILE_MARKER      = 'f';
+
+    /** Converts entry of tree to DTO. */
+    interface ItemConverter {
+        ItemReference convert(VirtualFileEntry entry) throws ServerException;
+    }
+
+    private final FolderEntry   root;
+    private final int           depth;
+    private final boolean       includeFiles;
+    private final int           maxNodes;
+    private final ItemConverter converter;
+    private final List<String>  resumeAfterPath;
+    private final boolean       resumeAfterFolder;
+
+    private JsonWriter writer;
+    private int        writtenNodes;
+    private String     lastWrittenPath;
+    private boolean    lastWrittenIsFolder;
+    private boolean    limitReached;
+
+    /**
+     * @param root
+     *         root of tree, it is not included in output
+     * @param depth
+     *         depth of tree, e.g. {@code 1} means only direct children of root
+     * @param includeFiles
+     *         if {@code false} only folders are written
+     * @param maxNodes
+     *         max number of items to write
+     * @param continuationToken
+     *         token returned with the previous portion of items or {@code null} to start from the beginning
+     * @throws ConflictException
+     *         if continuation token is invalid
+     */
+    ProjectTreeWriter(FolderEntry root,
+                      int depth,
+                      boolean includeFiles,
+                      int maxNodes,
+                      String continuationToken,
+                      ItemConverter converter) throws ConflictException {
+        this.root = root;
+        this.depth = depth;
+        this.includeFiles = includeFiles;
+        this.maxNodes = maxNodes;
+        this.converter = converter;
+        if (continuationToken == null) {
+            resumeAfterPath = Collections.emptyList();
+            resumeAfterFolder = false;
+        } else {
+            final String decoded;
+            try {
+                decoded = new String(Base64.getUrlDecoder().decode(continuationToken), UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new ConflictException("Invalid continuation token");
+            }
+            if (decoded.length() < 3 || decoded.charAt(1) != ':'
+                || (decoded.charAt(0) != FOLDER_MARKER && decoded.charAt(0) != FILE_MARKER)) {
+                throw new ConflictException("Invalid continuation token");
+            }
+            resumeAfterFolder = decoded.charAt(0) == FOLDER_MARKER;
+            resumeAfterPath = Arrays.asList(decoded.substring(2).split("/"));
+        }
+    }
+
+    void write(Writer out) throws IOException, ServerException {
+        writer = DtoFactory.newJsonWriter(out);
+        writer.beginObject().name("items").beginArray();
+        if (depth > 0) {
+            writeChildren(listChildren(root), "", depth, resumeAfterPath);
+        }
+        writer.endArray();
+        if (limitReached) {
+            final String token = (lastWrittenIsFolder ? FOLDER_MARKER : FILE_MARKER) + ":" + lastWrittenPath;
+            writer.name("continuationToken").value(Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(UTF_8)));
+        }
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * Writes children of folder and their subtrees.
+     *
+     * @param children
+     *         children of folder
+     * @param parentPath
+     *         path of folder relative to the root of tree
+     * @param depthLeft
+     *         depth of subtree, {@code 1} means only children are written
+     * @param resumePath
+     *         path relative to the folder of the last item written in the previous portion, items before this item and item itself
+     *         are skipped
+     */
+    private void writeChildren(List<VirtualFileEntry> children,
+                               String parentPath,
+                               int depthLeft,
+                               List<String> resumePath) throws IOException, ServerException {
+        // read children of sub-folders while items of this folder are written
+        final List<ForkJoinTask<List<VirtualFileEntry>>> listings = new ArrayList<>(children.size());
+        for (VirtualFileEntry child : children) {
+            if (depthLeft > 1 && child.isFolder() && compareWithResumePath(child, resumePath) >= 0) {
+                listings.add(LISTING_POOL.submit(() -> listChildren((FolderEntry)child)));
+            } else {
+                listings.add(null);
+            }
+        }
+        try {
+            for (int i = 0; i < children.size() && !limitReached; i++) {
+                final VirtualFileEntry child = children.get(i);
+                final int cmp = compareWithResumePath(child, resumePath);
+                if (cmp < 0) {
+                    continue;
+                }
+                final String childPath = parentPath.isEmpty() ? child.getName() : (parentPath + '/' + child.getName());
+                List<String> childResumePath = Collections.emptyList();
+                if (cmp == 0) {
+                    // item was written in previous portion, continue with its subtree
+                    childResumePath = resumePath.subList(1, resumePath.size());
+                } else if (!writeNode(child, childPath)) {
+                    return;
+                }
+                if (listings.get(i) != null) {
+                    writeChildren(join(listings.get(i)), childPath, depthLeft - 1, childResumePath);
+                }
+            }
+        } finally {
+            for (ForkJoinTask<List<VirtualFileEntry>> listing : listings) {
+                if (listing != null) {
+                    listing.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares entry with the first element of resume path in the same way as children of folder are sorted: folders go first and then
+     * files, items of the same kind are sorted by name.
+     *
+     * @return negative number if entry must be skipped, zero if entry is on the resume path and positive number if entry must be written
+     */
+    private int compareWithResumePath(VirtualFileEntry entry, List<String> resumePath) {
+        if (resumePath.isEmpty()) {
+            return 1;
+        }
+        final boolean resumeItemIsFolder = resumePath.size() > 1 || resumeAfterFolder;
+        if (entry.isFolder() != resumeItemIsFolder) {
+            return entry.isFolder() ? -1 : 1;
+        }
+        return entry.getName().compareTo(resumePath.get(0));
+    }
+
+    private boolean writeNode(VirtualFileEntry entry, String path) throws IOException, ServerException {
+        if (writtenNodes >= maxNodes) {
+            limitReached = true;
+            return false;
+        }
+        ((JsonSerializable)converter.convert(entry)).toJson(writer);
+        writtenNodes++;
+        lastWrittenPath = path;
+        lastWrittenIsFolder = entry.isFolder();
+        if (writtenNodes % FLUSH_BATCH_SIZE == 0) {
+            writer.flush();
+        }
+        return true;
+    }
+
+    private List<VirtualFileEntry> listChildren(FolderEntry folder) throws ServerException {
+        if (includeFiles) {
+            return folder.getChildFoldersFiles();
+        }
+        return new ArrayList<>(folder.getChildFolders());
+    }
+
+    private static List<VirtualFileEntry> join(ForkJoinTask<List<VirtualFileEntry>> listing) throws ServerException {
+        try {
+            return listing.join();
+        } catch (RuntimeException e) {
+            // checked exception of task is wrapped, possibly more than once if it is rethrown in other thread
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof ServerException) {
+                    throw (ServerException)cause;
+                }
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Uses watch service of default file system. If JVM has no native watch service for current platform and falls back to polling then
+ * the highest polling sensitivity is used.
+ */
+public class DefaultFileWatcherBackend implements FileWatcherBackend {
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultFileWatcherBackend.class);
+
+    static final WatchEvent.Kind<?>[] WATCH_EVENT_KINDS = {ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW};
+
+    private WatchEvent.Modifier[] watchEventModifiers = new WatchEvent.Modifier[0];
+
+    @Override
+    public WatchService newWatchService() throws IOException {
+        WatchService watchService = FileSystems.getDefault().newWatchService();
+        if (isPollingWatchService(watchService)) {
+            WatchEvent.Modifier sensitivityModifier = createSensitivityWatchEventModifier();
+            if (sensitivityModifier != null) {
+                watchEventModifiers = new WatchEvent.Modifier[]{sensitivityModifier};
+            }
+        }
+        return watchService;
+    }
+
+    @Override
+    public WatchKey register(WatchService watchService, Path directory) throws IOException {
+        return directory.register(watchService, WATCH_EVENT_KINDS, watchEventModifiers);
+    }
+
+    private boolean isPollingWatchService(WatchService watchService) {
+        return "sun.nio.fs.PollingWatchService".equals(watchService.getClass().getName());
+    }
+
+    private WatchEvent.Modifier createSensitivityWatchEventModifier() {
+        try {
+            Class<?> aModifierEnum = Class.forName("com.sun.nio.file.SensitivityWatchEventModifier");
+            Object[] sensitivityEnumConstants = aModifierEnum.getEnumConstants();
+            return (WatchEvent.Modifier)sensitivityEnumConstants[0];
+        } catch (Exception e) {
+            LOG.warn("Can't create 'com.sun.nio.file.SensitivityWatchEventModifier'", e);
+        }
+        return null;
+    }
+}
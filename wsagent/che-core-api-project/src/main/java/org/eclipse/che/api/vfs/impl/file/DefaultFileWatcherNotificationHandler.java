@@ -24,6 +24,8 @@ import java.io.File;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+
 @Singleton
 public class DefaultFileWatcherNotificationHandler implements FileWatcherNotificationHandler {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultFileWatcherNotificationHandler.class);
@@ -39,10 +41,14 @@ public class DefaultFileWatcherNotificationHandler implements FileWatcherNotific
 
     @Override
     public void handleFileWatcherEvent(FileWatcherEventType eventType, File watchRoot, String subPath, boolean isDir) {
-        VirtualFile virtualFile = convertToVirtualFile(watchRoot, subPath, isDir);
-        if (virtualFile == null) {
+        LocalVirtualFileSystem virtualFileSystem = getVirtualFileSystem();
+        if (virtualFileSystem == null) {
             return;
         }
+        if (eventType != MODIFIED) {
+            invalidateChildrenCache(virtualFileSystem, Path.of(subPath), isDir);
+        }
+        VirtualFile virtualFile = convertToVirtualFile(virtualFileSystem, watchRoot, subPath, isDir);
         for (FileWatcherNotificationListener virtualFileListener : fileWatcherNotificationListeners) {
             if (virtualFileListener.shouldBeNotifiedFor(virtualFile)) {
                 virtualFileListener.onFileWatcherEvent(virtualFile, eventType);
@@ -68,21 +74,34 @@ public class DefaultFileWatcherNotificationHandler implements FileWatcherNotific
         return fileWatcherNotificationListeners.remove(fileWatcherNotificationListener);
     }
 
-    private VirtualFile convertToVirtualFile(File root, String subPath, boolean isDir) {
+    private LocalVirtualFileSystem getVirtualFileSystem() {
         try {
-            LocalVirtualFileSystem virtualFileSystem = (LocalVirtualFileSystem)virtualFileSystemProvider.getVirtualFileSystem(true);
-            Path vfsPath = Path.of(subPath);
-            VirtualFile virtualFile = virtualFileSystem.getRoot().getChild(vfsPath);
-            if (virtualFile == null) {
-                virtualFile = new DeletedLocalVirtualFile(new File(root, subPath), vfsPath, virtualFileSystem, isDir);
-            }
-            return virtualFile;
+            return (LocalVirtualFileSystem)virtualFileSystemProvider.getVirtualFileSystem(true);
         } catch (ServerException e) {
             LOG.warn(e.getMessage());
         }
         return null;
     }
 
+    /** Item is created or deleted, so cached children of its parent and of deleted folder are not valid any more. */
+    private void invalidateChildrenCache(LocalVirtualFileSystem virtualFileSystem, Path vfsPath, boolean isDir) {
+        if (!vfsPath.isRoot()) {
+            virtualFileSystem.invalidateChildrenCache(vfsPath.getParent(), false);
+        }
+        if (isDir) {
+            virtualFileSystem.invalidateChildrenCache(vfsPath, true);
+        }
+    }
+
+    private VirtualFile convertToVirtualFile(LocalVirtualFileSystem virtualFileSystem, File root, String subPath, boolean isDir) {
+        Path vfsPath = Path.of(subPath);
+        VirtualFile virtualFile = virtualFileSystem.getRoot().getChild(vfsPath);
+        if (virtualFile == null) {
+            virtualFile = new DeletedLocalVirtualFile(new File(root, subPath), vfsPath, virtualFileSystem, isDir);
+        }
+        return virtualFile;
+    }
+
     private static class DeletedLocalVirtualFile extends LocalVirtualFile {
         private final boolean isDir;
 
@@ -11,12 +11,12 @@
 package org.eclipse.che.api.vfs.impl.file;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 
 import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
@@ -34,6 +34,7 @@ import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -46,44 +47,66 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
-import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
 import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
 import static java.nio.file.Files.getLastModifiedTime;
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 
+/**
+ * Watches file tree and notifies {@link FileWatcherNotificationHandler} about created, modified and deleted items.
+ * <p/>
+ * Directories are registered in the watch service provided by {@link FileWatcherBackend}. Directories that match patterns set with
+ * property {@code vfs.watcher.excluded_directories} are not registered and not walked at all, by default build output, npm modules and
+ * internals of git repositories are excluded, except for the {@code .git} directory itself, changes of which are used for detection of
+ * branch checkout. When events are lost (watch service reports {@code OVERFLOW}) the whole subtree of the affected directory is
+ * rescanned.
+ */
 @Singleton
 public class FileTreeWatcher {
     private static final Logger LOG = LoggerFactory.getLogger(FileTreeWatcher.class);
 
-    private static final long EVENT_PROCESS_TIMEOUT_SEC = 2;
+    private static final long     EVENT_PROCESS_TIMEOUT_SEC    = 2;
+    static final         String[] DEFAULT_EXCLUDED_DIRECTORIES = {"**/target", "**/node_modules", "**/.git/*"};
 
     private final File                           watchRoot;
     private final Path                           watchRootPath;
     private final Map<Path, WatchedDirectory>    watchedDirectories;
     private final List<PathMatcher>              excludePatterns;
     private final FileWatcherNotificationHandler fileWatcherNotificationHandler;
+    private final FileWatcherBackend             backend;
     private final ExecutorService                executor;
     private final AtomicBoolean                  running;
+    private       List<PathMatcher>              excludedDirectories;
     private       WatchService                   watchService;
-    private       WatchEvent.Modifier[]          watchEventModifiers;
+
+    @Inject(optional = true)
+    @Named("vfs.watcher.excluded_directories")
+    private String[] excludedDirectoriesPatterns = DEFAULT_EXCLUDED_DIRECTORIES;
+
+    public FileTreeWatcher(File watchRoot,
+                           Set<PathMatcher> excludePatterns,
+                           FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this(watchRoot, excludePatterns, fileWatcherNotificationHandler, new DefaultFileWatcherBackend());
+    }
 
     @Inject
     public FileTreeWatcher(@Named("che.user.workspaces.storage") File watchRoot,
                            @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
-                           FileWatcherNotificationHandler fileWatcherNotificationHandler) {
-        watchEventModifiers = new WatchEvent.Modifier[0];
+                           FileWatcherNotificationHandler fileWatcherNotificationHandler,
+                           FileWatcherBackend backend) {
         this.watchRoot = toCanonicalFile(watchRoot);
         this.watchRootPath = this.watchRoot.toPath();
         this.excludePatterns = newArrayList(excludePatterns);
         this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.backend = backend;
 
         ThreadFactory threadFactory = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("FileTreeWatcher-%d").build();
         executor = Executors.newSingleThreadExecutor(threadFactory);
@@ -100,29 +123,25 @@ public class FileTreeWatcher {
     }
 
     public void startup() throws IOException {
-        watchService = FileSystems.getDefault().newWatchService();
-        if (isPollingWatchService(watchService)) {
-            watchEventModifiers = new WatchEvent.Modifier[]{createSensitivityWatchEventModifier()};
-        }
+        excludedDirectories = toPathMatchers(excludedDirectoriesPatterns);
+        watchService = backend.newWatchService();
         running.set(true);
         walkTreeAndSetupWatches(watchRootPath);
+        LOG.debug("Watching {} directories in {}", watchedDirectories.size(), watchRoot);
         executor.execute(new WatchEventTask());
         fileWatcherNotificationHandler.started(watchRoot);
     }
 
-    private boolean isPollingWatchService(WatchService watchService) {
-        return "sun.nio.fs.PollingWatchService".equals(watchService.getClass().getName());
-    }
-
-    private WatchEvent.Modifier createSensitivityWatchEventModifier() {
-        try {
-            Class<?> aModifierEnum = Class.forName("com.sun.nio.file.SensitivityWatchEventModifier");
-            Object[] sensitivityEnumConstants = aModifierEnum.getEnumConstants();
-            return (WatchEvent.Modifier)sensitivityEnumConstants[0];
-        } catch (Exception e) {
-            LOG.warn("Can't create 'com.sun.nio.file.SensitivityWatchEventModifier'", e);
+    private static List<PathMatcher> toPathMatchers(String[] globs) {
+        final List<PathMatcher> matchers = newArrayList();
+        if (globs != null) {
+            for (String glob : globs) {
+                if (!glob.trim().isEmpty()) {
+                    matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob.trim()));
+                }
+            }
         }
-        return null;
+        return matchers;
     }
 
     public void shutdown() {
@@ -140,11 +159,10 @@ public class FileTreeWatcher {
             executor.shutdownNow();
         }
 
-        try {
-            walkTreeAndRemoveWatches(watchRootPath);
-        } catch (IOException e) {
-            LOG.warn(e.getMessage());
+        for (WatchedDirectory watchedDirectory : watchedDirectories.values()) {
+            watchedDirectory.getWatchKey().cancel();
         }
+        watchedDirectories.clear();
 
         try {
             watchService.close();
@@ -169,12 +187,26 @@ public class FileTreeWatcher {
         Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (isExcludedDirectory(dir)) {
+                    return SKIP_SUBTREE;
+                }
                 Path relativePath = watchRootPath.relativize(dir);
                 if (shouldNotify(relativePath)) {
-                    setupDirectoryWatcher(dir);
+                    try {
+                        setupDirectoryWatcher(dir);
+                    } catch (IOException e) {
+                        LOG.warn(e.getMessage());
+                        return SKIP_SUBTREE;
+                    }
                 }
                 return CONTINUE;
             }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                LOG.debug(e.getMessage());
+                return CONTINUE;
+            }
         });
     }
 
@@ -187,14 +219,14 @@ public class FileTreeWatcher {
         return true;
     }
 
-    private void walkTreeAndRemoveWatches(Path root) throws IOException {
-        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                cancelDirectoryWatcher(dir);
-                return CONTINUE;
+    private boolean isExcludedDirectory(Path directory) {
+        Path relativePath = watchRootPath.relativize(directory);
+        for (PathMatcher excludedDirectory : excludedDirectories) {
+            if (excludedDirectory.matches(relativePath)) {
+                return true;
             }
-        });
+        }
+        return false;
     }
 
     private void walkTreeAndFireCreatedEvents(Path root) throws IOException {
@@ -203,6 +235,9 @@ public class FileTreeWatcher {
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
                 if (!dir.equals(root)) {
                     fireWatchEvent(CREATED, dir, true);
+                    if (isExcludedDirectory(dir)) {
+                        return SKIP_SUBTREE;
+                    }
                 }
                 return CONTINUE;
             }
@@ -212,20 +247,27 @@ public class FileTreeWatcher {
                 fireWatchEvent(CREATED, file, false);
                 return CONTINUE;
             }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                LOG.debug(e.getMessage());
+                return CONTINUE;
+            }
         });
     }
 
     private void setupDirectoryWatcher(Path directory) throws IOException {
         if (watchedDirectories.get(directory) == null) {
-            WatchKey watchKey = directory.register(watchService,
-                                                   new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
-                                                   watchEventModifiers);
+            WatchKey watchKey = backend.register(watchService, directory);
             WatchedDirectory watchedDirectory = new WatchedDirectory(directory, watchKey);
             try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
                 for (Path entry : entries) {
                     watchedDirectory
                             .addItem(new DirectoryItem(entry.getFileName(), Files.isDirectory(entry), getLastModifiedInMillis(entry)));
                 }
+            } catch (IOException e) {
+                watchKey.cancel();
+                throw e;
             }
             watchedDirectories.put(directory, watchedDirectory);
         }
@@ -239,7 +281,7 @@ public class FileTreeWatcher {
     }
 
     private class WatchEventTask implements Runnable {
-        final Set<PendingEvent> pendingEvents = newLinkedHashSet();
+        final Map<Path, PendingEvent> pendingEvents = newLinkedHashMap();
 
         @Override
         public void run() {
@@ -251,13 +293,21 @@ public class FileTreeWatcher {
                     } else {
                         watchKey = watchService.poll(EVENT_PROCESS_TIMEOUT_SEC, SECONDS);
                         if (watchKey == null) {
-                            processPendingEvents(pendingEvents);
+                            processPendingEvents(pendingEvents.values());
                             pendingEvents.clear();
                         }
                     }
                     if (watchKey != null) {
-                        pendingEvents.add(new PendingEvent((Path)watchKey.watchable()));
-                        watchKey.pollEvents();
+                        Path directory = (Path)watchKey.watchable();
+                        PendingEvent pendingEvent = pendingEvents.get(directory);
+                        if (pendingEvent == null) {
+                            pendingEvents.put(directory, pendingEvent = new PendingEvent(directory));
+                        }
+                        for (WatchEvent<?> event : watchKey.pollEvents()) {
+                            if (event.kind() == OVERFLOW) {
+                                pendingEvent.setOverflow();
+                            }
+                        }
                         watchKey.reset();
                     }
                 } catch (InterruptedException | ClosedWatchServiceException e) {
@@ -271,55 +321,109 @@ public class FileTreeWatcher {
     }
 
     private void processPendingEvents(Collection<PendingEvent> pendingEvents) throws IOException {
+        final Set<Path> overflowRoots = topMostPaths(pendingEvents.stream()
+                                                                  .filter(PendingEvent::isOverflow)
+                                                                  .map(PendingEvent::getPath)
+                                                                  .collect(toList()));
+        if (!overflowRoots.isEmpty()) {
+            LOG.debug("Events lost in directories {}, rescanning subtrees", overflowRoots);
+            rescanSubtrees(overflowRoots);
+        }
         for (PendingEvent pendingEvent : pendingEvents) {
-            Path eventDirectoryPath = pendingEvent.getPath();
-            WatchedDirectory watchedDirectory = watchedDirectories.get(eventDirectoryPath);
-            if (Files.exists(eventDirectoryPath)) {
-                final int hitCounter = watchedDirectory.incrementHitCounter();
-                try (DirectoryStream<Path> entries = Files.newDirectoryStream(eventDirectoryPath)) {
-                    for (Path fsItem : entries) {
-                        DirectoryItem directoryItem = watchedDirectory.getItem(fsItem.getFileName());
-                        if (directoryItem == null) {
-                            try {
-                                boolean directory = Files.isDirectory(fsItem);
-                                directoryItem = new DirectoryItem(fsItem.getFileName(), directory, getLastModifiedInMillis(fsItem));
-                                watchedDirectory.addItem(directoryItem);
-                                fireWatchEvent(CREATED, fsItem, directoryItem.isDirectory());
-                                if (directory) {
-                                    walkTreeAndFireCreatedEvents(fsItem);
-                                    setupDirectoryWatcher(fsItem);
-                                }
-                            } catch (IOException ignored) {
-                            }
-                        } else {
-                            long lastModified;
-                            try {
-                                lastModified = getLastModifiedInMillis(fsItem);
-                            } catch (IOException ignored) {
-                                continue;
-                            }
-                            if (lastModified != directoryItem.getLastModified() && Files.isRegularFile(fsItem)) {
-                                fireWatchEvent(MODIFIED, fsItem, false);
+            if (!isUnderAny(pendingEvent.getPath(), overflowRoots)) {
+                rescanDirectory(pendingEvent.getPath());
+            }
+        }
+    }
+
+    /**
+     * Reduces paths to the top-most ones, paths that are nested in other paths are dropped, so each directory is rescanned once
+     * even if events are lost in many nested directories.
+     */
+    static Set<Path> topMostPaths(Collection<Path> paths) {
+        final Set<Path> topMost = newHashSet();
+        paths.stream()
+             .sorted(Comparator.comparingInt(Path::getNameCount))
+             .filter(path -> !isUnderAny(path, topMost))
+             .forEach(topMost::add);
+        return topMost;
+    }
+
+    /** Checks whether path is one of roots or is nested in any of them, takes time proportional to depth of path. */
+    private static boolean isUnderAny(Path path, Set<Path> roots) {
+        for (Path ancestor = path; ancestor != null; ancestor = ancestor.getParent()) {
+            if (roots.contains(ancestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rescans all watched directories in the subtrees, parent directories go first so newly created directories are found and
+     * registered before their children are visited.
+     */
+    private void rescanSubtrees(Set<Path> roots) throws IOException {
+        final List<Path> subtrees = watchedDirectories.keySet()
+                                                      .stream()
+                                                      .filter(directory -> isUnderAny(directory, roots))
+                                                      .sorted()
+                                                      .collect(toList());
+        for (Path directory : subtrees) {
+            rescanDirectory(directory);
+        }
+    }
+
+    private void rescanDirectory(Path eventDirectoryPath) throws IOException {
+        WatchedDirectory watchedDirectory = watchedDirectories.get(eventDirectoryPath);
+        if (watchedDirectory == null) {
+            return;
+        }
+        if (Files.exists(eventDirectoryPath)) {
+            final int hitCounter = watchedDirectory.incrementHitCounter();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(eventDirectoryPath)) {
+                for (Path fsItem : entries) {
+                    DirectoryItem directoryItem = watchedDirectory.getItem(fsItem.getFileName());
+                    if (directoryItem == null) {
+                        try {
+                            boolean directory = Files.isDirectory(fsItem);
+                            directoryItem = new DirectoryItem(fsItem.getFileName(), directory, getLastModifiedInMillis(fsItem));
+                            watchedDirectory.addItem(directoryItem);
+                            fireWatchEvent(CREATED, fsItem, directoryItem.isDirectory());
+                            if (directory && !isExcludedDirectory(fsItem)) {
+                                walkTreeAndFireCreatedEvents(fsItem);
+                                walkTreeAndSetupWatches(fsItem);
                             }
-                            directoryItem.touch(lastModified);
-                            directoryItem.updateHitCounter(hitCounter);
+                        } catch (IOException ignored) {
+                        }
+                    } else {
+                        long lastModified;
+                        try {
+                            lastModified = getLastModifiedInMillis(fsItem);
+                        } catch (IOException ignored) {
+                            continue;
+                        }
+                        if (lastModified != directoryItem.getLastModified() && Files.isRegularFile(fsItem)) {
+                            fireWatchEvent(MODIFIED, fsItem, false);
                         }
+                        directoryItem.touch(lastModified);
+                        directoryItem.updateHitCounter(hitCounter);
                     }
                 }
+            }
 
-                for (Iterator<DirectoryItem> iterator = watchedDirectory.getItems().iterator(); iterator.hasNext(); ) {
-                    DirectoryItem directoryItem = iterator.next();
-                    if (hitCounter != directoryItem.getHitCount()) {
-                        iterator.remove();
-                        fireWatchEvent(DELETED, eventDirectoryPath.resolve(directoryItem.getName()), directoryItem.isDirectory());
-                    }
-                }
-            } else {
-                for (DirectoryItem directoryItem : watchedDirectory.getItems()) {
+            for (Iterator<DirectoryItem> iterator = watchedDirectory.getItems().iterator(); iterator.hasNext(); ) {
+                DirectoryItem directoryItem = iterator.next();
+                if (hitCounter != directoryItem.getHitCount()) {
+                    iterator.remove();
                     fireWatchEvent(DELETED, eventDirectoryPath.resolve(directoryItem.getName()), directoryItem.isDirectory());
                 }
-                watchedDirectories.remove(eventDirectoryPath);
             }
+        } else {
+            for (DirectoryItem directoryItem : watchedDirectory.getItems()) {
+                fireWatchEvent(DELETED, eventDirectoryPath.resolve(directoryItem.getName()), directoryItem.isDirectory());
+            }
+            cancelDirectoryWatcher(eventDirectoryPath);
         }
     }
 
@@ -336,6 +440,7 @@ public class FileTreeWatcher {
 
     static class PendingEvent {
         final Path path;
+        boolean overflow;
 
         PendingEvent(Path path) {
             this.path = path;
@@ -345,6 +450,15 @@ public class FileTreeWatcher {
             return path;
         }
 
+        /** Marks that some events in directory are lost and the whole subtree must be rescanned. */
+        void setOverflow() {
+            overflow = true;
+        }
+
+        boolean isOverflow() {
+            return overflow;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Source of file system events for {@link FileTreeWatcher}. Implementation decides how changes in watched directories are detected,
+ * e.g. with native notifications of operating system or by polling.
+ */
+public interface FileWatcherBackend {
+    /** Creates new watch service. */
+    WatchService newWatchService() throws IOException;
+
+    /**
+     * Registers directory in the watch service. Only changes of direct children of directory are reported.
+     *
+     * @throws IOException
+     *         if directory can't be registered, e.g. if limit of watched directories is reached
+     */
+    WatchKey register(WatchService watchService, Path directory) throws IOException;
+}
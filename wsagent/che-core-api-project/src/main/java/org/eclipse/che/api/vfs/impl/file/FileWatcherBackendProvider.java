@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import javax.inject.Provider;
+
+/** Provides inotify based {@link FileWatcherBackend} on Linux and default one on other platforms. */
+public class FileWatcherBackendProvider implements Provider<FileWatcherBackend> {
+    @Override
+    public FileWatcherBackend get() {
+        if (InotifyFileWatcherBackend.isSupported()) {
+            return new InotifyFileWatcherBackend();
+        }
+        return new DefaultFileWatcherBackend();
+    }
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.api.vfs.impl.file.DefaultFileWatcherBackend.WATCH_EVENT_KINDS;
+
+/**
+ * Uses inotify based watch service of JVM on Linux. Each registered directory consumes one inotify watch, number of watches is limited
+ * per user by kernel parameter {@code fs.inotify.max_user_watches}. When limit is reached registration of directory fails with
+ * exception that explains how to raise the limit.
+ */
+public class InotifyFileWatcherBackend implements FileWatcherBackend {
+    private static final Logger LOG = LoggerFactory.getLogger(InotifyFileWatcherBackend.class);
+
+    private static final String LINUX_WATCH_SERVICE = "sun.nio.fs.LinuxWatchService";
+    private static final Path   MAX_USER_WATCHES    = Paths.get("/proc/sys/fs/inotify/max_user_watches");
+
+    /** Checks whether inotify may be used on current platform. */
+    public static boolean isSupported() {
+        return System.getProperty("os.name", "").startsWith("Linux") && Files.isReadable(MAX_USER_WATCHES);
+    }
+
+    @Override
+    public WatchService newWatchService() throws IOException {
+        WatchService watchService = FileSystems.getDefault().newWatchService();
+        if (!LINUX_WATCH_SERVICE.equals(watchService.getClass().getName())) {
+            watchService.close();
+            throw new IOException(String.format("inotify is not supported, JVM provides watch service %s",
+                                                watchService.getClass().getName()));
+        }
+        LOG.debug("Using inotify watch service, max user watches: {}", getMaxUserWatches());
+        return watchService;
+    }
+
+    @Override
+    public WatchKey register(WatchService watchService, Path directory) throws IOException {
+        try {
+            return directory.register(watchService, WATCH_EVENT_KINDS);
+        } catch (IOException e) {
+            if (Files.isDirectory(directory)) {
+                throw new IOException(String.format("Unable to watch directory %s: %s. Current limit of inotify watches is %d, it may be " +
+                                                    "raised with kernel parameter fs.inotify.max_user_watches",
+                                                    directory, e.getMessage(), getMaxUserWatches()), e);
+            }
+            throw e;
+        }
+    }
+
+    /** Returns max number of inotify watches per user or {@code -1} if it can't be read. */
+    public static int getMaxUserWatches() {
+        try {
+            return Integer.parseInt(new String(Files.readAllBytes(MAX_USER_WATCHES), UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -17,6 +18,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -25,7 +27,6 @@ import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
-import org.eclipse.che.api.vfs.HashSumsCounter;
 import org.eclipse.che.api.vfs.LockedFileFinder;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.PathLockFactory;
@@ -52,11 +53,14 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.attribute.FileTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
@@ -81,6 +85,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     private static final long WAIT_FOR_FILE_LOCK_TIMEOUT = 60000; // 60 seconds
     private static final int  FILE_LOCK_MAX_THREADS      = 1024;
+    private static final int  HASH_SUMS_MAX_THREADS      = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final int  HASH_SUMS_CACHE_SIZE       = 50_000;
 
     private static final String   VFS_SERVICE_DIR        = ".vfs";
     private static final String   FILE_LOCKS_DIR         = VFS_SERVICE_DIR + File.separatorChar + "locks";
@@ -120,6 +126,33 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
+    /**
+     * Reads names of children of directory. Time of modification of directory is read before listing, so if directory is changed
+     * while it is listed, the listing is considered to be outdated on the next access.
+     */
+    private class DirectoryListingCacheLoader extends CacheLoader<Path, DirectoryListing> {
+        @Override
+        public DirectoryListing load(Path path) throws Exception {
+            final File directory = new File(ioRoot, toIoPath(path));
+            final FileTime lastModified = getLastModifiedTime(directory);
+            final String[] names = directory.list(DOT_VFS_DIR_FILTER);
+            if (names == null) {
+                throw new IOException(String.format("Unable list directory '%s'", directory));
+            }
+            return new DirectoryListing(lastModified, names);
+        }
+    }
+
+    private static class DirectoryListing {
+        final FileTime lastModified;
+        final String[] names;
+
+        DirectoryListing(FileTime lastModified, String[] names) {
+            this.lastModified = lastModified;
+            this.names = names;
+        }
+    }
+
     private final File                                            ioRoot;
     private final ArchiverFactory                                 archiverFactory;
     private final SearcherProvider                                searcherProvider;
@@ -136,6 +169,11 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private final FileMetadataSerializer                  metadataSerializer;
     private final LoadingCache<Path, Map<String, String>> metadataCache;
 
+    private final LoadingCache<Path, DirectoryListing> childrenCache;
+
+    private final ExecutorService                              md5SumsExecutor;
+    private final Cache<Path, ParallelHashSumsCounter.HashSum> md5SumsCache;
+
     @SuppressWarnings("unchecked")
     public LocalVirtualFileSystem(File ioRoot,
                                   ArchiverFactory archiverFactory,
@@ -162,6 +200,22 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                                     .maximumSize(256)
                                     .expireAfterAccess(10, MINUTES)
                                     .build(new FilePropertiesCacheLoader());
+
+        childrenCache = CacheBuilder.newBuilder()
+                                    .concurrencyLevel(8)
+                                    .maximumSize(1024)
+                                    .expireAfterAccess(10, MINUTES)
+                                    .build(new DirectoryListingCacheLoader());
+
+        md5SumsExecutor = Executors.newFixedThreadPool(HASH_SUMS_MAX_THREADS,
+                                                       new ThreadFactoryBuilder().setNameFormat("LocalVirtualFileSystem-HashSums-%d")
+                                                                                 .setDaemon(true)
+                                                                                 .build());
+        md5SumsCache = CacheBuilder.newBuilder()
+                                   .concurrencyLevel(8)
+                                   .maximumSize(HASH_SUMS_CACHE_SIZE)
+                                   .expireAfterAccess(60, MINUTES)
+                                   .build();
     }
 
     @Override
@@ -177,6 +231,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     @Override
     public void close() throws ServerException {
         cleanUpCaches();
+        md5SumsExecutor.shutdownNow();
         if (searcherProvider != null) {
             Searcher searcher = searcherProvider.getSearcher(this, false);
             if (searcher != null) {
@@ -208,6 +263,45 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private void cleanUpCaches() {
         lockTokensCache.invalidateAll();
         metadataCache.invalidateAll();
+        childrenCache.invalidateAll();
+        md5SumsCache.invalidateAll();
+    }
+
+    /** Removes cached locks, properties, children and hash sums of the item with specified path and all its descendants. */
+    private void cleanUpCaches(Path path) {
+        invalidateSubtree(lockTokensCache, path);
+        invalidateSubtree(metadataCache, path);
+        invalidateSubtree(childrenCache, path);
+        invalidateSubtree(md5SumsCache, path);
+    }
+
+    private static void invalidateSubtree(Cache<Path, ?> cache, Path path) {
+        cache.asMap().keySet().removeIf(cached -> cached.equals(path) || cached.isChild(path));
+    }
+
+    /**
+     * Drops cached children of folder with specified path. Must be called when structure of file tree is changed outside of this
+     * virtual filesystem, e.g. on events of file watcher.
+     *
+     * @param path
+     *         path of folder
+     * @param recursive
+     *         if {@code true} cached children of all sub-folders are dropped as well
+     */
+    void invalidateChildrenCache(Path path, boolean recursive) {
+        if (recursive) {
+            invalidateSubtree(childrenCache, path);
+        } else {
+            childrenCache.invalidate(path);
+        }
+    }
+
+    /** Drops cached children of parent folder and cached data of item with specified path and all its descendants. */
+    private void itemAddedOrRemoved(Path path) {
+        if (!path.isRoot()) {
+            childrenCache.invalidate(path.getParent());
+        }
+        cleanUpCaches(path);
     }
 
     /** Used in tests. Need this to check state of PathLockFactory. All locks MUST be released at the end of request lifecycle. */
@@ -243,9 +337,9 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return newArrayList(path.elements()).contains(".vfs");
     }
 
-    synchronized List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
+    List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
         if (parent.isFolder()) {
-            final List<VirtualFile> children = doGetChildren(parent, DOT_VFS_DIR_FILTER, filter);
+            final List<VirtualFile> children = doGetChildren(parent, filter);
             Collections.sort(children);
             return children;
         }
@@ -253,16 +347,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
-    private List<VirtualFile> doGetChildren(LocalVirtualFile parent, FilenameFilter ioFileFilter, VirtualFileFilter vfsFilter)
-            throws ServerException {
-        if (ioFileFilter == null) {
-            ioFileFilter = IoUtil.ANY_FILTER;
-        }
-
-        final String[] names = parent.toIoFile().list(ioFileFilter);
-        if (names == null) {
-            throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
-        }
+    private List<VirtualFile> doGetChildren(LocalVirtualFile parent, VirtualFileFilter vfsFilter) throws ServerException {
+        final String[] names = getChildrenNames(parent);
 
         if (vfsFilter == null) {
             vfsFilter = VirtualFileFilter.ACCEPT_ALL;
@@ -280,6 +366,34 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return children;
     }
 
+    /**
+     * Gets names of children of folder from cache. Cached names are reused while time of modification of folder is not changed, cache
+     * loads names of each folder separately, so listing of one folder doesn't block reading of others.
+     */
+    private String[] getChildrenNames(LocalVirtualFile parent) throws ServerException {
+        final Path path = parent.getPath();
+        try {
+            DirectoryListing listing = childrenCache.get(path);
+            if (!listing.lastModified.equals(getLastModifiedTime(parent.toIoFile()))) {
+                childrenCache.invalidate(path);
+                listing = childrenCache.get(path);
+            }
+            return listing.names;
+        } catch (IOException | ExecutionException e) {
+            String errorMessage = String.format("Unable get children of '%s'", path);
+            if (e instanceof ExecutionException) {
+                LOG.error(errorMessage + "\n" + e.getCause().getMessage(), e.getCause());
+            } else {
+                LOG.error(errorMessage + "\n" + e.getMessage(), e);
+            }
+            throw new ServerException(errorMessage);
+        }
+    }
+
+    private static FileTime getLastModifiedTime(File ioFile) throws IOException {
+        return java.nio.file.Files.getLastModifiedTime(ioFile.toPath());
+    }
+
 
     LocalVirtualFile createFile(LocalVirtualFile parent, String name, InputStream content)
             throws ForbiddenException, ConflictException, ServerException {
@@ -303,6 +417,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 throw new ServerException(errorMessage);
             }
 
+            childrenCache.invalidate(parent.getPath());
             final LocalVirtualFile newVirtualFile = new LocalVirtualFile(newIoFile, newPath, this);
 
             if (content != null) {
@@ -330,6 +445,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                     throw new ConflictException(String.format("Item '%s' already exists", newPath));
                 }
             }
+            // name may contain several path elements, drop listings of all folders that might be created
+            invalidateChildrenCache(parent.getPath(), true);
 
             return new LocalVirtualFile(newIoFile, newPath, this);
         } else {
@@ -359,6 +476,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             }
 
             doCopy(source, destination);
+            itemAddedOrRemoved(destination.getPath());
 
             addInSearcher(destination);
 
@@ -421,6 +539,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             }
 
             doCopy(virtualFile, newVirtualFile);
+            itemAddedOrRemoved(newVirtualFile.getPath());
             addInSearcher(newVirtualFile);
 
             final Path path = virtualFile.getPath();
@@ -477,6 +596,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
 
         doCopy(virtualFile, newVirtualFile);
+        itemAddedOrRemoved(newVirtualFile.getPath());
         addInSearcher(newVirtualFile);
 
         final Path path = virtualFile.getPath();
@@ -538,6 +658,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
 
     private void doUpdateContent(LocalVirtualFile virtualFile, InputStream content) throws ServerException {
+        md5SumsCache.invalidate(virtualFile.getPath());
         try (FileOutputStream fileOut = new FileOutputStream(virtualFile.toIoFile())) {
             ByteStreams.copy(content, fileOut);
         } catch (IOException e) {
@@ -571,8 +692,6 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             throw new ForbiddenException(String.format("Unable delete file '%s'. File is locked", virtualFile.getPath()));
         }
 
-        cleanUpCaches();
-
         final File fileLockIoFile = getFileLockIoFile(virtualFile.getPath());
         if (fileLockIoFile.delete()) {
             if (fileLockIoFile.exists()) {
@@ -589,9 +708,13 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             }
         }
 
-        if (!deleteRecursive(virtualFile.toIoFile())) {
-            LOG.error("Unable delete file {}", virtualFile.toIoFile());
-            throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
+        try {
+            if (!deleteRecursive(virtualFile.toIoFile())) {
+                LOG.error("Unable delete file {}", virtualFile.toIoFile());
+                throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
+            }
+        } finally {
+            itemAddedOrRemoved(virtualFile.getPath());
         }
     }
 
@@ -615,6 +738,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
         if (parent.isFolder()) {
             extract(archiverFactory.createArchiver(parent, "zip"), zipped, overwrite, stripNumber);
+            cleanUpCaches(parent.getPath());
             addInSearcher(parent);
         } else {
             throw new ForbiddenException(String.format("Unable import zip content. Item '%s' is not a folder", parent.getPath()));
@@ -640,6 +764,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
         if (parent.isFolder()) {
             extract(archiverFactory.createArchiver(parent, "tar"), tarArchive, overwrite, stripNumber);
+            cleanUpCaches(parent.getPath());
             addInSearcher(parent);
         } else {
             throw new ForbiddenException(String.format("Unable import tar archive. Item '%s' is not a folder", parent.getPath()));
@@ -908,7 +1033,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         if (virtualFile.isFile()) {
             return emptyList();
         }
-        return new HashSumsCounter(virtualFile, Hashing.md5()).countHashSums();
+        return new ParallelHashSumsCounter(virtualFile, Hashing.md5(), md5SumsExecutor, md5SumsCache,
+                                           pathLockFactory, WAIT_FOR_FILE_LOCK_TIMEOUT).countHashSums();
     }
 
 
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.cache.Cache;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.PathLockFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.commons.lang.Pair;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Calculates hash sums of all files in folder of {@link LocalVirtualFileSystem}. Unlike {@link org.eclipse.che.api.vfs.HashSumsCounter}
+ * files are hashed concurrently, large files are read through memory mapped buffers and hash sums are cached, cached hash sum of file
+ * is reused while key, last modification time and size of file stay the same. Each file is hashed under read lock of its path, so it is
+ * never hashed while its content is updated through the virtual file system, and hash sum of file that was modified too recently to be
+ * distinguished by its modification time from the next update is not cached at all.
+ * <p/>
+ * Folder is traversed in the calling thread, so tasks submitted to the executor never wait for each other and executor may be bounded.
+ */
+class ParallelHashSumsCounter {
+    /** Files that are smaller than this are read with plain stream, mapping of small file costs more than reading it. */
+    static final long MIN_MAPPED_FILE_SIZE = 256 * 1024;
+
+    private static final long MAPPED_REGION_SIZE = 32 * 1024 * 1024;
+    private static final int  BUFFER_SIZE        = 8192;
+    /**
+     * Hash sum of file that was modified within this period before its hashing is not cached. Many file systems keep modification time
+     * with granularity of a second or more, so next update of such file may leave its size and modification time the same.
+     */
+    static final long RACY_MODIFICATION_PERIOD = 2000;
+
+    /** Hash sum of file and attributes of file at the moment when hash sum was calculated. */
+    static class HashSum {
+        final Object   fileKey;
+        final FileTime lastModified;
+        final long     size;
+        final String   hash;
+
+        HashSum(BasicFileAttributes attributes, String hash) {
+            this.fileKey = attributes.fileKey();
+            this.lastModified = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.hash = hash;
+        }
+
+        boolean isUpToDate(BasicFileAttributes attributes) {
+            return size == attributes.size()
+                   && lastModified.equals(attributes.lastModifiedTime())
+                   && Objects.equals(fileKey, attributes.fileKey());
+        }
+    }
+
+    private final VirtualFile          folder;
+    private final HashFunction         hashFunction;
+    private final ExecutorService      executor;
+    private final Cache<Path, HashSum> cache;
+    private final PathLockFactory      lockFactory;
+    private final long                 lockTimeout;
+
+    /**
+     * @param folder
+     *         folder to traverse
+     * @param hashFunction
+     *         algorithm of hash sums
+     * @param executor
+     *         executor for calculating hash sums of files
+     * @param cache
+     *         cache of hash sums of files, must not be shared between different hash functions
+     * @param lockFactory
+     *         factory of locks of files which guards their content
+     * @param lockTimeout
+     *         max time in milliseconds to wait for read lock of each file
+     */
+    ParallelHashSumsCounter(VirtualFile folder,
+                            HashFunction hashFunction,
+                            ExecutorService executor,
+                            Cache<Path, HashSum> cache,
+                            PathLockFactory lockFactory,
+                            long lockTimeout) {
+        this.folder = folder;
+        this.hashFunction = hashFunction;
+        this.executor = executor;
+        this.cache = cache;
+        this.lockFactory = lockFactory;
+        this.lockTimeout = lockTimeout;
+    }
+
+    /**
+     * Hash sums of files. Each {@code Pair} contains hash sum of file represented as HEX String and path of file that is relative to
+     * folder given in constructor, see {@link org.eclipse.che.api.vfs.HashSumsCounter#countHashSums()}.
+     */
+    List<Pair<String, String>> countHashSums() throws ServerException {
+        final List<VirtualFile> files = new ArrayList<>();
+        collectFiles(folder, files);
+        final List<Future<String>> hashes = new ArrayList<>(files.size());
+        try {
+            for (VirtualFile file : files) {
+                hashes.add(executor.submit(() -> countHashSum(file)));
+            }
+            final List<Pair<String, String>> hashSums = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                hashSums.add(Pair.of(hashes.get(i).get(), files.get(i).getPath().subPath(folder.getPath()).toString()));
+            }
+            return hashSums;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Calculation of hash sums is interrupted");
+        } catch (ExecutionException e) {
+            throw new ServerException(e.getCause());
+        } finally {
+            hashes.forEach(hash -> hash.cancel(true));
+        }
+    }
+
+    private void collectFiles(VirtualFile virtualFile, List<VirtualFile> files) throws ServerException {
+        for (VirtualFile child : virtualFile.getChildren()) {
+            if (child.isFile()) {
+                files.add(child);
+            } else {
+                collectFiles(child, files);
+            }
+        }
+    }
+
+    private String countHashSum(VirtualFile virtualFile) throws IOException {
+        final PathLockFactory.PathLock lock = lockFactory.getLock(virtualFile.getPath(), false).acquire(lockTimeout);
+        try {
+            final long startTime = System.currentTimeMillis();
+            final java.nio.file.Path ioPath = virtualFile.toIoFile().toPath();
+            final BasicFileAttributes attributes = Files.readAttributes(ioPath, BasicFileAttributes.class);
+            final HashSum cached = cache.getIfPresent(virtualFile.getPath());
+            if (cached != null && cached.isUpToDate(attributes)) {
+                return cached.hash;
+            }
+            final Hasher hasher = hashFunction.newHasher();
+            if (attributes.size() < MIN_MAPPED_FILE_SIZE) {
+                hashStream(ioPath, hasher);
+            } else {
+                hashMapped(ioPath, hasher);
+            }
+            final String hash = hasher.hash().toString();
+            // attributes are read before content, so if file is updated while its hash sum is calculated then cached value is not used
+            if (attributes.lastModifiedTime().toMillis() < startTime - RACY_MODIFICATION_PERIOD) {
+                cache.put(virtualFile.getPath(), new HashSum(attributes, hash));
+            } else {
+                cache.invalidate(virtualFile.getPath());
+            }
+            return hash;
+        } finally {
+            lock.release();
+        }
+    }
+
+    private void hashStream(java.nio.file.Path ioPath, Hasher hasher) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(ioPath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                hasher.putBytes(buffer, 0, read);
+            }
+        }
+    }
+
+    private void hashMapped(java.nio.file.Path ioPath, Hasher hasher) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (FileChannel channel = FileChannel.open(ioPath, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+                final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                                            Math.min(MAPPED_REGION_SIZE, size - position));
+                while (region.hasRemaining()) {
+                    final int length = Math.min(buffer.length, region.remaining());
+                    region.get(buffer, 0, length);
+                    hasher.putBytes(buffer, 0, length);
+                }
+            }
+        }
+    }
+}
@@ -15,7 +15,10 @@ public class QueryExpression {
     private String name;
     private String path;
     private String text;
+    private String substring;
+    private String regex;
     private int    skipCount;
+    private String cursor;
     private int    maxItems;
 
     /** Optional file path parameter. Only file with the specified path or children are included in result. */
@@ -48,6 +51,29 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Optional substring that must be present in content of file. Unlike {@link #getText()} it is not split into words, so it may be
+     * used for searching parts of identifiers or punctuation, e.g. {@code getFoo(}. Search result contains positions of matches.
+     */
+    public String getSubstring() {
+        return substring;
+    }
+
+    public QueryExpression setSubstring(String substring) {
+        this.substring = substring;
+        return this;
+    }
+
+    /** Optional regular expression that must match content of file. Search result contains positions of matches. */
+    public String getRegex() {
+        return regex;
+    }
+
+    public QueryExpression setRegex(String regex) {
+        this.regex = regex;
+        return this;
+    }
+
     /** Number of items in search result that should be skipped. This parameter used for paging through large set of search result. */
     public int getSkipCount() {
         return skipCount;
@@ -58,6 +84,20 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Optional cursor that points to the end of previous page of search result. Cursor is provided in query expression for retrieving next
+     * page, see {@link SearchResult#getNextPageQueryExpression()}. If cursor is set and still valid then {@link #getSkipCount()} is used
+     * only for counting results and next page is retrieved without re-executing query for all skipped results.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    public QueryExpression setCursor(String cursor) {
+        this.cursor = cursor;
+        return this;
+    }
+
     /** Max number of results that might be returned after executing this query. */
     public int getMaxItems() {
         return maxItems;
@@ -72,9 +112,12 @@ public class QueryExpression {
     public String toString() {
         return "QueryExpression{" +
                "text='" + text + '\'' +
+               ", substring='" + substring + '\'' +
+               ", regex='" + regex + '\'' +
                ", name='" + name + '\'' +
                ", path='" + path + '\'' +
                ", skipCount=" + skipCount +
+               ", cursor='" + cursor + '\'' +
                ", maxItems=" + maxItems +
                '}';
     }
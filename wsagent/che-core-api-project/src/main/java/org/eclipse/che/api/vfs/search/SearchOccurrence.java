@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search;
+
+/**
+ * Single match of substring or regular expression in file content.
+ */
+public class SearchOccurrence {
+    private final int    lineNumber;
+    private final int    startOffset;
+    private final int    endOffset;
+    private final String lineContent;
+
+    public SearchOccurrence(int lineNumber, int startOffset, int endOffset, String lineContent) {
+        this.lineNumber = lineNumber;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.lineContent = lineContent;
+    }
+
+    /** Number of line where match starts. Lines are numbered from 1. */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /** Offset of the first character of match from the start of file. */
+    public int getStartOffset() {
+        return startOffset;
+    }
+
+    /** Offset of the character after the last character of match from the start of file. */
+    public int getEndOffset() {
+        return endOffset;
+    }
+
+    /** Content of line where match starts, without line terminator. */
+    public String getLineContent() {
+        return lineContent;
+    }
+}
@@ -29,15 +29,18 @@ public class SearchResult {
     private final Optional<QueryExpression> nextPageQueryExpression;
     private final int                       totalHits;
     private final long                      elapsedTimeMillis;
+    private final boolean                   indexUpToDate;
 
     private SearchResult(List<SearchResultEntry> results,
                          Optional<QueryExpression> nextPageQueryExpression,
                          int totalHits,
-                         long elapsedTimeMillis) {
+                         long elapsedTimeMillis,
+                         boolean indexUpToDate) {
         this.results = results;
         this.nextPageQueryExpression = nextPageQueryExpression;
         this.totalHits = totalHits;
         this.elapsedTimeMillis = elapsedTimeMillis;
+        this.indexUpToDate = indexUpToDate;
     }
 
     /** Paths of files that match the search criteria. This method is shortcut for:
@@ -75,11 +78,20 @@ public class SearchResult {
         return nextPageQueryExpression;
     }
 
+    /**
+     * Returns {@code false} if search didn't wait until all changes of files made before the search were applied to the index, so
+     * results may not reflect recent changes.
+     */
+    public boolean isIndexUpToDate() {
+        return indexUpToDate;
+    }
+
     public static class SearchResultBuilder {
         private QueryExpression         nextPageQueryExpression;
         private List<SearchResultEntry> results;
         private int                     totalHits;
         private long                    elapsedTimeMillis;
+        private boolean                 indexUpToDate = true;
 
         private SearchResultBuilder() {
         }
@@ -104,6 +116,11 @@ public class SearchResult {
             return this;
         }
 
+        public SearchResultBuilder withIndexUpToDate(boolean indexUpToDate) {
+            this.indexUpToDate = indexUpToDate;
+            return this;
+        }
+
         public SearchResult build() {
             Optional<QueryExpression> optionalPageNexQueryExpression;
             if (nextPageQueryExpression == null) {
@@ -114,7 +131,7 @@ public class SearchResult {
             if (results == null) {
                 results = emptyList();
             }
-            return new SearchResult(results, optionalPageNexQueryExpression, totalHits, elapsedTimeMillis);
+            return new SearchResult(results, optionalPageNexQueryExpression, totalHits, elapsedTimeMillis, indexUpToDate);
         }
     }
 }
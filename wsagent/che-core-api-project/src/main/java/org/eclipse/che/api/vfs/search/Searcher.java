@@ -10,10 +10,13 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search;
 
+import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 
+import java.util.function.Consumer;
+
 public interface Searcher {
     /**
      * Return paths of matched items on virtual filesystem.
@@ -21,10 +24,28 @@ public interface Searcher {
      * @param query
      *         query expression
      * @return results of search
+     * @throws ConflictException
+     *         if cursor of query is invalid or expired, so the search should be started from the first page
+     * @throws ServerException
+     *         if an error occurs
+     */
+    SearchResult search(QueryExpression query) throws ServerException, ConflictException;
+
+    /**
+     * Passes items that match query to {@code consumer} as soon as they are found. Returned {@code SearchResult} doesn't contain items,
+     * it provides total number of hits and query expression for retrieving next page.
+     *
+     * @param query
+     *         query expression
+     * @param consumer
+     *         consumer of search result entries
+     * @return results of search without entries
+     * @throws ConflictException
+     *         if cursor of query is invalid or expired, so the search should be started from the first page
      * @throws ServerException
      *         if an error occurs
      */
-    SearchResult search(QueryExpression query) throws ServerException;
+    SearchResult search(QueryExpression query, Consumer<SearchResultEntry> consumer) throws ServerException, ConflictException;
 
     /**
      * Add VirtualFile to index.
@@ -11,6 +11,8 @@
 package org.eclipse.che.api.vfs.search.impl;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
 
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
@@ -30,6 +32,12 @@ import java.util.concurrent.atomic.AtomicReference;
 import static com.google.common.collect.Lists.newArrayList;
 
 public abstract class AbstractLuceneSearcherProvider implements SearcherProvider {
+    public static final String TRIGRAM_INDEX_ENABLED_PROPERTY = "vfs.search.trigram_index_enabled";
+
+    @Inject(optional = true)
+    @Named(TRIGRAM_INDEX_ENABLED_PROPERTY)
+    private boolean trigramIndexEnabled;
+
     protected final VirtualFileFilter fileIndexFilter;
     protected final AtomicReference<Searcher> searcherReference = new AtomicReference<>();
     private final ExecutorService executor;
@@ -42,7 +50,7 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
         this.fileIndexFilter = mergeFileIndexFilters(fileIndexFilters);
         executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
                                                              .setDaemon(true)
-                                                             .setNameFormat("LuceneSearcherInitThread")
+                                                             .setNameFormat("LuceneSearcherIndexingThread")
                                                              .build());
     }
 
@@ -63,6 +71,7 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
         Searcher cachedSearcher = searcherReference.get();
         if (cachedSearcher == null && create) {
             LuceneSearcher searcher = createLuceneSearcher(() -> searcherReference.set(null));
+            searcher.setTrigramIndexEnabled(trigramIndexEnabled);
             if (searcherReference.compareAndSet(null, searcher)) {
                 searcher.initAsynchronously(executor, virtualFileSystem);
             }
@@ -32,15 +32,29 @@ import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 public class FSLuceneSearcher extends LuceneSearcher {
     private static final Logger LOG = LoggerFactory.getLogger(FSLuceneSearcher.class);
 
-    private final File indexDirectory;
+    private final File    indexDirectory;
+    private final boolean keepIndexOnClose;
 
     FSLuceneSearcher(File indexDirectory, VirtualFileFilter filter) {
         this(indexDirectory, filter, null);
     }
 
     FSLuceneSearcher(File indexDirectory, VirtualFileFilter filter, AbstractLuceneSearcherProvider.CloseCallback closeCallback) {
+        this(indexDirectory, filter, closeCallback, false);
+    }
+
+    /**
+     * @param keepIndexOnClose
+     *         if {@code true} index directory is not removed when searcher is closed, so index might be reused after restart and only files
+     *         that are changed since last run are re-indexed
+     */
+    FSLuceneSearcher(File indexDirectory,
+                     VirtualFileFilter filter,
+                     AbstractLuceneSearcherProvider.CloseCallback closeCallback,
+                     boolean keepIndexOnClose) {
         super(filter, closeCallback);
         this.indexDirectory = indexDirectory;
+        this.keepIndexOnClose = keepIndexOnClose;
     }
 
     @Override
@@ -52,9 +66,16 @@ public class FSLuceneSearcher extends LuceneSearcher {
         }
     }
 
+    @Override
+    protected void dropIndex() throws ServerException {
+        if (!deleteRecursive(indexDirectory, false)) {
+            throw new ServerException(String.format("Unable clean index directory '%s'", indexDirectory));
+        }
+    }
+
     @Override
     protected void afterClose() throws IOException {
-        if (!deleteRecursive(indexDirectory)) {
+        if (!keepIndexOnClose && !deleteRecursive(indexDirectory)) {
             LOG.warn("Unable delete index directory '{}', add it in FileCleaner", indexDirectory);
             FileCleaner.addFile(indexDirectory);
         }
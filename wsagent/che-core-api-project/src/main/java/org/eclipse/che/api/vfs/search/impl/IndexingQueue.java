@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, coalescing queue of pending changes of {@link LuceneSearcher} index.
+ * <p/>
+ * Changes are keyed by path of item, so a burst of events for the same file (e.g. after {@code git checkout}) results in single
+ * update of index. Changes are applied in batches on the separate thread and the {@code SearcherManager} is refreshed once per batch.
+ * If queue is full then threads that add changes for new paths are blocked until some changes are applied.
+ */
+public class IndexingQueue {
+    private static final Logger LOG = LoggerFactory.getLogger(IndexingQueue.class);
+
+    static final int DEFAULT_CAPACITY   = 10_000;
+    static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final LuceneSearcher                     searcher;
+    private final int                                capacity;
+    private final int                                batchSize;
+    private final LinkedHashMap<String, IndexChange> pending;
+    private final ReentrantLock                      lock;
+    private final Condition                          notEmpty;
+    private final Condition                          notFull;
+    private final Condition                          applied;
+
+    private long    enqueuedSeq;
+    private long    appliedSeq;
+    private long    appliedChanges;
+    private long    coalescedChanges;
+    private long    lastBatchTimeMillis;
+    private boolean stopped;
+
+    IndexingQueue(LuceneSearcher searcher) {
+        this(searcher, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    IndexingQueue(LuceneSearcher searcher, int capacity, int batchSize) {
+        this.searcher = searcher;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        pending = new LinkedHashMap<>();
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
+        applied = lock.newCondition();
+    }
+
+    /** Starts thread that applies changes to the index. Thread is stopped when method {@link #stop()} is called. */
+    void start(ExecutorService executor) {
+        executor.execute(this::processChanges);
+    }
+
+    /** Stops processing of changes. Changes that are not applied yet are discarded. */
+    void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            pending.clear();
+            notEmpty.signalAll();
+            notFull.signalAll();
+            applied.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void add(VirtualFile virtualFile) {
+        enqueue(new IndexChange(IndexChange.Kind.ADD, virtualFile.getPath().toString(), virtualFile, virtualFile.isFile()));
+    }
+
+    void update(VirtualFile virtualFile) {
+        enqueue(new IndexChange(IndexChange.Kind.UPDATE, virtualFile.getPath().toString(), virtualFile, true));
+    }
+
+    /** Adds task for bringing index of the specified tree in line with virtual filesystem, see {@link LuceneSearcher#reconcileTree}. */
+    void reconcile(VirtualFile tree) {
+        enqueue(new IndexChange(IndexChange.Kind.RECONCILE, tree.getPath().toString(), tree, false));
+    }
+
+    void delete(String path, boolean isFile) {
+        enqueue(new IndexChange(IndexChange.Kind.DELETE, path, null, isFile));
+    }
+
+    private void enqueue(IndexChange change) {
+        lock.lock();
+        try {
+            final IndexChange existing = pending.get(change.path);
+            if (existing == null) {
+                while (!stopped && pending.size() >= capacity) {
+                    notFull.await();
+                }
+            }
+            if (stopped) {
+                return;
+            }
+            if (existing != null) {
+                // re-insert to keep changes ordered by sequence number
+                pending.remove(change.path);
+                change.mergeWith(existing);
+                coalescedChanges++;
+            }
+            change.seq = ++enqueuedSeq;
+            pending.put(change.path, change);
+            notEmpty.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until all changes that were added before call of this method are applied to the index.
+     *
+     * @param timeout
+     *         max time to wait
+     * @param unit
+     *         time unit of the {@code timeout} argument
+     * @return {@code true} if all changes are applied and {@code false} if timeout elapsed before changes are applied
+     */
+    boolean awaitApplied(long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            final long targetSeq = enqueuedSeq;
+            long nanos = unit.toNanos(timeout);
+            while (!stopped && appliedSeq < targetSeq) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = applied.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Number of changes that are waiting to be applied to the index. */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Time in milliseconds since the oldest change that is not applied to the index yet was added or {@code 0} if queue is empty. */
+    public long getIndexLagMillis() {
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            long oldest = Long.MAX_VALUE;
+            for (IndexChange change : pending.values()) {
+                oldest = Math.min(oldest, change.firstEnqueuedTime);
+            }
+            return System.currentTimeMillis() - oldest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Total number of changes that are applied to the index. */
+    public long getAppliedChangesCount() {
+        lock.lock();
+        try {
+            return appliedChanges;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Total number of changes that are merged with the changes already present in queue. */
+    public long getCoalescedChangesCount() {
+        lock.lock();
+        try {
+            return coalescedChanges;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Time in milliseconds spent on applying the last batch of changes. */
+    public long getLastBatchTimeMillis() {
+        lock.lock();
+        try {
+            return lastBatchTimeMillis;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies changes until the queue is stopped or the thread is interrupted. Failure of a batch doesn't stop processing, otherwise
+     * all the next changes would be discarded and the index would stay stale until restart of agent.
+     */
+    private void processChanges() {
+        try {
+            List<IndexChange> batch;
+            while ((batch = takeBatch()) != null) {
+                final long start = System.currentTimeMillis();
+                try {
+                    searcher.applyChanges(batch);
+                } catch (RuntimeException e) {
+                    if (searcher.isClosed()) {
+                        return;
+                    }
+                    LOG.error(String.format("Unable apply %d changes to index. %s", batch.size(), e.getMessage()), e);
+                }
+                final long end = System.currentTimeMillis();
+                lock.lock();
+                try {
+                    appliedSeq = batch.get(batch.size() - 1).seq;
+                    appliedChanges += batch.size();
+                    lastBatchTimeMillis = end - start;
+                    applied.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                LOG.debug("Applied {} changes to index, time: {} ms", batch.size(), (end - start));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stop();
+        }
+    }
+
+    private List<IndexChange> takeBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (!stopped && pending.isEmpty()) {
+                notEmpty.await();
+            }
+            if (stopped) {
+                return null;
+            }
+            final List<IndexChange> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            final Iterator<IndexChange> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Pending change of index. */
+    static class IndexChange {
+        enum Kind {
+            ADD,
+            UPDATE,
+            DELETE,
+            RECONCILE
+        }
+
+        private final String path;
+
+        private Kind        kind;
+        private VirtualFile virtualFile;
+        private boolean     isFile;
+        private boolean     deleteFirst;
+        private boolean     deletedItemIsFile;
+        private long        firstEnqueuedTime;
+        private long        seq;
+
+        IndexChange(Kind kind, String path, VirtualFile virtualFile, boolean isFile) {
+            this.kind = kind;
+            this.path = path;
+            this.virtualFile = virtualFile;
+            this.isFile = isFile;
+            firstEnqueuedTime = System.currentTimeMillis();
+        }
+
+        /**
+         * Merges this change with the older change of the same path. The newest change wins, but if item was deleted and then added
+         * again the old documents must be removed before adding new ones, otherwise documents of removed children of folder may stay in
+         * the index.
+         */
+        void mergeWith(IndexChange older) {
+            firstEnqueuedTime = older.firstEnqueuedTime;
+            if (kind == Kind.DELETE) {
+                return;
+            }
+            if (older.kind == Kind.DELETE) {
+                deleteFirst = true;
+                deletedItemIsFile = older.isFile;
+            } else if (older.deleteFirst) {
+                deleteFirst = true;
+                deletedItemIsFile = older.deletedItemIsFile;
+            }
+            if (kind == Kind.UPDATE && (older.kind == Kind.ADD || older.kind == Kind.RECONCILE)) {
+                // keep older change, it covers folders as well as files
+                kind = older.kind;
+                isFile = older.isFile;
+            }
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        VirtualFile getVirtualFile() {
+            return virtualFile;
+        }
+
+        boolean isFile() {
+            return isFile;
+        }
+
+        boolean isDeleteFirst() {
+            return deleteFirst;
+        }
+
+        boolean isDeletedItemFile() {
+            return deletedItemIsFile;
+        }
+    }
+}
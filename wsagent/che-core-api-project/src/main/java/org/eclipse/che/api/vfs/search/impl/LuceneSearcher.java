@@ -10,40 +10,55 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search.impl;
 
+import com.google.common.hash.Hashing;
+import com.google.common.io.CharStreams;
+
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherLifetimeManager;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.IOUtils;
+import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
@@ -51,15 +66,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
 
 /**
  * Lucene based searcher.
@@ -69,15 +98,33 @@ import static com.google.common.collect.Lists.newArrayList;
 public abstract class LuceneSearcher implements Searcher {
     private static final Logger LOG = LoggerFactory.getLogger(LuceneSearcher.class);
 
-    private static final int RESULT_LIMIT = 1000;
+    private static final int  RESULT_LIMIT                  = 1000;
+    /** Max time that search waits for applying of changes that were added in index before the search is started. */
+    private static final long PENDING_CHANGES_WAIT_TIMEOUT_MS = 3000;
+    /** Time during which point-in-time view of index used for search is kept, so next pages might be retrieved with cursor. */
+    private static final long CURSOR_MAX_AGE_SEC              = 600;
+
+    private static final String      PATH_FIELD          = "path";
+    private static final String      LAST_MODIFIED_FIELD = "lastModified";
+    private static final String      SIZE_FIELD          = "size";
+    private static final String      CONTENT_HASH_FIELD  = "contentHash";
+    private static final String      HAS_TRIGRAMS_FIELD  = "hasTrigrams";
+    private static final Set<String> FILE_STATE_FIELDS   = newHashSet(PATH_FIELD, CONTENT_HASH_FIELD, HAS_TRIGRAMS_FIELD);
+
+    /** Max number of occurrences of substring or regular expression that are reported for single file. */
+    private static final int MAX_OCCURRENCES_PER_FILE = 100;
 
     private final List<VirtualFileFilter>                      indexFilters;
     private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
 
     private IndexWriter     luceneIndexWriter;
-    private SearcherManager searcherManager;
+    private SearcherManager         searcherManager;
+    private SearcherLifetimeManager searcherLifetimeManager;
+    private IndexingQueue           indexingQueue;
 
-    private boolean closed = true;
+    private VirtualFileSystem virtualFileSystem;
+    private boolean           trigramIndexEnabled;
+    private boolean           closed = true;
 
     protected LuceneSearcher() {
         this(new MediaTypeFilter(), null);
@@ -108,6 +155,19 @@ public abstract class LuceneSearcher implements Searcher {
         return indexFilters.remove(indexFilter);
     }
 
+    /**
+     * Enables or disables trigram index of file content that speeds up searching by substring or regular expression. Without trigram
+     * index such queries are checked against content of all files that match other criteria of query. This method must be called before
+     * initialization of searcher.
+     */
+    public void setTrigramIndexEnabled(boolean trigramIndexEnabled) {
+        this.trigramIndexEnabled = trigramIndexEnabled;
+    }
+
+    public boolean isTrigramIndexEnabled() {
+        return trigramIndexEnabled;
+    }
+
     protected Analyzer makeAnalyzer() {
         return new Analyzer() {
             @Override
@@ -122,7 +182,9 @@ public abstract class LuceneSearcher implements Searcher {
     protected abstract Directory makeDirectory() throws ServerException;
 
     /**
-     * Init lucene index. Need call this method if index directory is clean. Scan all files in virtual filesystem and add to index.
+     * Init lucene index. Scan all files in virtual filesystem and add to index. If index directory is not clean, e.g. index was created
+     * by this searcher before restart, then only new and changed files are indexed and files that don't exist any more are removed from
+     * index, see {@link #reconcileTree(VirtualFile)}.
      *
      * @param virtualFileSystem
      *         VirtualFileSystem
@@ -130,37 +192,82 @@ public abstract class LuceneSearcher implements Searcher {
      *         if any virtual filesystem error occurs
      */
     public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
-        addTree(virtualFileSystem.getRoot());
+        reconcileTree(virtualFileSystem.getRoot());
     }
 
+    /**
+     * Init lucene index and start indexing of all files in virtual filesystem in background. After calling this method changes that are
+     * passed to methods {@link #add(VirtualFile)}, {@link #update(VirtualFile)} and {@link #delete(String, boolean)} are not applied to
+     * index immediately but added in {@link IndexingQueue} and applied in batches on thread provided by {@code executor}.
+     *
+     * @param executor
+     *         executor for applying changes to index, one of its threads is occupied until this searcher is closed
+     * @param virtualFileSystem
+     *         VirtualFileSystem
+     * @throws ServerException
+     *         if any virtual filesystem error occurs
+     */
     public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
         if (!executor.isShutdown()) {
-            executor.execute(() -> {
-                try {
-                    LuceneSearcher.this.addTree(virtualFileSystem.getRoot());
-                } catch (ServerException e) {
-                    LOG.error(e.getMessage());
-                }
-            });
+            final IndexingQueue queue = new IndexingQueue(this);
+            synchronized (this) {
+                indexingQueue = queue;
+            }
+            queue.start(executor);
+            queue.reconcile(virtualFileSystem.getRoot());
         }
     }
 
     protected final synchronized void doInit() throws ServerException {
         try {
-            luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
+            try {
+                luceneIndexWriter = openIndexWriter();
+            } catch (IOException e) {
+                LOG.warn("Unable open existing index, index is going to be recreated. {}", e.getMessage());
+                dropIndex();
+                luceneIndexWriter = openIndexWriter();
+            }
             searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
+            searcherLifetimeManager = new SearcherLifetimeManager();
             closed = false;
         } catch (IOException e) {
             throw new ServerException(e);
         }
     }
 
+    private IndexWriter openIndexWriter() throws ServerException, IOException {
+        final Directory directory = makeDirectory();
+        try {
+            final Analyzer analyzer = trigramIndexEnabled
+                                      ? new PerFieldAnalyzerWrapper(makeAnalyzer(), singletonMap(TrigramIndex.FIELD, TrigramIndex.makeAnalyzer()))
+                                      : makeAnalyzer();
+            return new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        } catch (IOException e) {
+            IOUtils.closeWhileHandlingException(directory);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes all data of index when existing index can't be opened, e.g. it is corrupted. By default does nothing.
+     *
+     * @throws ServerException
+     *         if index can't be removed
+     */
+    protected void dropIndex() throws ServerException {
+    }
+
     public final synchronized void close() {
         if (!closed) {
+            if (indexingQueue != null) {
+                indexingQueue.stop();
+            }
             try {
-                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherLifetimeManager, searcherManager);
                 afterClose();
             } catch (IOException e) {
                 LOG.error(e.getMessage(), e);
@@ -184,58 +291,256 @@ public abstract class LuceneSearcher implements Searcher {
         return luceneIndexWriter;
     }
 
+    /** Gets queue of changes that are not applied to index yet or {@code null} if changes are applied to index synchronously. */
+    public synchronized IndexingQueue getIndexingQueue() {
+        return indexingQueue;
+    }
+
+    @Override
+    public SearchResult search(QueryExpression query) throws ServerException, ConflictException {
+        final List<SearchResultEntry> results = newArrayList();
+        final SearchResult.SearchResultBuilder resultBuilder = doSearch(query, results::add);
+        return resultBuilder.withResults(results).build();
+    }
+
     @Override
-    public SearchResult search(QueryExpression query) throws ServerException {
+    public SearchResult search(QueryExpression query, Consumer<SearchResultEntry> consumer) throws ServerException, ConflictException {
+        return doSearch(query, consumer).build();
+    }
+
+    private SearchResult.SearchResultBuilder doSearch(QueryExpression query, Consumer<SearchResultEntry> consumer) throws ServerException,
+                                                                                                                         ConflictException {
+        final long startTime = System.currentTimeMillis();
+        final SearchCursor cursor = query.getCursor() == null ? null : SearchCursor.parse(query.getCursor());
+        if (cursor != null && cursor.getQueryHash() != SearchCursor.queryHash(query)) {
+            throw new ConflictException(String.format("Search cursor '%s' was created for another query", query.getCursor()));
+        }
         IndexSearcher luceneSearcher = null;
         try {
-            final long startTime = System.currentTimeMillis();
-            searcherManager.maybeRefresh();
-            luceneSearcher = searcherManager.acquire();
-
-            Query luceneQuery = createLuceneQuery(query);
+            boolean indexUpToDate = true;
+            if (cursor != null) {
+                // use the same point-in-time view of index as previous page, otherwise document ids in cursor are not valid
+                luceneSearcher = searcherLifetimeManager.acquire(cursor.getSearcherVersion());
+                if (luceneSearcher == null) {
+                    throw new ConflictException(String.format("Search cursor '%s' is expired, search should be started from the first page",
+                                                              query.getCursor()));
+                }
+            } else {
+                indexUpToDate = awaitPendingChanges();
+                searcherManager.maybeRefresh();
+                luceneSearcher = searcherManager.acquire();
+            }
+            final long searcherVersion = searcherLifetimeManager.record(luceneSearcher);
+            searcherLifetimeManager.prune(new SearcherLifetimeManager.PruneByAge(CURSOR_MAX_AGE_SEC));
+
+            final Query luceneQuery = createLuceneQuery(query);
+            final List<Pattern> contentPatterns = createContentPatterns(query);
+            // skip count is taken into account only for the first page, position of the next pages is kept by cursor
+            final int offset = cursor != null ? cursor.getOffset() : Math.max(0, query.getSkipCount());
+            final ScoreDoc after = cursor != null ? cursor.getScoreDoc() : null;
+            if (!contentPatterns.isEmpty()) {
+                return searchWithContentPatterns(luceneSearcher, searcherVersion, luceneQuery, query, contentPatterns, after,
+                                                 offset, consumer, startTime).withIndexUpToDate(indexUpToDate);
+            }
 
-            ScoreDoc after = null;
-            final int numSkipDocs = Math.max(0, query.getSkipCount());
-            if (numSkipDocs > 0) {
-                after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
+            ScoreDoc pageAfter = after;
+            if (cursor == null && offset > 0) {
+                pageAfter = skipScoreDocs(luceneSearcher, luceneQuery, offset);
             }
 
             final int numDocs = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
-            TopDocs topDocs = luceneSearcher.searchAfter(after, luceneQuery, numDocs);
+            TopDocs topDocs = luceneSearcher.searchAfter(pageAfter, luceneQuery, numDocs);
             final int totalHitsNum = topDocs.totalHits;
 
-            List<SearchResultEntry> results = newArrayList();
             for (int i = 0; i < topDocs.scoreDocs.length; i++) {
                 ScoreDoc scoreDoc = topDocs.scoreDocs[i];
                 String filePath = luceneSearcher.doc(scoreDoc.doc).getField("path").stringValue();
-                results.add(new SearchResultEntry(filePath));
+                consumer.accept(new SearchResultEntry(filePath));
             }
 
             final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
 
-            boolean hasMoreToRetrieve = numSkipDocs + topDocs.scoreDocs.length + 1 < totalHitsNum;
+            // total hits of search after cursor include hits of the previous pages
+            final int nextOffset = offset + topDocs.scoreDocs.length;
+            boolean hasMoreToRetrieve = nextOffset < totalHitsNum && topDocs.scoreDocs.length > 0;
             QueryExpression nextPageQueryExpression = null;
             if (hasMoreToRetrieve) {
-                nextPageQueryExpression = createNextPageQuery(query, numSkipDocs + topDocs.scoreDocs.length);
+                final ScoreDoc last = topDocs.scoreDocs[topDocs.scoreDocs.length - 1];
+                nextPageQueryExpression = createNextPageQuery(query,
+                                                              nextOffset,
+                                                              new SearchCursor(searcherVersion, last, nextOffset, query).toString());
             }
 
             return SearchResult.aSearchResult()
-                               .withResults(results)
                                .withTotalHits(totalHitsNum)
                                .withNextPageQueryExpression(nextPageQueryExpression)
                                .withElapsedTimeMillis(elapsedTimeMillis)
-                               .build();
+                               .withIndexUpToDate(indexUpToDate);
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         } finally {
             try {
-                searcherManager.release(luceneSearcher);
+                if (luceneSearcher != null) {
+                    searcherManager.release(luceneSearcher);
+                }
             } catch (IOException e) {
                 LOG.error(e.getMessage());
             }
         }
     }
 
+    /**
+     * Finds files that match substring or regular expression. Candidates found in index are checked against content of file, so total
+     * number of hits is exact only if there are no more results to retrieve.
+     *
+     * @param after
+     *         last document of the previous page or {@code null} for the first page
+     * @param offset
+     *         number of results before the page, results are skipped only for the first page
+     */
+    private SearchResult.SearchResultBuilder searchWithContentPatterns(IndexSearcher luceneSearcher,
+                                                                       long searcherVersion,
+                                                                       Query luceneQuery,
+                                                                       QueryExpression query,
+                                                                       List<Pattern> contentPatterns,
+                                                                       ScoreDoc after,
+                                                                       int offset,
+                                                                       Consumer<SearchResultEntry> consumer,
+                                                                       long startTime) throws IOException, ServerException {
+        final int numSkipDocs = after == null ? offset : 0;
+        // matched files of the previous pages are not counted when search starts after cursor
+        final int previousPagesHits = after == null ? 0 : offset;
+        final int numDocs = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
+        int matchedFiles = 0;
+        int resultsNum = 0;
+        boolean hasMoreToRetrieve = false;
+        ScoreDoc lastResultDoc = null;
+        TopDocs topDocs;
+        candidates:
+        do {
+            topDocs = luceneSearcher.searchAfter(after, luceneQuery, RESULT_LIMIT);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                after = scoreDoc;
+                final String filePath = luceneSearcher.doc(scoreDoc.doc).getField(PATH_FIELD).stringValue();
+                final List<SearchOccurrence> occurrences = findOccurrences(filePath, contentPatterns);
+                if (occurrences.isEmpty()) {
+                    continue;
+                }
+                if (matchedFiles == numSkipDocs + numDocs) {
+                    hasMoreToRetrieve = true;
+                    break candidates;
+                }
+                if (matchedFiles >= numSkipDocs) {
+                    consumer.accept(new SearchResultEntry(filePath, occurrences));
+                    lastResultDoc = scoreDoc;
+                    resultsNum++;
+                }
+                matchedFiles++;
+            }
+        } while (topDocs.scoreDocs.length > 0);
+
+        QueryExpression nextPageQueryExpression = null;
+        if (hasMoreToRetrieve) {
+            final int nextOffset = offset + resultsNum;
+            nextPageQueryExpression = createNextPageQuery(query,
+                                                          nextOffset,
+                                                          new SearchCursor(searcherVersion, lastResultDoc, nextOffset, query).toString());
+        }
+        return SearchResult.aSearchResult()
+                           .withTotalHits(previousPagesHits + (hasMoreToRetrieve ? matchedFiles + 1 : matchedFiles))
+                           .withNextPageQueryExpression(nextPageQueryExpression)
+                           .withElapsedTimeMillis(System.currentTimeMillis() - startTime);
+    }
+
+    private List<Pattern> createContentPatterns(QueryExpression query) throws ServerException {
+        final List<Pattern> patterns = newArrayList();
+        if (query.getSubstring() != null) {
+            patterns.add(Pattern.compile(Pattern.quote(query.getSubstring())));
+        }
+        if (query.getRegex() != null) {
+            try {
+                patterns.add(Pattern.compile(query.getRegex(), Pattern.MULTILINE));
+            } catch (PatternSyntaxException e) {
+                throw new ServerException(e.getMessage());
+            }
+        }
+        return patterns;
+    }
+
+    /**
+     * Finds occurrences of all patterns in content of file.
+     *
+     * @return occurrences ordered by offset or empty list if file does not exist or any of patterns is not found in file
+     */
+    private List<SearchOccurrence> findOccurrences(String filePath, List<Pattern> contentPatterns) throws ServerException {
+        final VirtualFile file = virtualFileSystem == null ? null : virtualFileSystem.getRoot().getChild(Path.of(filePath));
+        if (file == null || !file.isFile()) {
+            return newArrayList();
+        }
+        final String content;
+        try {
+            content = new String(file.getContentAsBytes(), UTF_8);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        }
+        final List<Integer> lineStarts = newArrayList(0);
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') {
+                lineStarts.add(i + 1);
+            }
+        }
+        final List<SearchOccurrence> occurrences = newArrayList();
+        for (Pattern pattern : contentPatterns) {
+            final Matcher matcher = pattern.matcher(content);
+            boolean found = false;
+            while (matcher.find()) {
+                if (matcher.end() == matcher.start()) {
+                    continue;
+                }
+                found = true;
+                if (occurrences.size() == MAX_OCCURRENCES_PER_FILE) {
+                    break;
+                }
+                occurrences.add(createOccurrence(content, lineStarts, matcher.start(), matcher.end()));
+            }
+            if (!found) {
+                return newArrayList();
+            }
+        }
+        occurrences.sort((o1, o2) -> Integer.compare(o1.getStartOffset(), o2.getStartOffset()));
+        return occurrences;
+    }
+
+    private SearchOccurrence createOccurrence(String content, List<Integer> lineStarts, int start, int end) {
+        int line = Collections.binarySearch(lineStarts, start);
+        if (line < 0) {
+            line = -line - 2;
+        }
+        final int lineStart = lineStarts.get(line);
+        int lineEnd = line + 1 < lineStarts.size() ? lineStarts.get(line + 1) - 1 : content.length();
+        if (lineEnd > lineStart && content.charAt(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        return new SearchOccurrence(line + 1, start, end, content.substring(lineStart, lineEnd));
+    }
+
+    /** Returns {@code false} if timeout elapsed before all the changes added before this call were applied to the index. */
+    private boolean awaitPendingChanges() {
+        final IndexingQueue queue = getIndexingQueue();
+        if (queue != null) {
+            try {
+                if (!queue.awaitApplied(PENDING_CHANGES_WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    LOG.debug("Search is performed while {} changes are not applied to index yet", queue.getQueueDepth());
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
     private Query createLuceneQuery(QueryExpression query) throws ServerException {
         final BooleanQuery luceneQuery = new BooleanQuery();
         final String name = query.getName();
@@ -255,6 +560,21 @@ public abstract class LuceneSearcher implements Searcher {
                 throw new ServerException(e.getMessage());
             }
         }
+        if (trigramIndexEnabled && query.getSubstring() != null) {
+            final Query trigramQuery = TrigramIndex.substringQuery(query.getSubstring());
+            if (trigramQuery != null) {
+                luceneQuery.add(trigramQuery, BooleanClause.Occur.MUST);
+            }
+        }
+        if (trigramIndexEnabled && query.getRegex() != null) {
+            final Query trigramQuery = TrigramIndex.regexQuery(query.getRegex());
+            if (trigramQuery != null) {
+                luceneQuery.add(trigramQuery, BooleanClause.Occur.MUST);
+            }
+        }
+        if (luceneQuery.clauses().isEmpty() && (query.getSubstring() != null || query.getRegex() != null)) {
+            luceneQuery.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
         return luceneQuery;
     }
 
@@ -279,17 +599,25 @@ public abstract class LuceneSearcher implements Searcher {
         return scoreDoc;
     }
 
-    private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount) {
+    private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount, String cursor) {
         return new QueryExpression().setText(originalQuery.getText())
+                                    .setSubstring(originalQuery.getSubstring())
+                                    .setRegex(originalQuery.getRegex())
                                     .setName(originalQuery.getName())
                                     .setPath(originalQuery.getPath())
                                     .setSkipCount(newSkipCount)
+                                    .setCursor(cursor)
                                     .setMaxItems(originalQuery.getMaxItems());
     }
 
     @Override
     public final void add(VirtualFile virtualFile) throws ServerException {
-        doAdd(virtualFile);
+        final IndexingQueue queue = getIndexingQueue();
+        if (queue == null) {
+            doAdd(virtualFile);
+        } else {
+            queue.add(virtualFile);
+        }
     }
 
     protected void doAdd(VirtualFile virtualFile) throws ServerException {
@@ -322,26 +650,174 @@ public abstract class LuceneSearcher implements Searcher {
         LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
     }
 
-    protected void addFile(VirtualFile virtualFile) throws ServerException {
-        if (virtualFile.exists()) {
-            try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                         ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                         : null) {
-                getIndexWriter()
-                        .updateDocument(new Term("path", virtualFile.getPath().toString()), createDocument(virtualFile, fContentReader));
-            } catch (OutOfMemoryError oome) {
-                close();
-                throw oome;
+    /**
+     * Brings index of the specified tree in line with the current state of virtual filesystem. Files that are not in the index are added.
+     * Files that have the same modification date and size as were stored in the index are skipped. If modification date or size differs
+     * then hash of content is compared with the hash stored in the index, if any, and file is re-indexed only when content is changed.
+     * Documents of files that don't exist any more are removed from the index.
+     *
+     * @param tree
+     *         root of tree to reconcile
+     * @throws ServerException
+     *         if any virtual filesystem error occurs
+     */
+    protected void reconcileTree(VirtualFile tree) throws ServerException {
+        final long start = System.currentTimeMillis();
+        final Map<String, IndexedFileState> indexedFiles = readIndexedFileStates(tree.getPath().toString());
+        final LinkedList<VirtualFile> q = new LinkedList<>();
+        q.add(tree);
+        int addedFiles = 0;
+        int updatedFiles = 0;
+        int unchangedFiles = 0;
+        while (!q.isEmpty()) {
+            final VirtualFile folder = q.pop();
+            if (folder.exists()) {
+                for (VirtualFile child : folder.getChildren()) {
+                    if (child.isFolder()) {
+                        q.push(child);
+                        continue;
+                    }
+                    final IndexedFileState state = indexedFiles.remove(child.getPath().toString());
+                    if (state == null) {
+                        addFile(child);
+                        addedFiles++;
+                    } else if (state.hasTrigrams != trigramIndexEnabled) {
+                        addFile(child);
+                        updatedFiles++;
+                    } else if (state.lastModified == child.getLastModificationDate() && state.size == child.getLength()) {
+                        unchangedFiles++;
+                    } else {
+                        final byte[] content = readContent(child);
+                        final String contentHash = content == null ? null : countContentHash(content);
+                        if (contentHash != null && contentHash.equals(state.contentHash)) {
+                            updateFileState(child);
+                            unchangedFiles++;
+                        } else {
+                            indexFile(new Term(PATH_FIELD, child.getPath().toString()), child, content, contentHash);
+                            updatedFiles++;
+                        }
+                    }
+                }
+            }
+        }
+        for (String removedPath : indexedFiles.keySet()) {
+            doDelete(removedPath, true);
+        }
+        final long end = System.currentTimeMillis();
+        LOG.debug("Reconciled index of {}: added {}, updated {}, unchanged {}, removed {} files, time: {} ms",
+                  tree.getPath(), addedFiles, updatedFiles, unchangedFiles, indexedFiles.size(), (end - start));
+    }
+
+    private Map<String, IndexedFileState> readIndexedFileStates(String treePath) throws ServerException {
+        final String pathPrefix = "/".equals(treePath) ? treePath : treePath + '/';
+        final Map<String, IndexedFileState> states = new HashMap<>();
+        IndexSearcher luceneSearcher = null;
+        try {
+            searcherManager.maybeRefresh();
+            luceneSearcher = searcherManager.acquire();
+            for (LeafReaderContext context : luceneSearcher.getIndexReader().leaves()) {
+                final LeafReader reader = context.reader();
+                final NumericDocValues lastModified = reader.getNumericDocValues(LAST_MODIFIED_FIELD);
+                final NumericDocValues size = reader.getNumericDocValues(SIZE_FIELD);
+                final Bits liveDocs = reader.getLiveDocs();
+                for (int doc = 0; doc < reader.maxDoc(); doc++) {
+                    if (liveDocs != null && !liveDocs.get(doc)) {
+                        continue;
+                    }
+                    final Document document = reader.document(doc, FILE_STATE_FIELDS);
+                    final String path = document.get(PATH_FIELD);
+                    if (path.equals(treePath) || path.startsWith(pathPrefix)) {
+                        states.put(path, new IndexedFileState(lastModified == null ? -1 : lastModified.get(doc),
+                                                              size == null ? -1 : size.get(doc),
+                                                              document.get(CONTENT_HASH_FIELD),
+                                                              document.getField(HAS_TRIGRAMS_FIELD) != null));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        } finally {
+            try {
+                searcherManager.release(luceneSearcher);
             } catch (IOException e) {
-                throw new ServerException(e.getMessage(), e);
-            } catch (ForbiddenException e) {
-                throw new ServerException(e.getServiceError());
+                LOG.error(e.getMessage());
             }
         }
+        return states;
+    }
+
+    private byte[] readContent(VirtualFile virtualFile) throws ServerException {
+        if (!shouldIndexContent(virtualFile)) {
+            return null;
+        }
+        try {
+            return virtualFile.getContentAsBytes();
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        }
+    }
+
+    private String countContentHash(byte[] content) {
+        return Hashing.sha1().hashBytes(content).toString();
+    }
+
+    private void updateFileState(VirtualFile virtualFile) throws ServerException {
+        final Term term = new Term(PATH_FIELD, virtualFile.getPath().toString());
+        try {
+            getIndexWriter().updateNumericDocValue(term, LAST_MODIFIED_FIELD, virtualFile.getLastModificationDate());
+            getIndexWriter().updateNumericDocValue(term, SIZE_FIELD, virtualFile.getLength());
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replaces document of file. Hash of content is stored with document in all cases, otherwise {@link #reconcileTree} can't skip
+     * files which are touched but not changed.
+     */
+    private void indexFile(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
+        final byte[] content;
+        try {
+            content = readContent(virtualFile);
+        } catch (OutOfMemoryError oome) {
+            close();
+            throw oome;
+        }
+        indexFile(deleteTerm, virtualFile, content, content == null ? null : countContentHash(content));
+    }
+
+    private void indexFile(Term deleteTerm, VirtualFile virtualFile, byte[] content, String contentHash) throws ServerException {
+        try (Reader fContentReader = content == null ? null : new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content)))) {
+            final Document document = createDocument(virtualFile, fContentReader);
+            if (contentHash != null) {
+                document.add(new StoredField(CONTENT_HASH_FIELD, contentHash));
+            }
+            getIndexWriter().updateDocument(deleteTerm, document);
+        } catch (OutOfMemoryError oome) {
+            close();
+            throw oome;
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    protected void addFile(VirtualFile virtualFile) throws ServerException {
+        if (virtualFile.exists()) {
+            indexFile(new Term(PATH_FIELD, virtualFile.getPath().toString()), virtualFile);
+        }
     }
 
     @Override
     public final void delete(String path, boolean isFile) throws ServerException {
+        final IndexingQueue queue = getIndexingQueue();
+        if (queue == null) {
+            doDelete(path, isFile);
+        } else {
+            queue.delete(path, isFile);
+        }
+    }
+
+    protected void doDelete(String path, boolean isFile) throws ServerException {
         try {
             if (isFile) {
                 Term term = new Term("path", path);
@@ -360,21 +836,58 @@ public abstract class LuceneSearcher implements Searcher {
 
     @Override
     public final void update(VirtualFile virtualFile) throws ServerException {
-        doUpdate(new Term("path", virtualFile.getPath().toString()), virtualFile);
+        final IndexingQueue queue = getIndexingQueue();
+        if (queue == null) {
+            doUpdate(new Term("path", virtualFile.getPath().toString()), virtualFile);
+        } else {
+            queue.update(virtualFile);
+        }
     }
 
     protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
-        try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                     ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                     : null) {
-            getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader));
-        } catch (OutOfMemoryError oome) {
-            close();
-            throw oome;
+        indexFile(deleteTerm, virtualFile);
+    }
+
+    /**
+     * Applies batch of changes from {@link IndexingQueue} to index and refreshes searcher once after all changes are applied. Failure of
+     * single change is logged and does not prevent applying other changes.
+     */
+    void applyChanges(List<IndexingQueue.IndexChange> changes) {
+        for (IndexingQueue.IndexChange change : changes) {
+            try {
+                if (change.isDeleteFirst()) {
+                    doDelete(change.getPath(), change.isDeletedItemFile());
+                }
+                switch (change.getKind()) {
+                    case ADD:
+                        doAdd(change.getVirtualFile());
+                        break;
+                    case UPDATE:
+                        if (change.getVirtualFile().exists()) {
+                            doUpdate(new Term("path", change.getPath()), change.getVirtualFile());
+                        }
+                        break;
+                    case DELETE:
+                        doDelete(change.getPath(), change.isFile());
+                        break;
+                    case RECONCILE:
+                        reconcileTree(change.getVirtualFile());
+                        break;
+                }
+            } catch (ServerException e) {
+                LOG.error(String.format("Unable apply change of '%s' to index. %s", change.getPath(), e.getMessage()));
+            } catch (RuntimeException e) {
+                if (isClosed()) {
+                    throw e;
+                }
+                LOG.error(String.format("Unable apply change of '%s' to index. %s", change.getPath(), e.getMessage()), e);
+            }
+        }
+        try {
+            getIndexWriter().commit();
+            searcherManager.maybeRefresh();
         } catch (IOException e) {
-            throw new ServerException(e.getMessage(), e);
-        } catch (ForbiddenException e) {
-            throw new ServerException(e.getServiceError());
+            LOG.error(e.getMessage(), e);
         }
     }
 
@@ -382,12 +895,42 @@ public abstract class LuceneSearcher implements Searcher {
         final Document doc = new Document();
         doc.add(new StringField("path", virtualFile.getPath().toString(), Field.Store.YES));
         doc.add(new StringField("name", virtualFile.getName(), Field.Store.YES));
+        doc.add(new NumericDocValuesField(LAST_MODIFIED_FIELD, virtualFile.getLastModificationDate()));
+        doc.add(new NumericDocValuesField(SIZE_FIELD, virtualFile.isFile() ? virtualFile.getLength() : 0));
+        if (trigramIndexEnabled) {
+            doc.add(new StoredField(HAS_TRIGRAMS_FIELD, 1));
+        }
         if (reader != null) {
-            doc.add(new TextField("text", reader));
+            if (trigramIndexEnabled) {
+                final String content;
+                try {
+                    content = CharStreams.toString(reader);
+                } catch (IOException e) {
+                    throw new ServerException(e.getMessage(), e);
+                }
+                doc.add(new TextField("text", content, Field.Store.NO));
+                doc.add(new TextField(TrigramIndex.FIELD, content, Field.Store.NO));
+            } else {
+                doc.add(new TextField("text", reader));
+            }
         }
         return doc;
     }
 
+    private static class IndexedFileState {
+        final long    lastModified;
+        final long    size;
+        final String  contentHash;
+        final boolean hasTrigrams;
+
+        IndexedFileState(long lastModified, long size, String contentHash, boolean hasTrigrams) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.contentHash = contentHash;
+            this.hasTrigrams = hasTrigrams;
+        }
+    }
+
     private boolean shouldIndexContent(VirtualFile virtualFile) {
         for (VirtualFileFilter indexFilter : indexFilters) {
             if (!indexFilter.accept(virtualFile)) {
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Position in search results after which next page starts. Cursor refers to the point-in-time view of index that was used for
+ * retrieving previous page, so paging is not affected by changes of index and does not require re-executing query for skipped results.
+ * Cursor keeps hash of query it was created for, so it can't be used for retrieving results of another query, and number of results
+ * before the next page, so skip count of query is not needed for the next pages.
+ */
+class SearchCursor {
+    private static final String SEPARATOR = ":";
+
+    /**
+     * Parses cursor from its string representation.
+     *
+     * @throws ConflictException
+     *         if cursor is malformed
+     */
+    static SearchCursor parse(String cursor) throws ConflictException {
+        try {
+            final String[] parts = new String(Base64.getUrlDecoder().decode(cursor), UTF_8).split(SEPARATOR);
+            if (parts.length != 5) {
+                throw new ConflictException(String.format("Invalid search cursor '%s'", cursor));
+            }
+            return new SearchCursor(Long.parseLong(parts[0]),
+                                    new ScoreDoc(Integer.parseInt(parts[1]), Float.intBitsToFloat(Integer.parseInt(parts[2]))),
+                                    Integer.parseInt(parts[3]),
+                                    Integer.parseInt(parts[4]));
+        } catch (IllegalArgumentException e) {
+            throw new ConflictException(String.format("Invalid search cursor '%s'", cursor));
+        }
+    }
+
+    /** Hash of search criteria of query. Paging parameters, i.e. skip count, max items and cursor, are not taken into account. */
+    static int queryHash(QueryExpression query) {
+        final Hasher hasher = Hashing.murmur3_32().newHasher();
+        for (String criterion : new String[]{query.getPath(), query.getName(), query.getText(), query.getSubstring(), query.getRegex()}) {
+            hasher.putBoolean(criterion != null);
+            if (criterion != null) {
+                hasher.putInt(criterion.length()).putUnencodedChars(criterion);
+            }
+        }
+        return hasher.hash().asInt();
+    }
+
+    private final long     searcherVersion;
+    private final ScoreDoc scoreDoc;
+    private final int      offset;
+    private final int      queryHash;
+
+    SearchCursor(long searcherVersion, ScoreDoc scoreDoc, int offset, QueryExpression query) {
+        this(searcherVersion, scoreDoc, offset, queryHash(query));
+    }
+
+    private SearchCursor(long searcherVersion, ScoreDoc scoreDoc, int offset, int queryHash) {
+        this.searcherVersion = searcherVersion;
+        this.scoreDoc = scoreDoc;
+        this.offset = offset;
+        this.queryHash = queryHash;
+    }
+
+    /** Version of searcher in {@code SearcherLifetimeManager}. */
+    long getSearcherVersion() {
+        return searcherVersion;
+    }
+
+    /** Last document of previous page. */
+    ScoreDoc getScoreDoc() {
+        return scoreDoc;
+    }
+
+    /** Number of results before the next page, i.e. position of the next page in search results. */
+    int getOffset() {
+        return offset;
+    }
+
+    /** Hash of query that cursor was created for, see {@link #queryHash(QueryExpression)}. */
+    int getQueryHash() {
+        return queryHash;
+    }
+
+    @Override
+    public String toString() {
+        final String cursor = searcherVersion + SEPARATOR + scoreDoc.doc + SEPARATOR + Float.floatToIntBits(scoreDoc.score)
+                              + SEPARATOR + offset + SEPARATOR + queryHash;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(UTF_8));
+    }
+}
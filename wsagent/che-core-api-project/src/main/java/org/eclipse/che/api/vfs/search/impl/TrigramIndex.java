@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Helper for trigram index of file content. Content of each file is split into all overlapping sequences of three characters, so
+ * candidates for substring or regular expression search may be found by intersection of posting lists of trigrams of the searched
+ * string. Trigrams are case insensitive, candidates must be verified against the real content of file.
+ */
+class TrigramIndex {
+    static final String FIELD = "trigrams";
+
+    private static final int     GRAM_SIZE             = 3;
+    /** Embedded flags that enable comments mode, in this mode whitespaces in expression are ignored. */
+    private static final Pattern COMMENTS_FLAG         = Pattern.compile("\\(\\?[a-zA-Z]*x");
+    /** Escapes of single character, e.g. {@code \t}, and characters they stand for, in the same order. */
+    private static final String  ESCAPED_CONTROL_CHARS = "tnrfae";
+    private static final String  CONTROL_CHARS         = "\t\n\r\f\u0007\u001B";
+    /** Escapes of predefined character classes and boundary matchers that consist of two characters. */
+    private static final String  SINGLE_CHAR_CLASSES   = "dDsSwWhHvVRXbBAGZz";
+
+    static Analyzer makeAnalyzer() {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = new NGramTokenizer(GRAM_SIZE, GRAM_SIZE);
+                TokenStream filter = new LowerCaseFilter(tokenizer);
+                return new TokenStreamComponents(tokenizer, filter);
+            }
+        };
+    }
+
+    /**
+     * Creates query that matches all files that contain all trigrams of specified string.
+     *
+     * @return query or {@code null} if string is too short to be split into trigrams
+     */
+    static Query substringQuery(String substring) {
+        return literalsQuery(singletonList(substring));
+    }
+
+    /**
+     * Creates query that matches all files that contain all trigrams of literals that must be present in any text matched by specified
+     * regular expression.
+     *
+     * @return query or {@code null} if no required literals found in regular expression, e.g. it contains alternation
+     */
+    static Query regexQuery(String regex) {
+        return literalsQuery(extractRequiredLiterals(regex));
+    }
+
+    private static Query literalsQuery(List<String> literals) {
+        final Set<String> trigrams = new LinkedHashSet<>();
+        for (String literal : literals) {
+            final String lowerCaseLiteral = literal.toLowerCase(Locale.ENGLISH);
+            for (int i = 0; i + GRAM_SIZE <= lowerCaseLiteral.length(); i++) {
+                trigrams.add(lowerCaseLiteral.substring(i, i + GRAM_SIZE));
+            }
+        }
+        if (trigrams.isEmpty()) {
+            return null;
+        }
+        final BooleanQuery query = new BooleanQuery();
+        for (String trigram : trigrams) {
+            query.add(new TermQuery(new Term(FIELD, trigram)), BooleanClause.Occur.MUST);
+        }
+        return query;
+    }
+
+    /**
+     * Finds literal strings that must be present in any text matched by regular expression. Analysis is conservative: expressions with
+     * alternation or with escapes that are not understood, e.g. {@code \x41} or {@code \k<name>}, give no literals and content of
+     * groups and character classes is ignored.
+     */
+    static List<String> extractRequiredLiterals(String regex) {
+        final List<String> literals = new ArrayList<>();
+        if (COMMENTS_FLAG.matcher(regex).find()) {
+            return literals;
+        }
+        final StringBuilder current = new StringBuilder();
+        int groupDepth = 0;
+        int i = 0;
+        while (i < regex.length()) {
+            final char c = regex.charAt(i);
+            switch (c) {
+                case '\\':
+                    if (i + 1 >= regex.length()) {
+                        literals.clear();
+                        return literals;
+                    }
+                    final char escaped = regex.charAt(i + 1);
+                    if (!Character.isLetterOrDigit(escaped)) {
+                        if (groupDepth == 0) {
+                            current.append(escaped);
+                        }
+                    } else if (ESCAPED_CONTROL_CHARS.indexOf(escaped) >= 0) {
+                        if (groupDepth == 0) {
+                            current.append(CONTROL_CHARS.charAt(ESCAPED_CONTROL_CHARS.indexOf(escaped)));
+                        }
+                    } else if (SINGLE_CHAR_CLASSES.indexOf(escaped) >= 0) {
+                        // character class such as \w or \d or boundary matcher, literal is interrupted
+                        flush(current, literals);
+                    } else {
+                        // octal, hex and unicode escapes, back references, quotations and other constructs that are longer than two
+                        // characters, the rest of expression can't be analyzed without full parsing
+                        literals.clear();
+                        return literals;
+                    }
+                    i += 2;
+                    continue;
+                case '[':
+                    flush(current, literals);
+                    i = skipCharacterClass(regex, i);
+                    continue;
+                case '(':
+                    flush(current, literals);
+                    groupDepth++;
+                    break;
+                case ')':
+                    flush(current, literals);
+                    groupDepth = Math.max(0, groupDepth - 1);
+                    break;
+                case '|':
+                    literals.clear();
+                    return literals;
+                case '?':
+                case '*':
+                case '{':
+                    // previous character is optional
+                    if (current.length() > 0) {
+                        current.setLength(current.length() - 1);
+                    }
+                    flush(current, literals);
+                    if (c == '{') {
+                        final int end = regex.indexOf('}', i);
+                        i = end < 0 ? regex.length() : end + 1;
+                        continue;
+                    }
+                    break;
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                    flush(current, literals);
+                    break;
+                default:
+                    if (groupDepth == 0) {
+                        current.append(c);
+                    }
+            }
+            i++;
+        }
+        flush(current, literals);
+        return literals;
+    }
+
+    private static int skipCharacterClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+        int depth = 1;
+        while (i < regex.length() && depth > 0) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static void flush(StringBuilder current, List<String> literals) {
+        if (current.length() >= GRAM_SIZE) {
+            literals.add(current.toString());
+        }
+        current.setLength(0);
+    }
+
+    private TrigramIndex() {
+    }
+}
@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -37,6 +41,7 @@ import org.eclipse.che.api.project.server.type.ValueStorageException;
 import org.eclipse.che.api.project.shared.dto.CopyOptions;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
+import org.eclipse.che.api.project.shared.dto.ProjectInitStatus;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.user.server.spi.UserDao;
@@ -110,6 +115,8 @@ import static javax.ws.rs.HttpMethod.POST;
 import static javax.ws.rs.HttpMethod.PUT;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static org.eclipse.che.api.project.shared.Constants.SEARCH_NEXT_PAGE_CURSOR_HEADER;
+import static org.eclipse.che.api.project.shared.Constants.SEARCH_TOTAL_HITS_HEADER;
 import static org.eclipse.che.commons.lang.ws.rs.ExtMediaType.APPLICATION_ZIP;
 import static org.everrest.core.ApplicationContext.anApplicationContext;
 import static org.junit.Assert.assertTrue;
@@ -118,7 +125,10 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertEqualsNoOrder;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 
 /**
  * @author andrew00x
@@ -357,6 +367,21 @@ public class ProjectServiceTest {
         validateProjectLinks(result);
     }
 
+    @Test
+    public void testGetProjectInitStatus() throws Exception {
+        ContainerResponse response = launcher.service(GET, "http://localhost:8080/api/project/init-status/my_project",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        ProjectInitStatus result = (ProjectInitStatus)response.getEntity();
+        assertEquals(result.getPath(), "/my_project");
+        assertEquals(result.getState(), ProjectRegistry.InitState.READY.name());
+        assertNull(result.getError());
+
+        response = launcher.service(GET, "http://localhost:8080/api/project/init-status/not_exists",
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 404);
+    }
+
     @Test
     public void testGetNotValidProject() throws Exception {
         //MountPoint mountPoint = pm.getProjectsRoot(workspace).getVirtualFile().getMountPoint();
@@ -1538,6 +1563,43 @@ public class ProjectServiceTest {
         Assert.assertTrue(names.contains("x"));
     }
 
+    @Test
+    public void testStreamTreeWithContinuation() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b/c");
+        a.createFolder("x/y");
+        a.createFile("test.txt", "test".getBytes());
+
+        List<String> paths = new ArrayList<>();
+        String continuation = null;
+        int pages = 0;
+        do {
+            ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+            String url = "http://localhost:8080/api/project/tree-stream/my_project/a?depth=2&includeFiles=true&maxNodes=2";
+            if (continuation != null) {
+                url += "&continuation=" + continuation;
+            }
+            ContainerResponse response = launcher.service(GET, url, "http://localhost:8080/api", null, null, writer, null);
+            assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+            JsonObject result = new JsonParser().parse(new String(writer.getBody())).getAsJsonObject();
+            JsonArray items = result.getAsJsonArray("items");
+            Assert.assertTrue(items.size() <= 2);
+            for (int i = 0; i < items.size(); i++) {
+                paths.add(items.get(i).getAsJsonObject().get("path").getAsString());
+            }
+            continuation = result.has("continuationToken") ? result.get("continuationToken").getAsString() : null;
+            pages++;
+        } while (continuation != null);
+
+        assertEquals(paths, Arrays.asList("/my_project/a/b",
+                                          "/my_project/a/b/c",
+                                          "/my_project/a/x",
+                                          "/my_project/a/x/y",
+                                          "/my_project/a/test.txt"));
+        assertEquals(pages, 3);
+    }
+
     @Test
     public void testGetTreeWithDepth() throws Exception {
         RegisteredProject myProject = pm.getProject("my_project");
@@ -1684,6 +1746,75 @@ public class ProjectServiceTest {
         Assert.assertTrue(paths.contains("/my_project/x/y/__test.txt"));
     }
 
+    @Test
+    public void testStreamSearchResults() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("a/b").createFile("test.txt", "hello".getBytes());
+        myProject.getBaseFolder().createFolder("x/y").createFile("__test.txt", "searchhit".getBytes());
+
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/search-stream/my_project?text=searchhit",
+                                                      "http://localhost:8080/api", null, null, writer, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        JsonObject result = new JsonParser().parse(new String(writer.getBody())).getAsJsonObject();
+        JsonArray items = result.getAsJsonArray("items");
+        assertEquals(items.size(), 1);
+        assertEquals(items.get(0).getAsJsonObject().get("path").getAsString(), "/my_project/x/y/__test.txt");
+        assertEquals(result.get("totalHits").getAsInt(), 1);
+        assertTrue(result.get("indexUpToDate").getAsBoolean());
+        assertFalse(result.has("nextPageCursor"));
+    }
+
+    @Test
+    public void testStreamSearchResultsEndsWithErrorWhenSearchFails() throws Exception {
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/search-stream/my_project?text=searchhit" +
+                                                      "&cursor=invalid",
+                                                      "http://localhost:8080/api", null, null, writer, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        JsonObject result = new JsonParser().parse(new String(writer.getBody())).getAsJsonObject();
+        assertEquals(result.getAsJsonArray("items").size(), 0);
+        assertNotNull(result.getAsJsonObject("error").get("message"));
+        assertFalse(result.has("totalHits"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSearchNextPageWithCursor() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("a").createFile("test1.txt", "searchhit".getBytes());
+        myProject.getBaseFolder().createFolder("b").createFile("test2.txt", "searchhit".getBytes());
+
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/search/my_project?text=searchhit&maxItems=1",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ItemReference> firstPage = (List<ItemReference>)response.getEntity();
+        assertEquals(firstPage.size(), 1);
+        assertEquals(response.getHttpHeaders().getFirst(SEARCH_TOTAL_HITS_HEADER).toString(), "2");
+        Object cursor = response.getHttpHeaders().getFirst(SEARCH_NEXT_PAGE_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        response = launcher.service(GET,
+                                    "http://localhost:8080/api/project/search/my_project?text=searchhit&maxItems=1&cursor=" + cursor,
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ItemReference> lastPage = (List<ItemReference>)response.getEntity();
+        assertEquals(lastPage.size(), 1);
+        assertNotEquals(lastPage.get(0).getPath(), firstPage.get(0).getPath());
+        assertNull(response.getHttpHeaders().getFirst(SEARCH_NEXT_PAGE_CURSOR_HEADER));
+    }
+
+    @Test
+    public void testSearchWithInvalidCursor() throws Exception {
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/search/my_project?text=searchhit&cursor=abc",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 409, "Error: " + response.getEntity());
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testSearchParticularSequenceWords() throws Exception {
@@ -19,11 +19,14 @@ import org.mockito.ArgumentCaptor;
 
 import java.io.File;
 import java.nio.file.FileSystems;
+import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Set;
 
 import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Arrays.asList;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
@@ -215,6 +218,55 @@ public class FileTreeWatcherTest {
         assertEquals(newHashSet(created), newHashSet(createdEvents.getAllValues()));
     }
 
+    @Test
+    public void doesNotWatchBuildOutputDirectories() throws Exception {
+        fileWatcherTestTree.createDirectory("", "project");
+        fileWatcherTestTree.createDirectory("project", "target");
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        String file = fileWatcherTestTree.createFile("project");
+        fileWatcherTestTree.createFile("project/target");
+
+        Thread.sleep(5000);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), anyString(), anyBoolean());
+
+        ArgumentCaptor<String> createdEvents = ArgumentCaptor.forClass(String.class);
+        verify(notificationHandler, times(1)).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), createdEvents.capture(), anyBoolean());
+        assertEquals(newHashSet(file), newHashSet(createdEvents.getAllValues()));
+    }
+
+    @Test
+    public void startsWatchingAllDirectoriesOfNewlyCreatedDirectoryStructure() throws Exception {
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        String directory = fileWatcherTestTree.createDirectory("");
+        String nestedDirectory = fileWatcherTestTree.createDirectory(directory);
+
+        Thread.sleep(5000);
+
+        String file = fileWatcherTestTree.createFile(nestedDirectory);
+
+        Thread.sleep(5000);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), anyString(), anyBoolean());
+
+        ArgumentCaptor<String> createdEvents = ArgumentCaptor.forClass(String.class);
+        verify(notificationHandler, times(3)).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), createdEvents.capture(), anyBoolean());
+        assertEquals(newHashSet(directory, nestedDirectory, file), newHashSet(createdEvents.getAllValues()));
+    }
+
     @Test
     public void doesNotNotifyAboutIgnoredFiles() throws Exception {
         FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
@@ -268,6 +320,18 @@ public class FileTreeWatcherTest {
         verify(notificationHandler, timeout(10000)).errorOccurred(eq(testDirectory), eq(error));
     }
 
+    @Test
+    public void reducesOverflowDirectoriesToTopMostOnes() throws Exception {
+        Set<Path> topMost = FileTreeWatcher.topMostPaths(asList(Paths.get("/a/b/c"),
+                                                                Paths.get("/a-b"),
+                                                                Paths.get("/a/b"),
+                                                                Paths.get("/a-b/c"),
+                                                                Paths.get("/d/e"),
+                                                                Paths.get("/a/x")));
+
+        assertEquals(newHashSet(Paths.get("/a/b"), Paths.get("/a-b"), Paths.get("/d/e"), Paths.get("/a/x")), topMost);
+    }
+
     private FileWatcherNotificationHandler aNotificationHandler() {
         return mock(FileWatcherNotificationHandler.class);
     }
@@ -49,6 +49,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import static com.google.common.collect.Lists.newArrayList;
@@ -305,6 +306,42 @@ public class LocalVirtualFileTest {
         assertEquals(expected, newHashSet(folder.countMd5Sums()));
     }
 
+    @Test
+    public void countsMd5SumsOfLargeFilesInSubFoldersAndRecountsThemAfterUpdate() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile subFolder = folder.createFolder(generateFolderName());
+        byte[] largeContent = new byte[(int)ParallelHashSumsCounter.MIN_MAPPED_FILE_SIZE * 3 + 17];
+        new Random().nextBytes(largeContent);
+        VirtualFile largeFile = subFolder.createFile(generateFileName(), new ByteArrayInputStream(largeContent));
+        VirtualFile smallFile = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+        String largeFilePath = largeFile.getPath().subPath(folder.getPath()).toString();
+        String smallFilePath = smallFile.getPath().subPath(folder.getPath()).toString();
+
+        assertEquals(newHashSet(Pair.of(countMd5Sum(largeFile), largeFilePath), Pair.of(countMd5Sum(smallFile), smallFilePath)),
+                     newHashSet(folder.countMd5Sums()));
+
+        smallFile.updateContent("updated content");
+        assertEquals(newHashSet(Pair.of(countMd5Sum(largeFile), largeFilePath), Pair.of(countMd5Sum(smallFile), smallFilePath)),
+                     newHashSet(folder.countMd5Sums()));
+    }
+
+    @Test
+    public void recountsMd5SumOfFileAfterUpdateThatKeepsSizeAndModificationTime() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file = folder.createFile(generateFileName(), "content 1");
+        long lastModified = System.currentTimeMillis() - ParallelHashSumsCounter.RACY_MODIFICATION_PERIOD * 10;
+        assertTrue(file.toIoFile().setLastModified(lastModified));
+        String filePath = file.getPath().subPath(folder.getPath()).toString();
+
+        assertEquals(newArrayList(Pair.of(countMd5Sum(file), filePath)), folder.countMd5Sums());
+
+        file.updateContent("content 2");
+        assertTrue(file.toIoFile().setLastModified(lastModified));
+        assertEquals(newArrayList(Pair.of(countMd5Sum(file), filePath)), folder.countMd5Sums());
+    }
+
     @Test
     public void returnsEmptyListWhenCountMd5SumsOnFile() throws Exception {
         VirtualFile root = getRoot();
@@ -356,6 +393,36 @@ public class LocalVirtualFileTest {
         assertEquals(expectedResult, children);
     }
 
+    @Test
+    public void updatesListOfChildrenWhenChildIsDeleted() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        VirtualFile file1 = root.createFile(generateFileName(), DEFAULT_CONTENT);
+        VirtualFile file2 = root.createFile(generateFileName(), DEFAULT_CONTENT);
+        assertEquals(3, root.getChildren().size());
+
+        file1.delete();
+
+        List<VirtualFile> expectedResult = newArrayList(file2, folder);
+        Collections.sort(expectedResult);
+        assertEquals(expectedResult, root.getChildren());
+    }
+
+    @Test
+    public void getsChildrenCreatedOutsideOfVirtualFileSystemAfterInvalidationOfCache() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile folder = root.createFolder(generateFolderName());
+        assertTrue(folder.getChildren().isEmpty());
+
+        String name = generateFileName();
+        assertTrue(new File(folder.toIoFile(), name).createNewFile());
+        fileSystem.invalidateChildrenCache(folder.getPath(), false);
+
+        List<VirtualFile> children = folder.getChildren();
+        assertEquals(1, children.size());
+        assertEquals(name, children.get(0).getName());
+    }
+
     @Test
     public void getsChild() throws Exception {
         VirtualFile root = getRoot();
@@ -294,6 +294,68 @@ public class FSLuceneSearcherTest {
         assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
     }
 
+    @Test
+    public void reusesIndexAfterRestartAndReindexesOnlyChangedFiles() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        VirtualFile changed = folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        VirtualFile removed = folder.createFile("yyy.txt", TEST_CONTENT[2]);
+        folder.createFile("zzz.txt", TEST_CONTENT[1]);
+        FSLuceneSearcher persistentSearcher = new FSLuceneSearcher(indexDirectory, filter, closeCallback, true);
+        persistentSearcher.init(virtualFileSystem);
+        persistentSearcher.close();
+        assertTrue(indexDirectory.exists());
+
+        changed.updateContent(TEST_CONTENT[0]);
+        removed.delete();
+        folder.createFile("aaa.txt", TEST_CONTENT[2]);
+        persistentSearcher = new FSLuceneSearcher(indexDirectory, filter, closeCallback, true);
+        try {
+            persistentSearcher.init(virtualFileSystem);
+
+            assertEquals(newArrayList("/folder/aaa.txt"), persistentSearcher.search(new QueryExpression().setText("be")).getFilePaths());
+            assertEquals(newArrayList("/folder/xxx.txt"),
+                         persistentSearcher.search(new QueryExpression().setText("spaceflight")).getFilePaths());
+            assertEquals(newArrayList("/folder/zzz.txt"), persistentSearcher.search(new QueryExpression().setText("should")).getFilePaths());
+        } finally {
+            persistentSearcher.close();
+        }
+    }
+
+    @Test
+    public void doesNotReindexFileWhenOnlyModificationDateIsChanged() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile file = virtualFileSystem.getRoot().createFolder("folder").createFile("xxx.txt", TEST_CONTENT[2]);
+        FSLuceneSearcher persistentSearcher = new FSLuceneSearcher(indexDirectory, filter, closeCallback, true);
+        persistentSearcher.init(virtualFileSystem);
+        persistentSearcher.close();
+
+        final long lastModified = file.getLastModificationDate();
+        while (file.getLastModificationDate() == lastModified) {
+            Thread.sleep(5);
+            file.updateContent(TEST_CONTENT[2]);
+        }
+        persistentSearcher = new FSLuceneSearcher(indexDirectory, filter, closeCallback, true);
+        try {
+            persistentSearcher.init(virtualFileSystem);
+
+            // content hash stored by initial indexing matches, so document is not replaced
+            assertFalse(persistentSearcher.getIndexWriter().hasDeletions());
+            assertEquals(newArrayList("/folder/xxx.txt"), persistentSearcher.search(new QueryExpression().setText("be")).getFilePaths());
+        } finally {
+            persistentSearcher.close();
+        }
+    }
+
+    @Test
+    public void removesIndexDirectoryWhenSearcherClosed() throws Exception {
+        searcher.init(virtualFileSystem());
+
+        searcher.close();
+
+        assertFalse(indexDirectory.exists());
+    }
+
     private VirtualFileSystem virtualFileSystem() throws Exception {
         return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
     }
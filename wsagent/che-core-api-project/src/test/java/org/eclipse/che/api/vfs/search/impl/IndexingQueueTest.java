@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IndexingQueueTest {
+    private static final String[] TEST_CONTENT = {
+            "Apollo set several major human spaceflight milestones",
+            "Maybe you should think twice",
+            "To be or not to be"
+    };
+
+    private ExecutorService      executor;
+    private MemoryLuceneSearcher searcher;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        VirtualFileFilter filter = mock(VirtualFileFilter.class);
+        when(filter.accept(any(VirtualFile.class))).thenReturn(true);
+        searcher = new MemoryLuceneSearcher(filter, null);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        searcher.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void coalescesChangesOfTheSamePath() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile file = virtualFileSystem.getRoot().createFile("aaa.txt", TEST_CONTENT[0]);
+        searcher.init(virtualFileSystem);
+        IndexingQueue queue = new IndexingQueue(searcher);
+
+        queue.update(file);
+        queue.update(file);
+        queue.delete(file.getPath().toString(), true);
+
+        assertEquals(1, queue.getQueueDepth());
+        assertEquals(2, queue.getCoalescedChangesCount());
+    }
+
+    @Test
+    public void appliesChangesInBackground() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.initAsynchronously(executor, virtualFileSystem);
+        IndexingQueue queue = searcher.getIndexingQueue();
+        assertNotNull(queue);
+
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        searcher.add(folder.createFile("xxx.txt", TEST_CONTENT[2]));
+        searcher.add(folder.createFile("zzz.txt", TEST_CONTENT[1]));
+
+        assertTrue(queue.awaitApplied(5, TimeUnit.SECONDS));
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(0, queue.getIndexLagMillis());
+        List<String> paths = searcher.search(new QueryExpression().setText("should")).getFilePaths();
+        assertEquals(newArrayList("/folder/zzz.txt"), paths);
+    }
+
+    @Test
+    public void removesOldDocumentsWhenDeletedFolderIsAddedAgain() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        VirtualFile file = folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        searcher.initAsynchronously(executor, virtualFileSystem);
+        assertEquals(newArrayList("/folder/xxx.txt"), searcher.search(new QueryExpression().setText("be")).getFilePaths());
+
+        searcher.delete(folder.getPath().toString(), false);
+        file.delete(null);
+        searcher.add(folder);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertTrue(paths.isEmpty());
+    }
+
+    @Test
+    public void discardsChangesWhenSearcherIsClosed() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.init(virtualFileSystem);
+        IndexingQueue queue = new IndexingQueue(searcher);
+        queue.add(virtualFileSystem.getRoot().createFile("aaa.txt", TEST_CONTENT[0]));
+
+        queue.stop();
+
+        assertEquals(0, queue.getQueueDepth());
+        assertFalse(searcher.isClosed());
+    }
+
+    @Test
+    public void keepsApplyingChangesAfterFailureOfBatch() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.close();
+        VirtualFileFilter filter = mock(VirtualFileFilter.class);
+        when(filter.accept(any(VirtualFile.class))).thenReturn(true);
+        AtomicInteger batches = new AtomicInteger();
+        searcher = new MemoryLuceneSearcher(filter, null) {
+            @Override
+            void applyChanges(List<IndexingQueue.IndexChange> changes) {
+                if (batches.incrementAndGet() == 1) {
+                    throw new IllegalStateException("broken batch");
+                }
+                super.applyChanges(changes);
+            }
+        };
+        searcher.init(virtualFileSystem);
+        IndexingQueue queue = new IndexingQueue(searcher);
+        queue.start(executor);
+
+        queue.add(virtualFileSystem.getRoot().createFile("aaa.txt", TEST_CONTENT[0]));
+        assertTrue(queue.awaitApplied(5, TimeUnit.SECONDS));
+        queue.add(virtualFileSystem.getRoot().createFile("zzz.txt", TEST_CONTENT[1]));
+        assertTrue(queue.awaitApplied(5, TimeUnit.SECONDS));
+
+        assertEquals(2, batches.get());
+        assertEquals(2, queue.getAppliedChangesCount());
+        assertEquals(newArrayList("/zzz.txt"), searcher.search(new QueryExpression().setText("should")).getFilePaths());
+    }
+
+    @Test
+    public void reportsThatIndexIsNotUpToDateWhenChangesAreNotAppliedInTime() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.close();
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        searcher = new MemoryLuceneSearcher(mock(VirtualFileFilter.class), null) {
+            @Override
+            void applyChanges(List<IndexingQueue.IndexChange> changes) {
+                applying.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.applyChanges(changes);
+            }
+        };
+        searcher.initAsynchronously(executor, virtualFileSystem);
+        assertTrue(applying.await(5, TimeUnit.SECONDS));
+
+        try {
+            assertFalse(searcher.search(new QueryExpression().setText("should")).isIndexUpToDate());
+        } finally {
+            release.countDown();
+        }
+        assertTrue(searcher.getIndexingQueue().awaitApplied(5, TimeUnit.SECONDS));
+        assertTrue(searcher.search(new QueryExpression().setText("should")).isIndexUpToDate());
+    }
+
+    private VirtualFileSystem virtualFileSystem() throws Exception {
+        return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
+    }
+}
@@ -12,12 +12,15 @@ package org.eclipse.che.api.vfs.search.impl;
 
 import com.google.common.base.Optional;
 
+import org.apache.lucene.search.ScoreDoc;
+import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.junit.After;
 import org.junit.Before;
@@ -30,6 +33,7 @@ import java.util.List;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
@@ -284,6 +288,131 @@ public class MemoryLuceneSearcherTest {
         assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
     }
 
+    @Test
+    public void retrievesNextPageWithCursorFromTheSameViewOfIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+        QueryExpression nextPageQueryExpression = firstPage.getNextPageQueryExpression().get();
+        assertNotNull(nextPageQueryExpression.getCursor());
+
+        searcher.delete(firstPage.getFilePaths().get(0), true);
+        nextPageQueryExpression.setMaxItems(100);
+        SearchResult lastPage = searcher.search(nextPageQueryExpression);
+
+        assertEquals(17, lastPage.getFilePaths().size());
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+        assertFalse(lastPage.getNextPageQueryExpression().isPresent());
+    }
+
+    @Test
+    public void doesNotReturnCursorForLastPageRetrievedWithoutSkipCount() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 20; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(2));
+        String cursor = firstPage.getNextPageQueryExpression().get().getCursor();
+        SearchResult lastPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(100).setCursor(cursor));
+
+        assertEquals(firstPage.getTotalHits() - 2, lastPage.getFilePaths().size());
+        assertFalse(lastPage.getNextPageQueryExpression().isPresent());
+    }
+
+    @Test(expected = ConflictException.class)
+    public void rejectsExpiredCursor() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFile("file01", TEST_CONTENT[0]);
+        searcher.init(virtualFileSystem);
+        QueryExpression query = new QueryExpression().setText("spaceflight");
+
+        searcher.search(query.setCursor(new SearchCursor(Long.MAX_VALUE, new ScoreDoc(0, 1.0F), 1, query).toString()));
+    }
+
+    @Test(expected = ConflictException.class)
+    public void rejectsCursorCreatedForAnotherQuery() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 20; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(2));
+        String cursor = firstPage.getNextPageQueryExpression().get().getCursor();
+
+        searcher.search(new QueryExpression().setText("should").setMaxItems(2).setCursor(cursor));
+    }
+
+    @Test
+    public void passesSearchResultEntriesToConsumer() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder.createFile("zzz.txt", TEST_CONTENT[1]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = newArrayList();
+        SearchResult result = searcher.search(new QueryExpression().setText("should"), entry -> paths.add(entry.getFilePath()));
+
+        assertEquals(newArrayList("/folder/zzz.txt"), paths);
+        assertEquals(1, result.getTotalHits());
+        assertTrue(result.getResults().isEmpty());
+    }
+
+    @Test
+    public void searchesBySubstringWithTrigramIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.java", "class Xxx {\n    int x = getFoo(1);\n}");
+        folder.createFile("zzz.java", "class Zzz {\n    int getFoo;\n}");
+        searcher.setTrigramIndexEnabled(true);
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setSubstring("getFoo("));
+
+        assertEquals(newArrayList("/folder/xxx.java"), result.getFilePaths());
+        List<SearchOccurrence> occurrences = result.getResults().get(0).getOccurrences();
+        assertEquals(1, occurrences.size());
+        assertEquals(2, occurrences.get(0).getLineNumber());
+        assertEquals(24, occurrences.get(0).getStartOffset());
+        assertEquals(31, occurrences.get(0).getEndOffset());
+        assertEquals("    int x = getFoo(1);", occurrences.get(0).getLineContent());
+    }
+
+    @Test
+    public void searchesByRegexWithTrigramIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[0]);
+        folder.createFile("yyy.txt", TEST_CONTENT[3]);
+        folder.createFile("zzz.txt", TEST_CONTENT[1]);
+        searcher.setTrigramIndexEnabled(true);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setRegex("m[a-z]+ mode")).getFilePaths();
+
+        assertEquals(newArrayList("/folder/yyy.txt"), paths);
+    }
+
+    @Test
+    public void searchesBySubstringWithoutTrigramIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[0]);
+        folder.createFile("zzz.txt", TEST_CONTENT[1]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setSubstring("think tw")).getFilePaths();
+
+        assertEquals(newArrayList("/folder/zzz.txt"), paths);
+    }
+
     private VirtualFileSystem virtualFileSystem() throws Exception {
         return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
     }
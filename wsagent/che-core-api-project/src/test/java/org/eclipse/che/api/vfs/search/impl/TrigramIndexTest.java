@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TrigramIndexTest {
+    @Test
+    public void extractsLiteralsFromRegex() throws Exception {
+        assertEquals(newArrayList("getFoo("), TrigramIndex.extractRequiredLiterals("getFoo\\("));
+        assertEquals(newArrayList("defg"), TrigramIndex.extractRequiredLiterals("[abc]defg+h"));
+        assertEquals(newArrayList("word"), TrigramIndex.extractRequiredLiterals("\\bword\\b"));
+    }
+
+    @Test
+    public void ignoresOptionalPartsOfRegex() throws Exception {
+        assertEquals(newArrayList("foo", "baz"), TrigramIndex.extractRequiredLiterals("foo(bar)?baz"));
+        assertEquals(newArrayList("ab.c"), TrigramIndex.extractRequiredLiterals("ab\\.cd?ef"));
+    }
+
+    @Test
+    public void doesNotExtractLiteralsFromRegexWithAlternation() throws Exception {
+        assertTrue(TrigramIndex.extractRequiredLiterals("abc|def").isEmpty());
+        assertNull(TrigramIndex.regexQuery("abc|def"));
+    }
+
+    @Test
+    public void doesNotExtractLiteralsFromRegexWithHexEscape() throws Exception {
+        assertNoLiterals("fooo\\x41bar", "foooAbar");
+    }
+
+    @Test
+    public void doesNotExtractLiteralsFromRegexWithUnicodeEscape() throws Exception {
+        assertNoLiterals("fooo\\u0041bar", "foooAbar");
+    }
+
+    @Test
+    public void doesNotExtractLiteralsFromRegexWithOctalEscape() throws Exception {
+        assertNoLiterals("fooo\\0101bar", "foooAbar");
+    }
+
+    @Test
+    public void doesNotExtractLiteralsFromRegexWithNamedBackReference() throws Exception {
+        assertNoLiterals("(?<name>abc)fooo\\k<name>bar", "abcfoooabcbar");
+    }
+
+    @Test
+    public void doesNotExtractLiteralsFromRegexWithMultiDigitBackReference() throws Exception {
+        assertNoLiterals("(a)(b)(c)(d)(e)(f)(g)(h)(i)(j)fooo\\10bar", "abcdefghijfooojbar");
+    }
+
+    @Test
+    public void extractsEscapedControlCharacters() throws Exception {
+        assertEquals(newArrayList("foo\tbar"), TrigramIndex.extractRequiredLiterals("foo\\tbar"));
+    }
+
+    @Test
+    public void doesNotCreateQueryForShortSubstring() throws Exception {
+        assertNull(TrigramIndex.substringQuery("ab"));
+    }
+
+    private static void assertNoLiterals(String regex, String matchedText) {
+        assertTrue(Pattern.compile(regex).matcher(matchedText).find());
+        assertTrue(TrigramIndex.extractRequiredLiterals(regex).isEmpty());
+    }
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Index of paths changed by commits, used to skip commits which don't touch the paths of path filtered log
+ * without comparing trees of the commit and its parent.
+ *
+ * <p>Paths changed by a commit, together with all their parent directories, are kept in a bloom filter,
+ * the same way as changed paths are kept by git commit-graph. Filter is built the first time the commit
+ * is visited by a path filtered log and is reused by the following logs with any paths. Commit id identifies
+ * the trees of the commit and its parents, so the index is shared by all the repositories.
+ *
+ * <p>Only the commits with a single parent are indexed, merges are always compared with all the parents.
+ */
+@Singleton
+public class ChangedPathsIndex {
+    static final long DEFAULT_MAX_SIZE = 100_000;
+
+    /** Commits which change more paths and directories are considered to change any path, their filter would be too big. */
+    private static final int    MAX_CHANGED_PATHS   = 512;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    /** Marks commits which are considered to change any path. */
+    private static final BloomFilter<CharSequence> ANY_PATH = BloomFilter.create(Funnels.stringFunnel(UTF_8), 1);
+
+    private final Cache<ObjectId, BloomFilter<CharSequence>> filters;
+
+    @Inject
+    public ChangedPathsIndex(@Named("git.log.changed_paths_index.max_size") long maxSize) {
+        this.filters = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    public ChangedPathsIndex() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Checks whether commit may change any of the paths or the paths below them.
+     *
+     * @param walk
+     *         walk the commit is parsed by
+     * @param commit
+     *         commit with a single parent
+     * @param paths
+     *         slash separated paths relative to the working directory, without trailing slash
+     * @return false if commit definitely doesn't change any of the paths, true otherwise
+     */
+    public boolean mayChange(RevWalk walk, RevCommit commit, Collection<String> paths) throws IOException {
+        if (commit.getParentCount() != 1) {
+            return true;
+        }
+        BloomFilter<CharSequence> filter = filters.getIfPresent(commit);
+        if (filter == null) {
+            filter = buildFilter(walk, commit);
+            filters.put(commit.copy(), filter);
+        }
+        if (filter == ANY_PATH) {
+            return true;
+        }
+        for (String path : paths) {
+            if (filter.mightContain(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BloomFilter<CharSequence> buildFilter(RevWalk walk, RevCommit commit) throws IOException {
+        final RevCommit parent = walk.parseCommit(commit.getParent(0));
+        final Set<String> changed = new HashSet<>();
+        try (TreeWalk treeWalk = new TreeWalk(walk.getObjectReader())) {
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(TreeFilter.ANY_DIFF);
+            treeWalk.reset(parent.getTree(), commit.getTree());
+            while (treeWalk.next()) {
+                if (changed.size() >= MAX_CHANGED_PATHS) {
+                    return ANY_PATH;
+                }
+                final String path = treeWalk.getPathString();
+                changed.add(path);
+                for (int slash = path.indexOf('/'); slash > 0; slash = path.indexOf('/', slash + 1)) {
+                    changed.add(path.substring(0, slash));
+                }
+            }
+        }
+        final BloomFilter<CharSequence> filter = BloomFilter.create(Funnels.stringFunnel(UTF_8),
+                                                                    Math.max(changed.size(), 1),
+                                                                    FALSE_POSITIVE_RATE);
+        changed.forEach(filter::put);
+        return filter;
+    }
+}
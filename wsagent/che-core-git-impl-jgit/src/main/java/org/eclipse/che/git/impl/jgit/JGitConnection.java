@@ -157,7 +157,6 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -222,6 +221,8 @@ class JGitConnection implements GitConnection {
     private static final String ERROR_BRANCH_LIST_UNSUPPORTED_LIST_MODE = "Unsupported list mode '%s'. Must be either 'a' or 'r'.";
     private static final String ERROR_TAG_DELETE                        = "Could not delete the tag %1$s. An error occurred: %2$s.";
     private static final String ERROR_LOG_NO_HEAD_EXISTS                = "No HEAD exists and no explicit starting revision was specified";
+    private static final String ERROR_LOG_INVALID_CURSOR                = "Invalid log cursor '%s'.";
+    private static final String ERROR_LOG_REVISION_NOT_FOUND            = "Revision %s not found.";
     private static final String ERROR_INIT_FOLDER_MISSING               = "The working folder %s does not exist.";
     private static final String ERROR_NO_REMOTE_REPOSITORY              = "No remote repository specified.  Please, specify either a " +
                                                                           "URL or a remote name from which new revisions should be " +
@@ -236,18 +237,25 @@ class JGitConnection implements GitConnection {
     private JGitConfigImpl      config;
     private LineConsumerFactory lineConsumerFactory;
 
-    private final CredentialsLoader credentialsLoader;
-    private final SshKeyProvider    sshKeyProvider;
-    private final GitUserResolver   userResolver;
-    private final Repository        repository;
+    private final CredentialsLoader   credentialsLoader;
+    private final SshKeyProvider      sshKeyProvider;
+    private final GitUserResolver     userResolver;
+    private final Repository          repository;
+    private final JGitRepositoryCache repositoryCache;
+    private final ChangedPathsIndex   changedPathsIndex;
+    private final JGitStatusCache     statusCache;
 
     @Inject
     JGitConnection(Repository repository, CredentialsLoader credentialsLoader, SshKeyProvider sshKeyProvider,
-                   GitUserResolver userResolver) {
+                   GitUserResolver userResolver, JGitRepositoryCache repositoryCache, ChangedPathsIndex changedPathsIndex,
+                   JGitStatusCache statusCache) {
         this.repository = repository;
         this.credentialsLoader = credentialsLoader;
         this.sshKeyProvider = sshKeyProvider;
         this.userResolver = userResolver;
+        this.repositoryCache = repositoryCache;
+        this.changedPathsIndex = changedPathsIndex;
+        this.statusCache = statusCache;
     }
 
     @Override
@@ -542,7 +550,8 @@ class JGitConnection implements GitConnection {
             if (!request.isAmend() && !request.isAll()
                 && status.getAdded().isEmpty() && status.getChanged().isEmpty() && status.getRemoved().isEmpty()) {
                 throw new GitException("No changes added to commit");
-            } else if (!request.isAmend() && request.isAll() && status.isClean()) {
+            } else if (!request.isAmend() && request.isAll() && status.isClean() && getGit().status().call().isClean()) {
+                // cached status may not see the latest changes of working tree yet, so it is checked again
                 throw new GitException("Nothing to commit, working directory clean");
             }
 
@@ -712,17 +721,23 @@ class JGitConnection implements GitConnection {
 
     @Override
     public LogPage log(LogRequest request) throws GitException {
-        LogCommand logCommand = getGit().log();
-        try {
-            setRevisionRange(logCommand, request);
-
-            request.getFileFilter().forEach(logCommand::addPath);
-
-            Iterator<RevCommit> revIterator = logCommand.call().iterator();
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            // parents are not rewritten, so the commits to continue the walk from can be found
+            revWalk.setRewriteParents(false);
+            List<RevCommit> starts = markLogStart(revWalk, request);
+            LogRevFilter filter = new LogRevFilter(revWalk, request.getFileFilter(), changedPathsIndex);
+            revWalk.setRevFilter(filter);
+
+            int maxCount = request.getMaxCount();
+            // cursor points to the first commit of the page, commits before it are already skipped
+            int toSkip = isNullOrEmpty(request.getCursor()) ? request.getSkip() : 0;
             List<Revision> commits = new ArrayList<>();
-
-            while (revIterator.hasNext()) {
-                RevCommit commit = revIterator.next();
+            RevCommit commit;
+            while ((maxCount <= 0 || commits.size() < maxCount) && (commit = revWalk.next()) != null) {
+                if (toSkip > 0) {
+                    toSkip--;
+                    continue;
+                }
                 PersonIdent committerIdentity = commit.getCommitterIdent();
 
                 GitUser gitUser = newDto(GitUser.class).withName(committerIdentity.getName())
@@ -734,26 +749,58 @@ class JGitConnection implements GitConnection {
                                                           .withCommitter(gitUser);
                 commits.add(revision);
             }
-            return new LogPage(commits);
-        } catch (GitAPIException | IOException exception) {
-            String errorMessage = exception.getMessage();
-            if (ERROR_LOG_NO_HEAD_EXISTS.equals(errorMessage)) {
-                throw new GitException(errorMessage, ErrorCodes.INIT_COMMIT_WAS_NOT_PERFORMED);
+
+            String nextCursor = null;
+            if (maxCount > 0 && commits.size() == maxCount) {
+                List<RevCommit> pending = filter.getPending(starts);
+                if (!pending.isEmpty()) {
+                    nextCursor = pending.stream().map(RevCommit::getName).collect(Collectors.joining(","));
+                }
             }
-            throw new GitException(errorMessage, exception);
+            return new LogPage(commits, nextCursor);
+        } catch (IOException exception) {
+            throw new GitException(exception.getMessage(), exception);
         }
     }
 
-    private void setRevisionRange(LogCommand logCommand, LogRequest request) throws IOException {
-        if (request != null) {
-            String revisionRangeSince = request.getRevisionRangeSince();
-            String revisionRangeUntil = request.getRevisionRangeUntil();
-            if (revisionRangeSince != null && revisionRangeUntil != null) {
-                ObjectId since = repository.resolve(revisionRangeSince);
-                ObjectId until = repository.resolve(revisionRangeUntil);
-                logCommand.addRange(since, until);
+    /**
+     * Marks commits the log starts from: commits of the cursor if it is set, the end of revision
+     * range or HEAD otherwise. Start of revision range is excluded from the log.
+     *
+     * @return commits the log starts from
+     */
+    private List<RevCommit> markLogStart(RevWalk revWalk, LogRequest request) throws IOException, GitException {
+        List<RevCommit> starts = new ArrayList<>();
+        String cursor = request.getCursor();
+        String revisionRangeSince = request.getRevisionRangeSince();
+        String revisionRangeUntil = request.getRevisionRangeUntil();
+        boolean hasRange = revisionRangeSince != null && revisionRangeUntil != null;
+        if (!isNullOrEmpty(cursor)) {
+            for (String id : cursor.split(",")) {
+                if (!ObjectId.isId(id)) {
+                    throw new GitException(format(ERROR_LOG_INVALID_CURSOR, cursor));
+                }
+                starts.add(revWalk.parseCommit(ObjectId.fromString(id)));
+            }
+        } else {
+            ObjectId start = repository.resolve(hasRange ? revisionRangeUntil : Constants.HEAD);
+            if (start == null) {
+                if (hasRange) {
+                    throw new GitException(format(ERROR_LOG_REVISION_NOT_FOUND, revisionRangeUntil));
+                }
+                throw new GitException(ERROR_LOG_NO_HEAD_EXISTS, ErrorCodes.INIT_COMMIT_WAS_NOT_PERFORMED);
+            }
+            starts.add(revWalk.parseCommit(start));
+        }
+        revWalk.markStart(starts);
+        if (hasRange) {
+            ObjectId since = repository.resolve(revisionRangeSince);
+            if (since == null) {
+                throw new GitException(format(ERROR_LOG_REVISION_NOT_FOUND, revisionRangeSince));
             }
+            revWalk.markUninteresting(revWalk.parseCommit(since));
         }
+        return starts;
     }
 
     @Override
@@ -1368,7 +1415,7 @@ class JGitConnection implements GitConnection {
             throw new GitException("Not a git repository");
         }
         String branchName = getCurrentBranch();
-        return new JGitStatusImpl(branchName, getGit().status(), format);
+        return new JGitStatusImpl(branchName, statusCache.getStatus(repository), format);
     }
 
     @Override
@@ -1459,7 +1506,7 @@ class JGitConnection implements GitConnection {
 
     @Override
     public void close() {
-        repository.close();
+        repositoryCache.release(repository);
     }
 
     @Override
@@ -17,12 +17,12 @@ import org.eclipse.che.api.git.GitConnectionFactory;
 import org.eclipse.che.api.git.GitException;
 import org.eclipse.che.api.git.GitUserResolver;
 import org.eclipse.che.plugin.ssh.key.script.SshKeyProvider;
-import org.eclipse.jgit.internal.storage.file.FileRepository;
-import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
 import org.eclipse.jgit.transport.UserAgent;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
@@ -34,6 +34,8 @@ import java.security.NoSuchAlgorithmException;
 
 /**
  * JGit implementation for GitConnectionFactory
+ *
+ * <p>Connections to the same working directory share repository from {@link JGitRepositoryCache}.
  * 
  * @author Tareq Sharafy (tareq.sha@gmail.com)
  */
@@ -41,15 +43,62 @@ public class JGitConnectionFactory extends GitConnectionFactory {
 
     private static final String USER_AGENT = "git/2.1.0";
 
-    private final CredentialsLoader credentialsLoader;
-    private final SshKeyProvider    sshKeyProvider;
-    private final GitUserResolver   userResolver;
+    private final CredentialsLoader   credentialsLoader;
+    private final SshKeyProvider      sshKeyProvider;
+    private final GitUserResolver     userResolver;
+    private final JGitRepositoryCache repositoryCache;
+    private final ChangedPathsIndex   changedPathsIndex;
+    private final JGitStatusCache     statusCache;
 
+    /**
+     * Creates factory and configures cache of pack files which is shared by all the repositories.
+     *
+     * @param packedGitLimitMb
+     *         max size of pack files data kept in memory
+     * @param packedGitOpenFiles
+     *         max number of pack files kept open
+     * @param deltaBaseCacheLimitMb
+     *         max size of inflated delta bases kept in memory
+     * @param packedGitMmap
+     *         read pack files through memory mapped buffers
+     */
     @Inject
-    public JGitConnectionFactory(CredentialsLoader credentialsLoader, SshKeyProvider sshKeyProvider, GitUserResolver userResolver) throws GitException {
+    public JGitConnectionFactory(CredentialsLoader credentialsLoader,
+                                 SshKeyProvider sshKeyProvider,
+                                 GitUserResolver userResolver,
+                                 JGitRepositoryCache repositoryCache,
+                                 ChangedPathsIndex changedPathsIndex,
+                                 JGitStatusCache statusCache,
+                                 @Named("git.jgit.packed_git_limit_mb") int packedGitLimitMb,
+                                 @Named("git.jgit.packed_git_open_files") int packedGitOpenFiles,
+                                 @Named("git.jgit.delta_base_cache_limit_mb") int deltaBaseCacheLimitMb,
+                                 @Named("git.jgit.packed_git_mmap") boolean packedGitMmap) throws GitException {
+        this(credentialsLoader, sshKeyProvider, userResolver, repositoryCache, changedPathsIndex, statusCache);
+        final WindowCacheConfig windowCacheConfig = new WindowCacheConfig();
+        windowCacheConfig.setPackedGitLimit((long)packedGitLimitMb * WindowCacheConfig.MB);
+        windowCacheConfig.setPackedGitOpenFiles(packedGitOpenFiles);
+        windowCacheConfig.setDeltaBaseCacheLimit(deltaBaseCacheLimitMb * WindowCacheConfig.MB);
+        windowCacheConfig.setPackedGitMMAP(packedGitMmap);
+        windowCacheConfig.install();
+    }
+
+    public JGitConnectionFactory(CredentialsLoader credentialsLoader, SshKeyProvider sshKeyProvider, GitUserResolver userResolver)
+            throws GitException {
+        this(credentialsLoader, sshKeyProvider, userResolver, new JGitRepositoryCache(), new ChangedPathsIndex(), new JGitStatusCache());
+    }
+
+    private JGitConnectionFactory(CredentialsLoader credentialsLoader,
+                                  SshKeyProvider sshKeyProvider,
+                                  GitUserResolver userResolver,
+                                  JGitRepositoryCache repositoryCache,
+                                  ChangedPathsIndex changedPathsIndex,
+                                  JGitStatusCache statusCache) throws GitException {
         this.credentialsLoader = credentialsLoader;
         this.sshKeyProvider = sshKeyProvider;
         this.userResolver = userResolver;
+        this.repositoryCache = repositoryCache;
+        this.changedPathsIndex = changedPathsIndex;
+        this.statusCache = statusCache;
 
         UserAgent.set(USER_AGENT);
         // Install the all-trusting trust manager
@@ -78,15 +127,21 @@ public class JGitConnectionFactory extends GitConnectionFactory {
 
     @Override
     public JGitConnection getConnection(File workDir, LineConsumerFactory outputPublisherFactory) throws GitException {
-        Repository gitRepo = createRepository(workDir);
-        JGitConnection conn = new JGitConnection(gitRepo, credentialsLoader, sshKeyProvider, userResolver);
+        Repository gitRepo = acquireRepository(workDir);
+        JGitConnection conn = new JGitConnection(gitRepo,
+                                                 credentialsLoader,
+                                                 sshKeyProvider,
+                                                 userResolver,
+                                                 repositoryCache,
+                                                 changedPathsIndex,
+                                                 statusCache);
         conn.setOutputLineConsumerFactory(outputPublisherFactory);
         return conn;
     }
 
-    private static Repository createRepository(File workDir) throws GitException {
+    private Repository acquireRepository(File workDir) throws GitException {
         try {
-            return new FileRepository(new File(workDir, Constants.DOT_GIT));
+            return repositoryCache.acquire(workDir);
         } catch (IOException e) {
             throw new GitException(e.getMessage(), e);
         }
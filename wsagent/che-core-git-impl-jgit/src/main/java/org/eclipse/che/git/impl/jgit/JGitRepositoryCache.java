@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of git repositories shared by all the connections to the same working directory.
+ *
+ * <p>Opening of {@link FileRepository} reads configuration of the repository and lists its packs and refs,
+ * which used to be repeated for every request to git service and for every resolving of git attributes of
+ * a project. Cached repository is reused instead, changes of refs, packs and index made outside of it are
+ * caught up by JGit itself.
+ *
+ * <p>Repository is opened again when {@code .git/config} is replaced or modified, which also covers removal
+ * and re-creation of the repository at the same path. Repositories which are not used by any connection are
+ * closed after they are not used for the configured time or when the number of cached repositories exceeds
+ * the limit, least recently used first. Removal of {@code .git} directory or changes of its config seen by
+ * the file watcher close the repository right away.
+ */
+@Singleton
+public class JGitRepositoryCache {
+    static final int  DEFAULT_MAX_SIZE         = 64;
+    static final long DEFAULT_EXPIRE_AFTER_SEC = 600;
+
+    private final Map<File, Entry> entries;
+    private final int              maxSize;
+    private final long             expireAfterMs;
+
+    @Inject
+    public JGitRepositoryCache(@Named("git.repository_cache.max_size") int maxSize,
+                               @Named("git.repository_cache.expire_after_sec") long expireAfterSec,
+                               FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this(maxSize, expireAfterSec);
+        fileWatcherNotificationHandler.addNotificationListener(new GitDirChangesListener());
+    }
+
+    public JGitRepositoryCache(int maxSize, long expireAfterSec) {
+        this.maxSize = maxSize;
+        this.expireAfterMs = TimeUnit.SECONDS.toMillis(expireAfterSec);
+        // access order, so the least recently used repository comes first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /** Creates cache with default settings which is not notified about changes of files. */
+    public JGitRepositoryCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_EXPIRE_AFTER_SEC);
+    }
+
+    /**
+     * Opens repository of the working directory.
+     *
+     * <p>Repository which doesn't exist yet, e.g. it is going to be initialized or cloned, is not cached.
+     * Each acquired repository must be released with {@link #release(Repository)}.
+     *
+     * @param workDir
+     *         working directory of repository
+     */
+    public Repository acquire(File workDir) throws IOException {
+        final File key = toKey(workDir);
+        final File gitDir = new File(key, Constants.DOT_GIT);
+        final Object version = readVersion(gitDir);
+        if (version == null) {
+            return new FileRepository(gitDir);
+        }
+        final List<Repository> evicted = new ArrayList<>();
+        final Repository repository;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.version.equals(version)) {
+                entries.remove(key);
+                evicted.add(entry.repository);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(new FileRepository(gitDir), version);
+                entries.put(key, entry);
+            }
+            entry.references++;
+            entry.repository.incrementOpen();
+            repository = entry.repository;
+            evictIdle(evicted);
+        }
+        closeAll(evicted);
+        return repository;
+    }
+
+    /**
+     * Releases repository acquired with {@link #acquire(File)}.
+     *
+     * <p>Repository which is evicted from the cache is closed when the last connection releases it.
+     */
+    public void release(Repository repository) {
+        synchronized (this) {
+            final Entry entry = entries.get(repository.getDirectory().getParentFile());
+            if (entry != null && entry.repository == repository) {
+                entry.references--;
+                entry.lastUsed = System.currentTimeMillis();
+            }
+        }
+        repository.close();
+    }
+
+    /** Evicts repository of the working directory from the cache, connections which use it may continue. */
+    public void invalidate(File workDir) {
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.remove(toKey(workDir));
+        }
+        if (entry != null) {
+            entry.repository.close();
+        }
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return entries.size();
+    }
+
+    @PreDestroy
+    public void clear() {
+        final List<Repository> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : entries.values()) {
+                evicted.add(entry.repository);
+            }
+            entries.clear();
+        }
+        closeAll(evicted);
+    }
+
+    /** Removes repositories which are not used if they are expired or cache is too big. */
+    private void evictIdle(List<Repository> evicted) {
+        final long expiredBefore = System.currentTimeMillis() - expireAfterMs;
+        int size = entries.size();
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            final Entry entry = it.next();
+            if (entry.references == 0 && (size > maxSize || entry.lastUsed < expiredBefore)) {
+                it.remove();
+                evicted.add(entry.repository);
+                size--;
+            }
+        }
+    }
+
+    private static void closeAll(List<Repository> repositories) {
+        for (Repository repository : repositories) {
+            repository.close();
+        }
+    }
+
+    private static File toKey(File workDir) {
+        return workDir.getAbsoluteFile().toPath().normalize().toFile();
+    }
+
+    /**
+     * Returns identity of repository config, which changes when config is modified or repository is re-created,
+     * or null if repository doesn't exist.
+     */
+    private static Object readVersion(File gitDir) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(new File(gitDir, Constants.CONFIG).toPath(),
+                                                                        BasicFileAttributes.class);
+            return Arrays.asList(attributes.fileKey(), attributes.lastModifiedTime(), attributes.size());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isGitDir(Path path) {
+        return Constants.DOT_GIT.equals(path.getName());
+    }
+
+    private static boolean isConfig(Path path) {
+        return Constants.CONFIG.equals(path.getName()) && !path.isRoot() && isGitDir(path.getParent());
+    }
+
+    private static class Entry {
+        final Repository repository;
+        final Object     version;
+
+        int  references;
+        long lastUsed;
+
+        Entry(Repository repository, Object version) {
+            this.repository = repository;
+            this.version = version;
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /** Evicts repository when its {@code .git} directory is created or removed or its config is changed. */
+    private class GitDirChangesListener extends FileWatcherNotificationListener {
+        GitDirChangesListener() {
+            super(file -> isGitDir(file.getPath()) || isConfig(file.getPath()));
+        }
+
+        @Override
+        public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+            final File gitDir = isGitDir(virtualFile.getPath()) ? virtualFile.toIoFile() : virtualFile.toIoFile().getParentFile();
+            invalidate(gitDir.getParentFile());
+        }
+    }
+}
@@ -0,0 +1,484 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import org.eclipse.che.api.git.GitException;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last status of working trees of repositories, so status is not computed from scratch on every request.
+ *
+ * <p>Paths reported by the file watcher are marked as changed, and the next status checks only the changed paths
+ * against the index and HEAD, merging the result into the last status. Status is computed with the whole working
+ * tree walk when the index or HEAD is changed, when {@code .gitignore} is changed, when too many paths are changed
+ * at once and after the configured period, which catches up changes the watcher doesn't report, e.g. untracked files
+ * in the directories excluded from watching.
+ *
+ * <p>Changes of tracked files are not left to the watcher, as its events are delayed and are not sent for the excluded
+ * directories. Before the cached status is returned, modification time and size of each tracked file are compared
+ * with the ones the file had at the last check, or with the index, and the files which differ are checked. Entries
+ * of the index which are racily clean, i.e. modified at the same time the index was written, are always checked
+ * until they are old enough to trust their modification time.
+ *
+ * <p>Only repositories inside the watched root are cached, status of other repositories is always computed
+ * from scratch. Status of repository is evicted when its working tree is removed.
+ */
+@Singleton
+public class JGitStatusCache {
+    private static final int  MAX_CHANGED_PATHS = 1000;
+    /** Changes of file made within this interval after the file was checked may have the same modification time. */
+    private static final long RACY_INTERVAL_MS  = 2000;
+
+    private final Map<File, RepositoryStatus> statuses;
+    private final Path                        watchRoot;
+    private final long                        fullCheckPeriodMs;
+
+    @Inject
+    public JGitStatusCache(@Named("che.user.workspaces.storage") File watchRoot,
+                           @Named("git.status_cache.full_check_period_sec") long fullCheckPeriodSec,
+                           FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this(watchRoot, fullCheckPeriodSec);
+        fileWatcherNotificationHandler.addNotificationListener(new WorkingTreeChangesListener());
+    }
+
+    @VisibleForTesting
+    JGitStatusCache(File watchRoot, long fullCheckPeriodSec) {
+        this.watchRoot = watchRoot == null ? null : toCanonicalFile(watchRoot).toPath();
+        this.fullCheckPeriodMs = TimeUnit.SECONDS.toMillis(fullCheckPeriodSec);
+        this.statuses = new ConcurrentHashMap<>();
+    }
+
+    /** Creates cache which is not notified about changes of files, so status is always computed from scratch. */
+    public JGitStatusCache() {
+        this(null, 0);
+    }
+
+    /**
+     * Returns status of the working tree of repository.
+     *
+     * @throws GitException
+     *         when status can't be computed
+     */
+    public WorkingTreeStatus getStatus(Repository repository) throws GitException {
+        final File workTree = toCanonicalFile(repository.getWorkTree());
+        if (watchRoot == null || !workTree.toPath().startsWith(watchRoot)) {
+            return computeStatus(repository, null);
+        }
+        final RepositoryStatus state = statuses.computeIfAbsent(workTree, key -> new RepositoryStatus());
+        synchronized (state) {
+            // read before the walk, so the changes made during the walk are seen by the next status
+            final Object indexVersion = readIndexVersion(repository);
+            final ObjectId head = resolveHead(repository);
+            final long now = System.currentTimeMillis();
+            if (state.status == null
+                || state.overflow
+                || !Objects.equals(state.indexVersion, indexVersion)
+                || !Objects.equals(state.head, head)
+                || now - state.fullCheckTime > fullCheckPeriodMs) {
+                state.overflow = false;
+                state.changed.clear();
+                state.status = computeStatus(repository, null);
+                state.tracked = readTrackedFiles(repository);
+                state.fullCheckTime = now;
+                evictRemovedWorkTrees();
+            } else {
+                final Set<String> changed = new HashSet<>(state.changed);
+                state.changed.removeAll(changed);
+                final Map<String, FileStat> touched = findTouchedTrackedFiles(workTree, state.tracked);
+                changed.addAll(touched.keySet());
+                if (!changed.isEmpty()) {
+                    state.status = updateStatus(repository, state.status, changed);
+                    // stat of file which is changed right now may not change with the next change, so it is not trusted yet
+                    touched.forEach((path, stat) -> state.tracked.put(path, stat.isRacy(now) ? null : stat));
+                }
+            }
+            state.indexVersion = indexVersion;
+            state.head = head;
+            return state.status;
+        }
+    }
+
+    /** Returns working trees of the cached repositories. */
+    @VisibleForTesting
+    Set<File> getCachedWorkTrees() {
+        return new HashSet<>(statuses.keySet());
+    }
+
+    /**
+     * Marks file as changed in all the cached repositories it belongs to, and evicts repositories
+     * if the file is their removed working tree or a removed folder which contains it.
+     */
+    @VisibleForTesting
+    void fileChanged(File file) {
+        final Path path = toCanonicalPath(file);
+        for (Map.Entry<File, RepositoryStatus> entry : statuses.entrySet()) {
+            final Path workTree = entry.getKey().toPath();
+            if (workTree.startsWith(path)) {
+                if (!entry.getKey().isDirectory()) {
+                    statuses.remove(entry.getKey(), entry.getValue());
+                }
+                continue;
+            }
+            if (!path.startsWith(workTree)) {
+                continue;
+            }
+            final Path relative = workTree.relativize(path);
+            if (Constants.DOT_GIT.equals(relative.getName(0).toString())) {
+                // index and HEAD are checked by each status
+                continue;
+            }
+            final RepositoryStatus state = entry.getValue();
+            if (Constants.DOT_GIT_IGNORE.equals(relative.getFileName().toString()) || state.changed.size() >= MAX_CHANGED_PATHS) {
+                state.overflow = true;
+            } else {
+                state.changed.add(relative.toString().replace(File.separatorChar, '/'));
+            }
+        }
+    }
+
+    /**
+     * Reads stat of tracked files from the index, stat of racily clean entries is not known.
+     *
+     * @return stat of tracked files by their paths relative to the working tree
+     */
+    private static Map<String, FileStat> readTrackedFiles(Repository repository) throws GitException {
+        final DirCache index;
+        try {
+            index = repository.readDirCache();
+        } catch (IOException exception) {
+            throw new GitException(exception.getMessage(), exception);
+        }
+        final long indexModified = repository.getIndexFile().lastModified();
+        final Map<String, FileStat> tracked = new HashMap<>(index.getEntryCount());
+        for (int i = 0; i < index.getEntryCount(); i++) {
+            final DirCacheEntry entry = index.getEntry(i);
+            if (FileMode.GITLINK.equals(entry.getFileMode())) {
+                continue;
+            }
+            final boolean racy = entry.isSmudged() || entry.getLastModified() >= indexModified;
+            tracked.put(entry.getPathString(), racy ? null : new FileStat(entry.getLastModified(), entry.getLength()));
+        }
+        return tracked;
+    }
+
+    /**
+     * Compares stat of tracked files with the known one.
+     *
+     * @return current stat of the files which differ from the known stat by their paths
+     */
+    private static Map<String, FileStat> findTouchedTrackedFiles(File workTree, Map<String, FileStat> tracked) {
+        final Map<String, FileStat> touched = new HashMap<>();
+        for (Map.Entry<String, FileStat> entry : tracked.entrySet()) {
+            final FileStat current = FileStat.of(new File(workTree, entry.getKey()));
+            if (!current.equals(entry.getValue())) {
+                touched.put(entry.getKey(), current);
+            }
+        }
+        return touched;
+    }
+
+    /** Evicts repositories which working trees are removed, e.g. when removal is not reported by the file watcher. */
+    private void evictRemovedWorkTrees() {
+        statuses.keySet().removeIf(workTree -> !workTree.isDirectory());
+    }
+
+    /**
+     * Checks changed paths and untracked folders they are in, and replaces status of these paths in the last status.
+     */
+    private static WorkingTreeStatus updateStatus(Repository repository, WorkingTreeStatus last, Set<String> changed)
+            throws GitException {
+        final Set<String> scope = new TreeSet<>(changed);
+        for (String folder : last.getUntrackedFolders()) {
+            for (String path : changed) {
+                if (isUnder(path, folder)) {
+                    scope.add(folder);
+                }
+            }
+        }
+        final WorkingTreeStatus partial = computeStatus(repository, scope);
+        return new WorkingTreeStatus(merge(last.getAdded(), partial.getAdded(), scope),
+                                     merge(last.getChanged(), partial.getChanged(), scope),
+                                     merge(last.getRemoved(), partial.getRemoved(), scope),
+                                     merge(last.getMissing(), partial.getMissing(), scope),
+                                     merge(last.getModified(), partial.getModified(), scope),
+                                     merge(last.getUntracked(), partial.getUntracked(), scope),
+                                     merge(last.getUntrackedFolders(), partial.getUntrackedFolders(), scope),
+                                     merge(last.getConflicting(), partial.getConflicting(), scope));
+    }
+
+    private static Set<String> merge(Set<String> last, Set<String> partial, Set<String> scope) {
+        final Set<String> merged = new TreeSet<>(partial);
+        for (String path : last) {
+            if (!isInScope(path, scope)) {
+                merged.add(path);
+            }
+        }
+        return merged;
+    }
+
+    private static boolean isInScope(String path, Set<String> scope) {
+        for (String scopePath : scope) {
+            if (path.equals(scopePath) || isUnder(path, scopePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUnder(String path, String folder) {
+        return path.length() > folder.length() && path.charAt(folder.length()) == '/' && path.startsWith(folder);
+    }
+
+    private static WorkingTreeStatus computeStatus(Repository repository, Collection<String> paths) throws GitException {
+        final StatusCommand statusCommand = Git.wrap(repository).status();
+        if (paths != null) {
+            paths.forEach(statusCommand::addPath);
+        }
+        try {
+            return new WorkingTreeStatus(statusCommand.call());
+        } catch (GitAPIException exception) {
+            throw new GitException(exception.getMessage(), exception);
+        }
+    }
+
+    private static Object readIndexVersion(Repository repository) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(repository.getIndexFile().toPath(), BasicFileAttributes.class);
+            return Arrays.asList(attributes.fileKey(), attributes.lastModifiedTime(), attributes.size());
+        } catch (IOException e) {
+            // repository without index
+            return null;
+        }
+    }
+
+    private static ObjectId resolveHead(Repository repository) throws GitException {
+        try {
+            return repository.resolve(Constants.HEAD);
+        } catch (IOException exception) {
+            throw new GitException(exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Returns path of file with canonical parent, so it can be compared to the canonical paths of working trees.
+     * The file itself is not resolved, as it may be removed or may be a link which points outside of working tree.
+     */
+    private static Path toCanonicalPath(File file) {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (parent == null) {
+            return file.getAbsoluteFile().toPath();
+        }
+        return toCanonicalFile(parent).toPath().resolve(file.getName());
+    }
+
+    private static File toCanonicalFile(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    /** Status of working tree, paths in all the sets are sorted. */
+    public static class WorkingTreeStatus {
+        private final SortedSet<String> added;
+        private final SortedSet<String> changed;
+        private final SortedSet<String> removed;
+        private final SortedSet<String> missing;
+        private final SortedSet<String> modified;
+        private final SortedSet<String> untracked;
+        private final SortedSet<String> untrackedFolders;
+        private final SortedSet<String> conflicting;
+
+        WorkingTreeStatus(org.eclipse.jgit.api.Status status) {
+            this(status.getAdded(),
+                 status.getChanged(),
+                 status.getRemoved(),
+                 status.getMissing(),
+                 status.getModified(),
+                 status.getUntracked(),
+                 status.getUntrackedFolders(),
+                 status.getConflicting());
+        }
+
+        WorkingTreeStatus(Set<String> added,
+                          Set<String> changed,
+                          Set<String> removed,
+                          Set<String> missing,
+                          Set<String> modified,
+                          Set<String> untracked,
+                          Set<String> untrackedFolders,
+                          Set<String> conflicting) {
+            this.added = sorted(added);
+            this.changed = sorted(changed);
+            this.removed = sorted(removed);
+            this.missing = sorted(missing);
+            this.modified = sorted(modified);
+            this.untracked = sorted(untracked);
+            this.untrackedFolders = sorted(untrackedFolders);
+            this.conflicting = sorted(conflicting);
+        }
+
+        /** Returns true if there are no changes, untracked folders are not taken into account as it is done by git. */
+        public boolean isClean() {
+            return added.isEmpty()
+                   && changed.isEmpty()
+                   && removed.isEmpty()
+                   && missing.isEmpty()
+                   && modified.isEmpty()
+                   && untracked.isEmpty()
+                   && conflicting.isEmpty();
+        }
+
+        public SortedSet<String> getAdded() {
+            return added;
+        }
+
+        public SortedSet<String> getChanged() {
+            return changed;
+        }
+
+        public SortedSet<String> getRemoved() {
+            return removed;
+        }
+
+        public SortedSet<String> getMissing() {
+            return missing;
+        }
+
+        public SortedSet<String> getModified() {
+            return modified;
+        }
+
+        public SortedSet<String> getUntracked() {
+            return untracked;
+        }
+
+        public SortedSet<String> getUntrackedFolders() {
+            return untrackedFolders;
+        }
+
+        public SortedSet<String> getConflicting() {
+            return conflicting;
+        }
+
+        private static SortedSet<String> sorted(Set<String> paths) {
+            return Collections.unmodifiableSortedSet(new TreeSet<>(paths));
+        }
+    }
+
+    private static class RepositoryStatus {
+        final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+        volatile boolean overflow;
+
+        WorkingTreeStatus     status;
+        Map<String, FileStat> tracked;
+        Object                indexVersion;
+        ObjectId              head;
+        long                  fullCheckTime;
+    }
+
+    /** Modification time and size of file, which are compared to find changed files the way git does it. */
+    private static class FileStat {
+        static final FileStat MISSING = new FileStat(-1, -1);
+
+        final long lastModified;
+        final int  length;
+
+        FileStat(long lastModified, int length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        static FileStat of(File file) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(file.toPath(),
+                                                                            BasicFileAttributes.class,
+                                                                            LinkOption.NOFOLLOW_LINKS);
+                // index keeps only lower 32 bits of size
+                return new FileStat(attributes.lastModifiedTime().toMillis(), (int)attributes.size());
+            } catch (IOException e) {
+                return MISSING;
+            }
+        }
+
+        boolean isRacy(long now) {
+            return this != MISSING && lastModified > now - RACY_INTERVAL_MS;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FileStat)) {
+                return false;
+            }
+            final FileStat other = (FileStat)obj;
+            return lastModified == other.lastModified && length == other.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(lastModified) + length;
+        }
+    }
+
+    /** Marks paths of working trees as changed. */
+    private class WorkingTreeChangesListener extends FileWatcherNotificationListener {
+        WorkingTreeChangesListener() {
+            super(VirtualFileFilter.ACCEPT_ALL);
+        }
+
+        @Override
+        public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+            fileChanged(virtualFile.toIoFile());
+        }
+    }
+}
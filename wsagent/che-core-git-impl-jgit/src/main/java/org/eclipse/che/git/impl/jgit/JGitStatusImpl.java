@@ -56,25 +56,38 @@ public class JGitStatusImpl implements Status, InfoPage {
      *         when any error occurs
      */
     public JGitStatusImpl(String branchName, StatusCommand statusCommand, StatusFormat format) throws GitException {
+        this(branchName, call(statusCommand), format);
+    }
+
+    /**
+     * @param branchName
+     *         current repository branch name
+     * @param workingTreeStatus
+     *         status of working tree
+     * @param format
+     *         the output format for the status
+     */
+    public JGitStatusImpl(String branchName, JGitStatusCache.WorkingTreeStatus workingTreeStatus, StatusFormat format) {
         this.branchName = branchName;
         this.format = format;
 
-        org.eclipse.jgit.api.Status gitStatus;
+        clean = workingTreeStatus.isClean();
+        added = new ArrayList<>(workingTreeStatus.getAdded());
+        changed = new ArrayList<>(workingTreeStatus.getChanged());
+        removed = new ArrayList<>(workingTreeStatus.getRemoved());
+        missing = new ArrayList<>(workingTreeStatus.getMissing());
+        modified = new ArrayList<>(workingTreeStatus.getModified());
+        untracked = new ArrayList<>(workingTreeStatus.getUntracked());
+        untrackedFolders = new ArrayList<>(workingTreeStatus.getUntrackedFolders());
+        conflicting = new ArrayList<>(workingTreeStatus.getConflicting());
+    }
+
+    private static JGitStatusCache.WorkingTreeStatus call(StatusCommand statusCommand) throws GitException {
         try {
-            gitStatus = statusCommand.call();
+            return new JGitStatusCache.WorkingTreeStatus(statusCommand.call());
         } catch (GitAPIException exception) {
             throw new GitException(exception.getMessage(), exception);
         }
-
-        clean = gitStatus.isClean();
-        added = new ArrayList<>(gitStatus.getAdded());
-        changed = new ArrayList<>(gitStatus.getChanged());
-        removed = new ArrayList<>(gitStatus.getRemoved());
-        missing = new ArrayList<>(gitStatus.getMissing());
-        modified = new ArrayList<>(gitStatus.getModified());
-        untracked = new ArrayList<>(gitStatus.getUntracked());
-        untrackedFolders = new ArrayList<>(gitStatus.getUntrackedFolders());
-        conflicting = new ArrayList<>(gitStatus.getConflicting());
     }
 
     @Override
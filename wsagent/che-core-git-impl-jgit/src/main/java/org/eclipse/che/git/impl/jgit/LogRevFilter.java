@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.TreeRevFilter;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selects commits shown by log and remembers the commits visited by the walk, so the walk can be
+ * continued later from the commits which it would visit next.
+ *
+ * <p>Commits are filtered by paths the same way as {@link org.eclipse.jgit.api.LogCommand} does it,
+ * but commits which don't change the paths according to {@link ChangedPathsIndex} are skipped
+ * without comparing trees. Walk must not rewrite parents of commits, otherwise commits which it
+ * would visit next can't be found.
+ */
+class LogRevFilter extends RevFilter {
+    private final List<String>      paths;
+    private final RevFilter         treeFilter;
+    private final ChangedPathsIndex changedPathsIndex;
+    private final RevFlag           visited;
+    private final Set<RevCommit>    pending;
+
+    /**
+     * @param walk
+     *         walk the filter is used by
+     * @param paths
+     *         paths to filter commits by, if empty all the commits are shown
+     * @param changedPathsIndex
+     *         index of paths changed by commits
+     */
+    LogRevFilter(RevWalk walk, List<String> paths, ChangedPathsIndex changedPathsIndex) {
+        this.paths = normalize(paths);
+        this.treeFilter = this.paths.isEmpty() ? null
+                                               : new TreeRevFilter(walk, AndTreeFilter.create(PathFilterGroup.createFromStrings(this.paths),
+                                                                                              TreeFilter.ANY_DIFF));
+        this.changedPathsIndex = changedPathsIndex;
+        this.visited = walk.newFlag("LOG_VISITED");
+        this.pending = new LinkedHashSet<>();
+    }
+
+    @Override
+    public boolean include(RevWalk walker, RevCommit commit) throws IOException {
+        commit.add(visited);
+        pending.remove(commit);
+        final boolean include = matches(walker, commit);
+        // parents of merge may be reduced by the tree filter to the one the merge is the same as
+        for (RevCommit parent : commit.getParents()) {
+            if (!parent.has(visited)) {
+                pending.add(parent);
+            }
+        }
+        return include;
+    }
+
+    /**
+     * Returns the commits which walk would visit next, i.e. the start commits and the parents of
+     * visited commits which are not visited yet and are not excluded from the walk.
+     */
+    List<RevCommit> getPending(Collection<RevCommit> starts) {
+        final Set<RevCommit> candidates = new LinkedHashSet<>(starts);
+        candidates.addAll(pending);
+        final List<RevCommit> result = new ArrayList<>();
+        for (RevCommit commit : candidates) {
+            if (!commit.has(visited) && !commit.has(RevFlag.UNINTERESTING)) {
+                result.add(commit);
+            }
+        }
+        return result;
+    }
+
+    private boolean matches(RevWalk walker, RevCommit commit) throws IOException {
+        if (treeFilter == null) {
+            return true;
+        }
+        if (commit.getParentCount() == 1 && !changedPathsIndex.mayChange(walker, commit, paths)) {
+            return false;
+        }
+        return treeFilter.include(walker, commit);
+    }
+
+    @Override
+    public boolean requiresCommitBody() {
+        return false;
+    }
+
+    @Override
+    public RevFilter clone() {
+        // keeps state of the walk
+        return this;
+    }
+
+    private static List<String> normalize(List<String> paths) {
+        final List<String> normalized = new ArrayList<>();
+        if (paths != null) {
+            for (String path : paths) {
+                String trimmed = path;
+                while (trimmed.endsWith("/")) {
+                    trimmed = trimmed.substring(0, trimmed.length() - 1);
+                }
+                if (trimmed.isEmpty() || ".".equals(trimmed)) {
+                    // the whole working tree
+                    return new ArrayList<>();
+                }
+                normalized.add(trimmed);
+            }
+        }
+        return normalized;
+    }
+}
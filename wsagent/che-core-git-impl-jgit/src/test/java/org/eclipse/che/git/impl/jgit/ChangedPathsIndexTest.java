@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link ChangedPathsIndex}.
+ */
+public class ChangedPathsIndexTest {
+    private File              workDir;
+    private Git               git;
+    private RevWalk           walk;
+    private ChangedPathsIndex index;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("index").toFile();
+        git = Git.init().setDirectory(workDir).call();
+        walk = new RevWalk(git.getRepository());
+        index = new ChangedPathsIndex();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        walk.close();
+        git.close();
+        IoUtil.deleteRecursive(workDir);
+    }
+
+    @Test
+    public void shouldReportChangedFilesAndTheirDirectories() throws Exception {
+        commit("README.txt");
+        final RevCommit commit = commit("src/main/Main.java");
+
+        assertTrue(index.mayChange(walk, commit, singletonList("src/main/Main.java")));
+        assertTrue(index.mayChange(walk, commit, singletonList("src/main")));
+        assertTrue(index.mayChange(walk, commit, singletonList("src")));
+        assertTrue(index.mayChange(walk, commit, asList("README.txt", "src")));
+    }
+
+    @Test
+    public void shouldReportPathsWhichAreNotChanged() throws Exception {
+        commit("README.txt");
+        commit("src/main/Main.java");
+        final RevCommit commit = commit("src/main/Other.java");
+
+        // false positives are possible but unlikely with so few paths
+        assertFalse(index.mayChange(walk, commit, singletonList("README.txt")));
+        assertFalse(index.mayChange(walk, commit, singletonList("src/main/Main.java")));
+        assertFalse(index.mayChange(walk, commit, singletonList("src/test")));
+    }
+
+    @Test
+    public void shouldConsiderRootCommitToChangeAnyPath() throws Exception {
+        final RevCommit commit = commit("README.txt");
+
+        assertTrue(index.mayChange(walk, commit, singletonList("other.txt")));
+    }
+
+    private RevCommit commit(String path) throws Exception {
+        final File file = new File(workDir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), path.getBytes(UTF_8));
+        git.add().addFilepattern(path).call();
+        return walk.parseCommit(git.commit().setMessage(path).call());
+    }
+}
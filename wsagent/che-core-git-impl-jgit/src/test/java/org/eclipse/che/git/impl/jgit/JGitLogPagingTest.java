@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import org.eclipse.che.api.git.GitException;
+import org.eclipse.che.api.git.LogPage;
+import org.eclipse.che.api.git.shared.LogRequest;
+import org.eclipse.che.api.git.shared.Revision;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Tests paging of log with cursor in {@link JGitConnection}.
+ */
+public class JGitLogPagingTest {
+    private File           workDir;
+    private Git            git;
+    private JGitConnection connection;
+    private long           time;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("log").toFile();
+        git = Git.init().setDirectory(workDir).call();
+        final JGitRepositoryCache repositoryCache = new JGitRepositoryCache();
+        final Repository repository = repositoryCache.acquire(workDir);
+        connection = new JGitConnection(repository, null, null, null, repositoryCache, new ChangedPathsIndex(), new JGitStatusCache());
+        time = 1_000_000_000L;
+
+        // master: 1 - 2 ----- 5 - merge - 7
+        //              \         /
+        // side:          3 --- 4
+        commit("a.txt", "1");
+        commit("b.txt", "2");
+        git.checkout().setCreateBranch(true).setName("side").call();
+        commit("a.txt", "3");
+        commit("dir/c.txt", "4");
+        git.checkout().setName("master").call();
+        commit("b.txt", "5");
+        git.merge().include(git.getRepository().resolve("side")).setCommit(false).call();
+        commit(null, "merge");
+        commit("dir/d.txt", "7");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        connection.close();
+        git.close();
+        IoUtil.deleteRecursive(workDir);
+    }
+
+    @DataProvider(name = "filters")
+    public Object[][] filters() {
+        return new Object[][] {
+                {Collections.emptyList()},
+                {Collections.singletonList("a.txt")},
+                {Collections.singletonList("b.txt")},
+                {Collections.singletonList("dir/")}
+        };
+    }
+
+    @Test(dataProvider = "filters")
+    public void shouldReturnTheSameCommitsPageByPageAsWholeLog(List<String> fileFilter) throws Exception {
+        final List<String> expected = ids(connection.log(newDto(LogRequest.class).withFileFilter(fileFilter)).getCommits());
+
+        for (int pageSize = 1; pageSize <= 3; pageSize++) {
+            final List<String> paged = new ArrayList<>();
+            String cursor = null;
+            do {
+                final LogPage page = connection.log(newDto(LogRequest.class).withFileFilter(fileFilter)
+                                                                            .withMaxCount(pageSize)
+                                                                            .withCursor(cursor));
+                paged.addAll(ids(page.getCommits()));
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            assertEquals(paged, expected, "page size " + pageSize);
+        }
+    }
+
+    @Test
+    public void shouldIgnoreSkipWhenCursorIsSet() throws Exception {
+        final List<String> expected = ids(connection.log(newDto(LogRequest.class).withFileFilter(Collections.emptyList())).getCommits());
+
+        final LogPage first = connection.log(newDto(LogRequest.class).withFileFilter(Collections.emptyList())
+                                                                     .withSkip(1)
+                                                                     .withMaxCount(2));
+        final LogPage second = connection.log(newDto(LogRequest.class).withFileFilter(Collections.emptyList())
+                                                                      .withSkip(1)
+                                                                      .withMaxCount(2)
+                                                                      .withCursor(first.getNextCursor()));
+
+        assertEquals(ids(first.getCommits()), expected.subList(1, 3));
+        assertEquals(ids(second.getCommits()), expected.subList(3, 5));
+    }
+
+    @Test
+    public void shouldNotReturnCursorWhenLogIsNotLimited() throws Exception {
+        final LogPage page = connection.log(newDto(LogRequest.class).withFileFilter(Collections.emptyList()));
+
+        assertEquals(page.getCommits().size(), 7);
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void shouldFilterCommitsByDirectory() throws Exception {
+        final List<Revision> commits = connection.log(newDto(LogRequest.class).withFileFilter(Collections.singletonList("dir")))
+                                                 .getCommits();
+
+        assertEquals(messages(commits), asList("7", "4"));
+    }
+
+    @Test(expectedExceptions = GitException.class)
+    public void shouldFailWhenCursorIsInvalid() throws Exception {
+        connection.log(newDto(LogRequest.class).withFileFilter(Collections.emptyList()).withCursor("master"));
+    }
+
+    private void commit(String path, String message) throws Exception {
+        if (path != null) {
+            final File file = new File(workDir, path);
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), message.getBytes(UTF_8));
+            git.add().addFilepattern(path).call();
+        }
+        // commits must have distinct time to be ordered the same way in all the walks
+        final PersonIdent ident = new PersonIdent("user", "user@example.com", new Date(time++ * 1000), TimeZone.getTimeZone("UTC"));
+        git.commit().setMessage(message).setAuthor(ident).setCommitter(ident).call();
+    }
+
+    private static List<String> ids(List<Revision> commits) {
+        final List<String> ids = new ArrayList<>();
+        for (Revision commit : commits) {
+            ids.add(commit.getId());
+        }
+        return ids;
+    }
+
+    private static List<String> messages(List<Revision> commits) {
+        final List<String> messages = new ArrayList<>();
+        for (Revision commit : commits) {
+            messages.add(commit.getMessage());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Tests {@link JGitRepositoryCache}.
+ */
+public class JGitRepositoryCacheTest {
+    private File                root;
+    private File                workDir;
+    private JGitRepositoryCache cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("repositories").toFile();
+        workDir = initRepository("project");
+        cache = new JGitRepositoryCache(2, 600);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        cache.clear();
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void shouldShareRepositoryOfTheSameWorkingDirectory() throws Exception {
+        final Repository first = cache.acquire(workDir);
+        final Repository second = cache.acquire(new File(workDir, "../project"));
+
+        assertSame(second, first);
+        assertEquals(cache.size(), 1);
+        cache.release(first);
+        cache.release(second);
+        assertSame(cache.acquire(workDir), first);
+    }
+
+    @Test
+    public void shouldNotCacheRepositoryWhichDoesNotExist() throws Exception {
+        final File newDir = new File(root, "new");
+
+        final Repository repository = cache.acquire(newDir);
+        repository.create();
+        cache.release(repository);
+
+        assertEquals(cache.size(), 0);
+        assertNotSame(cache.acquire(newDir), repository);
+        assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void shouldReopenRepositoryWhenConfigIsChanged() throws Exception {
+        final Repository first = cache.acquire(workDir);
+        cache.release(first);
+        try (Git git = Git.open(workDir)) {
+            final StoredConfig config = git.getRepository().getConfig();
+            config.setString("remote", "origin", "url", "https://example.com/project.git");
+            config.save();
+        }
+
+        final Repository second = cache.acquire(workDir);
+
+        assertNotSame(second, first);
+        assertEquals(second.getConfig().getString("remote", "origin", "url"), "https://example.com/project.git");
+    }
+
+    @Test
+    public void shouldReopenRepositoryWhichIsCreatedAgain() throws Exception {
+        final Repository first = cache.acquire(workDir);
+        cache.release(first);
+        IoUtil.deleteRecursive(workDir);
+        initRepository("project");
+
+        assertNotSame(cache.acquire(workDir), first);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedRepositoriesWhichAreNotUsed() throws Exception {
+        final Repository first = cache.acquire(workDir);
+        cache.release(first);
+        final Repository second = cache.acquire(initRepository("second"));
+        final Repository third = cache.acquire(initRepository("third"));
+
+        assertEquals(cache.size(), 2);
+        assertNotSame(cache.acquire(workDir), first);
+        cache.release(second);
+        cache.release(third);
+    }
+
+    @Test
+    public void shouldNotEvictRepositoriesWhichAreUsed() throws Exception {
+        cache.acquire(workDir);
+        cache.acquire(initRepository("second"));
+        cache.acquire(initRepository("third"));
+
+        assertEquals(cache.size(), 3);
+    }
+
+    @Test
+    public void shouldEvictInvalidatedRepository() throws Exception {
+        final Repository first = cache.acquire(workDir);
+
+        cache.invalidate(workDir);
+        cache.release(first);
+
+        assertEquals(cache.size(), 0);
+        assertNotSame(cache.acquire(workDir), first);
+    }
+
+    private File initRepository(String name) throws Exception {
+        final File dir = new File(root, name);
+        Git.init().setDirectory(dir).call().close();
+        return dir;
+    }
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.jgit.api.Git;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link JGitStatusCache}.
+ */
+public class JGitStatusCacheTest {
+    private File            root;
+    private File            workDir;
+    private Git             git;
+    private JGitStatusCache cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("projects").toFile().getCanonicalFile();
+        workDir = new File(root, "project");
+        git = Git.init().setDirectory(workDir).call();
+        write("a.txt", "a");
+        write("dir/b.txt", "b");
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("init").call();
+        cache = new JGitStatusCache(root, 600);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        git.close();
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void shouldCheckOnlyChangedPaths() throws Exception {
+        assertTrue(cache.getStatus(git.getRepository()).isClean());
+        write("c.txt", "c");
+        write("dir/d.txt", "d");
+
+        cache.fileChanged(new File(workDir, "c.txt"));
+
+        // creation of untracked d.txt is not reported yet
+        assertEquals(cache.getStatus(git.getRepository()).getUntracked(), singletonList("c.txt"));
+        cache.fileChanged(new File(workDir, "dir/d.txt"));
+        assertEquals(cache.getStatus(git.getRepository()).getUntracked(), asList("c.txt", "dir/d.txt"));
+    }
+
+    @Test
+    public void shouldSeeChangesOfTrackedFilesWhichAreNotReported() throws Exception {
+        assertTrue(cache.getStatus(git.getRepository()).isClean());
+        write("a.txt", "changed a");
+        write("dir/b.txt", "changed b");
+
+        cache.fileChanged(new File(workDir, "a.txt"));
+
+        assertEquals(cache.getStatus(git.getRepository()).getModified(), asList("a.txt", "dir/b.txt"));
+        write("dir/b.txt", "b");
+        assertEquals(cache.getStatus(git.getRepository()).getModified(), singletonList("a.txt"));
+    }
+
+    @Test
+    public void shouldUpdateUntrackedFolders() throws Exception {
+        cache.getStatus(git.getRepository());
+        write("new/c.txt", "c");
+        cache.fileChanged(new File(workDir, "new"));
+        cache.fileChanged(new File(workDir, "new/c.txt"));
+
+        JGitStatusCache.WorkingTreeStatus status = cache.getStatus(git.getRepository());
+        assertEquals(status.getUntrackedFolders(), singletonList("new"));
+        assertEquals(status.getUntracked(), singletonList("new/c.txt"));
+
+        Files.delete(new File(workDir, "new/c.txt").toPath());
+        cache.fileChanged(new File(workDir, "new/c.txt"));
+
+        // empty folder is still reported as untracked folder, the same way as whole status does it
+        status = cache.getStatus(git.getRepository());
+        assertEquals(status.getUntrackedFolders(), singletonList("new"));
+        assertTrue(status.getUntracked().isEmpty());
+    }
+
+    @Test
+    public void shouldReportMissingFile() throws Exception {
+        cache.getStatus(git.getRepository());
+        Files.delete(new File(workDir, "dir/b.txt").toPath());
+        cache.fileChanged(new File(workDir, "dir/b.txt"));
+
+        assertEquals(cache.getStatus(git.getRepository()).getMissing(), singletonList("dir/b.txt"));
+    }
+
+    @Test
+    public void shouldComputeWholeStatusWhenIndexIsChanged() throws Exception {
+        cache.getStatus(git.getRepository());
+        write("a.txt", "changed a");
+        write("c.txt", "c");
+        git.add().addFilepattern("c.txt").call();
+
+        final JGitStatusCache.WorkingTreeStatus status = cache.getStatus(git.getRepository());
+
+        assertEquals(status.getAdded(), singletonList("c.txt"));
+        assertEquals(status.getModified(), singletonList("a.txt"));
+    }
+
+    @Test
+    public void shouldComputeWholeStatusWhenGitIgnoreIsChanged() throws Exception {
+        write("build/out.txt", "out");
+        assertEquals(cache.getStatus(git.getRepository()).getUntracked(), singletonList("build/out.txt"));
+        write(".gitignore", "build/\n");
+        write("a.txt", "changed a");
+
+        cache.fileChanged(new File(workDir, ".gitignore"));
+
+        final JGitStatusCache.WorkingTreeStatus status = cache.getStatus(git.getRepository());
+        assertEquals(status.getUntracked(), singletonList(".gitignore"));
+        assertEquals(status.getModified(), singletonList("a.txt"));
+    }
+
+    @Test
+    public void shouldMarkFileAsChangedWhenItsPathIsNotCanonical() throws Exception {
+        cache.getStatus(git.getRepository());
+        write("a.txt", "changed a");
+
+        cache.fileChanged(new File(workDir, "dir/../a.txt"));
+
+        assertEquals(cache.getStatus(git.getRepository()).getModified(), singletonList("a.txt"));
+    }
+
+    @Test
+    public void shouldEvictStatusOfRemovedWorkTree() throws Exception {
+        cache.getStatus(git.getRepository());
+        assertEquals(cache.getCachedWorkTrees(), singleton(workDir));
+
+        IoUtil.deleteRecursive(workDir);
+        cache.fileChanged(workDir);
+
+        assertTrue(cache.getCachedWorkTrees().isEmpty());
+    }
+
+    @Test
+    public void shouldNotCacheStatusOfRepositoryOutsideOfWatchedRoot() throws Exception {
+        cache = new JGitStatusCache(new File(root, "other"), 600);
+        assertTrue(cache.getStatus(git.getRepository()).isClean());
+
+        write("a.txt", "changed a");
+
+        assertFalse(cache.getStatus(git.getRepository()).isClean());
+    }
+
+    private void write(String path, String content) throws Exception {
+        final File file = new File(workDir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(UTF_8));
+    }
+}
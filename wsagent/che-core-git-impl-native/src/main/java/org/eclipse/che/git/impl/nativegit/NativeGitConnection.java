@@ -414,7 +414,12 @@ public class NativeGitConnection implements GitConnection {
     @Override
     public LogPage log(LogRequest request) throws GitException {
         try {
-            return new LogPage(nativeGit.createLogCommand().setFileFilter(request.getFileFilter()).execute());
+            // paging with cursor is not supported, the next page is requested with skip
+            return new LogPage(nativeGit.createLogCommand()
+                                        .setFileFilter(request.getFileFilter())
+                                        .setCount(request.getMaxCount())
+                                        .setSkip(request.getSkip())
+                                        .execute());
         } catch (ServerException exception) {
             if (noInitCommitWhenLogErrorPattern.matcher(exception.getMessage()).find()) {
                 throw new GitException(exception.getMessage(), ErrorCodes.INIT_COMMIT_WAS_NOT_PERFORMED);
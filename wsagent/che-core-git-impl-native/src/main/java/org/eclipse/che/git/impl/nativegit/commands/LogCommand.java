@@ -27,6 +27,7 @@ import java.util.List;
 public class LogCommand extends GitCommand<List<Revision>> {
 
     private int          count;
+    private int          skip;
     private String       branch;
     private List<String> fileFilter;
 
@@ -47,6 +48,9 @@ public class LogCommand extends GitCommand<List<Revision>> {
         if (count > 0) {
             commandLine.add("-" + count);
         }
+        if (skip > 0) {
+            commandLine.add("--skip=" + skip);
+        }
         commandLine.add(fileFilter);
         start();
         List<Revision> list = new LinkedList<>();
@@ -80,6 +84,16 @@ public class LogCommand extends GitCommand<List<Revision>> {
         return this;
     }
 
+    /**
+     * @param skip
+     *         number of log objects to skip
+     * @return LogCommand with established number of log objects to skip
+     */
+    public LogCommand setSkip(int skip) {
+        this.skip = skip;
+        return this;
+    }
+
     /**
      * @param branch
      *         branch
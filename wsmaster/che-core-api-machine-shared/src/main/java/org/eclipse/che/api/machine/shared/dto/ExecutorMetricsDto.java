@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.Map;
+
+/**
+ * Describes state of the pool which executes machine operations of one kind, e.g. starts or processes.
+ *
+ * <p>Histograms map upper bound of the bucket in milliseconds to the number of tasks which took more time
+ * than the upper bound of the previous bucket and not more than the upper bound of this bucket.
+ * The last bucket is named {@code inf}.
+ */
+@DTO
+public interface ExecutorMetricsDto {
+    /** Name of operations executed by the pool. */
+    String getName();
+
+    void setName(String name);
+
+    ExecutorMetricsDto withName(String name);
+
+    /** Max number of operations executed at the same time, 0 if the number is not limited. */
+    int getMaxThreads();
+
+    void setMaxThreads(int maxThreads);
+
+    ExecutorMetricsDto withMaxThreads(int maxThreads);
+
+    /** Number of operations which are executed now. */
+    int getActiveThreads();
+
+    void setActiveThreads(int activeThreads);
+
+    ExecutorMetricsDto withActiveThreads(int activeThreads);
+
+    /** Max number of operations which wait for a free thread. */
+    int getQueueCapacity();
+
+    void setQueueCapacity(int queueCapacity);
+
+    ExecutorMetricsDto withQueueCapacity(int queueCapacity);
+
+    /** Number of operations which wait for a free thread now. */
+    int getQueuedTasks();
+
+    void setQueuedTasks(int queuedTasks);
+
+    ExecutorMetricsDto withQueuedTasks(int queuedTasks);
+
+    long getCompletedTasks();
+
+    void setCompletedTasks(long completedTasks);
+
+    ExecutorMetricsDto withCompletedTasks(long completedTasks);
+
+    /** Number of operations which were rejected because both threads and queue were busy. */
+    long getRejectedTasks();
+
+    void setRejectedTasks(long rejectedTasks);
+
+    ExecutorMetricsDto withRejectedTasks(long rejectedTasks);
+
+    /** Histogram of the time operations waited in the queue. */
+    Map<String, Long> getQueueTimeHistogram();
+
+    void setQueueTimeHistogram(Map<String, Long> queueTimeHistogram);
+
+    ExecutorMetricsDto withQueueTimeHistogram(Map<String, Long> queueTimeHistogram);
+
+    /** Histogram of the time operations were executed. */
+    Map<String, Long> getRunTimeHistogram();
+
+    void setRunTimeHistogram(Map<String, Long> runTimeHistogram);
+
+    ExecutorMetricsDto withRunTimeHistogram(Map<String, Long> runTimeHistogram);
+}
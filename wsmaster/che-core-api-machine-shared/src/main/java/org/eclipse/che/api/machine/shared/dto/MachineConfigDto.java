@@ -81,6 +81,14 @@ public interface MachineConfigDto extends MachineConfig, Hyperlinks {
 
     MachineConfigDto withEnvVariables(Map<String, String> envVariables);
 
+    @Override
+    @FactoryParameter(obligation = OPTIONAL)
+    List<String> getDependsOn();
+
+    void setDependsOn(List<String> dependsOn);
+
+    MachineConfigDto withDependsOn(List<String> dependsOn);
+
     @Override
     MachineConfigDto withLinks(List<Link> links);
 }
@@ -54,7 +54,8 @@ public final class DtoConverter {
                                                                 .stream()
                                                                 .map(DtoConverter::asDto)
                                                                 .collect(Collectors.toList()))
-                                             .withEnvVariables(config.getEnvVariables());
+                                             .withEnvVariables(config.getEnvVariables())
+                                             .withDependsOn(config.getDependsOn());
     }
 
     /**
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server;
+
+import org.eclipse.che.api.machine.server.util.InstrumentedExecutor;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Separate pools for asynchronous operations of {@link MachineManager}, so a storm of operations
+ * of one kind doesn't delay operations of the other kinds and doesn't create unbounded number of threads.
+ *
+ * <p>Launches of processes are admitted by the bounded exec pool. Process keeps its thread while it is running,
+ * so running processes are moved to the process pool which doesn't limit number of threads, otherwise
+ * long-running processes would make the other processes fail.
+ */
+@Singleton
+public class MachineExecutors {
+    private final InstrumentedExecutor startExecutor;
+    private final InstrumentedExecutor execExecutor;
+    private final InstrumentedExecutor processExecutor;
+    private final InstrumentedExecutor saveExecutor;
+    private final InstrumentedExecutor destroyExecutor;
+
+    @Inject
+    public MachineExecutors(@Named("machine.executor.start.max_threads") int startThreads,
+                            @Named("machine.executor.start.queue_size") int startQueueSize,
+                            @Named("machine.executor.exec.max_threads") int execThreads,
+                            @Named("machine.executor.exec.queue_size") int execQueueSize,
+                            @Named("machine.executor.save.max_threads") int saveThreads,
+                            @Named("machine.executor.save.queue_size") int saveQueueSize,
+                            @Named("machine.executor.destroy.max_threads") int destroyThreads,
+                            @Named("machine.executor.destroy.queue_size") int destroyQueueSize) {
+        this.startExecutor = new InstrumentedExecutor("start", startThreads, startQueueSize);
+        this.execExecutor = new InstrumentedExecutor("exec", execThreads, execQueueSize);
+        this.processExecutor = new InstrumentedExecutor("process", 0, 0);
+        this.saveExecutor = new InstrumentedExecutor("save", saveThreads, saveQueueSize);
+        this.destroyExecutor = new InstrumentedExecutor("destroy", destroyThreads, destroyQueueSize);
+    }
+
+    /** Creates pools with the default configuration. */
+    public MachineExecutors() {
+        this(20, 200, 10, 200, 5, 100, 10, 500);
+    }
+
+    /** Returns pool which starts machines. */
+    public InstrumentedExecutor getStartExecutor() {
+        return startExecutor;
+    }
+
+    /** Returns pool which launches processes of machines. */
+    public InstrumentedExecutor getExecExecutor() {
+        return execExecutor;
+    }
+
+    /** Returns pool which follows processes of machines while they are running, number of its threads is not limited. */
+    public InstrumentedExecutor getProcessExecutor() {
+        return processExecutor;
+    }
+
+    /** Returns pool which saves machines to snapshots. */
+    public InstrumentedExecutor getSaveExecutor() {
+        return saveExecutor;
+    }
+
+    /** Returns pool which destroys machines. */
+    public InstrumentedExecutor getDestroyExecutor() {
+        return destroyExecutor;
+    }
+
+    /** Returns all the pools. */
+    public List<InstrumentedExecutor> getAll() {
+        return asList(startExecutor, execExecutor, processExecutor, saveExecutor, destroyExecutor);
+    }
+}
@@ -26,7 +26,6 @@ import org.eclipse.che.api.core.model.machine.MachineStatus;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.util.CompositeLineConsumer;
-import org.eclipse.che.api.core.util.FileLineConsumer;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.WebsocketLineConsumer;
 import org.eclipse.che.api.machine.server.dao.SnapshotDao;
@@ -36,6 +35,8 @@ import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.exception.SnapshotException;
 import org.eclipse.che.api.machine.server.exception.SourceNotFoundException;
 import org.eclipse.che.api.machine.server.exception.UnsupportedRecipeException;
+import org.eclipse.che.api.machine.server.log.SegmentedLog;
+import org.eclipse.che.api.machine.server.log.SegmentedLogWriter;
 import org.eclipse.che.api.machine.server.model.impl.LimitsImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
@@ -44,7 +45,9 @@ import org.eclipse.che.api.machine.server.model.impl.SnapshotImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
 import org.eclipse.che.api.machine.server.spi.InstanceProcess;
 import org.eclipse.che.api.machine.server.spi.InstanceProvider;
+import org.eclipse.che.api.machine.server.util.InstrumentedExecutor;
 import org.eclipse.che.api.machine.server.wsagent.WsAgentLauncher;
+import org.eclipse.che.api.machine.shared.dto.ExecutorMetricsDto;
 import org.eclipse.che.api.machine.shared.dto.event.MachineProcessEvent;
 import org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent;
 import org.eclipse.che.commons.annotation.Nullable;
@@ -64,12 +67,11 @@ import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -102,7 +104,7 @@ public class MachineManager {
     private final WsAgentLauncher          wsAgentLauncher;
 
     @VisibleForTesting
-    final ExecutorService executor;
+    final MachineExecutors executors;
 
     @Inject
     public MachineManager(SnapshotDao snapshotDao,
@@ -111,7 +113,8 @@ public class MachineManager {
                           @Named("machine.logs.location") String machineLogsDir,
                           EventService eventService,
                           @Named("machine.default_mem_size_mb") int defaultMachineMemorySizeMB,
-                          WsAgentLauncher wsAgentLauncher) {
+                          WsAgentLauncher wsAgentLauncher,
+                          MachineExecutors executors) {
         this.snapshotDao = snapshotDao;
         this.machineInstanceProviders = machineInstanceProviders;
         this.eventService = eventService;
@@ -120,9 +123,7 @@ public class MachineManager {
         this.machineRegistry = machineRegistry;
         this.defaultMachineMemorySizeMB = defaultMachineMemorySizeMB;
 
-        executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("MachineManager-%d")
-                                                                           .setDaemon(false)
-                                                                           .build());
+        this.executors = executors;
         this.machineCleaner = new MachineCleaner();
     }
 
@@ -256,8 +257,9 @@ public class MachineManager {
         return createMachine(normalizeMachineConfig(machineConfig),
                              workspaceId,
                              environmentName,
-                             (instanceProvider, machine, machineLogger) ->
-                                     executor.execute(ThreadLocalPropagateContext.wrap(() -> {
+                             (instanceProvider, machine, machineLogger) -> {
+                                 try {
+                                     executors.getStartExecutor().execute(ThreadLocalPropagateContext.wrap(() -> {
                                          try {
                                              createInstance(instanceProvider,
                                                             machine,
@@ -268,7 +270,17 @@ public class MachineManager {
                                              }
                                              // todo what should we do in that case?
                                          }
-                                     })),
+                                     }));
+                                 } catch (RejectedExecutionException e) {
+                                     try {
+                                         machineRegistry.remove(machine.getId());
+                                         machineLogger.close();
+                                     } catch (IOException | NotFoundException e1) {
+                                         LOG.error(e1.getLocalizedMessage());
+                                     }
+                                     throw new MachineException("Too many machines are being started at the moment, try again later");
+                                 }
+                             },
                              null);
     }
 
@@ -302,8 +314,8 @@ public class MachineManager {
             throw new BadRequestException("Invalid machine name " + machineConfig.getName());
         }
 
-        for (MachineImpl machine : machineRegistry.getMachines()) {
-            if (machine.getWorkspaceId().equals(workspaceId) && machine.getConfig().getName().equals(machineConfig.getName())) {
+        for (MachineImpl machine : machineRegistry.getMachines(workspaceId)) {
+            if (machine.getConfig().getName().equals(machineConfig.getName())) {
                 throw new ConflictException("Machine with name " + machineConfig.getName() + " already exists");
             }
         }
@@ -457,10 +469,7 @@ public class MachineManager {
      * @return list of machines or empty list
      */
     public List<MachineImpl> getMachines(String workspaceId) throws MachineException, BadRequestException {
-        return machineRegistry.getMachines()
-                              .stream()
-                              .filter(machine -> machine.getWorkspaceId().equals(workspaceId))
-                              .collect(Collectors.toList());
+        return new ArrayList<>(machineRegistry.getMachines(workspaceId));
     }
 
     /**
@@ -470,6 +479,16 @@ public class MachineManager {
         return new ArrayList<>(machineRegistry.getMachines());
     }
 
+    /**
+     * Returns metrics of the pools which execute asynchronous operations with machines
+     */
+    public List<ExecutorMetricsDto> getExecutorsMetrics() {
+        return executors.getAll()
+                        .stream()
+                        .map(InstrumentedExecutor::getMetrics)
+                        .collect(Collectors.toList());
+    }
+
     /**
      * Returns {@link MachineImpl} of dev machine of workspace
      */
@@ -506,13 +525,17 @@ public class MachineManager {
                                                   .setMachineName(machine.getConfig().getName())
                                                   .useCurrentCreationDate()
                                                   .build();
-        executor.execute(ThreadLocalPropagateContext.wrap(() -> {
-            try {
-                doSaveMachine(snapshot, machine);
-            } catch (Exception ignored) {
-                // exception is already logged in #doSaveMachine
-            }
-        }));
+        try {
+            executors.getSaveExecutor().execute(ThreadLocalPropagateContext.wrap(() -> {
+                try {
+                    doSaveMachine(snapshot, machine);
+                } catch (Exception ignored) {
+                    // exception is already logged in #doSaveMachine
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            throw new MachineException("Too many snapshots are being saved at the moment, try again later");
+        }
         return snapshot;
     }
 
@@ -651,40 +674,69 @@ public class MachineManager {
 
         final LineConsumer processLogger = getProcessLogger(machineId, pid, outputChannel);
 
-        executor.execute(ThreadLocalPropagateContext.wrap(() -> {
-            try {
+        try {
+            executors.getExecExecutor().execute(ThreadLocalPropagateContext.wrap(() -> {
                 eventService.publish(newDto(MachineProcessEvent.class)
                                              .withEventType(MachineProcessEvent.EventType.STARTED)
                                              .withMachineId(machineId)
                                              .withProcessId(pid));
-
-                instanceProcess.start(processLogger);
-
-                eventService.publish(newDto(MachineProcessEvent.class)
-                                             .withEventType(MachineProcessEvent.EventType.STOPPED)
-                                             .withMachineId(machineId)
-                                             .withProcessId(pid));
-            } catch (ConflictException | MachineException error) {
-                eventService.publish(newDto(MachineProcessEvent.class)
-                                             .withEventType(MachineProcessEvent.EventType.ERROR)
-                                             .withMachineId(machineId)
-                                             .withProcessId(pid)
-                                             .withError(error.getLocalizedMessage()));
-
-                try {
-                    processLogger.writeLine(String.format("[ERROR] %s", error.getMessage()));
-                } catch (IOException ignored) {
-                }
-            } finally {
                 try {
-                    processLogger.close();
-                } catch (IOException ignored) {
+                    // process keeps the thread while it is running, so it doesn't occupy the bounded exec pool
+                    executors.getProcessExecutor().execute(ThreadLocalPropagateContext.wrap(
+                            () -> runProcess(machineId, instanceProcess, processLogger)));
+                } catch (RejectedExecutionException e) {
+                    // process pool is not limited, so it is shut down
+                    publishProcessError(machineId, pid, processLogger, "Machine manager is stopped");
                 }
-            }
-        }));
+            }));
+        } catch (RejectedExecutionException e) {
+            publishProcessError(machineId, pid, processLogger, "Too many processes are launched at the moment, try again later");
+            throw new MachineException("Too many processes are launched at the moment, try again later");
+        }
         return instanceProcess;
     }
 
+    private void runProcess(String machineId, InstanceProcess instanceProcess, LineConsumer processLogger) {
+        final int pid = instanceProcess.getPid();
+        try {
+            instanceProcess.start(processLogger);
+
+            eventService.publish(newDto(MachineProcessEvent.class)
+                                         .withEventType(MachineProcessEvent.EventType.STOPPED)
+                                         .withMachineId(machineId)
+                                         .withProcessId(pid));
+        } catch (ConflictException | MachineException error) {
+            eventService.publish(newDto(MachineProcessEvent.class)
+                                         .withEventType(MachineProcessEvent.EventType.ERROR)
+                                         .withMachineId(machineId)
+                                         .withProcessId(pid)
+                                         .withError(error.getLocalizedMessage()));
+
+            try {
+                processLogger.writeLine(String.format("[ERROR] %s", error.getMessage()));
+            } catch (IOException ignored) {
+            }
+        } finally {
+            try {
+                processLogger.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void publishProcessError(String machineId, int pid, LineConsumer processLogger, String error) {
+        try {
+            processLogger.writeLine("[ERROR] " + error);
+            processLogger.close();
+        } catch (IOException ignored) {
+        }
+        eventService.publish(newDto(MachineProcessEvent.class)
+                                     .withEventType(MachineProcessEvent.EventType.ERROR)
+                                     .withMachineId(machineId)
+                                     .withProcessId(pid)
+                                     .withError(error));
+    }
+
     /**
      * Get list of active processes from specific machine
      *
@@ -743,7 +795,7 @@ public class MachineManager {
     public void destroy(final String machineId, boolean async) throws NotFoundException, MachineException {
         final Instance machine = getInstance(machineId);
 
-        machine.setStatus(MachineStatus.DESTROYING);
+        machineRegistry.setStatus(machineId, MachineStatus.DESTROYING);
 
         eventService.publish(newDto(MachineStatusEvent.class)
                                      .withEventType(MachineStatusEvent.EventType.DESTROYING)
@@ -753,13 +805,19 @@ public class MachineManager {
                                      .withMachineName(machine.getConfig().getName()));
 
         if (async) {
-            executor.execute(ThreadLocalPropagateContext.wrap(() -> {
-                try {
-                    doDestroy(machine);
-                } catch (NotFoundException | MachineException e) {
-                    LOG.error(e.getLocalizedMessage(), e);
-                }
-            }));
+            try {
+                executors.getDestroyExecutor().execute(ThreadLocalPropagateContext.wrap(() -> {
+                    try {
+                        doDestroy(machine);
+                    } catch (NotFoundException | MachineException e) {
+                        LOG.error(e.getLocalizedMessage(), e);
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                // machine is already marked as destroying, so it must not be left alive
+                LOG.warn("Destroy pool is full, machine '{}' is destroyed in the caller thread", machineId);
+                doDestroy(machine);
+            }
         } else {
             doDestroy(machine);
         }
@@ -777,15 +835,27 @@ public class MachineManager {
      *         if other error occur
      */
     public Reader getMachineLogReader(String machineId) throws NotFoundException, MachineException {
-        final File machineLogsFile = getMachineLogsFile(machineId);
-        if (machineLogsFile.isFile()) {
-            try {
-                return Files.newBufferedReader(machineLogsFile.toPath(), Charset.defaultCharset());
-            } catch (IOException e) {
-                throw new MachineException(String.format("Unable read log file for machine '%s'. %s", machineId, e.getMessage()));
-            }
+        try {
+            return getMachineLog(machineId).openReader();
+        } catch (IOException e) {
+            throw new MachineException(String.format("Unable read log file for machine '%s'. %s", machineId, e.getMessage()));
         }
-        throw new NotFoundException(String.format("Logs for machine '%s' are not available", machineId));
+    }
+
+    /**
+     * Gets log of machine by specified id, the log supports reading of its tail and ranges of lines.
+     *
+     * @param machineId
+     *         machine id whose log will be returned
+     * @throws NotFoundException
+     *         if logs of machine with specified id are not available
+     */
+    public SegmentedLog getMachineLog(String machineId) throws NotFoundException {
+        final SegmentedLog log = new SegmentedLog(getMachineLogsDir(machineId));
+        if (!log.exists()) {
+            throw new NotFoundException(String.format("Logs for machine '%s' are not available", machineId));
+        }
+        return log;
     }
 
     /**
@@ -802,16 +872,30 @@ public class MachineManager {
      *         if other error occur
      */
     public Reader getProcessLogReader(String machineId, int pid) throws NotFoundException, MachineException {
-        final File processLogsFile = getProcessLogsFile(machineId, pid);
-        if (processLogsFile.isFile()) {
-            try {
-                return Files.newBufferedReader(processLogsFile.toPath(), Charset.defaultCharset());
-            } catch (IOException e) {
-                throw new MachineException(
-                        String.format("Unable read log file for process '%s' of machine '%s'. %s", pid, machineId, e.getMessage()));
-            }
+        try {
+            return getProcessLog(machineId, pid).openReader();
+        } catch (IOException e) {
+            throw new MachineException(
+                    String.format("Unable read log file for process '%s' of machine '%s'. %s", pid, machineId, e.getMessage()));
+        }
+    }
+
+    /**
+     * Gets log of process of machine, the log supports reading of its tail and ranges of lines.
+     *
+     * @param machineId
+     *         machine id whose process log will be returned
+     * @param pid
+     *         process id
+     * @throws NotFoundException
+     *         if logs of process are not available
+     */
+    public SegmentedLog getProcessLog(String machineId, int pid) throws NotFoundException {
+        final SegmentedLog log = new SegmentedLog(getProcessLogsDir(machineId, pid));
+        if (!log.exists()) {
+            throw new NotFoundException(String.format("Logs for process '%s' of machine '%s' are not available", pid, machineId));
         }
-        throw new NotFoundException(String.format("Logs for process '%s' of machine '%s' are not available", pid, machineId));
+        return log;
     }
 
     private SnapshotImpl doSaveMachine(SnapshotImpl snapshot, Instance machine) throws SnapshotException, MachineException {
@@ -900,25 +984,25 @@ public class MachineManager {
         }
     }
 
-    private FileLineConsumer getMachineFileLogger(String machineId) throws MachineException {
+    private SegmentedLogWriter getMachineFileLogger(String machineId) throws MachineException {
         try {
-            return new FileLineConsumer(getMachineLogsFile(machineId));
+            return new SegmentedLogWriter(getMachineLogsDir(machineId));
         } catch (IOException e) {
             throw new MachineException(String.format("Unable create log file for machine '%s'. %s", machineId, e.getMessage()));
         }
     }
 
-    private File getMachineLogsFile(String machineId) {
+    private File getMachineLogsDir(String machineId) {
         return new File(new File(machineLogsDir, machineId), "machineId.logs");
     }
 
-    private File getProcessLogsFile(String machineId, int pid) {
+    private File getProcessLogsDir(String machineId, int pid) {
         return new File(new File(machineLogsDir, machineId), Integer.toString(pid));
     }
 
-    private FileLineConsumer getProcessFileLogger(String machineId, int pid) throws MachineException {
+    private SegmentedLogWriter getProcessFileLogger(String machineId, int pid) throws MachineException {
         try {
-            return new FileLineConsumer(getProcessLogsFile(machineId, pid));
+            return new SegmentedLogWriter(getProcessLogsDir(machineId, pid));
         } catch (IOException e) {
             throw new MachineException(
                     String.format("Unable create log file for process '%s' of machine '%s'. %s", pid, machineId, e.getMessage()));
@@ -1023,7 +1107,9 @@ public class MachineManager {
 
         boolean interrupted = false;
 
-        executor.shutdown();
+        for (InstrumentedExecutor executor : executors.getAll()) {
+            executor.shutdown();
+        }
 
         final ExecutorService destroyMachinesExecutor =
                 Executors.newFixedThreadPool(2 * Runtime.getRuntime().availableProcessors(),
@@ -1056,16 +1142,18 @@ public class MachineManager {
             LOG.error(e.getLocalizedMessage(), e);
         }
 
-        try {
-            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
+        for (InstrumentedExecutor executor : executors.getAll()) {
+            try {
                 if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
-                    LOG.warn("Unable terminate main pool");
+                    executor.shutdownNow();
+                    if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                        LOG.warn("Unable terminate {} pool", executor.getName());
+                    }
                 }
+            } catch (InterruptedException e) {
+                interrupted = true;
+                executor.shutdownNow();
             }
-        } catch (InterruptedException e) {
-            interrupted = true;
-            executor.shutdownNow();
         }
 
         final java.io.File[] files = machineLogsDir.listFiles();
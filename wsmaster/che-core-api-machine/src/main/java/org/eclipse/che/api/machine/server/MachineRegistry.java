@@ -12,46 +12,96 @@ package org.eclipse.che.api.machine.server;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.model.machine.MachineStatus;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
 
 import javax.inject.Singleton;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Holds active machines
+ * Holds active machines.
+ *
+ * <p>Machines are kept in a concurrent map of immutable entries indexed by workspace id, status and
+ * dev machine of workspace, so lookups don't scan all the machines. Readers never block, modifications
+ * are serialized to keep indexes consistent with each other. Entry of machine is replaced in place when
+ * machine starts or changes its status, so readers always find machine which is in the registry and the
+ * lists returned by the registry contain each machine at most once.
  *
  * @author Alexander Garagatyi
  */
 @Singleton
 public class MachineRegistry {
-    // TODO add locks per workspace or machine
-    private final HashMap<String, Instance>    instances;
-    private final HashMap<String, MachineImpl> machines;
+    private final ConcurrentHashMap<String, Entry>       entries;
+    /** Ids of machines by workspace id. */
+    private final ConcurrentHashMap<String, Set<String>> workspaceMachines;
+    /** Id of running dev machine by workspace id. */
+    private final ConcurrentHashMap<String, String>      devMachines;
+    private final Map<MachineStatus, Set<String>>        statusMachines;
+    private final Object                                 writeLock;
 
     public MachineRegistry() {
-        instances = new HashMap<>();
-        machines = new HashMap<>();
+        entries = new ConcurrentHashMap<>();
+        workspaceMachines = new ConcurrentHashMap<>();
+        devMachines = new ConcurrentHashMap<>();
+        statusMachines = new EnumMap<>(MachineStatus.class);
+        for (MachineStatus status : MachineStatus.values()) {
+            statusMachines.put(status, ConcurrentHashMap.newKeySet());
+        }
+        writeLock = new Object();
     }
 
-    //TODO return unmodifiable lists
-
     /**
      * Get all active machines
      *
      * @throws MachineException
      *         if any error occurs
      */
-    public synchronized List<MachineImpl> getMachines() throws MachineException {
-        final List<MachineImpl> list = new ArrayList<>(machines.size() + instances.size());
-        list.addAll(machines.values());
-        list.addAll(instances.values().stream().map(this::toMachine).collect(Collectors.toList()));
-        return Collections.unmodifiableList(list);
+    public List<MachineImpl> getMachines() throws MachineException {
+        return toMachines(entries.keySet());
+    }
+
+    /**
+     * Get active machines of specific workspace
+     *
+     * @param workspaceId
+     *         id of workspace
+     * @return list of machines or empty list
+     * @throws MachineException
+     *         if any error occurs
+     */
+    public List<MachineImpl> getMachines(String workspaceId) throws MachineException {
+        final Set<String> ids = workspaceMachines.get(workspaceId);
+        return ids == null ? Collections.emptyList() : toMachines(ids);
+    }
+
+    /**
+     * Get active machines in specific status
+     *
+     * @param status
+     *         status of machines
+     * @return list of machines or empty list
+     * @throws MachineException
+     *         if any error occurs
+     */
+    public List<MachineImpl> getMachines(MachineStatus status) throws MachineException {
+        final List<MachineImpl> result = new ArrayList<>();
+        for (String id : statusMachines.get(status)) {
+            final Entry entry = entries.get(id);
+            // entry may be modified after its id is read from the index
+            if (entry != null && entry.status == status) {
+                result.add(entry.toMachine());
+            }
+        }
+        return Collections.unmodifiableList(result);
     }
 
     /**
@@ -64,17 +114,8 @@ public class MachineRegistry {
      * @throws MachineException
      *         if other error occurs
      */
-    public synchronized MachineImpl getMachine(String machineId) throws NotFoundException, MachineException {
-        MachineImpl machine = machines.get(machineId);
-        if (machine == null) {
-            final Instance instance = instances.get(machineId);
-            if (instance == null) {
-                throw new NotFoundException("Machine " + machineId + " is not found");
-            }
-            machine = toMachine(instance);
-        }
-
-        return machine;
+    public MachineImpl getMachine(String machineId) throws NotFoundException, MachineException {
+        return getEntry(machineId).toMachine();
     }
 
     /**
@@ -83,8 +124,8 @@ public class MachineRegistry {
      * @param machineId
      *         unique machine identifier
      */
-    public synchronized boolean isExist(String machineId) {
-        return machines.containsKey(machineId) || instances.containsKey(machineId);
+    public boolean isExist(String machineId) {
+        return entries.containsKey(machineId);
     }
 
     /**
@@ -97,14 +138,13 @@ public class MachineRegistry {
      * @throws MachineException
      *         if other error occurs
      */
-    public synchronized MachineImpl getDevMachine(String workspaceId) throws NotFoundException, MachineException {
-        for (Instance instance : instances.values()) {
-            if (instance.getWorkspaceId().equals(workspaceId) && instance.getConfig().isDev()) {
-                return toMachine(instance);
-            }
+    public MachineImpl getDevMachine(String workspaceId) throws NotFoundException, MachineException {
+        final String machineId = devMachines.get(workspaceId);
+        final Entry entry = machineId == null ? null : entries.get(machineId);
+        if (entry == null || entry.instance == null) {
+            throw new NotFoundException("Dev machine of workspace " + workspaceId + " is not running.");
         }
-
-        throw new NotFoundException("Dev machine of workspace " + workspaceId + " is not running.");
+        return entry.toMachine();
     }
 
     /**
@@ -118,13 +158,12 @@ public class MachineRegistry {
      * @throws MachineException
      *         if other error occurs
      */
-    public synchronized Instance getInstance(String machineId) throws NotFoundException, MachineException {
-        final Instance instance = instances.get(machineId);
-        if (instance == null) {
+    public Instance getInstance(String machineId) throws NotFoundException, MachineException {
+        final Entry entry = entries.get(machineId);
+        if (entry == null || entry.instance == null) {
             throw new NotFoundException("Machine " + machineId + " is not found");
-        } else {
-            return instance;
         }
+        return entry.instance;
     }
 
     /**
@@ -137,11 +176,13 @@ public class MachineRegistry {
      * @throws MachineException
      *         if any other error occurs
      */
-    public synchronized void addMachine(MachineImpl machine) throws MachineException, ConflictException {
-        if (machines.containsKey(machine.getId())) {
-            throw new ConflictException("Machine with id " + machine.getId() + " is already exist");
+    public void addMachine(MachineImpl machine) throws MachineException, ConflictException {
+        synchronized (writeLock) {
+            if (entries.containsKey(machine.getId())) {
+                throw new ConflictException("Machine with id " + machine.getId() + " is already exist");
+            }
+            index(new Entry(machine));
         }
-        machines.put(machine.getId(), machine);
     }
 
     /**
@@ -154,12 +195,30 @@ public class MachineRegistry {
      * @throws MachineException
      *         if any other error occurs
      */
-    public synchronized void update(Instance instance) throws NotFoundException, MachineException {
-        if (!instances.containsKey(instance.getId()) && !machines.containsKey(instance.getId())) {
-            throw new NotFoundException("Machine " + instance.getId() + " not found");
-        } else {
-            instances.put(instance.getId(), instance);
-            machines.remove(instance.getId());
+    public void update(Instance instance) throws NotFoundException, MachineException {
+        synchronized (writeLock) {
+            replace(getEntry(instance.getId()), new Entry(instance));
+        }
+    }
+
+    /**
+     * Changes status of running machine
+     *
+     * @param machineId
+     *         id of machine
+     * @param status
+     *         new status of machine
+     * @throws NotFoundException
+     *         if running machine with specified id not found
+     */
+    public void setStatus(String machineId, MachineStatus status) throws NotFoundException {
+        synchronized (writeLock) {
+            final Entry entry = entries.get(machineId);
+            if (entry == null || entry.instance == null) {
+                throw new NotFoundException("Machine " + machineId + " is not found");
+            }
+            entry.instance.setStatus(status);
+            replace(entry, new Entry(entry.instance));
         }
     }
 
@@ -171,21 +230,118 @@ public class MachineRegistry {
      * @throws NotFoundException
      *         if machine with specified id not found
      */
-    public synchronized void remove(String machineId) throws NotFoundException {
-        final Instance instance = instances.remove(machineId);
-        final MachineImpl machine = machines.remove(machineId);
-        if (null == instance && null == machine) {
+    public void remove(String machineId) throws NotFoundException {
+        synchronized (writeLock) {
+            unindex(getEntry(machineId));
+        }
+    }
+
+    private Entry getEntry(String machineId) throws NotFoundException {
+        final Entry entry = entries.get(machineId);
+        if (entry == null) {
             throw new NotFoundException("Machine " + machineId + " is not found");
         }
+        return entry;
+    }
+
+    private List<MachineImpl> toMachines(Collection<String> ids) {
+        final List<MachineImpl> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            final Entry entry = entries.get(id);
+            if (entry != null) {
+                result.add(entry.toMachine());
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /** Must be called under {@link #writeLock}. Entry becomes visible to readers as the last step. */
+    private void index(Entry entry) {
+        workspaceMachines.computeIfAbsent(entry.workspaceId, key -> ConcurrentHashMap.newKeySet()).add(entry.id);
+        statusMachines.get(entry.status).add(entry.id);
+        if (entry.isRunningDevMachine()) {
+            devMachines.put(entry.workspaceId, entry.id);
+        }
+        entries.put(entry.id, entry);
+    }
+
+    /**
+     * Must be called under {@link #writeLock}. Replaces entry of the same machine in place, so readers see either the current or
+     * the updated entry but never miss the machine. Only indexes that are changed are updated, new index records are added before
+     * the entry is replaced and stale ones are removed after that. Readers of status index check status of the entry itself.
+     */
+    private void replace(Entry current, Entry updated) {
+        if (current.status != updated.status) {
+            statusMachines.get(updated.status).add(updated.id);
+        }
+        if (updated.isRunningDevMachine()) {
+            devMachines.put(updated.workspaceId, updated.id);
+        }
+        entries.put(updated.id, updated);
+        if (current.status != updated.status) {
+            statusMachines.get(current.status).remove(current.id);
+        }
+        if (current.isRunningDevMachine() && !updated.isRunningDevMachine()) {
+            devMachines.remove(current.workspaceId, current.id);
+        }
     }
 
-    private MachineImpl toMachine(Instance instance) {
-        return new MachineImpl(instance.getConfig(),
-                               instance.getId(),
-                               instance.getWorkspaceId(),
-                               instance.getEnvName(),
-                               instance.getOwner(),
-                               instance.getStatus(),
-                               instance.getRuntime());
+    /** Must be called under {@link #writeLock}. Entry becomes invisible to readers as the first step. */
+    private void unindex(Entry entry) {
+        entries.remove(entry.id);
+        devMachines.remove(entry.workspaceId, entry.id);
+        statusMachines.get(entry.status).remove(entry.id);
+        final Set<String> ids = workspaceMachines.get(entry.workspaceId);
+        if (ids != null) {
+            ids.remove(entry.id);
+            if (ids.isEmpty()) {
+                workspaceMachines.remove(entry.workspaceId);
+            }
+        }
+    }
+
+    /**
+     * Not running machine or instance of running machine. Entry is immutable, status of machine
+     * is captured on creation, so indexes can be cleaned even if status of instance was changed.
+     */
+    private static class Entry {
+        final String        id;
+        final String        workspaceId;
+        final MachineStatus status;
+        final MachineImpl   machine;
+        final Instance      instance;
+
+        Entry(MachineImpl machine) {
+            this.id = machine.getId();
+            this.workspaceId = machine.getWorkspaceId();
+            this.status = machine.getStatus() == null ? MachineStatus.CREATING : machine.getStatus();
+            this.machine = machine;
+            this.instance = null;
+        }
+
+        Entry(Instance instance) {
+            this.id = instance.getId();
+            this.workspaceId = instance.getWorkspaceId();
+            this.status = instance.getStatus() == null ? MachineStatus.RUNNING : instance.getStatus();
+            this.machine = null;
+            this.instance = instance;
+        }
+
+        boolean isRunningDevMachine() {
+            return instance != null && instance.getConfig().isDev();
+        }
+
+        MachineImpl toMachine() {
+            if (machine != null) {
+                return machine;
+            }
+            return new MachineImpl(instance.getConfig(),
+                                   instance.getId(),
+                                   instance.getWorkspaceId(),
+                                   instance.getEnvName(),
+                                   instance.getOwner(),
+                                   instance.getStatus(),
+                                   instance.getRuntime());
+        }
     }
 }
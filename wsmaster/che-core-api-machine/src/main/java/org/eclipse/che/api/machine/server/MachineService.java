@@ -25,9 +25,11 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.rest.Service;
 import org.eclipse.che.api.machine.server.exception.MachineException;
+import org.eclipse.che.api.machine.server.log.SegmentedLog;
 import org.eclipse.che.api.machine.server.model.impl.SnapshotImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
 import org.eclipse.che.api.machine.shared.dto.CommandDto;
+import org.eclipse.che.api.machine.shared.dto.ExecutorMetricsDto;
 import org.eclipse.che.api.machine.shared.dto.MachineDto;
 import org.eclipse.che.api.machine.shared.dto.MachineProcessDto;
 import org.eclipse.che.api.machine.shared.dto.NewSnapshotDescriptor;
@@ -49,6 +51,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.Writer;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -154,6 +157,18 @@ public class MachineService extends Service {
                         .collect(Collectors.toList());
     }
 
+    @GET
+    @Path("/executors/metrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Get metrics of the pools which execute asynchronous operations with machines",
+                  response = ExecutorMetricsDto.class,
+                  responseContainer = "List")
+    @ApiResponses({@ApiResponse(code = 200, message = "The response contains metrics of the pools"),
+                   @ApiResponse(code = 500, message = "Internal server error occurred")})
+    public List<ExecutorMetricsDto> getExecutorsMetrics() {
+        return machineManager.getExecutorsMetrics();
+    }
+
     @POST
     @Path("/{machineId}/snapshot")
     @Consumes(MediaType.APPLICATION_JSON)
@@ -280,14 +295,28 @@ public class MachineService extends Service {
     public void getMachineLogs(@ApiParam(value = "Machine ID")
                                @PathParam("machineId")
                                String machineId,
+                               @ApiParam(value = "From line, lines are numbered from 1")
+                               @QueryParam("startFrom")
+                               Long startFrom,
+                               @ApiParam(value = "Number of lines")
+                               @QueryParam("limit")
+                               Integer limit,
+                               @ApiParam(value = "Number of the last lines, if specified other parameters are ignored")
+                               @QueryParam("tail")
+                               Integer tail,
                                @Context
                                HttpServletResponse httpServletResponse)
             throws NotFoundException,
                    ForbiddenException,
                    ServerException,
+                   BadRequestException,
                    IOException {
 
-        addLogsToResponse(machineManager.getMachineLogReader(machineId), httpServletResponse);
+        if (startFrom == null && limit == null && tail == null) {
+            addLogsToResponse(machineManager.getMachineLogReader(machineId), httpServletResponse);
+        } else {
+            addLogLinesToResponse(machineManager.getMachineLog(machineId), startFrom, limit, tail, httpServletResponse);
+        }
     }
 
     @GET
@@ -303,14 +332,28 @@ public class MachineService extends Service {
                                @ApiParam(value = "Process ID")
                                @PathParam("pid")
                                int pid,
+                               @ApiParam(value = "From line, lines are numbered from 1")
+                               @QueryParam("startFrom")
+                               Long startFrom,
+                               @ApiParam(value = "Number of lines")
+                               @QueryParam("limit")
+                               Integer limit,
+                               @ApiParam(value = "Number of the last lines, if specified other parameters are ignored")
+                               @QueryParam("tail")
+                               Integer tail,
                                @Context
                                HttpServletResponse httpServletResponse)
             throws NotFoundException,
                    ForbiddenException,
                    ServerException,
+                   BadRequestException,
                    IOException {
 
-        addLogsToResponse(machineManager.getProcessLogReader(machineId, pid), httpServletResponse);
+        if (startFrom == null && limit == null && tail == null) {
+            addLogsToResponse(machineManager.getProcessLogReader(machineId, pid), httpServletResponse);
+        } else {
+            addLogLinesToResponse(machineManager.getProcessLog(machineId, pid), startFrom, limit, tail, httpServletResponse);
+        }
     }
 
     /**
@@ -420,6 +463,29 @@ public class MachineService extends Service {
         httpServletResponse.getWriter().flush();
     }
 
+    private void addLogLinesToResponse(SegmentedLog log,
+                                       Long startFrom,
+                                       Integer limit,
+                                       Integer tail,
+                                       HttpServletResponse httpServletResponse) throws BadRequestException, IOException {
+        if ((startFrom != null && startFrom < 1) || (limit != null && limit < 0) || (tail != null && tail < 0)) {
+            throw new BadRequestException("Parameters 'startFrom' must be positive, 'limit' and 'tail' must not be negative");
+        }
+        httpServletResponse.setContentType("text/plain");
+        final Writer writer = httpServletResponse.getWriter();
+        // lines are streamed to the response, so range without limit doesn't load the whole log in memory
+        final SegmentedLog.LineHandler handler = line -> {
+            writer.write(line);
+            writer.write('\n');
+        };
+        if (tail != null) {
+            log.tail(tail, handler);
+        } else {
+            log.readLines(startFrom == null ? 0 : startFrom - 1, limit == null ? Long.MAX_VALUE : limit, handler);
+        }
+        writer.flush();
+    }
+
     /**
      * Checks object reference is not {@code null}
      *
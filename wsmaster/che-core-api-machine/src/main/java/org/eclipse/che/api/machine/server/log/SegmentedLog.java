@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Log of machine or process stored in the directory as a sequence of segments.
+ *
+ * <p>Each segment is a file with lines of the log named after the number of its first line in the log.
+ * Segment has an index with byte offsets of every {@link #INDEX_INTERVAL}-th line of the segment, so reading
+ * lines from the middle or from the end of the log touches only the last segments and doesn't scan them
+ * from the beginning. Segments are read through memory mapped buffers.
+ *
+ * <p>Log may be read while it is written by {@link SegmentedLogWriter}, line which is not completely written
+ * yet is not visible to the readers. Line numbers start from 0.
+ */
+public class SegmentedLog {
+    static final int INDEX_INTERVAL = 128;
+
+    /** Receives lines which are read from the log. */
+    @FunctionalInterface
+    public interface LineHandler {
+        void handle(String line) throws IOException;
+    }
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX   = ".idx";
+
+    private final File dir;
+
+    public SegmentedLog(File dir) {
+        this.dir = dir;
+    }
+
+    /** Returns directory of the log. */
+    public File getDir() {
+        return dir;
+    }
+
+    /** Returns true if log was created by {@link SegmentedLogWriter}. */
+    public boolean exists() {
+        return !getSegments().isEmpty();
+    }
+
+    /** Returns number of lines in the log. */
+    public long getLineCount() throws IOException {
+        final List<Segment> segments = getSegments();
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        final Segment last = segments.get(segments.size() - 1);
+        return last.firstLine + last.countLines();
+    }
+
+    /** Returns size of the log in bytes. */
+    public long getSize() {
+        long size = 0;
+        for (Segment segment : getSegments()) {
+            size += segment.file.length();
+        }
+        return size;
+    }
+
+    /**
+     * Reads lines of the log.
+     *
+     * @param fromLine
+     *         number of the first line to read
+     * @param limit
+     *         max number of lines to read
+     * @return lines of the log, or empty list if log has less lines than {@code fromLine}
+     */
+    public List<String> readLines(long fromLine, int limit) throws IOException {
+        final List<String> result = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        readLines(fromLine, limit, result::add);
+        return result;
+    }
+
+    /**
+     * Reads lines of the log and passes them to the handler one by one, so lines are not collected in memory.
+     *
+     * @param fromLine
+     *         number of the first line to read
+     * @param limit
+     *         max number of lines to read
+     * @param handler
+     *         handler of read lines
+     * @return number of read lines
+     */
+    public long readLines(long fromLine, long limit, LineHandler handler) throws IOException {
+        if (fromLine < 0 || limit < 0) {
+            throw new IllegalArgumentException("Line number and limit must not be negative");
+        }
+        long read = 0;
+        final List<Segment> segments = getSegments();
+        for (int i = segments.size() - 1; i >= 0 && read < limit; i--) {
+            final Segment segment = segments.get(i);
+            if (segment.firstLine <= fromLine) {
+                read += segment.readLines(fromLine - segment.firstLine, limit - read, handler);
+                for (int j = i + 1; j < segments.size() && read < limit; j++) {
+                    read += segments.get(j).readLines(0, limit - read, handler);
+                }
+                break;
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Reads the last lines of the log.
+     *
+     * @param lines
+     *         max number of lines to read
+     */
+    public List<String> tail(int lines) throws IOException {
+        final long lineCount = getLineCount();
+        return readLines(Math.max(0, lineCount - lines), lines);
+    }
+
+    /**
+     * Reads the last lines of the log and passes them to the handler one by one.
+     *
+     * @param lines
+     *         max number of lines to read
+     * @param handler
+     *         handler of read lines
+     * @return number of read lines
+     */
+    public long tail(long lines, LineHandler handler) throws IOException {
+        final long lineCount = getLineCount();
+        return readLines(Math.max(0, lineCount - lines), lines, handler);
+    }
+
+    /**
+     * Reads bytes of the log.
+     *
+     * @param offset
+     *         offset of the first byte to read
+     * @param length
+     *         max number of bytes to read
+     * @return bytes of the log, array is shorter than {@code length} if the end of the log is reached
+     */
+    public byte[] readBytes(long offset, int length) throws IOException {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Offset and length must not be negative");
+        }
+        final ByteBuffer result = ByteBuffer.allocate(length);
+        long segmentOffset = 0;
+        for (Segment segment : getSegments()) {
+            if (!result.hasRemaining()) {
+                break;
+            }
+            try (FileChannel channel = FileChannel.open(segment.file.toPath(), READ)) {
+                final long size = channel.size();
+                final long start = offset + result.position() - segmentOffset;
+                if (start < size) {
+                    final int count = (int)Math.min(size - start, result.remaining());
+                    result.put(channel.map(FileChannel.MapMode.READ_ONLY, start, count));
+                }
+                segmentOffset += size;
+            }
+        }
+        return Arrays.copyOf(result.array(), result.position());
+    }
+
+    /** Opens reader of the whole log. */
+    public Reader openReader() throws IOException {
+        final List<InputStream> streams = new ArrayList<>();
+        try {
+            for (Segment segment : getSegments()) {
+                streams.add(new FileInputStream(segment.file));
+            }
+        } catch (IOException e) {
+            for (InputStream stream : streams) {
+                stream.close();
+            }
+            throw e;
+        }
+        final Enumeration<InputStream> enumeration = Collections.enumeration(streams);
+        return new BufferedReader(new InputStreamReader(new SequenceInputStream(enumeration), UTF_8));
+    }
+
+    /** Removes all the segments of the log. */
+    void delete() throws IOException {
+        for (Segment segment : getSegments()) {
+            Files.deleteIfExists(segment.file.toPath());
+            Files.deleteIfExists(segment.index.toPath());
+        }
+    }
+
+    File segmentFile(long firstLine) {
+        return new File(dir, String.format("%020d", firstLine) + SEGMENT_SUFFIX);
+    }
+
+    File indexFile(long firstLine) {
+        return new File(dir, String.format("%020d", firstLine) + INDEX_SUFFIX);
+    }
+
+    /** Returns segments sorted by number of the first line. */
+    private List<Segment> getSegments() {
+        final String[] names = dir.list((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (names == null) {
+            return Collections.emptyList();
+        }
+        final List<Segment> segments = new ArrayList<>(names.length);
+        for (String name : names) {
+            try {
+                final long firstLine = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                segments.add(new Segment(firstLine, segmentFile(firstLine), indexFile(firstLine)));
+            } catch (NumberFormatException ignored) {
+                // not a segment
+            }
+        }
+        segments.sort((s1, s2) -> Long.compare(s1.firstLine, s2.firstLine));
+        return segments;
+    }
+
+    private static class Segment {
+        final long firstLine;
+        final File file;
+        final File index;
+
+        Segment(long firstLine, File file, File index) {
+            this.firstLine = firstLine;
+            this.file = file;
+            this.index = index;
+        }
+
+        /** Returns offsets of indexed lines, incompletely written entry is ignored. */
+        long[] readIndex() throws IOException {
+            final ByteBuffer buffer;
+            try {
+                buffer = ByteBuffer.wrap(Files.readAllBytes(index.toPath()));
+            } catch (NoSuchFileException e) {
+                return new long[0];
+            }
+            final long[] offsets = new long[buffer.remaining() / Long.BYTES];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = buffer.getLong();
+            }
+            return offsets;
+        }
+
+        long countLines() throws IOException {
+            final long[] offsets = readIndex();
+            if (offsets.length == 0) {
+                return 0;
+            }
+            try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+                final long start = offsets[offsets.length - 1];
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(0, channel.size() - start));
+                long lines = (long)(offsets.length - 1) * INDEX_INTERVAL;
+                for (int i = 0; i < buffer.limit(); i++) {
+                    if (buffer.get(i) == '\n') {
+                        lines++;
+                    }
+                }
+                return lines;
+            }
+        }
+
+        /** Reads at most {@code limit} lines starting from the given line of the segment, returns number of read lines. */
+        long readLines(long fromLine, long limit, LineHandler handler) throws IOException {
+            final long[] offsets = readIndex();
+            final int entry = (int)(fromLine / INDEX_INTERVAL);
+            if (entry >= offsets.length) {
+                return 0;
+            }
+            long read = 0;
+            try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+                final long start = offsets[entry];
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(0, channel.size() - start));
+                long skip = fromLine - (long)entry * INDEX_INTERVAL;
+                int lineStart = 0;
+                for (int i = 0; i < buffer.limit() && read < limit; i++) {
+                    if (buffer.get(i) != '\n') {
+                        continue;
+                    }
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        final byte[] line = new byte[i - lineStart];
+                        buffer.position(lineStart);
+                        buffer.get(line);
+                        handler.handle(new String(line, UTF_8));
+                        read++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.log;
+
+import org.eclipse.che.api.core.util.LineConsumer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.eclipse.che.api.machine.server.log.SegmentedLog.INDEX_INTERVAL;
+
+/**
+ * Writes lines to the {@link SegmentedLog}. Segment is rolled when its size exceeds the limit,
+ * offset of each {@link SegmentedLog#INDEX_INTERVAL}-th line of segment is appended to the index of segment.
+ * Text which contains line breaks is written as several lines, so each line of the log is indexed.
+ *
+ * <p>Existing log in the directory is replaced, as {@link org.eclipse.che.api.core.util.FileLineConsumer}
+ * replaces existing file.
+ */
+public class SegmentedLogWriter implements LineConsumer {
+    public static final long DEFAULT_MAX_SEGMENT_SIZE = 8 * 1024 * 1024;
+
+    private final SegmentedLog log;
+    private final long         maxSegmentSize;
+    private final ByteBuffer   indexEntry;
+
+    private FileChannel segment;
+    private FileChannel index;
+    private long        segmentLines;
+    private long        lines;
+
+    public SegmentedLogWriter(File dir) throws IOException {
+        this(dir, DEFAULT_MAX_SEGMENT_SIZE);
+    }
+
+    public SegmentedLogWriter(File dir, long maxSegmentSize) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Can't create directory " + dir);
+        }
+        this.log = new SegmentedLog(dir);
+        this.maxSegmentSize = maxSegmentSize;
+        this.indexEntry = ByteBuffer.allocate(Long.BYTES);
+        log.delete();
+        roll();
+    }
+
+    /** Returns log written by this writer. */
+    public SegmentedLog getLog() {
+        return log;
+    }
+
+    @Override
+    public synchronized void writeLine(String line) throws IOException {
+        if (segment == null) {
+            throw new IOException("Log " + log.getDir() + " is closed");
+        }
+        if (line == null) {
+            writeSingleLine("");
+            return;
+        }
+        int start = 0;
+        for (int end = line.indexOf('\n'); end != -1; end = line.indexOf('\n', start)) {
+            writeSingleLine(line.substring(start, end));
+            start = end + 1;
+        }
+        writeSingleLine(start == 0 ? line : line.substring(start));
+    }
+
+    private void writeSingleLine(String line) throws IOException {
+        if (segment.position() >= maxSegmentSize) {
+            closeSegment();
+            roll();
+        }
+        if (segmentLines % INDEX_INTERVAL == 0) {
+            indexEntry.clear();
+            indexEntry.putLong(segment.position()).flip();
+            writeFully(index, indexEntry);
+        }
+        writeFully(segment, ByteBuffer.wrap((line + '\n').getBytes(UTF_8)));
+        segmentLines++;
+        lines++;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            closeSegment();
+        }
+    }
+
+    private void roll() throws IOException {
+        segment = FileChannel.open(log.segmentFile(lines).toPath(), CREATE, WRITE, TRUNCATE_EXISTING);
+        index = FileChannel.open(log.indexFile(lines).toPath(), CREATE, WRITE, TRUNCATE_EXISTING);
+        segmentLines = 0;
+    }
+
+    private void closeSegment() throws IOException {
+        try {
+            segment.close();
+        } finally {
+            index.close();
+            segment = null;
+            index = null;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -40,6 +40,7 @@ public class MachineConfigImpl implements MachineConfig {
     private LimitsImpl           limits;
     private List<ServerConfImpl> servers;
     private Map<String, String>  envVariables;
+    private List<String>         dependsOn;
 
     public MachineConfigImpl() {
     }
@@ -51,10 +52,24 @@ public class MachineConfigImpl implements MachineConfig {
                              Limits limits,
                              List<? extends ServerConf> servers,
                              Map<String, String> envVariables) {
+        this(dev, name, type, source, limits, servers, envVariables, null);
+    }
+
+    public MachineConfigImpl(boolean dev,
+                             String name,
+                             String type,
+                             MachineSource source,
+                             Limits limits,
+                             List<? extends ServerConf> servers,
+                             Map<String, String> envVariables,
+                             List<String> dependsOn) {
         this.dev = dev;
         this.name = name;
         this.type = type;
         this.envVariables = envVariables;
+        if (dependsOn != null) {
+            this.dependsOn = new ArrayList<>(dependsOn);
+        }
         if (servers != null) {
             this.servers = servers.stream()
                                   .map(ServerConfImpl::new)
@@ -74,7 +89,8 @@ public class MachineConfigImpl implements MachineConfig {
              machineCfg.getSource(),
              machineCfg.getLimits(),
              machineCfg.getServers(),
-             machineCfg.getEnvVariables());
+             machineCfg.getEnvVariables(),
+             machineCfg.getDependsOn());
     }
 
     @Override
@@ -126,6 +142,14 @@ public class MachineConfigImpl implements MachineConfig {
         return envVariables;
     }
 
+    @Override
+    public List<String> getDependsOn() {
+        if (dependsOn == null) {
+            dependsOn = new ArrayList<>();
+        }
+        return dependsOn;
+    }
+
     public void setLimits(Limits limits) {
         this.limits = new LimitsImpl(limits);
     }
@@ -141,7 +165,8 @@ public class MachineConfigImpl implements MachineConfig {
                Objects.equals(limits, other.limits) &&
                Objects.equals(type, other.type) &&
                Objects.equals(getServers(), other.getServers()) &&
-               Objects.equals(getEnvVariables(), other.getEnvVariables());
+               Objects.equals(getEnvVariables(), other.getEnvVariables()) &&
+               Objects.equals(getDependsOn(), other.getDependsOn());
     }
 
     @Override
@@ -154,6 +179,7 @@ public class MachineConfigImpl implements MachineConfig {
         hash = hash * 31 + Objects.hashCode(limits);
         hash = hash * 31 + Objects.hashCode(getServers());
         hash = hash * 31 + Objects.hashCode(getEnvVariables());
+        hash = hash * 31 + Objects.hashCode(getDependsOn());
         return hash;
     }
 
@@ -167,6 +193,7 @@ public class MachineConfigImpl implements MachineConfig {
                ", limits=" + limits +
                ", servers=" + getServers() +
                ", envVariables=" + getEnvVariables() +
+               ", dependsOn=" + getDependsOn() +
                '}';
     }
 
@@ -184,6 +211,7 @@ public class MachineConfigImpl implements MachineConfig {
         private Limits                     limits;
         private List<? extends ServerConf> servers;
         private Map<String, String>        envVariables;
+        private List<String>               dependsOn;
 
         public MachineConfigImpl build() {
             return new MachineConfigImpl(dev,
@@ -192,7 +220,8 @@ public class MachineConfigImpl implements MachineConfig {
                                          source,
                                          limits,
                                          servers,
-                                         envVariables);
+                                         envVariables,
+                                         dependsOn);
         }
 
         public MachineConfigImplBuilder fromConfig(MachineConfig machineConfig) {
@@ -203,6 +232,7 @@ public class MachineConfigImpl implements MachineConfig {
             limits = machineConfig.getLimits();
             servers = machineConfig.getServers();
             envVariables = machineConfig.getEnvVariables();
+            dependsOn = machineConfig.getDependsOn();
             return this;
         }
 
@@ -240,5 +270,10 @@ public class MachineConfigImpl implements MachineConfig {
             this.envVariables = envVariables;
             return this;
         }
+
+        public MachineConfigImplBuilder setDependsOn(List<String> dependsOn) {
+            this.dependsOn = dependsOn;
+            return this;
+        }
     }
 }
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.machine.shared.dto.ExecutorMetricsDto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+/**
+ * Executes tasks in a bounded pool of threads with a bounded queue.
+ *
+ * <p>When all the threads are busy and the queue is full, task is rejected with {@link RejectedExecutionException},
+ * so a storm of requests is not turned into a storm of threads. Pool may be created without limit of threads for
+ * tasks which live as long as the work they wait for, e.g. running processes, then tasks are never queued.
+ * Time tasks wait in the queue and time they are executed are recorded into histograms, which are available
+ * with the other {@link #getMetrics() metrics}.
+ */
+public class InstrumentedExecutor implements Executor {
+    /** Upper bounds of histogram buckets in milliseconds, the last bucket is not bounded. */
+    static final long[] BUCKETS_MS = {10, 50, 100, 500, 1000, 5000, 10000, 30000, 60000, 300000};
+
+    private final String             name;
+    private final int                maxThreads;
+    private final int                queueCapacity;
+    private final ThreadPoolExecutor pool;
+    private final AtomicLongArray    queueTime;
+    private final AtomicLongArray    runTime;
+    private final LongAdder          rejected;
+
+    /**
+     * Creates executor.
+     *
+     * @param name
+     *         name of executed operations, used in names of threads
+     * @param maxThreads
+     *         max number of tasks executed at the same time, non-positive value means no limit
+     * @param queueCapacity
+     *         max number of tasks waiting for a free thread, 0 means that task is rejected if there is no free thread,
+     *         must be 0 if number of threads is not limited
+     */
+    public InstrumentedExecutor(String name, int maxThreads, int queueCapacity) {
+        if (queueCapacity < 0 || (maxThreads < 1 && queueCapacity > 0)) {
+            throw new IllegalArgumentException("Executor " + name + " must have not negative queue, " +
+                                               "queue of executor without limit of threads must be empty");
+        }
+        this.name = name;
+        this.maxThreads = Math.max(0, maxThreads);
+        this.queueCapacity = queueCapacity;
+        final BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        this.pool = new ThreadPoolExecutor(maxThreads > 0 ? maxThreads : 0,
+                                           maxThreads > 0 ? maxThreads : Integer.MAX_VALUE,
+                                           60,
+                                           TimeUnit.SECONDS,
+                                           queue,
+                                           new ThreadFactoryBuilder().setNameFormat("MachineManager-" + name + "-%d")
+                                                                     .setDaemon(false)
+                                                                     .build());
+        if (maxThreads > 0) {
+            this.pool.allowCoreThreadTimeOut(true);
+        }
+        this.queueTime = new AtomicLongArray(BUCKETS_MS.length + 1);
+        this.runTime = new AtomicLongArray(BUCKETS_MS.length + 1);
+        this.rejected = new LongAdder();
+    }
+
+    /**
+     * Executes task in the pool.
+     *
+     * @throws RejectedExecutionException
+     *         if all the threads are busy and the queue is full, or executor is shut down
+     */
+    @Override
+    public void execute(Runnable task) {
+        final long submitted = System.nanoTime();
+        try {
+            pool.execute(() -> {
+                final long started = System.nanoTime();
+                record(queueTime, started - submitted);
+                try {
+                    task.run();
+                } finally {
+                    record(runTime, System.nanoTime() - started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCompletedTaskCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    public ExecutorMetricsDto getMetrics() {
+        return newDto(ExecutorMetricsDto.class).withName(name)
+                                               .withMaxThreads(maxThreads)
+                                               .withActiveThreads(pool.getActiveCount())
+                                               .withQueueCapacity(queueCapacity)
+                                               .withQueuedTasks(pool.getQueue().size())
+                                               .withCompletedTasks(pool.getCompletedTaskCount())
+                                               .withRejectedTasks(rejected.sum())
+                                               .withQueueTimeHistogram(toMap(queueTime))
+                                               .withRunTimeHistogram(toMap(runTime));
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public void shutdownNow() {
+        pool.shutdownNow();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    private static void record(AtomicLongArray histogram, long nanos) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BUCKETS_MS.length && millis > BUCKETS_MS[bucket]) {
+            bucket++;
+        }
+        histogram.incrementAndGet(bucket);
+    }
+
+    private static Map<String, Long> toMap(AtomicLongArray histogram) {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS_MS.length; i++) {
+            result.put(Long.toString(BUCKETS_MS[i]), histogram.get(i));
+        }
+        result.put("inf", histogram.get(BUCKETS_MS.length));
+        return result;
+    }
+}
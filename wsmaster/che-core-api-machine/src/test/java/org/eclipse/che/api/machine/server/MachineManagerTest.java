@@ -51,7 +51,6 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.concurrent.ThreadPoolExecutor;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
@@ -118,7 +117,8 @@ public class MachineManagerTest {
                                          machineLogsDir,
                                          eventService,
                                          DEFAULT_MACHINE_MEMORY_SIZE_MB,
-                                         wsAgentLauncher));
+                                         wsAgentLauncher,
+                                         new MachineExecutors()));
 
         EnvironmentContext envCont = new EnvironmentContext();
         envCont.setSubject(CREATOR);
@@ -303,7 +303,7 @@ public class MachineManagerTest {
     }
 
     private void waitForExecutorIsCompletedTask() throws Exception {
-        for (int i = 0; ((ThreadPoolExecutor)manager.executor).getCompletedTaskCount() == 0 && i < 10; i++) {
+        for (int i = 0; manager.executors.getProcessExecutor().getCompletedTaskCount() == 0 && i < 10; i++) {
             Thread.sleep(300);
         }
     }
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.model.machine.MachineStatus;
+import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
+import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
+import org.eclipse.che.api.machine.server.spi.Instance;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link MachineRegistry}.
+ */
+public class MachineRegistryTest {
+    private static final String WS_ID = "workspace123";
+
+    private MachineRegistry registry;
+
+    @BeforeMethod
+    public void setUp() {
+        registry = new MachineRegistry();
+    }
+
+    @Test
+    public void shouldReturnMachinesOfWorkspace() throws Exception {
+        registry.addMachine(machine("machine1", WS_ID, false));
+        registry.addMachine(machine("machine2", WS_ID, true));
+        registry.addMachine(machine("machine3", "anotherWorkspace", true));
+
+        assertEquals(ids(registry.getMachines(WS_ID)), asList("machine1", "machine2"));
+        assertEquals(ids(registry.getMachines("anotherWorkspace")), asList("machine3"));
+        assertTrue(registry.getMachines("unknownWorkspace").isEmpty());
+        assertEquals(registry.getMachines().size(), 3);
+    }
+
+    @Test
+    public void shouldReplaceNotRunningMachineWithInstance() throws Exception {
+        registry.addMachine(machine("machine1", WS_ID, true));
+        final Instance instance = instance("machine1", WS_ID, true);
+
+        registry.update(instance);
+
+        assertSame(registry.getInstance("machine1"), instance);
+        assertEquals(ids(registry.getMachines()), asList("machine1"));
+        assertEquals(registry.getMachine("machine1").getStatus(), MachineStatus.RUNNING);
+        assertEquals(registry.getDevMachine(WS_ID).getId(), "machine1");
+    }
+
+    @Test
+    public void shouldReturnMachinesByStatus() throws Exception {
+        registry.addMachine(machine("machine1", WS_ID, true));
+        registry.addMachine(machine("machine2", WS_ID, false));
+        registry.update(instance("machine1", WS_ID, true));
+
+        assertEquals(ids(registry.getMachines(MachineStatus.CREATING)), asList("machine2"));
+        assertEquals(ids(registry.getMachines(MachineStatus.RUNNING)), asList("machine1"));
+
+        registry.setStatus("machine1", MachineStatus.DESTROYING);
+
+        assertTrue(registry.getMachines(MachineStatus.RUNNING).isEmpty());
+        assertEquals(ids(registry.getMachines(MachineStatus.DESTROYING)), asList("machine1"));
+        assertEquals(registry.getInstance("machine1").getStatus(), MachineStatus.DESTROYING);
+    }
+
+    @Test(expectedExceptions = NotFoundException.class,
+          expectedExceptionsMessageRegExp = "Dev machine of workspace workspace123 is not running.")
+    public void shouldNotReturnDevMachineWhichIsNotRunning() throws Exception {
+        registry.addMachine(machine("machine1", WS_ID, true));
+
+        registry.getDevMachine(WS_ID);
+    }
+
+    @Test
+    public void shouldRemoveMachineFromIndexes() throws Exception {
+        registry.addMachine(machine("machine1", WS_ID, true));
+        registry.update(instance("machine1", WS_ID, true));
+
+        registry.remove("machine1");
+
+        assertFalse(registry.isExist("machine1"));
+        assertTrue(registry.getMachines(WS_ID).isEmpty());
+        assertTrue(registry.getMachines(MachineStatus.RUNNING).isEmpty());
+        try {
+            registry.getDevMachine(WS_ID);
+            throw new AssertionError("Dev machine should not be found");
+        } catch (NotFoundException ignored) {
+        }
+    }
+
+    @Test
+    public void shouldAlwaysFindMachineWhileItIsUpdated() throws Exception {
+        registry.addMachine(machine("machine1", WS_ID, true));
+        final Instance instance = instance("machine1", WS_ID, true);
+        final AtomicBoolean updating = new AtomicBoolean(true);
+        final CountDownLatch readerStarted = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> reader = executor.submit(() -> {
+                while (updating.get()) {
+                    assertEquals(registry.getMachine("machine1").getId(), "machine1");
+                    assertTrue(registry.isExist("machine1"));
+                    assertEquals(ids(registry.getMachines(WS_ID)), asList("machine1"));
+                    readerStarted.countDown();
+                }
+                return null;
+            });
+            readerStarted.await();
+            try {
+                registry.update(instance);
+                for (int i = 0; i < 1000; i++) {
+                    registry.setStatus("machine1", i % 2 == 0 ? MachineStatus.DESTROYING : MachineStatus.RUNNING);
+                }
+            } finally {
+                updating.set(false);
+            }
+
+            // fails if reader didn't find machine
+            reader.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(ids(registry.getMachines(MachineStatus.RUNNING)), asList("machine1"));
+        assertTrue(registry.getMachines(MachineStatus.DESTROYING).isEmpty());
+        assertEquals(registry.getDevMachine(WS_ID).getId(), "machine1");
+    }
+
+    @Test(expectedExceptions = ConflictException.class)
+    public void shouldNotAddMachineWithTheSameId() throws Exception {
+        registry.addMachine(machine("machine1", WS_ID, false));
+
+        registry.addMachine(machine("machine1", WS_ID, false));
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void shouldNotUpdateMachineWhichIsNotInRegistry() throws Exception {
+        registry.update(instance("machine1", WS_ID, false));
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void shouldNotRemoveMachineWhichIsNotInRegistry() throws Exception {
+        registry.remove("machine1");
+    }
+
+    private static List<String> ids(List<MachineImpl> machines) {
+        return machines.stream().map(MachineImpl::getId).sorted().collect(toList());
+    }
+
+    private static MachineConfigImpl config(boolean isDev) {
+        return MachineConfigImpl.builder()
+                                .setDev(isDev)
+                                .setName(isDev ? "dev" : "db")
+                                .setType("docker")
+                                .build();
+    }
+
+    private static MachineImpl machine(String id, String workspaceId, boolean isDev) {
+        return MachineImpl.builder()
+                          .setConfig(config(isDev))
+                          .setId(id)
+                          .setWorkspaceId(workspaceId)
+                          .setEnvName("env")
+                          .setOwner("owner")
+                          .setStatus(MachineStatus.CREATING)
+                          .build();
+    }
+
+    private static Instance instance(String id, String workspaceId, boolean isDev) {
+        final Instance instance = mock(Instance.class);
+        final MachineStatus[] status = {MachineStatus.RUNNING};
+        final MachineConfigImpl config = config(isDev);
+        when(instance.getId()).thenReturn(id);
+        when(instance.getWorkspaceId()).thenReturn(workspaceId);
+        when(instance.getEnvName()).thenReturn("env");
+        when(instance.getOwner()).thenReturn("owner");
+        when(instance.getConfig()).thenReturn(config);
+        doAnswer(invocation -> status[0]).when(instance).getStatus();
+        doAnswer(invocation -> status[0] = (MachineStatus)invocation.getArguments()[0]).when(instance).setStatus(any());
+        return instance;
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.log;
+
+import com.google.common.io.CharStreams;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link SegmentedLog} and {@link SegmentedLogWriter}.
+ */
+public class SegmentedLogTest {
+    private static final int LINES = 1000;
+
+    private File               dir;
+    private SegmentedLogWriter writer;
+    private SegmentedLog       log;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("logs").toFile();
+        writer = new SegmentedLogWriter(dir, 1024);
+        log = writer.getLog();
+        for (int i = 0; i < LINES; i++) {
+            writer.writeLine("line " + i);
+        }
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        writer.close();
+        IoUtil.deleteRecursive(dir);
+    }
+
+    @Test
+    public void shouldRollSegments() throws Exception {
+        assertTrue(dir.list((d, name) -> name.endsWith(".log")).length > 1);
+        assertEquals(log.getLineCount(), LINES);
+    }
+
+    @Test
+    public void shouldReadRangeOfLines() throws Exception {
+        assertEquals(log.readLines(500, 3), asList("line 500", "line 501", "line 502"));
+        assertEquals(log.readLines(0, 1), asList("line 0"));
+        assertEquals(log.readLines(LINES - 1, 10), asList("line 999"));
+        assertTrue(log.readLines(LINES, 10).isEmpty());
+    }
+
+    @Test
+    public void shouldReadLinesWhichSpanSeveralSegments() throws Exception {
+        final List<String> lines = log.readLines(100, 400);
+
+        assertEquals(lines.size(), 400);
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(lines.get(i), "line " + (100 + i));
+        }
+    }
+
+    @Test
+    public void shouldPassLinesToHandlerUntilTheEndOfLog() throws Exception {
+        final List<String> lines = new ArrayList<>();
+
+        assertEquals(log.readLines(990, Long.MAX_VALUE, lines::add), 10);
+        assertEquals(lines.size(), 10);
+        assertEquals(lines.get(0), "line 990");
+        assertEquals(lines.get(9), "line 999");
+    }
+
+    @Test
+    public void shouldWriteTextWithLineBreaksAsSeveralLines() throws Exception {
+        writer.writeLine("first\nsecond\n");
+        writer.writeLine("last");
+
+        assertEquals(log.getLineCount(), LINES + 4);
+        assertEquals(log.tail(4), asList("first", "second", "", "last"));
+        assertEquals(log.readLines(LINES + 1, 1), asList("second"));
+    }
+
+    @Test
+    public void shouldReadTailOfLog() throws Exception {
+        writer.writeLine(null);
+        writer.writeLine("last");
+
+        assertEquals(log.tail(3), asList("line 999", "", "last"));
+    }
+
+    @Test
+    public void shouldReadBytesOfLog() throws Exception {
+        final String content = readAll();
+        final int offset = content.indexOf("line 300\n");
+
+        assertEquals(new String(log.readBytes(offset, 18), UTF_8), "line 300\nline 301\n");
+        assertEquals(log.getSize(), content.length());
+        assertEquals(log.readBytes(content.length() - 3, 10), "99\n".getBytes(UTF_8));
+    }
+
+    @Test
+    public void shouldReadWholeLog() throws Exception {
+        final List<String> expected = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            expected.add("line " + i);
+        }
+
+        assertEquals(asList(readAll().split("\n")), expected);
+    }
+
+    @Test
+    public void shouldReplaceExistingLog() throws Exception {
+        writer.close();
+        writer = new SegmentedLogWriter(dir, 1024);
+        writer.writeLine("new");
+
+        assertEquals(log.getLineCount(), 1);
+        assertEquals(log.tail(10), asList("new"));
+    }
+
+    @Test
+    public void shouldNotExistWhenNothingWasWritten() throws Exception {
+        assertFalse(new SegmentedLog(new File(dir, "unknown")).exists());
+    }
+
+    private String readAll() throws Exception {
+        try (Reader reader = log.openReader()) {
+            return CharStreams.toString(reader);
+        }
+    }
+}
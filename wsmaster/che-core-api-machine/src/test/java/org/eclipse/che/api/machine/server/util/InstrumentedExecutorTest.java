@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.util;
+
+import org.eclipse.che.api.machine.shared.dto.ExecutorMetricsDto;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link InstrumentedExecutor}.
+ */
+public class InstrumentedExecutorTest {
+    private InstrumentedExecutor executor;
+    private CountDownLatch       release;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = new InstrumentedExecutor("test", 1, 1);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        release.countDown();
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldRejectTaskWhenThreadsAndQueueAreBusy() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(this::awaitRelease);
+
+        try {
+            executor.execute(this::awaitRelease);
+            throw new AssertionError("Task must be rejected");
+        } catch (RejectedExecutionException ignored) {
+        }
+
+        final ExecutorMetricsDto metrics = executor.getMetrics();
+        assertEquals(metrics.getName(), "test");
+        assertEquals(metrics.getMaxThreads(), 1);
+        assertEquals(metrics.getActiveThreads(), 1);
+        assertEquals(metrics.getQueueCapacity(), 1);
+        assertEquals(metrics.getQueuedTasks(), 1);
+        assertEquals(metrics.getRejectedTasks(), 1);
+    }
+
+    @Test
+    public void shouldRecordQueueAndRunTimeOfTasks() throws Exception {
+        release.countDown();
+        final CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(done::countDown);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; executor.getCompletedTaskCount() < 3 && i < 50; i++) {
+            Thread.sleep(100);
+        }
+
+        final ExecutorMetricsDto metrics = executor.getMetrics();
+        assertEquals(metrics.getCompletedTasks(), 3);
+        assertEquals(metrics.getQueueTimeHistogram().size(), InstrumentedExecutor.BUCKETS_MS.length + 1);
+        assertEquals(sum(metrics.getQueueTimeHistogram().values()), 3);
+        assertEquals(sum(metrics.getRunTimeHistogram().values()), 3);
+        assertEquals(metrics.getRunTimeHistogram().get("10").longValue(), 3);
+    }
+
+    @Test(expectedExceptions = RejectedExecutionException.class)
+    public void shouldRejectTaskWithoutQueueWhenThreadIsBusy() throws Exception {
+        executor = new InstrumentedExecutor("test", 1, 0);
+        final CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        executor.execute(this::awaitRelease);
+    }
+
+    @Test
+    public void shouldNotRejectTasksWhenNumberOfThreadsIsNotLimited() throws Exception {
+        executor = new InstrumentedExecutor("test", 0, 0);
+        final CountDownLatch started = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                awaitRelease();
+            });
+        }
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(executor.getMetrics().getMaxThreads(), 0);
+        assertEquals(executor.getMetrics().getRejectedTasks(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldNotCreateExecutorWithQueueWhenNumberOfThreadsIsNotLimited() throws Exception {
+        new InstrumentedExecutor("test", 0, 1);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long sum(Iterable<Long> values) {
+        long sum = 0;
+        for (Long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
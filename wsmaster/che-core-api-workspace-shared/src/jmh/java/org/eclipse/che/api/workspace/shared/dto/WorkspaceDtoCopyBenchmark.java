@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.workspace.shared.dto;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.api.machine.shared.dto.CommandDto;
+import org.eclipse.che.api.machine.shared.dto.LimitsDto;
+import org.eclipse.che.api.machine.shared.dto.MachineConfigDto;
+import org.eclipse.che.api.machine.shared.dto.MachineSourceDto;
+import org.eclipse.che.api.machine.shared.dto.ServerConfDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonElements;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.RUNNING;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+/**
+ * Compares copying and serialization of workspace DTOs by the generated copy constructors
+ * and {@link JsonElements} with the JSON string round trip which was used before.
+ *
+ * <p>Run with {@code mvn -Pjmh test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class WorkspaceDtoCopyBenchmark {
+
+    /** Number of projects, commands and machines of the workspace. */
+    @Param({"1", "10", "50"})
+    private int size;
+
+    private WorkspaceDto workspace;
+    private String       workspaceJson;
+    private JsonElement  workspaceJsonElement;
+
+    @Setup
+    public void setUp() {
+        workspace = createWorkspace(size);
+        workspaceJson = DtoFactory.getInstance().toJson(workspace);
+        workspaceJsonElement = DtoFactory.getInstance().toJsonElement(workspace);
+    }
+
+    @Benchmark
+    public WorkspaceDto cloneWithCopyConstructors() {
+        return DtoFactory.getInstance().clone(workspace);
+    }
+
+    @Benchmark
+    public WorkspaceDto cloneWithJsonRoundTrip() {
+        return DtoFactory.getInstance().createDtoFromJson(DtoFactory.getInstance().toJson(workspace), WorkspaceDto.class);
+    }
+
+    @Benchmark
+    public JsonElement copyJsonWithJsonElements() {
+        return JsonElements.deepCopy(workspaceJsonElement);
+    }
+
+    @Benchmark
+    public JsonElement copyJsonWithStringRoundTrip() {
+        return new JsonParser().parse(workspaceJsonElement.toString());
+    }
+
+    @Benchmark
+    public String serializeToJson() {
+        return DtoFactory.getInstance().toJson(workspace);
+    }
+
+    @Benchmark
+    public WorkspaceDto deserializeFromJson() {
+        return DtoFactory.getInstance().createDtoFromJson(workspaceJson, WorkspaceDto.class);
+    }
+
+    private static WorkspaceDto createWorkspace(int size) {
+        final List<ProjectConfigDto> projects = new ArrayList<>(size);
+        final List<CommandDto> commands = new ArrayList<>(size);
+        final List<MachineConfigDto> machines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            projects.add(newDto(ProjectConfigDto.class).withName("project" + i)
+                                                      .withPath("/project" + i)
+                                                      .withType("maven")
+                                                      .withMixins(asList("git", "pullrequest"))
+                                                      .withAttributes(mapOf("language", singletonList("java"),
+                                                                            "maven.artifactId", singletonList("project" + i),
+                                                                            "maven.version", singletonList("1.0-SNAPSHOT")))
+                                                      .withSource(newDto(SourceStorageDto.class)
+                                                                          .withType("git")
+                                                                          .withLocation("https://github.com/che-samples/project" + i + ".git")
+                                                                          .withParameters(mapOf("branch", "master")))
+                                                      .withLinks(singletonList(link("get project", "/project/project" + i))));
+            commands.add(newDto(CommandDto.class).withName("build" + i)
+                                                 .withType("mvn")
+                                                 .withCommandLine("mvn clean install -f ${current.project.path}/project" + i)
+                                                 .withAttributes(mapOf("previewUrl", "http://localhost:8080/project" + i)));
+            machines.add(newDto(MachineConfigDto.class).withName("machine" + i)
+                                                       .withDev(i == 0)
+                                                       .withType("docker")
+                                                       .withSource(newDto(MachineSourceDto.class)
+                                                                           .withType("dockerfile")
+                                                                           .withLocation("http://localhost:8080/api/recipe/recipe" + i + "/script"))
+                                                       .withLimits(newDto(LimitsDto.class).withRam(2048))
+                                                       .withServers(asList(newDto(ServerConfDto.class).withRef("tomcat")
+                                                                                                      .withPort("8080/tcp")
+                                                                                                      .withProtocol("http"),
+                                                                           newDto(ServerConfDto.class).withRef("debug")
+                                                                                                      .withPort("8000/tcp")
+                                                                                                      .withProtocol("http")))
+                                                       .withEnvVariables(mapOf("JAVA_OPTS", "-Xmx1g",
+                                                                               "MAVEN_OPTS", "-Xmx512m")));
+        }
+        final WorkspaceConfigDto config = newDto(WorkspaceConfigDto.class).withName("workspace")
+                                                                          .withDescription("workspace with java projects")
+                                                                          .withDefaultEnv("default")
+                                                                          .withProjects(projects)
+                                                                          .withCommands(commands)
+                                                                          .withEnvironments(singletonList(newDto(EnvironmentDto.class)
+                                                                                                                  .withName("default")
+                                                                                                                  .withMachineConfigs(machines)));
+        return newDto(WorkspaceDto.class).withId("workspace123")
+                                         .withNamespace("user123")
+                                         .withStatus(RUNNING)
+                                         .withConfig(config)
+                                         .withAttributes(mapOf("created", "1472041545000", "stackId", "java-default"))
+                                         .withLinks(asList(link("self link", "/workspace/workspace123"),
+                                                           link("start workspace", "/workspace/workspace123/runtime"),
+                                                           link("get workspace events channel", "/ws/workspace123")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Map<String, V> mapOf(Object... keysAndValues) {
+        final Map<String, V> map = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String)keysAndValues[i], (V)keysAndValues[i + 1]);
+        }
+        return map;
+    }
+
+    private static Link link(String rel, String href) {
+        return newDto(Link.class).withRel(rel).withHref("http://localhost:8080/api" + href).withMethod("GET");
+    }
+}
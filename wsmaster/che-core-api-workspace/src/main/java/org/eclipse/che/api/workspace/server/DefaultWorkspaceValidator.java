@@ -13,6 +13,7 @@ package org.eclipse.che.api.workspace.server;
 import com.google.common.base.Joiner;
 
 import org.eclipse.che.api.core.BadRequestException;
+import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.model.machine.Command;
 import org.eclipse.che.api.core.model.machine.MachineConfig;
 import org.eclipse.che.api.core.model.machine.ServerConf;
@@ -120,6 +121,15 @@ public class DefaultWorkspaceValidator implements WorkspaceValidator {
         for (MachineConfig machineCfg : environment.getMachineConfigs()) {
             validateMachine(machineCfg, envName);
         }
+
+        // machines dependencies must refer to machines of the same environment and must not be cyclic
+        try {
+            new MachineStartGraph<>(environment.getMachineConfigs());
+        } catch (ConflictException x) {
+            throw new BadRequestException(format("Environment '%s' contains machines with invalid dependencies. %s",
+                                                 envName,
+                                                 x.getLocalizedMessage()));
+        }
     }
 
     private void validateMachine(MachineConfig machineCfg, String envName) throws BadRequestException {
@@ -158,6 +168,11 @@ public class DefaultWorkspaceValidator implements WorkspaceValidator {
                           machineCfg.getName(),
                           serverConf.getProtocol());
         }
+        for (String dependency : machineCfg.getDependsOn()) {
+            checkArgument(!isNullOrEmpty(dependency),
+                          "Machine %s contains dependency with null or empty name",
+                          machineCfg.getName());
+        }
         for (Map.Entry<String, String> envVariable : machineCfg.getEnvVariables().entrySet()) {
             checkArgument(!isNullOrEmpty(envVariable.getKey()), "Machine %s contains environment variable with null or empty name");
             checkNotNull(envVariable.getValue(), "Machine %s contains environment variable with null value");
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.workspace.server;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.model.machine.MachineConfig;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Defines the order of machines start in the environment.
+ *
+ * <p>Machine declares names of machines it depends on with {@link MachineConfig#getDependsOn()}.
+ * Machine is started only after all its dependencies are started,
+ * machines which don't depend on each other may be started at the same time. Dev-machine is started before
+ * other ready machines, so it is started first when another machine depends on it.
+ *
+ * <p>The graph is not thread-safe, it is used by the thread which starts the environment.
+ *
+ * @param <T>
+ *         type of machine configs
+ * @see WorkspaceRuntimes#start(org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl, String, boolean)
+ * @see DefaultWorkspaceValidator
+ */
+class MachineStartGraph<T extends MachineConfig> {
+
+    /** Nodes in the order of declaration with dev-machine first. */
+    private final Map<String, Node<T>> nodes;
+    private final Deque<Node<T>>       ready;
+
+    private int notFinished;
+
+    /**
+     * Creates graph of the given machine configs.
+     *
+     * @throws ConflictException
+     *         when machine depends on machine which doesn't exist in the environment
+     *         or when dependencies are cyclic
+     */
+    MachineStartGraph(List<? extends T> configs) throws ConflictException {
+        nodes = new LinkedHashMap<>();
+        configs.stream().filter(MachineConfig::isDev).forEach(cfg -> nodes.put(cfg.getName(), new Node<>(cfg)));
+        configs.stream().filter(cfg -> !cfg.isDev()).forEach(cfg -> nodes.put(cfg.getName(), new Node<>(cfg)));
+        for (Node<T> node : nodes.values()) {
+            for (String dependencyName : node.config.getDependsOn()) {
+                final Node<T> dependency = nodes.get(dependencyName);
+                if (dependency == null) {
+                    throw new ConflictException(format("Machine '%s' depends on machine '%s' which doesn't exist",
+                                                       node.config.getName(),
+                                                       dependencyName));
+                }
+                if (dependency == node) {
+                    throw new ConflictException(format("Machine '%s' depends on itself", node.config.getName()));
+                }
+                if (dependency.dependents.add(node)) {
+                    node.notStartedDependencies++;
+                }
+            }
+        }
+        ready = new ArrayDeque<>();
+        for (Node<T> node : nodes.values()) {
+            if (node.notStartedDependencies == 0) {
+                ready.add(node);
+            }
+        }
+        notFinished = nodes.size();
+        checkAcyclic();
+    }
+
+    /**
+     * Takes machines which may be started now.
+     *
+     * @param limit
+     *         max number of machines to take
+     * @return configs of machines which dependencies are started, dev-machine goes first
+     */
+    List<T> pollReady(int limit) {
+        final List<T> configs = new ArrayList<>(Math.min(limit, ready.size()));
+        while (configs.size() < limit && !ready.isEmpty()) {
+            configs.add(ready.poll().config);
+        }
+        return configs;
+    }
+
+    /** Marks machine as started, so machines which depend on it may be started too. */
+    void started(T config) {
+        final Node<T> node = nodes.get(config.getName());
+        notFinished--;
+        for (Node<T> dependent : node.dependents) {
+            if (--dependent.notStartedDependencies == 0) {
+                ready.add(dependent);
+            }
+        }
+    }
+
+    /**
+     * Marks machine as failed to start, machines which depend on it directly
+     * or transitively won't be started.
+     *
+     * @return configs of machines which won't be started because of this failure
+     */
+    List<T> failed(T config) {
+        notFinished--;
+        final List<T> skipped = new ArrayList<>();
+        final Deque<Node<T>> toSkip = new ArrayDeque<>(nodes.get(config.getName()).dependents);
+        while (!toSkip.isEmpty()) {
+            final Node<T> node = toSkip.poll();
+            if (!node.skipped) {
+                node.skipped = true;
+                notFinished--;
+                skipped.add(node.config);
+                toSkip.addAll(node.dependents);
+            }
+        }
+        return skipped;
+    }
+
+    /** Returns true if there are machines which are neither started nor failed. */
+    boolean hasNotFinished() {
+        return notFinished > 0;
+    }
+
+    /** Kahn's algorithm over a copy of the counters, every node must be reachable from nodes without dependencies. */
+    private void checkAcyclic() throws ConflictException {
+        final Map<Node<T>, Integer> counters = new HashMap<>();
+        nodes.values().forEach(node -> counters.put(node, node.notStartedDependencies));
+        final Deque<Node<T>> queue = new ArrayDeque<>(ready);
+        int visited = 0;
+        while (!queue.isEmpty()) {
+            final Node<T> node = queue.poll();
+            visited++;
+            for (Node<T> dependent : node.dependents) {
+                if (counters.merge(dependent, -1, Integer::sum) == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        if (visited != nodes.size()) {
+            final List<String> cyclic = new ArrayList<>();
+            counters.forEach((node, counter) -> {
+                if (counter > 0) {
+                    cyclic.add(node.config.getName());
+                }
+            });
+            Collections.sort(cyclic);
+            throw new ConflictException("Machines " + cyclic + " have cyclic dependencies");
+        }
+    }
+
+    private static class Node<T> {
+        final T            config;
+        final Set<Node<T>> dependents;
+
+        int     notStartedDependencies;
+        boolean skipped;
+
+        Node(T config) {
+            this.config = config;
+            this.dependents = new LinkedHashSet<>();
+        }
+    }
+}
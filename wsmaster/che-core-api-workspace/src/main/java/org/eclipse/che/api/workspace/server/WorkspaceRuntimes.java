@@ -12,6 +12,9 @@ package org.eclipse.che.api.workspace.server;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Inject;
 
 import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ConflictException;
@@ -34,20 +37,29 @@ import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
 import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
 import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent.EventType;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.function.Predicate;
 
@@ -77,6 +89,9 @@ import static org.eclipse.che.dto.server.DtoFactory.newDto;
 @Singleton
 public class WorkspaceRuntimes {
 
+    /** Max number of machines of the same environment which are started at the same time. */
+    public static final String MAX_PARALLEL_MACHINE_STARTS = "workspace.runtime.max_parallel_machine_starts";
+
     private static final Logger                 LOG     = LoggerFactory.getLogger(WorkspaceRuntimes.class);
     // 16 - experimental value for stripes count, it comes from default hash map size
     private static final Striped<ReadWriteLock> STRIPED = Striped.readWriteLock(16);
@@ -90,9 +105,15 @@ public class WorkspaceRuntimes {
     private final EventService                        eventService;
     private final EventSubscriber<MachineStatusEvent> addMachineEventSubscriber;
     private final EventSubscriber<MachineStatusEvent> removeMachineEventSubscriber;
+    private final ExecutorService                     machineStartExecutor;
 
     private volatile boolean isPreDestroyInvoked;
 
+    // Machines are started one by one unless the limit is configured
+    @Inject(optional = true)
+    @Named(MAX_PARALLEL_MACHINE_STARTS)
+    private int maxParallelMachineStarts = 1;
+
     @Inject
     public WorkspaceRuntimes(MachineManager machineManager, EventService eventService) {
         this.machineManager = machineManager;
@@ -101,6 +122,15 @@ public class WorkspaceRuntimes {
         this.startQueues = new HashMap<>();
         this.addMachineEventSubscriber = new AddMachineEventSubscriber();
         this.removeMachineEventSubscriber = new RemoveMachineEventSubscriber();
+        this.machineStartExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("WorkspaceRuntimes-MachineStart-%d")
+                                                                                            .setDaemon(true)
+                                                                                            .build());
+    }
+
+    @VisibleForTesting
+    WorkspaceRuntimes(MachineManager machineManager, EventService eventService, int maxParallelMachineStarts) {
+        this(machineManager, eventService);
+        this.maxParallelMachineStarts = maxParallelMachineStarts;
     }
 
     /**
@@ -136,10 +166,14 @@ public class WorkspaceRuntimes {
      * Starts all machines from specified workspace environment,
      * creates workspace runtime instance based on that environment.
      *
-     * <p>Dev-machine always starts before the other machines.
+     * <p>Machines are started in the order defined by their dependencies,
+     * see {@link MachineStartGraph}. Machines which don't depend on each other
+     * are started at the same time, but no more than {@link #MAX_PARALLEL_MACHINE_STARTS}
+     * at once, dev-machine is preferred over the other ready machines.
      * If dev-machine start failed then method will throw appropriate
-     * {@link ServerException}. During the start of the workspace its
-     * runtime is visible with {@link WorkspaceStatus#STARTING} status.
+     * {@link ServerException}, machines started at the same time are destroyed.
+     * During the start of the workspace its runtime is visible with
+     * {@link WorkspaceStatus#STARTING} status until dev-machine is started.
      *
      * <p>If {@link #stop} method executed after dev machine is started but
      * another machines haven't been started yet then {@link ConflictException}
@@ -156,6 +190,8 @@ public class WorkspaceRuntimes {
      *         whether machines should be recovered(true) or not(false)
      * @return the workspace runtime instance with machines set.
      * @throws ConflictException
+     *         when machines dependencies are not valid
+     * @throws ConflictException
      *         when workspace is already running
      * @throws ConflictException
      *         when start is interrupted
@@ -184,6 +220,7 @@ public class WorkspaceRuntimes {
         // in this way machine configs also copied from incoming values
         // which means that original values won't affect the values in starting queue
         final EnvironmentImpl environmentCopy = new EnvironmentImpl(environmentOpt.get());
+        final MachineStartGraph<MachineConfigImpl> startGraph = new MachineStartGraph<>(environmentCopy.getMachineConfigs());
 
         // This check allows to exit with an appropriate exception before blocking on lock.
         // The double check is required as it is still possible to get unlucky timing
@@ -213,7 +250,7 @@ public class WorkspaceRuntimes {
             releaseWriteLock(workspace.getId());
         }
 
-        startQueue(workspace.getId(), environmentCopy.getName(), recover);
+        startQueue(workspace.getId(), environmentCopy.getName(), startGraph, recover);
 
         return get(workspace.getId());
     }
@@ -353,6 +390,8 @@ public class WorkspaceRuntimes {
             STRIPED.getAt(i).writeLock().lock();
         }
 
+        machineStartExecutor.shutdown();
+
         // clean up
         descriptors.clear();
         startQueues.clear();
@@ -437,82 +476,147 @@ public class WorkspaceRuntimes {
 
     private void startQueue(String workspaceId,
                             String envName,
+                            MachineStartGraph<MachineConfigImpl> startGraph,
                             boolean recover) throws ServerException,
                                                     NotFoundException,
                                                     ConflictException {
         publishEvent(EventType.STARTING, workspaceId, null);
 
-        // Starting all the machines one by one by getting configs
-        // from the corresponding starting queue.
-        // Config will be null only if there are no machines left in the queue
-        MachineConfigImpl config = queuePeekOrFail(workspaceId);
-        while (config != null) {
-
-            // According to WorkspaceStatus specification the workspace start
-            // is failed when dev-machine start is failed, so if any error
-            // occurs during machine creation and the machine is dev-machine
-            // then start fail is reported and start resources such as queue
-            // and descriptor must be cleaned up
-            MachineImpl machine = null;
-            try {
-                machine = startMachine(config, workspaceId, envName, recover);
-            } catch (RuntimeException | ServerException | ConflictException | NotFoundException x) {
-                if (config.isDev()) {
-                    publishEvent(EventType.ERROR, workspaceId, x.getLocalizedMessage());
-                    cleanupStartResources(workspaceId);
-                    throw x;
+        // Starting the machines whose dependencies are started, results are
+        // handled by this thread one by one in the order machines are started.
+        // Queue contains the configs of machines which are not started yet,
+        // if queue doesn't exist then workspace was stopped
+        final CompletionService<MachineStartResult> startService = new ExecutorCompletionService<>(machineStartExecutor);
+        final List<MachineImpl> startedMachines = new ArrayList<>();
+        final int maxParallelStarts = Math.max(1, maxParallelMachineStarts);
+        int starting = 0;
+        Exception devMachineError = null;
+        boolean interrupted = false;
+        try {
+            while (startGraph.hasNotFinished() || starting > 0) {
+                if (devMachineError == null && !interrupted) {
+                    for (MachineConfigImpl config : startGraph.pollReady(maxParallelStarts - starting)) {
+                        startService.submit(ThreadLocalPropagateContext.wrap(() -> startMachineTimed(config,
+                                                                                                     workspaceId,
+                                                                                                     envName,
+                                                                                                     recover)));
+                        starting++;
+                    }
+                }
+                if (starting == 0) {
+                    // nothing to wait for, the rest of machines won't be started
+                    break;
+                }
+                final Future<MachineStartResult> completed = takeCompleted(startService, workspaceId);
+                starting--;
+                final MachineStartResult result = getStartResult(completed);
+                final MachineConfigImpl config = result.config;
+                final MachineImpl machine = result.machine;
+
+                // According to WorkspaceStatus specification the workspace start
+                // is failed when dev-machine start is failed, so if any error
+                // occurs during machine creation and the machine is dev-machine
+                // then start fail is reported and start resources such as queue
+                // and descriptor must be cleaned up after all the machines
+                // which are currently starting are started and destroyed
+                if (result.error != null) {
+                    if (config.isDev()) {
+                        devMachineError = result.error;
+                    } else {
+                        LOG.error(format("Error while creating non-dev machine '%s' in workspace '%s', environment '%s'",
+                                         config.getName(),
+                                         workspaceId,
+                                         envName),
+                                  result.error);
+                    }
+                    for (MachineConfigImpl skipped : startGraph.failed(config)) {
+                        LOG.error("Machine '{}' in workspace '{}', environment '{}' won't be started " +
+                                  "because machine '{}' it depends on failed",
+                                  skipped.getName(),
+                                  workspaceId,
+                                  envName,
+                                  config.getName());
+                        removeFromQueue(workspaceId, skipped);
+                    }
+                } else {
+                    startGraph.started(config);
+                    LOG.info("Machine '{}' in workspace '{}', environment '{}' started in {} ms",
+                             config.getName(),
+                             workspaceId,
+                             envName,
+                             result.startTimeMs);
                 }
-                LOG.error(format("Error while creating non-dev machine '%s' in workspace '%s', environment '%s'",
-                                 config.getName(),
-                                 workspaceId,
-                                 envName),
-                          x);
-            }
 
-            // Machine destroying is an expensive operation which must be
-            // performed outside of the lock, this section checks if
-            // the workspace wasn't stopped while it is starting and sets
-            // polled flag to true if the workspace wasn't stopped plus
-            // polls the proceeded machine configuration from the queue
-            boolean queuePolled = false;
-            acquireWriteLock(workspaceId);
-            try {
-                ensurePreDestroyIsNotExecuted();
-                final Queue<MachineConfigImpl> queue = startQueues.get(workspaceId);
-                if (queue != null) {
-                    queue.poll();
-                    queuePolled = true;
-                    if (machine != null) {
-                        final RuntimeDescriptor descriptor = descriptors.get(workspaceId);
-                        if (config.isDev()) {
-                            descriptor.getRuntime().setDevMachine(machine);
-                            descriptor.setRuntimeStatus(WorkspaceStatus.RUNNING);
+                // Machine destroying is an expensive operation which must be
+                // performed outside of the lock, this section checks if
+                // the workspace wasn't stopped while it is starting and sets
+                // polled flag to true if the workspace wasn't stopped plus
+                // removes the proceeded machine configuration from the queue
+                boolean queuePolled = false;
+                boolean devMachineStarted = false;
+                acquireWriteLock(workspaceId);
+                try {
+                    ensurePreDestroyIsNotExecuted();
+                    final Queue<MachineConfigImpl> queue = startQueues.get(workspaceId);
+                    if (queue != null && !interrupted) {
+                        queue.remove(config);
+                        queuePolled = true;
+                        if (machine != null && devMachineError == null) {
+                            final RuntimeDescriptor descriptor = descriptors.get(workspaceId);
+                            if (config.isDev()) {
+                                descriptor.getRuntime().setDevMachine(machine);
+                                descriptor.setRuntimeStatus(WorkspaceStatus.RUNNING);
+                                devMachineStarted = true;
+                            }
+                            descriptor.getRuntime().getMachines().add(machine);
+                            descriptor.machinesStartTime.put(config.getName(), result.startTimeMs);
                         }
-                        descriptor.getRuntime().getMachines().add(machine);
                     }
+                } finally {
+                    releaseWriteLock(workspaceId);
                 }
-            } finally {
-                releaseWriteLock(workspaceId);
-            }
 
-            // Event publication should be performed outside of the lock
-            // as it may take some time to notify subscribers
-            if (machine != null && config.isDev()) {
-                publishEvent(EventType.RUNNING, workspaceId, null);
-            }
+                // Event publication should be performed outside of the lock
+                // as it may take some time to notify subscribers
+                if (devMachineStarted) {
+                    publishEvent(EventType.RUNNING, workspaceId, null);
+                }
 
-            // If machine config is not polled from the queue
-            // then workspace was stopped and newly created machine
-            // must be destroyed(if such exists)
-            if (!queuePolled) {
                 if (machine != null) {
-                    machineManager.destroy(machine.getId(), false);
+                    if (devMachineError != null || !queuePolled) {
+                        // Machine is not needed as workspace start is failed or interrupted
+                        destroyMachineQuietly(machine, workspaceId);
+                    } else {
+                        startedMachines.add(machine);
+                    }
+                }
+
+                // If machine config is not polled from the queue
+                // then workspace was stopped, newly created machine is
+                // destroyed and the rest of machines won't be started
+                if (!queuePolled) {
+                    interrupted = true;
                 }
-                throw new ConflictException(format("Workspace '%s' start interrupted. Workspace stopped before all its machines started",
-                                                   workspaceId));
             }
+        } finally {
+            // all the starts are handled by the loop unless it is aborted by an error,
+            // machines which are still starting in this case are not needed anymore
+            destroyStartingMachines(startService, starting, workspaceId);
+        }
 
-            config = queuePeekOrFail(workspaceId);
+        if (devMachineError != null) {
+            // Machines which have been started at the same time as dev-machine
+            // are not needed anymore as workspace start is failed
+            for (MachineImpl machine : startedMachines) {
+                destroyMachineQuietly(machine, workspaceId);
+            }
+            publishEvent(EventType.ERROR, workspaceId, devMachineError.getLocalizedMessage());
+            cleanupStartResources(workspaceId);
+            rethrowStartError(devMachineError);
+        }
+        if (interrupted) {
+            throw new ConflictException(format("Workspace '%s' start interrupted. Workspace stopped before all its machines started",
+                                               workspaceId));
         }
 
         // All the machines tried to start which means that queue
@@ -535,36 +639,98 @@ public class WorkspaceRuntimes {
     }
 
     /**
-     * Gets head config from the queue associated with the given {@code workspaceId}.
-     *
-     * <p>Note that this method won't actually poll the queue.
-     *
-     * <p>Fails if workspace start was interrupted by stop(queue doesn't exist).
-     *
-     * @return machine config which is in the queue head, or null
-     * if there are no machine configs left
-     * @throws ConflictException
-     *         when queue doesn't exist which means that {@link #stop(String)} executed
-     *         before all the machines started
-     * @throws ServerException
-     *         only if pre destroy has been invoked before peek config retrieved
+     * Waits for machines which are still starting and destroys them. Interruption doesn't stop waiting,
+     * so no machine is left running after start of workspace is aborted, interrupted status is restored.
      */
-    private MachineConfigImpl queuePeekOrFail(String workspaceId) throws ConflictException, ServerException {
-        acquireReadLock(workspaceId);
+    private void destroyStartingMachines(CompletionService<MachineStartResult> startService, int starting, String workspaceId) {
+        boolean interrupted = false;
+        while (starting > 0) {
+            final Future<MachineStartResult> completed;
+            try {
+                completed = startService.take();
+            } catch (InterruptedException x) {
+                interrupted = true;
+                continue;
+            }
+            starting--;
+            try {
+                final MachineStartResult result = getStartResult(completed);
+                if (result.machine != null) {
+                    destroyMachineQuietly(result.machine, workspaceId);
+                }
+            } catch (ServerException x) {
+                LOG.error(x.getLocalizedMessage(), x);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void destroyMachineQuietly(MachineImpl machine, String workspaceId) {
+        try {
+            machineManager.destroy(machine.getId(), false);
+        } catch (RuntimeException | NotFoundException | MachineException x) {
+            LOG.error(format("Could not destroy machine '%s' of workspace '%s'", machine.getId(), workspaceId), x);
+        }
+    }
+
+    /** Removes config of machine which won't be started from the start queue. */
+    private void removeFromQueue(String workspaceId, MachineConfigImpl config) {
+        acquireWriteLock(workspaceId);
         try {
-            ensurePreDestroyIsNotExecuted();
             final Queue<MachineConfigImpl> queue = startQueues.get(workspaceId);
-            if (queue == null) {
-                throw new ConflictException(
-                        format("Workspace '%s' start interrupted. Workspace was stopped before all its machines were started",
-                               workspaceId));
+            if (queue != null) {
+                queue.remove(config);
             }
-            return queue.peek();
         } finally {
-            releaseReadLock(workspaceId);
+            releaseWriteLock(workspaceId);
+        }
+    }
+
+    private Future<MachineStartResult> takeCompleted(CompletionService<MachineStartResult> startService,
+                                                     String workspaceId) throws ServerException {
+        try {
+            return startService.take();
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+            throw new ServerException(format("Start of workspace '%s' is interrupted", workspaceId));
         }
     }
 
+    /** Gets result of completed start task, the task catches all the exceptions, so it never fails. */
+    private static MachineStartResult getStartResult(Future<MachineStartResult> completed) throws ServerException {
+        try {
+            return Uninterruptibles.getUninterruptibly(completed);
+        } catch (ExecutionException x) {
+            throw new ServerException(x.getCause().getLocalizedMessage(), x.getCause());
+        }
+    }
+
+    /** Starts machine and measures time of its start, the task never throws exception, start error is the part of result. */
+    private MachineStartResult startMachineTimed(MachineConfigImpl config, String workspaceId, String envName, boolean recover) {
+        final long startTime = System.currentTimeMillis();
+        try {
+            final MachineImpl machine = startMachine(config, workspaceId, envName, recover);
+            return new MachineStartResult(config, machine, null, System.currentTimeMillis() - startTime);
+        } catch (RuntimeException | ServerException | ConflictException | NotFoundException x) {
+            return new MachineStartResult(config, null, x, System.currentTimeMillis() - startTime);
+        }
+    }
+
+    private static void rethrowStartError(Exception x) throws ServerException, ConflictException, NotFoundException {
+        if (x instanceof ServerException) {
+            throw (ServerException)x;
+        }
+        if (x instanceof ConflictException) {
+            throw (ConflictException)x;
+        }
+        if (x instanceof NotFoundException) {
+            throw (NotFoundException)x;
+        }
+        throw (RuntimeException)x;
+    }
+
     /**
      * Starts the machine from the configuration, returns null if machine start failed.
      */
@@ -622,16 +788,20 @@ public class WorkspaceRuntimes {
      */
     public static class RuntimeDescriptor {
 
+        private final Map<String, Long> machinesStartTime;
+
         private WorkspaceRuntimeImpl runtime;
         private WorkspaceStatus      status;
 
         private RuntimeDescriptor(WorkspaceRuntimeImpl runtime) {
             this.runtime = runtime;
+            this.machinesStartTime = new LinkedHashMap<>();
         }
 
         private RuntimeDescriptor(RuntimeDescriptor descriptor) {
             this(new WorkspaceRuntimeImpl(descriptor.runtime));
             this.status = descriptor.status;
+            this.machinesStartTime.putAll(descriptor.machinesStartTime);
         }
 
         /** Returns the instance of {@code WorkspaceRuntime} described by this descriptor. */
@@ -648,11 +818,35 @@ public class WorkspaceRuntimes {
             return status;
         }
 
+        /**
+         * Returns the time in milliseconds which took the start of each machine
+         * started with the workspace, machine names are the keys.
+         * Machines are in the order they were started.
+         */
+        public Map<String, Long> getMachinesStartTime() {
+            return machinesStartTime;
+        }
+
         private void setRuntimeStatus(WorkspaceStatus status) {
             this.status = status;
         }
     }
 
+    /** The result of machine start performed by {@link #startMachineTimed}. */
+    private static class MachineStartResult {
+        final MachineConfigImpl config;
+        final MachineImpl       machine;
+        final Exception         error;
+        final long              startTimeMs;
+
+        MachineStartResult(MachineConfigImpl config, MachineImpl machine, Exception error, long startTimeMs) {
+            this.config = config;
+            this.machine = machine;
+            this.error = error;
+            this.startTimeMs = startTimeMs;
+        }
+    }
+
     @VisibleForTesting
     class AddMachineEventSubscriber implements EventSubscriber<MachineStatusEvent> {
         @Override
@@ -710,6 +904,16 @@ public class WorkspaceRuntimes {
                 return false;
             }
 
+            // Non-dev machines may be started by WorkspaceRuntimes at the same time as dev-machine,
+            // if there is config equal to the machine config in the start queue
+            // then the machine will be added later, after WorkspaceRuntimes starts it
+            final Queue<MachineConfigImpl> notStartedConfigs = startQueues.get(workspaceId);
+            if (descriptor.getRuntimeStatus() == WorkspaceStatus.STARTING
+                && notStartedConfigs != null
+                && notStartedConfigs.stream().anyMatch(m -> m.equals(machine.getConfig()))) {
+                return true;
+            }
+
             // When workspace is not running then started machine must be immediately destroyed
             // Example: status == STARTING & machine is non-dev
             if (descriptor.getRuntimeStatus() != WorkspaceStatus.RUNNING) {
@@ -541,6 +541,34 @@ public class DefaultWorkspaceValidatorTest {
         wsValidator.validateConfig(config);
     }
 
+    @Test(expectedExceptions = BadRequestException.class,
+          expectedExceptionsMessageRegExp = "Environment 'dev-env' contains machines with invalid dependencies. " +
+                                            "Machine 'dev-machine' depends on machine 'db' which doesn't exist")
+    public void shouldFailValidationIfMachineDependsOnMissingMachine() throws Exception {
+        final WorkspaceConfigDto config = createConfig();
+        config.getEnvironments()
+              .get(0)
+              .getMachineConfigs()
+              .get(0)
+              .withDependsOn(singletonList("db"));
+
+        wsValidator.validateConfig(config);
+    }
+
+    @Test(expectedExceptions = BadRequestException.class,
+          expectedExceptionsMessageRegExp = "Environment 'dev-env' contains machines with invalid dependencies. " +
+                                            "Machine 'dev-machine' depends on itself")
+    public void shouldFailValidationIfMachineDependsOnItself() throws Exception {
+        final WorkspaceConfigDto config = createConfig();
+        config.getEnvironments()
+              .get(0)
+              .getMachineConfigs()
+              .get(0)
+              .withDependsOn(singletonList("dev-machine"));
+
+        wsValidator.validateConfig(config);
+    }
+
     private static WorkspaceConfigDto createConfig() {
         final WorkspaceConfigDto workspaceConfigDto = newDto(WorkspaceConfigDto.class).withName("ws-name")
                                                                                       .withDefaultEnv("dev-env");
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.workspace.server;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link MachineStartGraph}.
+ */
+public class MachineStartGraphTest {
+
+    @Test
+    public void shouldReturnIndependentMachinesWithDevMachineFirst() throws Exception {
+        final MachineStartGraph<MachineConfigImpl> graph = new MachineStartGraph<>(asList(config("db", false, null),
+                                                                                          config("dev", true, null),
+                                                                                          config("cache", false, null)));
+
+        assertEquals(names(graph.pollReady(10)), asList("dev", "db", "cache"));
+    }
+
+    @Test
+    public void shouldLimitNumberOfReadyMachines() throws Exception {
+        final MachineStartGraph<MachineConfigImpl> graph = new MachineStartGraph<>(asList(config("dev", true, null),
+                                                                                          config("db", false, null),
+                                                                                          config("cache", false, null)));
+
+        assertEquals(names(graph.pollReady(2)), asList("dev", "db"));
+        assertEquals(names(graph.pollReady(2)), asList("cache"));
+        assertTrue(graph.pollReady(2).isEmpty());
+    }
+
+    @Test
+    public void shouldReturnMachineOnlyWhenAllItsDependenciesAreStarted() throws Exception {
+        final MachineConfigImpl dev = config("dev", true, "db,cache");
+        final MachineConfigImpl db = config("db", false, null);
+        final MachineConfigImpl cache = config("cache", false, null);
+        final MachineStartGraph<MachineConfigImpl> graph = new MachineStartGraph<>(asList(dev, db, cache));
+
+        assertEquals(names(graph.pollReady(10)), asList("db", "cache"));
+        graph.started(db);
+        assertTrue(graph.pollReady(10).isEmpty());
+        graph.started(cache);
+        assertEquals(names(graph.pollReady(10)), asList("dev"));
+        graph.started(dev);
+        assertFalse(graph.hasNotFinished());
+    }
+
+    @Test
+    public void shouldSkipMachinesWhichDependOnFailedMachine() throws Exception {
+        final MachineConfigImpl dev = config("dev", true, null);
+        final MachineConfigImpl db = config("db", false, null);
+        final MachineConfigImpl app = config("app", false, "db");
+        final MachineConfigImpl proxy = config("proxy", false, "app,dev");
+        final MachineStartGraph<MachineConfigImpl> graph = new MachineStartGraph<>(asList(dev, db, app, proxy));
+
+        assertEquals(names(graph.pollReady(10)), asList("dev", "db"));
+        graph.started(dev);
+
+        assertEquals(names(graph.failed(db)), asList("app", "proxy"));
+        assertTrue(graph.pollReady(10).isEmpty());
+        assertFalse(graph.hasNotFinished());
+    }
+
+    @Test(expectedExceptions = ConflictException.class,
+          expectedExceptionsMessageRegExp = "Machine 'dev' depends on machine 'db' which doesn't exist")
+    public void shouldFailWhenDependencyDoesNotExist() throws Exception {
+        new MachineStartGraph<>(asList(config("dev", true, "db")));
+    }
+
+    @Test(expectedExceptions = ConflictException.class,
+          expectedExceptionsMessageRegExp = "Machines \\[app, db\\] have cyclic dependencies")
+    public void shouldFailWhenDependenciesAreCyclic() throws Exception {
+        new MachineStartGraph<>(asList(config("dev", true, null),
+                                       config("app", false, "db"),
+                                       config("db", false, "app")));
+    }
+
+    private static List<String> names(List<MachineConfigImpl> configs) {
+        return configs.stream().map(MachineConfigImpl::getName).collect(toList());
+    }
+
+    private static MachineConfigImpl config(String name, boolean isDev, String dependsOn) {
+        return MachineConfigImpl.builder()
+                                .setDev(isDev)
+                                .setName(name)
+                                .setType("docker")
+                                .setDependsOn(dependsOn == null ? emptyList() : asList(dependsOn.split(",")))
+                                .build();
+    }
+}
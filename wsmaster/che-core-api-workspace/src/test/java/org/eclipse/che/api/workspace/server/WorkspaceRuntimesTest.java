@@ -43,6 +43,11 @@ import org.testng.annotations.Test;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
@@ -662,6 +667,41 @@ public class WorkspaceRuntimesTest {
         verify(machineManager).getMachines();
     }
 
+    @Test
+    public void shouldStartIndependentMachinesInParallelAndDependentMachineAfterItsDependency() throws Exception {
+        final MachineConfigImpl devCfg = createConfig(true);
+        final MachineConfigImpl dbCfg = MachineConfigImpl.builder()
+                                                         .fromConfig(devCfg)
+                                                         .setName("db")
+                                                         .setDev(false)
+                                                         .build();
+        final MachineConfigImpl appCfg = MachineConfigImpl.builder()
+                                                          .fromConfig(dbCfg)
+                                                          .setName("app")
+                                                          .setDependsOn(singletonList("db"))
+                                                          .build();
+        final WorkspaceImpl workspace = createWorkspace(asList(appCfg, dbCfg, devCfg));
+        final CountDownLatch independentStarting = new CountDownLatch(2);
+        final List<String> startedMachines = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            final MachineConfig machineCfg = (MachineConfig)invocation.getArguments()[0];
+            if (!machineCfg.getName().equals("app")) {
+                // dev-machine and 'db' must be started at the same time
+                independentStarting.countDown();
+                assertTrue(independentStarting.await(10, TimeUnit.SECONDS));
+            }
+            startedMachines.add(machineCfg.getName());
+            return createMachine(machineCfg);
+        }).when(machineManager).createMachineSync(any(), anyString(), anyString());
+        runtimes = new WorkspaceRuntimes(machineManager, eventService, 4);
+
+        final RuntimeDescriptor descriptor = runtimes.start(workspace, workspace.getConfig().getDefaultEnv());
+
+        assertEquals(descriptor.getRuntime().getMachines().size(), 3);
+        assertEquals(startedMachines.get(2), "app");
+        assertEquals(descriptor.getMachinesStartTime().keySet(), new HashSet<>(asList("dev-machine", "db", "app")));
+    }
+
     @DataProvider(name = "workspaceStatusesExceptOfRunning")
     private Object[][] workspaceStatusesExceptOfRunning() {
         final EnumSet<WorkspaceStatus> events = EnumSet.allOf(WorkspaceStatus.class);
@@ -731,9 +771,13 @@ public class WorkspaceRuntimesTest {
                                                              .setName("non-dev")
                                                              .setDev(false)
                                                              .build();
+        return createWorkspace(asList(nonDevCfg, devCfg));
+    }
+
+    private static WorkspaceImpl createWorkspace(List<MachineConfigImpl> machineConfigs) {
         final EnvironmentImpl environment = new EnvironmentImpl(ENV_NAME,
                                                                 new RecipeImpl(),
-                                                                asList(nonDevCfg, devCfg));
+                                                                machineConfigs);
         final WorkspaceConfigImpl wsConfig = WorkspaceConfigImpl.builder()
                                                                 .setName("test workspace")
                                                                 .setEnvironments(singletonList(environment))
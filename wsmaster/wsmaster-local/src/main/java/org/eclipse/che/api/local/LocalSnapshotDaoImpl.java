@@ -10,16 +10,16 @@
  *******************************************************************************/
 package org.eclipse.che.api.local;
 
-import com.google.common.reflect.TypeToken;
-
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.model.machine.MachineSource;
-import org.eclipse.che.api.local.storage.LocalStorage;
+import org.eclipse.che.api.local.storage.LocalLogStorage;
 import org.eclipse.che.api.local.storage.LocalStorageFactory;
 import org.eclipse.che.api.machine.server.dao.SnapshotDao;
 import org.eclipse.che.api.machine.server.exception.SnapshotException;
 import org.eclipse.che.api.machine.server.model.impl.SnapshotImpl;
 import org.eclipse.che.api.machine.server.model.impl.adapter.MachineSourceAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -39,18 +39,24 @@ import static java.util.stream.Collectors.toList;
 /**
  * In-memory implementation of {@link SnapshotDao}.
  *
+ * <p>Each modification is appended to the log of {@link LocalLogStorage} and synced before the method returns.
+ *
  * @author Yevhenii Voevodin
  */
 @Singleton
 public class LocalSnapshotDaoImpl implements SnapshotDao {
 
-    private final Map<String, SnapshotImpl> snapshots;
-    private final LocalStorage              snapshotStorage;
+    private static final Logger LOG = LoggerFactory.getLogger(LocalSnapshotDaoImpl.class);
+
+    private final Map<String, SnapshotImpl>     snapshots;
+    private final LocalLogStorage<SnapshotImpl> snapshotStorage;
 
     @Inject
     public LocalSnapshotDaoImpl(LocalStorageFactory storageFactory) throws IOException {
         snapshots = new HashMap<>();
-        snapshotStorage = storageFactory.create("snapshots.json", singletonMap(MachineSource.class, new MachineSourceAdapter()));
+        snapshotStorage = storageFactory.createLogStorage("snapshots.json",
+                                                          SnapshotImpl.class,
+                                                          singletonMap(MachineSource.class, new MachineSourceAdapter()));
     }
 
     @Override
@@ -74,13 +80,23 @@ public class LocalSnapshotDaoImpl implements SnapshotDao {
     }
 
     @Override
-    public synchronized void saveSnapshot(SnapshotImpl snapshot) throws SnapshotException {
+    public void saveSnapshot(SnapshotImpl snapshot) throws SnapshotException {
         Objects.requireNonNull(snapshot, "Required non-null snapshot");
-        final Optional<SnapshotImpl> opt = doGetSnapshot(snapshot.getWorkspaceId(), snapshot.getEnvName(), snapshot.getMachineName());
-        if (opt.isPresent()) {
-            snapshots.remove(opt.get().getId());
+        synchronized (this) {
+            final Optional<SnapshotImpl> opt = doGetSnapshot(snapshot.getWorkspaceId(), snapshot.getEnvName(), snapshot.getMachineName());
+            try {
+                if (opt.isPresent()) {
+                    snapshotStorage.remove(opt.get().getId());
+                    snapshots.remove(opt.get().getId());
+                }
+                snapshotStorage.put(snapshot.getId(), snapshot);
+            } catch (IOException x) {
+                throw new SnapshotException(x.getLocalizedMessage(), x);
+            }
+            snapshots.put(snapshot.getId(), snapshot);
+            compactIfNeeded();
         }
-        snapshots.put(snapshot.getId(), snapshot);
+        sync();
     }
 
     @Override
@@ -92,18 +108,51 @@ public class LocalSnapshotDaoImpl implements SnapshotDao {
     }
 
     @Override
-    public synchronized void removeSnapshot(String snapshotId) throws NotFoundException, SnapshotException {
-        snapshots.remove(snapshotId);
+    public void removeSnapshot(String snapshotId) throws NotFoundException, SnapshotException {
+        synchronized (this) {
+            if (!snapshots.containsKey(snapshotId)) {
+                return;
+            }
+            try {
+                snapshotStorage.remove(snapshotId);
+            } catch (IOException x) {
+                throw new SnapshotException(x.getLocalizedMessage(), x);
+            }
+            snapshots.remove(snapshotId);
+            compactIfNeeded();
+        }
+        sync();
     }
 
     @PostConstruct
     public synchronized void loadSnapshots() {
-        snapshots.putAll(snapshotStorage.loadMap(new TypeToken<Map<String, SnapshotImpl>>() {}));
+        snapshots.putAll(snapshotStorage.load());
     }
 
     @PreDestroy
     public synchronized void saveSnapshots() throws IOException {
-        snapshotStorage.store(snapshots);
+        snapshotStorage.compact(snapshots);
+        snapshotStorage.close();
+    }
+
+    private void compactIfNeeded() {
+        if (snapshotStorage.isCompactionNeeded()) {
+            try {
+                snapshotStorage.compact(snapshots);
+            } catch (IOException x) {
+                // modifications are still in the log, compaction will be retried with the next modification
+                LOG.warn("Can't compact snapshots storage. " + x.getLocalizedMessage());
+            }
+        }
+    }
+
+    /** Syncs the log outside of the lock, so concurrent modifications share fsync. */
+    private void sync() throws SnapshotException {
+        try {
+            snapshotStorage.sync();
+        } catch (IOException x) {
+            throw new SnapshotException(x.getLocalizedMessage(), x);
+        }
     }
 
     private Optional<SnapshotImpl> doGetSnapshot(String workspaceId, String envName, String machineName) {
@@ -11,7 +11,6 @@
 package org.eclipse.che.api.local;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.reflect.TypeToken;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -19,11 +18,13 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.Recipe;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
-import org.eclipse.che.api.local.storage.LocalStorage;
+import org.eclipse.che.api.local.storage.LocalLogStorage;
 import org.eclipse.che.api.local.storage.LocalStorageFactory;
 import org.eclipse.che.api.machine.server.recipe.adapters.RecipeTypeAdapter;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.spi.WorkspaceDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -42,8 +43,10 @@ import static java.util.stream.Collectors.toList;
 /**
  * In memory based implementation of {@link WorkspaceDao}.
  *
- * <p>{@link #loadWorkspaces() Loads} & {@link #saveWorkspaces() stores} in memory workspaces
- * to/from filesystem, when component starts/stops.
+ * <p>{@link #loadWorkspaces() Loads} workspaces from filesystem when component starts,
+ * each modification is appended to the log of {@link LocalLogStorage} and synced before
+ * the method returns, so modifications are not lost if the component is not stopped properly.
+ * {@link #saveWorkspaces() Compacts} the log when component stops.
  *
  * @implNote it is thread-safe, guarded by <i>this</i> instance
  *
@@ -54,20 +57,22 @@ import static java.util.stream.Collectors.toList;
 @Singleton
 public class LocalWorkspaceDaoImpl implements WorkspaceDao {
 
-    private final Map<String, WorkspaceImpl> workspaces;
-    private final LocalStorage               localStorage;
+    private static final Logger LOG = LoggerFactory.getLogger(LocalWorkspaceDaoImpl.class);
+
+    private final Map<String, WorkspaceImpl>     workspaces;
+    private final LocalLogStorage<WorkspaceImpl> localStorage;
 
     @Inject
     public LocalWorkspaceDaoImpl(LocalStorageFactory factory) throws IOException {
         final Map<Class<?>, Object> adapters = ImmutableMap.of(Recipe.class, new RecipeTypeAdapter(),
                                                                ProjectConfig.class, new ProjectConfigAdapter());
-        this.localStorage = factory.create("workspaces.json", adapters);
+        this.localStorage = factory.createLogStorage("workspaces.json", WorkspaceImpl.class, adapters);
         this.workspaces = new HashMap<>();
     }
 
     @PostConstruct
     public synchronized void loadWorkspaces() {
-        workspaces.putAll(localStorage.loadMap(new TypeToken<Map<String, WorkspaceImpl>>() {}));
+        workspaces.putAll(localStorage.load());
         for (WorkspaceImpl workspace : workspaces.values()) {
             workspace.setRuntime(null);
         }
@@ -75,40 +80,58 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
 
     @PreDestroy
     public synchronized void saveWorkspaces() throws IOException {
-        localStorage.store(workspaces);
+        localStorage.compact(workspaces);
+        localStorage.close();
     }
 
     @Override
-    public synchronized WorkspaceImpl create(WorkspaceImpl workspace) throws ConflictException, ServerException {
-        if (workspaces.containsKey(workspace.getId())) {
-            throw new ConflictException("Workspace with id " + workspace.getId() + " already exists");
-        }
-        if (find(workspace.getConfig().getName(), workspace.getNamespace()).isPresent()) {
-            throw new ConflictException(format("Workspace with name %s and owner %s already exists",
-                                               workspace.getConfig().getName(),
-                                               workspace.getNamespace()));
+    public WorkspaceImpl create(WorkspaceImpl workspace) throws ConflictException, ServerException {
+        synchronized (this) {
+            if (workspaces.containsKey(workspace.getId())) {
+                throw new ConflictException("Workspace with id " + workspace.getId() + " already exists");
+            }
+            if (find(workspace.getConfig().getName(), workspace.getNamespace()).isPresent()) {
+                throw new ConflictException(format("Workspace with name %s and owner %s already exists",
+                                                   workspace.getConfig().getName(),
+                                                   workspace.getNamespace()));
+            }
+            workspace.setRuntime(null);
+            workspace.setStatus(WorkspaceStatus.STOPPED);
+            doPut(new WorkspaceImpl(workspace));
         }
-        workspace.setRuntime(null);
-        workspace.setStatus(WorkspaceStatus.STOPPED);
-        workspaces.put(workspace.getId(), new WorkspaceImpl(workspace));
+        sync();
         return workspace;
     }
 
     @Override
-    public synchronized WorkspaceImpl update(WorkspaceImpl workspace)
-            throws NotFoundException, ConflictException, ServerException {
-        if (!workspaces.containsKey(workspace.getId())) {
-            throw new NotFoundException("Workspace with id " + workspace.getId() + " was not found");
+    public WorkspaceImpl update(WorkspaceImpl workspace) throws NotFoundException, ConflictException, ServerException {
+        synchronized (this) {
+            if (!workspaces.containsKey(workspace.getId())) {
+                throw new NotFoundException("Workspace with id " + workspace.getId() + " was not found");
+            }
+            workspace.setStatus(null);
+            workspace.setRuntime(null);
+            doPut(new WorkspaceImpl(workspace));
         }
-        workspace.setStatus(null);
-        workspace.setRuntime(null);
-        workspaces.put(workspace.getId(), new WorkspaceImpl(workspace));
+        sync();
         return workspace;
     }
 
     @Override
-    public synchronized void remove(String id) throws ConflictException, ServerException {
-        workspaces.remove(id);
+    public void remove(String id) throws ConflictException, ServerException {
+        synchronized (this) {
+            if (!workspaces.containsKey(id)) {
+                return;
+            }
+            try {
+                localStorage.remove(id);
+            } catch (IOException x) {
+                throw new ServerException(x.getLocalizedMessage(), x);
+            }
+            workspaces.remove(id);
+            compactIfNeeded();
+        }
+        sync();
     }
 
     @Override
@@ -143,6 +166,37 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
         return new ArrayList<>(workspaces.values());
     }
 
+    /** Appends the workspace to the log, then puts it to the memory. Must be called under <i>this</i> lock. */
+    private void doPut(WorkspaceImpl workspace) throws ServerException {
+        try {
+            localStorage.put(workspace.getId(), workspace);
+        } catch (IOException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+        workspaces.put(workspace.getId(), workspace);
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() {
+        if (localStorage.isCompactionNeeded()) {
+            try {
+                localStorage.compact(workspaces);
+            } catch (IOException x) {
+                // modifications are still in the log, compaction will be retried with the next modification
+                LOG.warn("Can't compact workspaces storage. " + x.getLocalizedMessage());
+            }
+        }
+    }
+
+    /** Syncs the log outside of the lock, so concurrent modifications share fsync. */
+    private void sync() throws ServerException {
+        try {
+            localStorage.sync();
+        } catch (IOException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+    }
+
     private Optional<WorkspaceImpl> find(String name, String owner) {
         return workspaces.values()
                          .stream()
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * File system storage of keyed model objects which persists each modification as a small record.
+ *
+ * <p>Storage consists of a snapshot file, which has the same format as the map stored by {@link LocalStorage},
+ * and of an append-only log file with one JSON record per line. Each {@link #put(String, Object) put} and
+ * {@link #remove(String) remove} appends a record to the log, so the cost of a write doesn't depend on the
+ * number of stored objects. {@link #sync()} makes appended records durable, concurrent callers share a
+ * single fsync of the log. When the log grows over the limit, it is {@link #compact(Map) compacted} into
+ * the snapshot. {@link #load()} restores objects by replaying the log over the snapshot, the record which
+ * was not completely written before a crash is ignored. Record which failed to be appended is truncated,
+ * and if the log still ends with an incomplete record then the next record starts on a new line, so the
+ * incomplete record never corrupts the next one.
+ *
+ * <p>Records replace whole objects, so replaying the log over a snapshot that already contains
+ * its changes gives the same result, and a crash during compaction doesn't lose data.
+ *
+ * @param <V>
+ *         type of stored objects
+ */
+public class LocalLogStorage<V> implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalLogStorage.class);
+
+    /** Number of log records after which the log should be compacted into the snapshot. */
+    public static final int DEFAULT_MAX_LOG_RECORDS = 1000;
+
+    private static final String PUT    = "put";
+    private static final String REMOVE = "remove";
+
+    private final File     snapshotFile;
+    private final File     logFile;
+    private final Class<V> valueType;
+    private final Gson     snapshotGson;
+    private final Gson     recordGson;
+    private final int      maxLogRecords;
+    private final Object   syncLock;
+
+    /** Log is opened lazily on the first append. Guarded by {@code this}. */
+    private FileChannel log;
+    /** Number of records appended to the log since the last compaction. Guarded by {@code this}. */
+    private int         logRecords;
+    /** Sequence number of the last appended record. Guarded by {@code this}. */
+    private long        appended;
+    /** Sequence number of the last durable record. Guarded by {@link #syncLock}. */
+    private long        synced;
+    /** Whether the log ends with an incomplete record, so the next record must start on a new line. Guarded by {@code this}. */
+    private boolean     incompleteRecord;
+
+    public LocalLogStorage(String rootDirPath,
+                           String fileName,
+                           Class<V> valueType,
+                           Map<Class<?>, Object> typeAdapters,
+                           int maxLogRecords) throws IOException {
+        final File rootDir = new File(rootDirPath);
+        if (!rootDir.exists() && !rootDir.mkdirs()) {
+            throw new IOException("Impossible to create root folder for local storage");
+        }
+        this.snapshotFile = new File(rootDir, fileName);
+        this.logFile = new File(rootDir, fileName + ".log");
+        this.valueType = valueType;
+        this.maxLogRecords = maxLogRecords;
+        this.syncLock = new Object();
+        final GsonBuilder builder = new GsonBuilder();
+        for (Map.Entry<Class<?>, Object> adapter : typeAdapters.entrySet()) {
+            builder.registerTypeAdapter(adapter.getKey(), adapter.getValue());
+        }
+        this.recordGson = builder.create();
+        this.snapshotGson = builder.setPrettyPrinting().create();
+    }
+
+    /**
+     * Restores objects from the snapshot and the log, then compacts the log.
+     *
+     * @return stored objects by their keys, or empty map if there is nothing stored
+     */
+    public Map<String, V> load() {
+        final Map<String, V> result = new HashMap<>();
+        boolean restored = true;
+        if (snapshotFile.exists()) {
+            try (Reader reader = Files.newBufferedReader(snapshotFile.toPath(), UTF_8)) {
+                final JsonElement snapshot = new JsonParser().parse(reader);
+                if (snapshot.isJsonObject()) {
+                    for (Map.Entry<String, JsonElement> entry : snapshot.getAsJsonObject().entrySet()) {
+                        result.put(entry.getKey(), snapshotGson.fromJson(entry.getValue(), valueType));
+                    }
+                }
+            } catch (JsonParseException e) {
+                LOG.warn(snapshotFile.getName() + " contains invalid JSON content");
+                restored = false;
+            } catch (IOException e) {
+                LOG.warn("Impossible to read from " + snapshotFile.getName());
+                restored = false;
+            }
+        }
+        if (logFile.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(logFile.toPath(), UTF_8)) {
+                replay(reader, result);
+            } catch (IOException e) {
+                LOG.warn("Impossible to read from " + logFile.getName());
+                restored = false;
+            }
+        }
+        if (restored) {
+            try {
+                compact(result);
+            } catch (IOException e) {
+                LOG.warn("Impossible to compact " + logFile.getName() + ". " + e.getLocalizedMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Appends record which puts object with the given key.
+     * Record is not guaranteed to be durable until {@link #sync()} returns.
+     */
+    public void put(String key, V value) throws IOException {
+        final JsonObject record = new JsonObject();
+        record.addProperty("op", PUT);
+        record.addProperty("key", key);
+        record.add("value", recordGson.toJsonTree(value, valueType));
+        append(record);
+    }
+
+    /**
+     * Appends record which removes object with the given key.
+     * Record is not guaranteed to be durable until {@link #sync()} returns.
+     */
+    public void remove(String key) throws IOException {
+        final JsonObject record = new JsonObject();
+        record.addProperty("op", REMOVE);
+        record.addProperty("key", key);
+        append(record);
+    }
+
+    /**
+     * Forces all the appended records to the disk. If another thread is syncing the log,
+     * waits for it and returns without one more fsync when the records are already durable.
+     */
+    public void sync() throws IOException {
+        synchronized (syncLock) {
+            final long target;
+            final FileChannel channel;
+            synchronized (this) {
+                target = appended;
+                channel = log;
+            }
+            if (synced >= target || channel == null) {
+                return;
+            }
+            // records are still appended while the log is forced
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    /** Returns true when the log exceeds its limit and should be {@link #compact(Map) compacted}. */
+    public synchronized boolean isCompactionNeeded() {
+        return logRecords >= maxLogRecords;
+    }
+
+    /**
+     * Writes the given objects as the new snapshot and truncates the log.
+     * Objects must reflect all the records appended to the log.
+     */
+    public void compact(Map<String, V> entries) throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                final File tmp = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+                try (FileChannel channel = FileChannel.open(tmp.toPath(), CREATE, WRITE)) {
+                    channel.truncate(0);
+                    final Writer writer = Channels.newWriter(channel, UTF_8.newEncoder(), -1);
+                    snapshotGson.toJson(entries, writer);
+                    writer.flush();
+                    channel.force(true);
+                }
+                Files.move(tmp.toPath(), snapshotFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+                // rename is durable only when the directory is synced, the log must not be truncated before that
+                syncDirectory(snapshotFile.getParentFile());
+                if (log != null) {
+                    log.truncate(0);
+                    log.force(true);
+                } else if (logFile.exists()) {
+                    Files.delete(logFile.toPath());
+                }
+                incompleteRecord = false;
+                logRecords = 0;
+                synced = appended;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+    }
+
+    private synchronized void append(JsonObject record) throws IOException {
+        if (log == null) {
+            incompleteRecord = endsWithIncompleteRecord();
+            log = FileChannel.open(logFile.toPath(), CREATE, WRITE, APPEND);
+        }
+        final String line = recordGson.toJson(record) + '\n';
+        final ByteBuffer buffer = ByteBuffer.wrap((incompleteRecord ? '\n' + line : line).getBytes(UTF_8));
+        final long offset = log.size();
+        try {
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+        } catch (IOException e) {
+            try {
+                log.truncate(offset);
+            } catch (IOException x) {
+                LOG.error("Impossible to truncate incomplete record of {}. {}", logFile.getName(), x.getLocalizedMessage());
+                incompleteRecord = true;
+            }
+            throw e;
+        }
+        incompleteRecord = false;
+        logRecords++;
+        appended++;
+    }
+
+    /** Checks whether the log which is left after previous run ends with a record that was not completely written. */
+    private boolean endsWithIncompleteRecord() throws IOException {
+        if (!logFile.exists() || logFile.length() == 0) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), READ)) {
+            final ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            return last.get(0) != '\n';
+        }
+    }
+
+    private static void syncDirectory(File dir) {
+        try (FileChannel channel = FileChannel.open(dir.toPath(), READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories can't be opened on some platforms, e.g. Windows, rename is durable there without sync
+            LOG.debug("Impossible to sync directory {}. {}", dir, e.getLocalizedMessage());
+        }
+    }
+
+    private void replay(BufferedReader reader, Map<String, V> result) throws IOException {
+        String line = reader.readLine();
+        int lineNumber = 0;
+        while (line != null) {
+            lineNumber++;
+            final String next = reader.readLine();
+            try {
+                final JsonObject record = new JsonParser().parse(line).getAsJsonObject();
+                final String key = record.get("key").getAsString();
+                if (PUT.equals(record.get("op").getAsString())) {
+                    result.put(key, recordGson.fromJson(record.get("value"), valueType));
+                } else {
+                    result.remove(key);
+                }
+            } catch (RuntimeException e) {
+                if (next == null) {
+                    LOG.warn("The last record of {} is incomplete and ignored", logFile.getName());
+                } else {
+                    LOG.error("Record {} of {} is invalid and ignored", lineNumber, logFile.getName());
+                }
+            }
+            line = next;
+        }
+    }
+}
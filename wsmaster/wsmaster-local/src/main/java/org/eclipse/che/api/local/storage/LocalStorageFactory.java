@@ -56,4 +56,21 @@ public class LocalStorageFactory {
     public LocalStorage create(String fileName, Map<Class<?>, Object> typeAdapters) throws IOException {
         return new LocalStorage(pathToStorage, fileName, typeAdapters);
     }
+
+    /**
+     * @param fileName
+     *         name of snapshot file in local storage, log file has the same name with the '.log' suffix.
+     * @param valueType
+     *         type of stored objects.
+     * @param typeAdapters
+     *         types and object adapters when need a special deserialization.
+     * @return instance of LocalLogStorage.
+     * @throws IOException
+     *         occurs when cannot create root storage directory.
+     */
+    public <V> LocalLogStorage<V> createLogStorage(String fileName,
+                                                   Class<V> valueType,
+                                                   Map<Class<?>, Object> typeAdapters) throws IOException {
+        return new LocalLogStorage<>(pathToStorage, fileName, valueType, typeAdapters, LocalLogStorage.DEFAULT_MAX_LOG_RECORDS);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.api.local.storage.LocalLogStorage;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests {@link LocalLogStorage}.
+ */
+public class LocalLogStorageTest {
+
+    private Path                    storageDir;
+    private LocalLogStorage<String> storage;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        final URL url = Thread.currentThread().getContextClassLoader().getResource(".");
+        assertNotNull(url);
+        storageDir = Paths.get(url.toURI()).getParent().resolve("log_storage");
+        IoUtil.deleteRecursive(storageDir.toFile());
+        storage = createStorage(3);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        storage.close();
+    }
+
+    @Test
+    public void shouldRestoreModificationsFromLogWithoutCompaction() throws Exception {
+        storage.put("key1", "value1");
+        storage.put("key2", "value2");
+        storage.put("key1", "value3");
+        storage.remove("key2");
+        storage.sync();
+
+        final Map<String, String> restored = createStorage(3).load();
+
+        assertEquals(restored, singletonMap("key1", "value3"));
+    }
+
+    @Test
+    public void shouldApplyLogOverSnapshot() throws Exception {
+        Files.write(storageDir.resolve("test.json"), "{\"key1\": \"value1\", \"key2\": \"value2\"}".getBytes(UTF_8));
+        storage.remove("key1");
+        storage.sync();
+
+        final Map<String, String> restored = createStorage(3).load();
+
+        assertEquals(restored, singletonMap("key2", "value2"));
+    }
+
+    @Test
+    public void shouldIgnoreIncompleteLastRecord() throws Exception {
+        storage.put("key1", "value1");
+        storage.sync();
+        Files.write(storageDir.resolve("test.json.log"), "{\"op\":\"put\",\"key\":\"key2\",\"val".getBytes(UTF_8), APPEND);
+
+        final Map<String, String> restored = createStorage(3).load();
+
+        assertEquals(restored, singletonMap("key1", "value1"));
+    }
+
+    @Test
+    public void shouldStartNextRecordOnNewLineAfterIncompleteRecord() throws Exception {
+        storage.put("key1", "value1");
+        storage.sync();
+        storage.close();
+        Files.write(storageDir.resolve("test.json.log"), "{\"op\":\"put\",\"key\":\"key2\",\"val".getBytes(UTF_8), APPEND);
+
+        final LocalLogStorage<String> reopened = createStorage(3);
+        reopened.put("key3", "value3");
+        reopened.sync();
+        reopened.close();
+        final Map<String, String> restored = createStorage(3).load();
+
+        assertEquals(restored, ImmutableMap.of("key1", "value1", "key3", "value3"));
+    }
+
+    @Test
+    public void shouldWriteSnapshotAndTruncateLogOnCompaction() throws Exception {
+        storage.put("key1", "value1");
+        storage.put("key2", "value2");
+        assertFalse(storage.isCompactionNeeded());
+        storage.put("key3", "value3");
+        assertTrue(storage.isCompactionNeeded());
+
+        storage.compact(singletonMap("key1", "value1"));
+
+        assertFalse(storage.isCompactionNeeded());
+        assertEquals(new String(Files.readAllBytes(storageDir.resolve("test.json")), UTF_8), "{\n  \"key1\": \"value1\"\n}");
+        assertEquals(new File(storageDir.toFile(), "test.json.log").length(), 0);
+        assertEquals(createStorage(3).load(), singletonMap("key1", "value1"));
+    }
+
+    @Test
+    public void shouldReturnEmptyMapWhenNothingIsStored() throws Exception {
+        assertEquals(storage.load(), emptyMap());
+    }
+
+    private LocalLogStorage<String> createStorage(int maxLogRecords) throws Exception {
+        return new LocalLogStorage<>(storageDir.toString(), "test.json", String.class, emptyMap(), maxLogRecords);
+    }
+}